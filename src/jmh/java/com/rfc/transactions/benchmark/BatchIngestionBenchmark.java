@@ -0,0 +1,74 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rows per second ingested through the batch endpoint service path against
+ * embedded H2, compared with one createTransaction call per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class BatchIngestionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    private long sequence;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContext.start();
+        operationsService = context.getBean(OperationsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object batch(Rows rows) {
+        rows.rows += batchSize;
+        return operationsService.createTransactions(nextTransactions());
+    }
+
+    @Benchmark
+    public void oneByOne(Rows rows) {
+        rows.rows += batchSize;
+        for (TransactionDto transactionDto : nextTransactions()) {
+            operationsService.createTransaction(transactionDto);
+        }
+    }
+
+    private List<TransactionDto> nextTransactions() {
+        List<TransactionDto> transactionDtoList = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            transactionDtoList.add(new TransactionDto("Bench" + sequence++, "ES10123456789098765432", new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Benchmark"));
+        }
+        return transactionDtoList;
+    }
+}
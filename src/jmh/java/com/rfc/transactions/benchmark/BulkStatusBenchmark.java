@@ -0,0 +1,105 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.TransactionsApplication;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionStatusCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status of {@code references} transactions over HTTP, asked one request per reference and
+ * in a single bulk request. Both benchmarks resolve the same number of references per
+ * operation, so the time per reference is the score divided by it. With a cold cache every
+ * operation starts from an empty status cache and the lookups reach the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class BulkStatusBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    private static final int ACCOUNTS = 100;
+
+    @Param({"10", "100"})
+    private int references;
+
+    @Param({"warm", "cold"})
+    private String cache;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionStatusCache transactionStatusCache;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private String[] chosen;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransactionsApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN").run();
+        ServiceContext.seed(context.getBean(OperationsService.class), ROWS, ACCOUNTS);
+        transactionStatusCache = context.getBean(TransactionStatusCache.class);
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/transactions/status";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        chosen = new String[references];
+    }
+
+    @Setup(Level.Invocation)
+    public void choose() {
+        for (int i = 0; i < references; i++) {
+            chosen[i] = "Seed-" + ThreadLocalRandom.current().nextInt(ROWS);
+        }
+        if ("cold".equals(cache)) {
+            transactionStatusCache.invalidateAll();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int single() throws IOException, InterruptedException {
+        int length = 0;
+        for (String reference : chosen) {
+            length += send(HttpRequest.newBuilder(URI.create(baseUrl + "?reference=" + reference + "&channel=CLIENT")).GET().build());
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int bulk() throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder("{\"channel\":\"CLIENT\",\"references\":[");
+        for (int i = 0; i < chosen.length; i++) {
+            body.append(i == 0 ? "\"" : ",\"").append(chosen[i]).append('"');
+        }
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/bulk")).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append("]}").toString())).build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
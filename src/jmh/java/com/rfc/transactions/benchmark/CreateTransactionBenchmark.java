@@ -0,0 +1,68 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link OperationsService#createTransaction} on embedded H2: a server
+ * generated reference, a new client reference (checked for replays first) and a replay of
+ * a stored reference. Run with -t to see how the account locks scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class CreateTransactionBenchmark {
+
+    @Param({"1", "100"})
+    private int accounts;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContext.start();
+        operationsService = context.getBean(OperationsService.class);
+        ServiceContext.seed(operationsService, 1000, accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionSubmissionDto generatedReference() {
+        return operationsService.createTransaction(nextTransaction(false));
+    }
+
+    @Benchmark
+    public TransactionSubmissionDto clientReference() {
+        return operationsService.createTransaction(nextTransaction(true));
+    }
+
+    @Benchmark
+    public TransactionSubmissionDto replay() {
+        return operationsService.createTransaction(new TransactionDto("Seed-" + (sequence.getAndIncrement() % 1000), ServiceContext.iban(0),
+                new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Benchmark"));
+    }
+
+    private TransactionDto nextTransaction(boolean clientReference) {
+        long next = sequence.getAndIncrement();
+        return new TransactionDto(clientReference ? "Client-" + next : null, ServiceContext.iban((int) (next % accounts)), new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Benchmark");
+    }
+}
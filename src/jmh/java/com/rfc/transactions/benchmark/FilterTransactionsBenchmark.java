@@ -0,0 +1,59 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link OperationsService#getFilterTransactions} for one IBAN, sorted by ammount
+ * and unsorted, at several table sizes with 100 accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilterTransactionsBenchmark {
+
+    private static final int ACCOUNTS = 100;
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContext.start();
+        operationsService = context.getBean(OperationsService.class);
+        ServiceContext.seed(operationsService, rows, ACCOUNTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionDto> byIbanSortedByAmmount() {
+        return operationsService.getFilterTransactions(randomIban(), SortDirectionDto.ASC);
+    }
+
+    @Benchmark
+    public List<TransactionDto> byIbanUnsorted() {
+        return operationsService.getFilterTransactions(randomIban(), null);
+    }
+
+    private String randomIban() {
+        return ServiceContext.iban(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+}
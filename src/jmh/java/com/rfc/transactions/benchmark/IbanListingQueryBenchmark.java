@@ -0,0 +1,72 @@
+package com.rfc.transactions.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the IBAN filtered listing sorted by ammount on a large transactions table,
+ * with and without the (accountIBAN, ammount, id) and date indexes declared on TransactionsEntity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IbanListingQueryBenchmark {
+
+    private static final String LISTING_QUERY = "SELECT id, reference, accountiban, date, ammount, fee, description FROM transactions WHERE accountiban = ? ORDER BY ammount ASC, id ASC";
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"1000", "10000"})
+    private int accounts;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Connection connection;
+
+    private PreparedStatement listingStatement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:listing" + indexed + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE transactions (id INTEGER NOT NULL, accountiban VARCHAR(255), ammount DECIMAL(19,2), date TIMESTAMP, "
+                    + "description VARCHAR(255), fee DECIMAL(19,2), reference VARCHAR(255), PRIMARY KEY (id))");
+            statement.execute("ALTER TABLE transactions ADD CONSTRAINT uk_reference UNIQUE (reference)");
+            statement.execute("INSERT INTO transactions SELECT x, 'ES' || MOD(x, " + accounts + "), RAND() * 1000, DATEADD('DAY', -MOD(x, 365), CURRENT_TIMESTAMP), "
+                    + "'Benchmark', 1, 'Tx' || x FROM SYSTEM_RANGE(1, " + rows + ")");
+            if (indexed) {
+                statement.execute("CREATE INDEX idx_transactions_iban_ammount_id ON transactions (accountiban, ammount, id)");
+                statement.execute("CREATE INDEX idx_transactions_date ON transactions (date)");
+            }
+            statement.execute("ANALYZE");
+        }
+        listingStatement = connection.prepareStatement(LISTING_QUERY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void listByIbanSortedByAmmount(Blackhole blackhole) throws SQLException {
+        listingStatement.setString(1, "ES" + ThreadLocalRandom.current().nextInt(accounts));
+        try (ResultSet resultSet = listingStatement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getBigDecimal(5));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.utils.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance check of one transaction: the previous BigDecimal arithmetic with its double
+ * comparison, against cents in a long. {@code storedBalance} converts the balance from the
+ * entity on every call, {@code heldBalance} keeps it in cents as the write-behind mode and the
+ * batch path do. Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MoneyBenchmark {
+
+    private BigDecimal balance;
+
+    private BigDecimal ammount;
+
+    private BigDecimal fee;
+
+    private long balanceInCents;
+
+    @Setup
+    public void setUp() {
+        balance = new BigDecimal("1520.35");
+        ammount = new BigDecimal("-125.50");
+        fee = new BigDecimal("1.25");
+        balanceInCents = Money.toMinor(balance);
+    }
+
+    @Benchmark
+    public boolean previous() {
+        BigDecimal newAccountBalance = balance.add(ammount.subtract(fee));
+        return newAccountBalance.doubleValue() <= 0;
+    }
+
+    @Benchmark
+    public boolean storedBalance() {
+        return Money.add(Money.toMinor(balance), Money.net(ammount, fee)) <= 0;
+    }
+
+    @Benchmark
+    public boolean heldBalance() {
+        return Money.add(balanceInCents, Money.net(ammount, fee)) <= 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionProjectionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing and status reads from the database against the in-memory projection. The status
+ * cache is bypassed by looking up more references than it holds. The heap the projection
+ * estimates for itself, its transactions.projection.memory gauge, is reported as the
+ * projectionBytes counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"false", "true"})
+    private boolean projection;
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    private long projectionBytes;
+
+    /**
+     * JMH sums events over the measurement iterations, so the footprint is counted in the
+     * first one only.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long projectionBytes;
+
+        private boolean counted;
+
+        @TearDown(Level.Iteration)
+        public void count(ProjectionBenchmark benchmark, IterationParams iterationParams) {
+            projectionBytes = !counted && iterationParams.getType() == IterationType.MEASUREMENT ? benchmark.projectionBytes : 0;
+            counted |= iterationParams.getType() == IterationType.MEASUREMENT;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContext.start("transactions.projection.enabled=" + projection, "transactions.status-cache.maximum-size=1000");
+        operationsService = context.getBean(OperationsService.class);
+        ServiceContext.seed(operationsService, ROWS, ACCOUNTS);
+        if (projection) {
+            context.getBean(TransactionProjectionService.class).rebuild();
+        }
+        projectionBytes = (long) context.getBean(MeterRegistry.class).get("transactions.projection.memory").gauge().value();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionDto> account(Footprint footprint) {
+        return operationsService.getFilterTransactions(ServiceContext.iban(ThreadLocalRandom.current().nextInt(ACCOUNTS)), SortDirectionDto.DESC);
+    }
+
+    @Benchmark
+    public TransactionPageDto page(Footprint footprint) {
+        return operationsService.getTransactionsPage(ServiceContext.iban(ThreadLocalRandom.current().nextInt(ACCOUNTS)), SortDirectionDto.ASC, "500.00,100000", 20);
+    }
+
+    @Benchmark
+    public TransactionStatusDto status(Footprint footprint) {
+        return operationsService.getTransactionsStatus("Seed-" + ThreadLocalRandom.current().nextInt(ROWS), ChannelDto.CLIENT);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.TransactionsApplication;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load over HTTP against the embedded Tomcat with blocking endpoints and with
+ * {@code transactions.async.enabled}. Tomcat gets few threads, as a loaded server would, and
+ * 64 clients send status and listing requests. Sample time mode reports the p99 latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Threads(64)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class RequestLoadBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    private static final int ACCOUNTS = 100;
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    @Param({"8"})
+    private int servletThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransactionsApplication.class).properties("server.port=0",
+                "server.tomcat.max-threads=" + servletThreads, "transactions.async.enabled=" + async, "logging.level.root=WARN").run();
+        ServiceContext.seed(context.getBean(OperationsService.class), ROWS, ACCOUNTS);
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/transactions";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int status() throws IOException, InterruptedException {
+        return get(baseUrl + "/status?reference=Seed-" + ThreadLocalRandom.current().nextInt(ROWS) + "&channel=CLIENT");
+    }
+
+    @Benchmark
+    public int listing() throws IOException, InterruptedException {
+        return get(baseUrl + "?IBAN=" + ServiceContext.iban(ThreadLocalRandom.current().nextInt(ACCOUNTS)) + "&limit=20");
+    }
+
+    private int get(String url) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
@@ -0,0 +1,129 @@
+package com.rfc.transactions.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.serialization.TransactionsJacksonModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of writing a listing and a bulk status answer: JSON with the bean
+ * serializers (the previous configuration), JSON with the hand-written ones, and Smile and
+ * CBOR with dates as timestamps, as the binary converters write them. The bytes per row of
+ * every format are reported as the listingBytesPerRow and statusBytesPerRow counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"json-bean", "json", "smile", "cbor"})
+    private String format;
+
+    private ObjectWriter listingWriter;
+
+    private ObjectWriter statusWriter;
+
+    private List<TransactionDto> transactionDtoList;
+
+    private List<TransactionStatusDto> transactionStatusDtoList;
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256 * ROWS);
+
+    private int listingBytesPerRow;
+
+    private int statusBytesPerRow;
+
+    /**
+     * JMH sums events over the measurement iterations, so the sizes are counted in the first
+     * one only.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+
+        public long listingBytesPerRow;
+
+        public long statusBytesPerRow;
+
+        private boolean counted;
+
+        @TearDown(Level.Iteration)
+        public void count(SerializationBenchmark benchmark, IterationParams iterationParams) {
+            boolean count = !counted && iterationParams.getType() == IterationType.MEASUREMENT;
+            listingBytesPerRow = count ? benchmark.listingBytesPerRow : 0;
+            statusBytesPerRow = count ? benchmark.statusBytesPerRow : 0;
+            counted |= iterationParams.getType() == IterationType.MEASUREMENT;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = mapper(format);
+        listingWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TransactionDto.class));
+        statusWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TransactionStatusDto.class));
+        transactionDtoList = new ArrayList<>(ROWS);
+        transactionStatusDtoList = new ArrayList<>(ROWS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            BigDecimal ammount = BigDecimal.valueOf(i * 37L % 100_000, 2);
+            transactionDtoList.add(new TransactionDto("Seed-" + i, ServiceContext.iban(i % 100), new Date(now - i * 60_000L), ammount, new BigDecimal("1.25"), "Benchmark transaction"));
+            transactionStatusDtoList.add(new TransactionStatusDto("Seed-" + i, StatusDto.SETTLED, ammount, null));
+        }
+        listingBytesPerRow = write(listingWriter, transactionDtoList) / ROWS;
+        statusBytesPerRow = write(statusWriter, transactionStatusDtoList) / ROWS;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeListing(Size size) throws IOException {
+        return write(listingWriter, transactionDtoList);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int writeStatuses(Size size) throws IOException {
+        return write(statusWriter, transactionStatusDtoList);
+    }
+
+    private int write(ObjectWriter writer, List<?> rows) throws IOException {
+        outputStream.reset();
+        writer.writeValue(outputStream, rows);
+        return outputStream.size();
+    }
+
+    private static ObjectMapper mapper(String format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "json-bean":
+                return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+            case "json":
+                return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).modulesToInstall(new TransactionsJacksonModule()).build();
+            case "smile":
+                return builder.factory(new SmileFactory()).featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).modulesToInstall(new TransactionsJacksonModule()).build();
+            default:
+                return builder.factory(new CBORFactory()).featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).modulesToInstall(new TransactionsJacksonModule()).build();
+        }
+    }
+}
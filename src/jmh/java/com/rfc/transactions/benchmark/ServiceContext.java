@@ -0,0 +1,51 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.TransactionsApplication;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.OperationsService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Application context without the web layer, on the embedded H2 database, shared by the
+ * service layer benchmarks.
+ */
+final class ServiceContext {
+
+    private static final int SEED_CHUNK = 10_000;
+
+    private ServiceContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(TransactionsApplication.class).web(WebApplicationType.NONE).properties(properties).run();
+    }
+
+    static String iban(int account) {
+        return String.format("ES%020d", account);
+    }
+
+    /**
+     * Stores {@code rows} credit transactions with references Seed-0 to Seed-(rows - 1), spread
+     * over {@code accounts} IBANs and dated within the last and next 30 days.
+     */
+    static void seed(OperationsService operationsService, int rows, int accounts) {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            List<TransactionDto> transactionDtoList = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(from + SEED_CHUNK, rows); i++) {
+                transactionDtoList.add(new TransactionDto("Seed-" + i, iban(i % accounts), new Date(now + (random.nextInt(61) - 30) * 86_400_000L),
+                        BigDecimal.valueOf(1 + random.nextInt(100_000), 2), BigDecimal.ZERO, "Benchmark"));
+            }
+            operationsService.createTransactions(transactionDtoList);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.service.TransactionShardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rows per second stored by concurrent writers, each one writing a chunk of one account at a
+ * time like the batch endpoint, into file-backed H2 shards. One shard is the single table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ShardIngestBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    private static final int CHUNK = 100;
+
+    @Param({"1", "2", "4"})
+    private int shards;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Path directory;
+
+    private TransactionShardService transactionShardService;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("shards");
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getSharding().setEnabled(true);
+        transactionsProperties.getSharding().setShards(shards);
+        transactionsProperties.getSharding().setPoolSize(8);
+        transactionsProperties.getSharding().setUrl("jdbc:h2:file:" + directory.toAbsolutePath() + "/transactions-%d");
+        transactionShardService = new TransactionShardService(transactionsProperties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transactionShardService.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object ingest(Rows rows) {
+        rows.rows += CHUNK;
+        String IBAN = "ES" + (10 + ThreadLocalRandom.current().nextInt(ACCOUNTS)) + "123456789098765432";
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            transactionsEntityList.add(new TransactionsEntity("Shard" + sequence.incrementAndGet(), IBAN, new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Benchmark"));
+        }
+        return transactionShardService.saveTransactions(transactionsEntityList);
+    }
+}
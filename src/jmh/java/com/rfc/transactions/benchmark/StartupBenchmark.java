@@ -0,0 +1,89 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.TransactionsApplication;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from start to the first answered request with the persistent profile, on an empty
+ * database and on one with 10M transactions. Every fork is a new JVM, so each measurement is
+ * a cold start. The databases are built once under java.io.tmpdir, in committed chunks, and
+ * reused between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 5, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Timeout(time = 2, timeUnit = TimeUnit.HOURS)
+public class StartupBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    private static final int SEED_CHUNK = 100_000;
+
+    @Param({"0", "10000000"})
+    private int rows;
+
+    private String url;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "transactions-startup-" + rows);
+        url = "jdbc:h2:file:" + directory.resolve("transactions").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE";
+        Path ready = directory.resolve("ready");
+        if (Files.exists(ready)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", ""); Statement statement = connection.createStatement()) {
+            statement.execute("insert into account (iban, balance) select 'ES' || lpad(x, 20, '0'), 1000000 from system_range(0, " + (ACCOUNTS - 1) + ")");
+            for (long from = 1; from <= rows; from += SEED_CHUNK) {
+                statement.execute("insert into transactions (id, reference, accountiban, date, ammount, fee, description) "
+                        + "select x, 'Seed-' || x, 'ES' || lpad(mod(x, " + ACCOUNTS + "), 20, '0'), dateadd('SECOND', x, timestamp '2020-01-01 00:00:00'), "
+                        + "mod(x, 100000) / 100.0, 0, 'Benchmark' from system_range(" + from + ", " + Math.min(from + SEED_CHUNK - 1, rows) + ")");
+            }
+            statement.execute("alter sequence transactions_seq restart with " + (rows + 1));
+            statement.execute("shutdown compact");
+        }
+        Files.createFile(ready);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(TransactionsApplication.class).profiles("persistent")
+                .run("--server.port=0", "--spring.datasource.url=" + url, "--logging.level.root=WARN");
+        String status = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/transactions/status?reference=Seed-" + rows + "&channel=CLIENT";
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(status)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(status + " answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
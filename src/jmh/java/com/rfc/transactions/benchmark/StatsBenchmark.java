@@ -0,0 +1,75 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.stats.GroupStats;
+import com.rfc.transactions.stats.StatsAggregator;
+import com.rfc.transactions.stats.TransactionColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory statistics per account and per day over a year of transactions, with the
+ * fork-join pool sized from one worker up. Copying the rows into the columns is not
+ * measured, only the grouping, sorting and reduction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class StatsBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private StatsAggregator statsAggregator;
+
+    private TransactionColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        statsAggregator = new StatsAggregator(pool);
+        columns = new TransactionColumns(rows);
+        String[] IBANs = new String[ACCOUNTS];
+        for (int account = 0; account < ACCOUNTS; account++) {
+            IBANs[account] = ServiceContext.iban(account);
+        }
+        Random random = new Random(42);
+        long start = LocalDate.of(2020, 1, 1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+        for (int i = 0; i < rows; i++) {
+            columns.add(IBANs[random.nextInt(ACCOUNTS)], start + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(365)),
+                    random.nextInt(2_000_000) - 1_000_000, random.nextInt(500));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<GroupStats> byAccount() {
+        return statsAggregator.byAccount(columns);
+    }
+
+    @Benchmark
+    public List<GroupStats> byDay() {
+        return statsAggregator.byDay(columns, ZONE);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.service.DayBoundary;
+import com.rfc.transactions.service.TransactionStatusEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one status evaluation: the previous rules, which call LocalDate.now() and convert
+ * the transaction date up to three times, against {@link TransactionStatusEvaluator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatusEvaluationBenchmark {
+
+    private TransactionStatusEvaluator transactionStatusEvaluator;
+
+    private TransactionSnapshot transactionSnapshot;
+
+    private Date date;
+
+    private BigDecimal ammount;
+
+    private BigDecimal fee;
+
+    @Setup
+    public void setUp() {
+        Clock clock = Clock.systemDefaultZone();
+        transactionStatusEvaluator = new TransactionStatusEvaluator(new DayBoundary(clock));
+        date = Date.from(Instant.now().plusSeconds(86400));
+        ammount = new BigDecimal("125.50");
+        fee = new BigDecimal("1.25");
+        transactionSnapshot = new TransactionSnapshot("TxReference", "ES10123456789098765432",
+                new TransactionMapper(clock).toEpochDay(date), 12550, 125);
+    }
+
+    @Benchmark
+    public TransactionStatusDto previous() {
+        TransactionStatusDto transactionStatusDto = new TransactionStatusDto();
+        transactionStatusDto.setReference("TxReference");
+        LocalDate today = LocalDate.now();
+        if (converToLocalDate(date).isBefore(today)) {
+            transactionStatusDto.setStatus(StatusDto.SETTLED);
+        } else if (converToLocalDate(date).equals(today)) {
+            transactionStatusDto.setStatus(StatusDto.PENDING);
+        } else if (converToLocalDate(date).isAfter(today)) {
+            transactionStatusDto.setStatus(StatusDto.FUTURE);
+        }
+        transactionStatusDto.setAmmount(ammount.subtract(fee));
+        return transactionStatusDto;
+    }
+
+    @Benchmark
+    public TransactionStatusDto evaluator() {
+        return transactionStatusEvaluator.evaluate("TxReference", transactionSnapshot, ChannelDto.CLIENT);
+    }
+
+    private LocalDate converToLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
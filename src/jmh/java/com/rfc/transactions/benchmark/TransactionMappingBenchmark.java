@@ -0,0 +1,70 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.dozer.DozerBeanMapper;
+import org.dozer.loader.api.BeanMappingBuilder;
+import org.dozer.loader.api.TypeMappingOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of mapping a stored transaction to its DTO and back, reflection based
+ * Dozer (the previous configuration) against {@link TransactionMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionMappingBenchmark {
+
+    private DozerBeanMapper dozerBeanMapper;
+
+    private TransactionMapper transactionMapper;
+
+    private TransactionsEntity transactionsEntity;
+
+    private TransactionDto transactionDto;
+
+    @Setup
+    public void setUp() {
+        dozerBeanMapper = new DozerBeanMapper();
+        dozerBeanMapper.addMapping(new BeanMappingBuilder() {
+            @Override
+            protected void configure() {
+                mapping(TransactionDto.class, TransactionsEntity.class, TypeMappingOptions.dateFormat("yyyy-MM-dd"));
+            }
+        });
+        transactionMapper = new TransactionMapper(Clock.systemDefaultZone());
+        transactionsEntity = new TransactionsEntity(1, "TxReference", "ES10123456789098765432", new Timestamp(System.currentTimeMillis()),
+                new BigDecimal("125.50"), new BigDecimal("1.25"), "Benchmark transaction");
+        transactionDto = transactionMapper.toDto(transactionsEntity);
+    }
+
+    @Benchmark
+    public TransactionDto dozerToDto() {
+        return dozerBeanMapper.map(transactionsEntity, TransactionDto.class);
+    }
+
+    @Benchmark
+    public TransactionDto mapperToDto() {
+        return transactionMapper.toDto(transactionsEntity);
+    }
+
+    @Benchmark
+    public TransactionsEntity dozerToEntity() {
+        return dozerBeanMapper.map(transactionDto, TransactionsEntity.class);
+    }
+
+    @Benchmark
+    public TransactionsEntity mapperToEntity() {
+        return transactionMapper.toEntity(transactionDto);
+    }
+}
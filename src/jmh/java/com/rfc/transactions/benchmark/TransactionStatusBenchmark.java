@@ -0,0 +1,54 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link OperationsService#getTransactionsStatus} per channel, for stored
+ * references (cached after the first read) and for unknown ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionStatusBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"CLIENT", "ATM", "INTERNAL"})
+    private ChannelDto channel;
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContext.start();
+        operationsService = context.getBean(OperationsService.class);
+        ServiceContext.seed(operationsService, ROWS, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionStatusDto stored() {
+        return operationsService.getTransactionsStatus("Seed-" + ThreadLocalRandom.current().nextInt(ROWS), channel);
+    }
+
+    @Benchmark
+    public TransactionStatusDto unknown() {
+        return operationsService.getTransactionsStatus("Unknown-" + ThreadLocalRandom.current().nextInt(ROWS), channel);
+    }
+}
@@ -0,0 +1,61 @@
+package com.rfc.transactions.benchmark;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
+import com.rfc.transactions.service.OperationsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link OperationsService#createTransaction} committing every transaction
+ * to the database against accepting it into the journal, where one fsync covers a group of
+ * transactions and the database is written in the background.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class WriteBehindBenchmark {
+
+    @Param({"false", "true"})
+    private boolean journal;
+
+    @Param({"100"})
+    private int accounts;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private OperationsService operationsService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        context = ServiceContext.start("transactions.journal.enabled=" + journal, "transactions.journal.directory=" + directory);
+        operationsService = context.getBean(OperationsService.class);
+        ServiceContext.seed(operationsService, 1000, accounts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionSubmissionDto createTransaction() {
+        long next = sequence.getAndIncrement();
+        return operationsService.createTransaction(new TransactionDto(null, ServiceContext.iban((int) (next % accounts)), new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Benchmark"));
+    }
+}
@@ -0,0 +1,8 @@
+package com.rfc.transactions.Exceptions;
+
+public class AmountOutOfRangeException extends RuntimeException {
+
+    public AmountOutOfRangeException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.rfc.transactions.Exceptions;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -7,16 +8,43 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.rfc.transactions.utils.Cons.REQUEST_QUEUE_FULL_ERROR;
+
 @ControllerAdvice
 @Component
 public class ControlExceptionHandler {
 
     @ExceptionHandler({
             ZeroBalanceException.class,
-            AccountNotFoundException.class
+            MandatoryFieldsException.class,
+            InvalidCursorException.class,
+            AmountOutOfRangeException.class,
+            TooManyReferencesException.class
     })
     @ResponseBody
     public ResponseEntity exceptionHandler(Exception ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    @ResponseBody
+    public ResponseEntity accountNotFoundHandler(Exception ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseBody
+    public ResponseEntity rejectedExecutionHandler(Exception ex) {
+        return new ResponseEntity<>(REQUEST_QUEUE_FULL_ERROR, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseBody
+    public ResponseEntity tooManyRequestsHandler(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
 }
@@ -0,0 +1,8 @@
+package com.rfc.transactions.Exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.rfc.transactions.Exceptions;
+
+public class InvalidRecordException extends RuntimeException {
+
+    public InvalidRecordException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.rfc.transactions.Exceptions;
+
+public class MandatoryFieldsException extends RuntimeException {
+
+    public MandatoryFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.rfc.transactions.Exceptions;
+
+public class TooManyReferencesException extends RuntimeException {
+
+    public TooManyReferencesException(String message) {
+        super(message);
+    }
+}
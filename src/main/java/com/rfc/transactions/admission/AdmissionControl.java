@@ -0,0 +1,150 @@
+package com.rfc.transactions.admission;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rfc.transactions.Exceptions.TooManyRequestsException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.ChannelDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.rfc.transactions.utils.Cons.OVERLOADED_ERROR;
+import static com.rfc.transactions.utils.Cons.RATE_LIMITED_ERROR;
+
+/**
+ * Admission of single transaction submissions, enabled with {@code transactions.admission.enabled}:
+ * rate permits per IBAN (and per IBAN and channel), then in async mode a place under the
+ * concurrency limit. A submission turned away gives back what it had taken.
+ */
+@Component
+public class AdmissionControl {
+
+    private final boolean enabled;
+
+    private final RateLimiter accountRateLimiter;
+
+    private final RateLimiter[] channelRateLimiters;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    private final long overloadedRetryAfterSeconds;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final Ticker ticker;
+
+    @Autowired
+    public AdmissionControl(TransactionsProperties transactionsProperties, TransactionMetrics transactionMetrics, MeterRegistry meterRegistry) {
+        this(transactionsProperties, transactionMetrics, meterRegistry, Ticker.systemTicker());
+    }
+
+    AdmissionControl(TransactionsProperties transactionsProperties, TransactionMetrics transactionMetrics, MeterRegistry meterRegistry, Ticker ticker) {
+        TransactionsProperties.Admission admission = transactionsProperties.getAdmission();
+        this.enabled = admission.isEnabled();
+        this.accountRateLimiter = new RateLimiter(admission.getRate(), admission.getMaximumAccounts(), ticker);
+        this.channelRateLimiters = new RateLimiter[ChannelDto.values().length];
+        admission.getChannels().forEach((channel, rate) -> channelRateLimiters[channel.ordinal()] = new RateLimiter(rate, admission.getMaximumAccounts(), ticker));
+        this.concurrencyLimiter = new ConcurrencyLimiter(admission.getMinConcurrency(), admission.getMaxConcurrency(), admission.getLatencyTarget().toNanos());
+        this.overloadedRetryAfterSeconds = retryAfterSeconds(admission.getLatencyTarget().toNanos());
+        this.transactionMetrics = transactionMetrics;
+        this.ticker = ticker;
+        Gauge.builder("transactions.admission.limit", concurrencyLimiter, ConcurrencyLimiter::getLimit)
+                .description("Transaction submissions currently allowed in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands {@code submission} to {@code executor} when the IBAN and channel are within their
+     * rate and there is room among the submissions in progress; throws
+     * {@link TooManyRequestsException} otherwise. The time until the executor starts it is the
+     * latency compared with the target.
+     */
+    public <T> CompletableFuture<T> admit(String IBAN, ChannelDto channel, Function<Supplier<T>, CompletableFuture<T>> executor, Supplier<T> submission) {
+        if (!enabled) {
+            return executor.apply(submission);
+        }
+        long admitted = acquire(IBAN, channel);
+        CompletableFuture<T> future;
+        try {
+            future = executor.apply(() -> {
+                concurrencyLimiter.started(admitted, ticker.read());
+                return submission.get();
+            });
+        } catch (RuntimeException e) {
+            concurrencyLimiter.release();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> concurrencyLimiter.release());
+    }
+
+    /**
+     * {@link #admit} for a submission that runs on the calling thread. Only the rates apply: the
+     * servlet threads already bound the submissions in progress, and there is no queue in front
+     * of them whose waiting time could be measured.
+     */
+    public <T> T admitBlocking(String IBAN, ChannelDto channel, Supplier<T> submission) {
+        if (!enabled) {
+            return submission.get();
+        }
+        acquireRate(IBAN, channel);
+        transactionMetrics.admitted();
+        return submission.get();
+    }
+
+    int getConcurrencyLimit() {
+        return concurrencyLimiter.getLimit();
+    }
+
+    /**
+     * Takes the permits and the place, returning when the submission was admitted.
+     */
+    private long acquire(String IBAN, ChannelDto channel) {
+        acquireRate(IBAN, channel);
+        if (!concurrencyLimiter.tryAcquire()) {
+            releaseRate(IBAN, channel);
+            transactionMetrics.shed();
+            throw new TooManyRequestsException(OVERLOADED_ERROR, overloadedRetryAfterSeconds);
+        }
+        transactionMetrics.admitted();
+        return ticker.read();
+    }
+
+    private void acquireRate(String IBAN, ChannelDto channel) {
+        RateLimiter channelRateLimiter = channelRateLimiter(channel);
+        long wait = Objects.isNull(channelRateLimiter) ? 0 : channelRateLimiter.tryAcquire(IBAN);
+        if (wait == 0) {
+            wait = accountRateLimiter.tryAcquire(IBAN);
+            if (wait > 0 && Objects.nonNull(channelRateLimiter)) {
+                channelRateLimiter.release(IBAN);
+            }
+        }
+        if (wait > 0) {
+            transactionMetrics.rateLimited();
+            throw new TooManyRequestsException(RATE_LIMITED_ERROR, retryAfterSeconds(wait));
+        }
+    }
+
+    private void releaseRate(String IBAN, ChannelDto channel) {
+        RateLimiter channelRateLimiter = channelRateLimiter(channel);
+        if (Objects.nonNull(channelRateLimiter)) {
+            channelRateLimiter.release(IBAN);
+        }
+        accountRateLimiter.release(IBAN);
+    }
+
+    private RateLimiter channelRateLimiter(ChannelDto channel) {
+        return Objects.isNull(channel) ? null : channelRateLimiters[channel.ordinal()];
+    }
+
+    private static long retryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
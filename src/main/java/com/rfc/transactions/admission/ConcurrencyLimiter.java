@@ -0,0 +1,76 @@
+package com.rfc.transactions.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive limit of requests in progress, driven by the time they queue before their work
+ * starts rather than by how long the work takes. The limit stays between the minimum and the
+ * maximum, so some requests keep running and measuring while overloaded.
+ */
+final class ConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long targetNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger limit;
+
+    private final AtomicInteger fastRequests = new AtomicInteger();
+
+    private final AtomicLong lastDecrease = new AtomicLong(Long.MIN_VALUE);
+
+    ConcurrencyLimiter(int minLimit, int maxLimit, long targetNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetNanos = targetNanos;
+        this.limit = new AtomicInteger(this.maxLimit);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Starts the work of a request admitted at {@code admittedNanos}, at {@code nowNanos}.
+     */
+    void started(long admittedNanos, long nowNanos) {
+        if (nowNanos - admittedNanos > targetNanos) {
+            long last = lastDecrease.get();
+            if ((last == Long.MIN_VALUE || nowNanos - last >= targetNanos) && lastDecrease.compareAndSet(last, nowNanos)) {
+                limit.updateAndGet(current -> Math.max(minLimit, current - Math.max(1, current / 10)));
+                fastRequests.set(0);
+            }
+        } else if (limit.get() < maxLimit && fastRequests.incrementAndGet() >= limit.get()) {
+            fastRequests.set(0);
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Ends a request, whether its work started or not.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return limit.get();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,69 @@
+package com.rfc.transactions.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rfc.transactions.configuration.TransactionsProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, kept as the generic cell rate algorithm: a single theoretical arrival
+ * time per key, advanced with a compare-and-set, instead of a token count and a refill time.
+ * A key idle for a whole burst has a full bucket again, so its entry expires then.
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<String, AtomicLong> arrivals;
+
+    RateLimiter(TransactionsProperties.Rate rate, long maximumKeys, Ticker ticker) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate.getPermitsPerSecond());
+        this.burstNanos = intervalNanos * Math.max(1, rate.getBurst());
+        this.ticker = ticker;
+        this.arrivals = Caffeine.newBuilder()
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    /**
+     * Takes a permit of {@code key}. Returns 0 when it was taken, or the nanoseconds until the
+     * next one is available.
+     */
+    long tryAcquire(String key) {
+        AtomicLong theoreticalArrival = arrivals.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = ticker.read();
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken from {@code key} by a submission turned away afterwards.
+     */
+    void release(String key) {
+        AtomicLong theoreticalArrival = arrivals.getIfPresent(key);
+        if (Objects.nonNull(theoreticalArrival)) {
+            theoreticalArrival.addAndGet(-intervalNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.rfc.transactions.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of {@link com.rfc.transactions.controller.AsyncTransactionsController} on a
+ * fixed pool with a bounded queue, so a few servlet threads can carry many concurrent
+ * requests; a full queue rejects the request instead of queueing without limit. Only
+ * registered when {@code transactions.async.enabled} is set.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transactions.async", name = "enabled", havingValue = "true")
+public class RequestExecutor {
+
+    private final ExecutorService executorService;
+
+    public RequestExecutor(TransactionsProperties transactionsProperties, MeterRegistry meterRegistry) {
+        TransactionsProperties.Async async = transactionsProperties.getAsync();
+        this.executorService = ExecutorServiceMetrics.monitor(meterRegistry, new ThreadPoolExecutor(async.getPoolSize(), async.getPoolSize(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(async.getQueueCapacity()), new CustomizableThreadFactory("request-")),
+                "transactions.requests", Tags.empty());
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+}
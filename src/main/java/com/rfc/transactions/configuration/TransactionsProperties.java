@@ -0,0 +1,333 @@
+package com.rfc.transactions.configuration;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transactions")
+public class TransactionsProperties {
+
+    private Accounts accounts = new Accounts();
+
+    private Balance balance = new Balance();
+
+    private Batch batch = new Batch();
+
+    private Listing listing = new Listing();
+
+    private StatusCache statusCache = new StatusCache();
+
+    private BulkStatus bulkStatus = new BulkStatus();
+
+    private Journal journal = new Journal();
+
+    private Async async = new Async();
+
+    private Projection projection = new Projection();
+
+    private Transfer transfer = new Transfer();
+
+    private Sharding sharding = new Sharding();
+
+    private Events events = new Events();
+
+    private Admission admission = new Admission();
+
+    private Stats stats = new Stats();
+
+    @Getter
+    @Setter
+    public static class Accounts {
+
+        /**
+         * Creates, with a zero balance, the account of a transaction whose IBAN has none.
+         * Otherwise the transaction is answered 404.
+         */
+        private boolean createMissing = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Balance {
+
+        /**
+         * Number of lock stripes guarding account balances, rounded up to a power of two.
+         */
+        private int lockStripes = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Number of transactions flushed to the database per JDBC batch.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Listing {
+
+        /**
+         * Largest page a keyset-paginated listing may return.
+         */
+        private int maxPageSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class StatusCache {
+
+        /**
+         * Maximum number of references kept, known and unknown together.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * Time a stored transaction stays cached after it was loaded or created.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        /**
+         * Time an unknown reference is remembered as INVALID before the database is asked again.
+         */
+        private Duration negativeExpireAfterWrite = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class BulkStatus {
+
+        /**
+         * Most references a single bulk status request may ask for.
+         */
+        private int maxReferences = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+
+        /**
+         * Accept single transactions into a local journal and store them in the background.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the journal file.
+         */
+        private String directory = "journal";
+
+        /**
+         * Size of the memory-mapped journal file. A full journal waits for the store to catch up.
+         */
+        private DataSize size = DataSize.ofMegabytes(64);
+
+        /**
+         * Longest time an accepted transaction waits for the fsync that makes it durable.
+         */
+        private Duration groupCommitInterval = Duration.ofMillis(5);
+
+        /**
+         * Number of waiting transactions that forces an fsync before the interval ends.
+         */
+        private int groupCommitRecords = 256;
+
+        /**
+         * Largest number of journaled transactions stored in one database transaction.
+         */
+        private int applyBatchSize = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+
+        /**
+         * Run the transaction endpoints on the request pool and release the servlet thread
+         * while they wait on the database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Threads of the request pool.
+         */
+        private int poolSize = 16;
+
+        /**
+         * Requests waiting for a pool thread before new ones are answered 503.
+         */
+        private int queueCapacity = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Projection {
+
+        /**
+         * Serve listings and status lookups from an in-memory copy of the transactions, built
+         * from the database on startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Transactions read from the database per step while the projection is built.
+         */
+        private int loadChunkSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Transfer {
+
+        /**
+         * Imported transactions applied per batch, one account lock and transaction per IBAN.
+         */
+        private int chunkSize = 5000;
+
+        /**
+         * Number of records between two progress lines in the log.
+         */
+        private long progressInterval = 100_000;
+
+        /**
+         * CSV or NDJSON file imported when the application starts, chosen by its extension.
+         */
+        private String importFile;
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+
+        /**
+         * Store transactions in several H2 databases, chosen by the hash of the IBAN, instead of
+         * the main datasource. Accounts and daily balances stay in the main datasource.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of shards. It must not change once transactions are stored, or they would be
+         * looked up in the wrong shard.
+         */
+        private int shards = 4;
+
+        /**
+         * JDBC url of every shard, %d is replaced by the shard index.
+         */
+        private String url = "jdbc:h2:file:./shards/transactions-%d";
+
+        /**
+         * Connections pooled per shard.
+         */
+        private int poolSize = 4;
+
+        /**
+         * Time between two copies of the outbox rows left in the main datasource to their shards.
+         */
+        private Duration reconcileInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Events {
+
+        /**
+         * Events buffered per subscriber. A subscriber whose queue is full is disconnected.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Threads writing the queued events to the subscribers.
+         */
+        private int senderPoolSize = 4;
+
+        /**
+         * Time a subscription stays open before the client has to reconnect.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+
+        /**
+         * Rate limit single transaction submissions per IBAN, and per IBAN and channel for the
+         * channels with a rate of their own, and limit the ones in progress, answering 429
+         * before any database work.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Rate of every IBAN, whatever channel the submissions name.
+         */
+        private Rate rate = new Rate();
+
+        /**
+         * Rate per IBAN of the submissions naming a channel, taken on top of the rate of the
+         * IBAN, so it only matters when lower.
+         */
+        private Map<ChannelDto, Rate> channels = new HashMap<>();
+
+        /**
+         * Most IBANs whose rate is tracked, per channel too. The least recently seen are
+         * forgotten beyond it and start again with a full burst.
+         */
+        private long maximumAccounts = 100_000;
+
+        /**
+         * Submissions in progress allowed while the latency stays within the target, in async
+         * mode.
+         */
+        private int maxConcurrency = 64;
+
+        /**
+         * Submissions in progress still allowed while the latency is over the target.
+         */
+        private int minConcurrency = 4;
+
+        /**
+         * Time a submission waits between its admission and the start of its work, in the
+         * request pool, above which fewer submissions are let in. Slow work does not count.
+         */
+        private Duration latencyTarget = Duration.ofMillis(250);
+    }
+
+    @Getter
+    @Setter
+    public static class Rate {
+
+        /**
+         * Sustained submissions per second.
+         */
+        private double permitsPerSecond = 20;
+
+        /**
+         * Submissions accepted at once after a quiet period.
+         */
+        private int burst = 40;
+    }
+
+    @Getter
+    @Setter
+    public static class Stats {
+
+        /**
+         * Threads aggregating the statistics in memory, 0 for one per available processor.
+         */
+        private int parallelism = 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.rfc.transactions.controller;
+
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.DailyStatementDto;
+import com.rfc.transactions.service.AccountStatementService;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/accounts")
+public class AccountsController {
+
+    private AccountStatementService accountStatementService;
+
+    @GetMapping("/{IBAN}/balance")
+    public ResponseEntity<AccountBalanceDto> getBalance(@PathVariable("IBAN") String IBAN,
+                                                        @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(accountStatementService.getBalance(IBAN, date));
+    }
+
+    @GetMapping("/{IBAN}/statement")
+    public ResponseEntity<List<DailyStatementDto>> getStatement(@PathVariable("IBAN") String IBAN,
+                                                                @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountStatementService.getStatement(IBAN, from, to));
+    }
+}
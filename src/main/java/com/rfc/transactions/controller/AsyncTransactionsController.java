@@ -0,0 +1,80 @@
+package com.rfc.transactions.controller;
+
+import com.rfc.transactions.admission.AdmissionControl;
+import com.rfc.transactions.configuration.RequestExecutor;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BulkStatusRequestDto;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.StatsGroupDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionStatsService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static com.rfc.transactions.controller.TransactionsController.findTransactions;
+import static com.rfc.transactions.controller.TransactionsController.submissionResponse;
+
+/**
+ * The {@link TransactionsController} endpoints on the {@link RequestExecutor} pool, releasing the servlet
+ * thread while they run. Only registered when {@code transactions.async.enabled} is set.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/transactions")
+@ConditionalOnProperty(prefix = "transactions.async", name = "enabled", havingValue = "true")
+public class AsyncTransactionsController {
+
+    private OperationsService operationsService;
+
+    private RequestExecutor requestExecutor;
+
+    private AdmissionControl admissionControl;
+
+    private TransactionStatsService transactionStatsService;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<TransactionDto>> postTransaction(@Valid @RequestBody TransactionDto transactionDto, @RequestParam(name="channel", required = false) ChannelDto channel){
+        return admissionControl.admit(transactionDto.getAccountIBAN(), channel, requestExecutor::supply, () -> submissionResponse(operationsService.createTransaction(transactionDto)));
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<BatchItemResultDto>>> postTransactions(@RequestBody List<TransactionDto> transactionDtoList) {
+        return requestExecutor.supply(() -> ResponseEntity.ok(operationsService.createTransactions(transactionDtoList)));
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<TransactionDto>>> getTransactions(@RequestParam(name="IBAN", required = false) String IBAN, @RequestParam(name="sortAmmount", required = false) SortDirectionDto sortAmmount,
+                                                                                   @RequestParam(name="limit", required = false) Integer limit, @RequestParam(name="after", required = false) String after) {
+        return requestExecutor.supply(() -> findTransactions(operationsService, IBAN, sortAmmount, limit, after));
+    }
+
+    @GetMapping("/status")
+    public CompletableFuture<ResponseEntity<TransactionStatusDto>> getTransactionStatus(@RequestParam(name="reference") String reference, @RequestParam(name="channel", required = false) ChannelDto channel) {
+        return requestExecutor.supply(() -> ResponseEntity.ok(operationsService.getTransactionsStatus(reference, channel)));
+    }
+
+    @PostMapping("/status/bulk")
+    public CompletableFuture<ResponseEntity<List<TransactionStatusDto>>> getTransactionStatuses(@RequestBody BulkStatusRequestDto bulkStatusRequestDto) {
+        return requestExecutor.supply(() -> ResponseEntity.ok(operationsService.getTransactionsStatuses(bulkStatusRequestDto.getReferences(), bulkStatusRequestDto.getChannel())));
+    }
+
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<List<TransactionStatsDto>>> getTransactionStats(@RequestParam(name="groupBy", required = false) StatsGroupDto groupBy, @RequestParam(name="IBAN", required = false) String IBAN,
+                                                                                            @RequestParam(name="from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                                            @RequestParam(name="to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return requestExecutor.supply(() -> ResponseEntity.ok(transactionStatsService.getStats(Objects.isNull(groupBy) ? StatsGroupDto.IBAN : groupBy, IBAN, from, to)));
+    }
+}
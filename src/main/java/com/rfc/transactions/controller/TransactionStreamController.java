@@ -0,0 +1,63 @@
+package com.rfc.transactions.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionEventService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Transaction endpoints that write their response over time, in both request modes.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/transactions")
+public class TransactionStreamController {
+
+    private OperationsService operationsService;
+
+    private ObjectMapper objectMapper;
+
+    private TransactionEventService transactionEventService;
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@RequestParam(name="IBAN", required = false) String IBAN, @RequestParam(name="sortAmmount", required = false) SortDirectionDto sortAmmount) {
+        ObjectWriter rowWriter = objectMapper.writerFor(TransactionDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return ResponseEntity.ok(outputStream -> {
+            try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)) {
+                jsonGenerator.writeStartArray();
+                operationsService.streamFilterTransactions(IBAN, sortAmmount, transactionDto -> writeRow(rowWriter, jsonGenerator, transactionDto));
+                jsonGenerator.writeEndArray();
+            }
+        });
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(name="IBAN", required = false) String IBAN, @RequestParam(name="channel", required = false) ChannelDto channel) {
+        return transactionEventService.subscribe(IBAN, channel);
+    }
+
+    private void writeRow(ObjectWriter rowWriter, JsonGenerator jsonGenerator, Object row) {
+        try {
+            rowWriter.writeValue(jsonGenerator, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,34 +1,63 @@
 package com.rfc.transactions.controller;
 
+import com.rfc.transactions.admission.AdmissionControl;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BulkStatusRequestDto;
 import com.rfc.transactions.model.dto.ChannelDto;
 import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.StatsGroupDto;
 import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
 import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
 import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionStatsService;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
+import static com.rfc.transactions.utils.Cons.NEXT_CURSOR_HEADER;
+
+/**
+ * Transaction endpoints run on the servlet thread, the default. {@link AsyncTransactionsController} takes
+ * their place when {@code transactions.async.enabled} is set.
+ */
 @AllArgsConstructor
 @RestController
 @RequestMapping("/transactions")
+@ConditionalOnProperty(prefix = "transactions.async", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class TransactionsController {
 
     private OperationsService operationsService;
 
+    private AdmissionControl admissionControl;
+
+    private TransactionStatsService transactionStatsService;
+
     @PostMapping
-    public ResponseEntity<TransactionDto> postTransaction(@Valid @RequestBody TransactionDto transactionDto){
-        operationsService.createTransaction(transactionDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionDto);
+    public ResponseEntity<TransactionDto> postTransaction(@Valid @RequestBody TransactionDto transactionDto, @RequestParam(name="channel", required = false) ChannelDto channel){
+        return admissionControl.admitBlocking(transactionDto.getAccountIBAN(), channel, () -> submissionResponse(operationsService.createTransaction(transactionDto)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResultDto>> postTransactions(@RequestBody List<TransactionDto> transactionDtoList) {
+        return ResponseEntity.ok(operationsService.createTransactions(transactionDtoList));
     }
 
     @GetMapping
-    public ResponseEntity<List<TransactionDto>> getTransactions(@RequestParam(name="IBAN", required = false) String IBAN, @RequestParam(name="sortAmmount", required = false) SortDirectionDto sortAmmount) {
-        return ResponseEntity.ok(operationsService.getFilterTransactions(IBAN, sortAmmount));
+    public ResponseEntity<List<TransactionDto>> getTransactions(@RequestParam(name="IBAN", required = false) String IBAN, @RequestParam(name="sortAmmount", required = false) SortDirectionDto sortAmmount,
+                                                                @RequestParam(name="limit", required = false) Integer limit, @RequestParam(name="after", required = false) String after) {
+        return findTransactions(operationsService, IBAN, sortAmmount, limit, after);
     }
 
     @GetMapping("/status")
@@ -36,4 +65,31 @@ public class TransactionsController {
         return ResponseEntity.ok(operationsService.getTransactionsStatus(reference, channel));
     }
 
+    @PostMapping("/status/bulk")
+    public ResponseEntity<List<TransactionStatusDto>> getTransactionStatuses(@RequestBody BulkStatusRequestDto bulkStatusRequestDto) {
+        return ResponseEntity.ok(operationsService.getTransactionsStatuses(bulkStatusRequestDto.getReferences(), bulkStatusRequestDto.getChannel()));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<TransactionStatsDto>> getTransactionStats(@RequestParam(name="groupBy", required = false) StatsGroupDto groupBy, @RequestParam(name="IBAN", required = false) String IBAN,
+                                                                         @RequestParam(name="from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                         @RequestParam(name="to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(transactionStatsService.getStats(Objects.isNull(groupBy) ? StatsGroupDto.IBAN : groupBy, IBAN, from, to));
+    }
+
+    static ResponseEntity<TransactionDto> submissionResponse(TransactionSubmissionDto transactionSubmissionDto) {
+        return ResponseEntity.status(transactionSubmissionDto.isReplayed() ? HttpStatus.OK : HttpStatus.CREATED).body(transactionSubmissionDto.getTransaction());
+    }
+
+    static ResponseEntity<List<TransactionDto>> findTransactions(OperationsService operationsService, String IBAN, SortDirectionDto sortAmmount, Integer limit, String after) {
+        if (Objects.isNull(limit) && StringUtils.isEmpty(after)) {
+            return ResponseEntity.ok(operationsService.getFilterTransactions(IBAN, sortAmmount));
+        }
+        TransactionPageDto transactionPageDto = operationsService.getTransactionsPage(IBAN, sortAmmount, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (Objects.nonNull(transactionPageDto.getNextCursor())) {
+            response.header(NEXT_CURSOR_HEADER, transactionPageDto.getNextCursor());
+        }
+        return response.body(transactionPageDto.getTransactions());
+    }
 }
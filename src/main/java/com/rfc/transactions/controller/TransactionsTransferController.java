@@ -0,0 +1,49 @@
+package com.rfc.transactions.controller;
+
+import com.rfc.transactions.model.dto.ImportResultDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+import com.rfc.transactions.service.TransactionTransferService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static com.rfc.transactions.utils.Cons.CSV_MEDIA_TYPE;
+import static com.rfc.transactions.utils.Cons.NDJSON_MEDIA_TYPE;
+
+/**
+ * Bulk import and export. The request body is read as it arrives and the export is written
+ * as it is read, so neither side is held in memory.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/transactions")
+public class TransactionsTransferController {
+
+    private TransactionTransferService transactionTransferService;
+
+    @PostMapping(value = "/import", consumes = CSV_MEDIA_TYPE)
+    public ResponseEntity<ImportResultDto> importCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(transactionTransferService.importTransactions(Channels.newChannel(request.getInputStream()), TransferFormatDto.CSV));
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<ImportResultDto> importNdjson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(transactionTransferService.importTransactions(Channels.newChannel(request.getInputStream()), TransferFormatDto.NDJSON));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(name="IBAN", required = false) String IBAN,
+                                                                    @RequestParam(name="format", defaultValue = "CSV") TransferFormatDto format) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + format.getExtension() + "\"")
+                .body(outputStream -> transactionTransferService.exportTransactions(IBAN, format, outputStream));
+    }
+}
@@ -0,0 +1,15 @@
+package com.rfc.transactions.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a stored transaction is removed through JPA, so caches of its reference can
+ * drop it once the removal commits.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionDeletedEvent {
+
+    private String reference;
+}
@@ -0,0 +1,24 @@
+package com.rfc.transactions.event;
+
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostRemove;
+
+/**
+ * JPA listener of {@link TransactionsEntity}, created by Hibernate through the Spring bean
+ * container. Bulk JPQL deletes do not reach it.
+ */
+public class TransactionDeletionListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public TransactionDeletionListener(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @PostRemove
+    public void onRemove(TransactionsEntity transactionsEntity) {
+        applicationEventPublisher.publishEvent(new TransactionDeletedEvent(transactionsEntity.getReference()));
+    }
+}
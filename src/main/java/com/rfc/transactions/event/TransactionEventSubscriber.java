@@ -0,0 +1,95 @@
+package com.rfc.transactions.event;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One Server-Sent Events connection. Events wait in a bounded queue and are written by a
+ * single drain task at a time, so the emitter is never written concurrently and a slow
+ * client only fills its own queue. When the queue stays full the connection is closed; the
+ * client reconnects and catches up with a status lookup.
+ */
+@Slf4j
+public class TransactionEventSubscriber {
+
+    private final SseEmitter emitter;
+
+    private final String IBAN;
+
+    @Getter
+    private final ChannelDto channel;
+
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+
+    private final Executor sender;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    public TransactionEventSubscriber(SseEmitter emitter, String IBAN, ChannelDto channel, int queueCapacity, Executor sender) {
+        this.emitter = emitter;
+        this.IBAN = IBAN;
+        this.channel = channel;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.sender = sender;
+    }
+
+    public boolean accepts(String accountIBAN) {
+        return !closed && (Objects.isNull(IBAN) || IBAN.equals(accountIBAN));
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queues the event without waiting. Returns false, and closes the connection, when there
+     * was no room.
+     */
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            log.warn("Event subscriber for {} is not keeping up, disconnecting it", Objects.isNull(IBAN) ? "every account" : IBAN);
+            close();
+            return false;
+        }
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return true;
+    }
+
+    public void close() {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            emitter.complete();
+        }
+    }
+
+    private void drain() {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && Objects.nonNull(event = queue.poll())) {
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                }
+            }
+            draining.set(false);
+        } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+}
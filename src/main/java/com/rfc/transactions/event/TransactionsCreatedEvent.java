@@ -0,0 +1,19 @@
+package com.rfc.transactions.event;
+
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by the write path with the transactions it stored. Before-commit listeners run
+ * in the write transaction under the account lock, after-commit listeners only see it once
+ * the rows are committed.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionsCreatedEvent {
+
+    private List<TransactionsEntity> transactions;
+}
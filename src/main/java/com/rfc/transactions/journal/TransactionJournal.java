@@ -0,0 +1,508 @@
+package com.rfc.transactions.journal;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted transactions on a memory-mapped file, forced once per
+ * group of appends. Records are {@code [int length][int crc32][payload]} followed by a zero
+ * length; {@link #read(Path)} stops there or at the first bad checksum, where a crash tore
+ * the last group. A record that keeps failing to store goes to the dead-letter file.
+ */
+@Slf4j
+public class TransactionJournal implements Closeable {
+
+    static final String FILE_NAME = "transactions.journal";
+
+    static final String DEAD_LETTER_FILE_NAME = "transactions.dead";
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final long UNDATED = Long.MIN_VALUE;
+
+    private static final long APPLY_RETRY_MILLIS = 1000;
+
+    private static final String JOURNAL_STOPPED = "Transaction journal is not running";
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition flushNeeded = lock.newCondition();
+
+    private final Condition durableAdvanced = lock.newCondition();
+
+    private final Condition applyNeeded = lock.newCondition();
+
+    private final Condition appliedAdvanced = lock.newCondition();
+
+    private final ArrayDeque<TransactionDto> unapplied = new ArrayDeque<>();
+
+    private final Map<String, TransactionDto> pending = new ConcurrentHashMap<>();
+
+    private final Path file;
+
+    private final Path deadLetterFile;
+
+    private final FileChannel channel;
+
+    private final FileChannel deadLetterChannel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int groupCommitRecords;
+
+    private final long groupCommitIntervalNanos;
+
+    private final int applyBatchSize;
+
+    private long appended;
+
+    private long durable;
+
+    private long applied;
+
+    private volatile boolean running;
+
+    private volatile boolean closing;
+
+    private boolean flusherStopped;
+
+    private boolean applierStopped;
+
+    private Thread flusher;
+
+    private Thread applier;
+
+    /**
+     * Opens the journal in {@code directory}. Whatever the file held before is discarded when
+     * the journal starts, so it must have been recovered with {@link #recover} first.
+     */
+    public TransactionJournal(Path directory, int size, int groupCommitRecords, Duration groupCommitInterval, int applyBatchSize) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.deadLetterFile = directory.resolve(DEAD_LETTER_FILE_NAME);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.deadLetterChannel = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.groupCommitRecords = groupCommitRecords;
+        this.groupCommitIntervalNanos = groupCommitInterval.toNanos();
+        this.applyBatchSize = applyBatchSize;
+    }
+
+    public static List<TransactionDto> read(Path directory) throws IOException {
+        return readRecords(directory.resolve(FILE_NAME));
+    }
+
+    /**
+     * Transactions that could not be stored, in the order they failed.
+     */
+    public static List<TransactionDto> readDeadLetters(Path directory) throws IOException {
+        return readRecords(directory.resolve(DEAD_LETTER_FILE_NAME));
+    }
+
+    private static List<TransactionDto> readRecords(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<TransactionDto> transactionDtoList = new ArrayList<>();
+        while (content.remaining() >= HEADER_SIZE) {
+            int length = content.getInt();
+            int crc = content.getInt();
+            if (length <= 0 || length > content.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            content.get(payload);
+            if (crc != checksum(payload)) {
+                log.warn("Record of {} at offset {} is torn, reading stops there", file.getFileName(), content.position() - length - HEADER_SIZE);
+                break;
+            }
+            transactionDtoList.add(decode(payload));
+        }
+        return transactionDtoList;
+    }
+
+    /**
+     * Stores the records the previous run left, like the applier does, and returns how many
+     * there were. Must be called before {@link #start}.
+     */
+    public int recover(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter) throws IOException {
+        Set<String> deadLetters = new HashSet<>();
+        for (TransactionDto transactionDto : readRecords(deadLetterFile)) {
+            deadLetters.add(transactionDto.getReference());
+        }
+        List<TransactionDto> recovered = new ArrayList<>();
+        for (TransactionDto transactionDto : readRecords(file)) {
+            if (!deadLetters.contains(transactionDto.getReference())) {
+                recovered.add(transactionDto);
+            }
+        }
+        for (int from = 0; from < recovered.size(); from += applyBatchSize) {
+            List<TransactionDto> batch = recovered.subList(from, Math.min(from + applyBatchSize, recovered.size()));
+            if (!storeOrDeadLetter(store, transientFailure, deadLetter, batch)) {
+                throw new IllegalStateException("Recovery of the transaction journal was interrupted");
+            }
+        }
+        return recovered.size();
+    }
+
+    /**
+     * Discards what the file held and starts flushing and applying.
+     */
+    public void start(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter) {
+        buffer.putInt(0, 0);
+        buffer.force();
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        applier = new Thread(() -> applyLoop(store, transientFailure, deadLetter), "journal-applier");
+        flusher.setDaemon(true);
+        applier.setDaemon(true);
+        flusher.start();
+        applier.start();
+    }
+
+    /**
+     * Writes the record and returns its sequence, to be passed to {@link #awaitDurable(long)}.
+     * Records become durable in append order.
+     */
+    public long append(TransactionDto transactionDto) {
+        byte[] payload = encode(transactionDto);
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + Integer.BYTES > buffer.capacity()) {
+            throw new IllegalArgumentException("Transaction " + transactionDto.getReference() + " does not fit in the journal");
+        }
+        lock.lock();
+        try {
+            checkRunning();
+            if (buffer.position() + recordSize + Integer.BYTES > buffer.capacity()) {
+                awaitApplied(appended);
+                buffer.position(0);
+            }
+            int position = buffer.position();
+            buffer.position(position + HEADER_SIZE);
+            buffer.put(payload);
+            buffer.putInt(buffer.position(), 0);
+            buffer.putInt(position + Integer.BYTES, checksum(payload));
+            buffer.putInt(position, payload.length);
+            unapplied.addLast(transactionDto);
+            pending.put(transactionDto.getReference(), transactionDto);
+            appended++;
+            long waiting = appended - durable;
+            if (waiting == 1 || waiting >= groupCommitRecords) {
+                flushNeeded.signal();
+            }
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (flusherStopped) {
+                    throw new IllegalStateException(JOURNAL_STOPPED);
+                }
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record appended before the call has been applied to the store.
+     */
+    public void drain() {
+        lock.lock();
+        try {
+            awaitApplied(appended);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the records up to {@code sequence} have been applied to the store.
+     */
+    public void drain(long sequence) {
+        lock.lock();
+        try {
+            awaitApplied(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Accepted transaction that is not in the store yet, or null.
+     */
+    public TransactionDto getPending(String reference) {
+        return pending.get(reference);
+    }
+
+    /**
+     * Flushes and applies what was accepted, then stops both threads.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            closing = true;
+            flushNeeded.signalAll();
+            durableAdvanced.signalAll();
+            applyNeeded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        joinQuietly(flusher);
+        joinQuietly(applier);
+        buffer.force();
+        channel.close();
+        deadLetterChannel.close();
+    }
+
+    private void awaitApplied(long sequence) {
+        flushNeeded.signal();
+        while (applied < sequence) {
+            if (applierStopped) {
+                throw new IllegalStateException(JOURNAL_STOPPED);
+            }
+            appliedAdvanced.awaitUninterruptibly();
+        }
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException(JOURNAL_STOPPED);
+        }
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (running) {
+                if (appended == durable) {
+                    flushNeeded.awaitUninterruptibly();
+                    continue;
+                }
+                if (appended - durable < groupCommitRecords) {
+                    flushNeeded.awaitNanos(groupCommitIntervalNanos);
+                }
+                flush();
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flusherStopped = true;
+            durableAdvanced.signalAll();
+            applyNeeded.signal();
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        long target = appended;
+        if (target == durable) {
+            return;
+        }
+        lock.unlock();
+        try {
+            buffer.force();
+        } finally {
+            lock.lock();
+        }
+        durable = target;
+        durableAdvanced.signalAll();
+        applyNeeded.signal();
+    }
+
+    private void applyLoop(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter) {
+        try {
+            applyDurable(store, transientFailure, deadLetter);
+        } finally {
+            lock.lock();
+            try {
+                applierStopped = true;
+                appliedAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void applyDurable(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter) {
+        while (true) {
+            List<TransactionDto> batch = new ArrayList<>();
+            lock.lock();
+            try {
+                while (applied == durable && !flusherStopped) {
+                    applyNeeded.awaitUninterruptibly();
+                }
+                if (applied == durable) {
+                    return;
+                }
+                Iterator<TransactionDto> iterator = unapplied.iterator();
+                while (batch.size() < applyBatchSize && applied + batch.size() < durable) {
+                    batch.add(iterator.next());
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!applyBatch(store, transientFailure, deadLetter, batch)) {
+                return;
+            }
+        }
+    }
+
+    private boolean applyBatch(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter,
+                               List<TransactionDto> batch) {
+        if (!storeOrDeadLetter(store, transientFailure, deadLetter, batch)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (TransactionDto transactionDto : batch) {
+                unapplied.removeFirst();
+                pending.remove(transactionDto.getReference(), transactionDto);
+            }
+            applied += batch.size();
+            appliedAdvanced.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the batch, retrying transient failures and dead-lettering the rest. Returns false
+     * when the journal is closing, leaving the batch for recovery.
+     */
+    private boolean storeOrDeadLetter(Consumer<List<TransactionDto>> store, Predicate<RuntimeException> transientFailure, Consumer<TransactionDto> deadLetter,
+                                      List<TransactionDto> batch) {
+        while (true) {
+            try {
+                store.accept(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (closing) {
+                    log.error("Applying {} journaled transactions failed while closing, they are left for recovery", batch.size(), e);
+                    return false;
+                }
+                if (!transientFailure.test(e)) {
+                    if (batch.size() == 1) {
+                        moveToDeadLetters(batch.get(0), e);
+                        deadLetter.accept(batch.get(0));
+                        return true;
+                    }
+                    log.warn("Applying {} journaled transactions failed, applying them one by one", batch.size(), e);
+                    for (TransactionDto transactionDto : batch) {
+                        if (!storeOrDeadLetter(store, transientFailure, deadLetter, Collections.singletonList(transactionDto))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                log.error("Applying {} journaled transactions failed, retrying", batch.size(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(APPLY_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void moveToDeadLetters(TransactionDto transactionDto, RuntimeException failure) {
+        log.error("Journaled transaction {} cannot be stored, moved to {}", transactionDto.getReference(), DEAD_LETTER_FILE_NAME, failure);
+        byte[] payload = encode(transactionDto);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        try {
+            while (record.hasRemaining()) {
+                deadLetterChannel.write(record);
+            }
+            deadLetterChannel.force(false);
+        } catch (IOException e) {
+            log.error("Journaled transaction {} could not be written to {}", transactionDto.getReference(), DEAD_LETTER_FILE_NAME, e);
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        if (Objects.isNull(thread)) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+
+    static byte[] encode(TransactionDto transactionDto) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(transactionDto.getReference());
+            out.writeUTF(transactionDto.getAccountIBAN());
+            out.writeLong(Objects.isNull(transactionDto.getDate()) ? UNDATED : transactionDto.getDate().getTime());
+            out.writeUTF(transactionDto.getAmmount().toString());
+            out.writeUTF(transactionDto.getFee().toString());
+            out.writeBoolean(Objects.nonNull(transactionDto.getDescription()));
+            if (Objects.nonNull(transactionDto.getDescription())) {
+                out.writeUTF(transactionDto.getDescription());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static TransactionDto decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            TransactionDto transactionDto = new TransactionDto();
+            transactionDto.setReference(in.readUTF());
+            transactionDto.setAccountIBAN(in.readUTF());
+            long date = in.readLong();
+            transactionDto.setDate(date == UNDATED ? null : new Date(date));
+            transactionDto.setAmmount(new BigDecimal(in.readUTF()));
+            transactionDto.setFee(new BigDecimal(in.readUTF()));
+            transactionDto.setDescription(in.readBoolean() ? in.readUTF() : null);
+            return transactionDto;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.rfc.transactions.mapper;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.projection.TransactionRow;
+import com.rfc.transactions.utils.Money;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Converts between {@link TransactionDto} and {@link TransactionsEntity} with plain constructor calls,
+ * copying the mutable {@link Date} so both sides never share it.
+ */
+@Component
+public class TransactionMapper {
+
+    private final ZoneId zoneId;
+
+    public TransactionMapper(Clock clock) {
+        this.zoneId = clock.getZone();
+    }
+
+    public TransactionsEntity toEntity(TransactionDto transactionDto) {
+        return new TransactionsEntity(transactionDto.getReference(), transactionDto.getAccountIBAN(), copyOf(transactionDto.getDate()),
+                transactionDto.getAmmount(), transactionDto.getFee(), transactionDto.getDescription());
+    }
+
+    public TransactionDto toDto(TransactionsEntity transactionsEntity) {
+        return new TransactionDto(transactionsEntity.getReference(), transactionsEntity.getAccountIBAN(), copyOf(transactionsEntity.getDate()),
+                transactionsEntity.getAmmount(), transactionsEntity.getFee(), transactionsEntity.getDescription());
+    }
+
+    public TransactionSnapshot toSnapshot(TransactionsEntity transactionsEntity) {
+        return new TransactionSnapshot(transactionsEntity.getReference(), transactionsEntity.getAccountIBAN(),
+                toEpochDay(transactionsEntity.getDate()),
+                toMinor(transactionsEntity.getAmmount()), toMinor(transactionsEntity.getFee()));
+    }
+
+    public TransactionDto toDto(TransactionRow transactionRow) {
+        return new TransactionDto(transactionRow.getReference(), transactionRow.getAccountIBAN(),
+                transactionRow.getDate() == TransactionRow.UNDATED ? null : new Date(transactionRow.getDate()),
+                TransactionRow.toDecimal(transactionRow.getAmmount()), TransactionRow.toDecimal(transactionRow.getFee()), transactionRow.getDescription());
+    }
+
+    public TransactionSnapshot toSnapshot(TransactionRow transactionRow) {
+        return new TransactionSnapshot(transactionRow.getReference(), transactionRow.getAccountIBAN(),
+                transactionRow.getDate() == TransactionRow.UNDATED ? TransactionSnapshot.UNDATED : toEpochDay(transactionRow.getDate()),
+                toMinor(transactionRow.getAmmount()), toMinor(transactionRow.getFee()));
+    }
+
+    public long toEpochDay(Date date) {
+        return Objects.isNull(date) ? TransactionSnapshot.UNDATED : toEpochDay(date.getTime());
+    }
+
+    private long toEpochDay(long epochMilli) {
+        return Instant.ofEpochMilli(epochMilli).atZone(zoneId).toLocalDate().toEpochDay();
+    }
+
+    private long toMinor(BigDecimal amount) {
+        return Objects.isNull(amount) ? 0 : Money.toMinor(amount);
+    }
+
+    private long toMinor(long amount) {
+        return amount == TransactionRow.NO_AMOUNT ? 0 : amount;
+    }
+
+    private Date copyOf(Date date) {
+        return Objects.isNull(date) ? null : new Date(date.getTime());
+    }
+}
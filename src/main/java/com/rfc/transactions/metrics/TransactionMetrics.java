@@ -0,0 +1,144 @@
+package com.rfc.transactions.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the transaction operations, registered up front and looked up by enum ordinal so
+ * recording builds no tags. Endpoint latency is timed by Spring as {@code http.server.requests}.
+ */
+@Component
+public class TransactionMetrics {
+
+    public enum Stage {
+        ACCOUNT_LOAD("account.load"),
+        BALANCE_CALCULATION("balance.calculation"),
+        ACCOUNT_SAVE("account.save"),
+        TRANSACTION_INSERT("transaction.insert"),
+        TRANSACTION_QUERY("transaction.query"),
+        MAPPING("mapping"),
+        STATUS_LOOKUP("status.lookup"),
+        STATUS_EVALUATION("status.evaluation"),
+        JOURNAL_COMMIT("journal.commit"),
+        PROJECTION_QUERY("projection.query");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Operation {
+        CREATE("create"),
+        BATCH("batch"),
+        LISTING("listing"),
+        STATUS("status"),
+        BULK_STATUS("status.bulk"),
+        STATS("stats");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Timer[] stageTimers = new Timer[Stage.values().length];
+
+    private final AtomicInteger[] inFlight = new AtomicInteger[Operation.values().length];
+
+    private final Counter zeroBalanceErrors;
+
+    private final Counter accountNotFoundErrors;
+
+    private final Counter admitted;
+
+    private final Counter rateLimited;
+
+    private final Counter shed;
+
+    private final Counter journalDeadLetters;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers[stage.ordinal()] = Timer.builder("transactions.stage")
+                    .description("Time spent in each internal stage of the transaction operations")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        for (Operation operation : Operation.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlight[operation.ordinal()] = counter;
+            Gauge.builder("transactions.inflight", counter, AtomicInteger::get)
+                    .description("Operations currently being served")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry);
+        }
+        zeroBalanceErrors = errorCounter(meterRegistry, "ZeroBalanceException");
+        accountNotFoundErrors = errorCounter(meterRegistry, "AccountNotFoundException");
+        admitted = admissionCounter(meterRegistry, "admitted");
+        rateLimited = admissionCounter(meterRegistry, "rate.limited");
+        shed = admissionCounter(meterRegistry, "shed");
+        journalDeadLetters = Counter.builder("transactions.journal.dead.letters")
+                .description("Journaled transactions that could not be stored and were moved aside")
+                .register(meterRegistry);
+    }
+
+    public void record(Stage stage, long startNanos) {
+        stageTimers[stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void enter(Operation operation) {
+        inFlight[operation.ordinal()].incrementAndGet();
+    }
+
+    public void exit(Operation operation) {
+        inFlight[operation.ordinal()].decrementAndGet();
+    }
+
+    public void zeroBalance() {
+        zeroBalanceErrors.increment();
+    }
+
+    public void accountNotFound() {
+        accountNotFoundErrors.increment();
+    }
+
+    public void admitted() {
+        admitted.increment();
+    }
+
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    public void shed() {
+        shed.increment();
+    }
+
+    public void journalDeadLetter() {
+        journalDeadLetters.increment();
+    }
+
+    private Counter admissionCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transactions.admission")
+                .description("Transaction submissions admitted or rejected before reaching the database")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter errorCounter(MeterRegistry meterRegistry, String exception) {
+        return Counter.builder("transactions.errors")
+                .description("Business errors raised by the transaction operations")
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
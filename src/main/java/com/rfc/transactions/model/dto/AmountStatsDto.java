@@ -0,0 +1,29 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmountStatsDto {
+
+    private BigDecimal total;
+
+    private BigDecimal average;
+
+    private BigDecimal min;
+
+    private BigDecimal max;
+
+    private BigDecimal p50;
+
+    private BigDecimal p90;
+
+    private BigDecimal p99;
+}
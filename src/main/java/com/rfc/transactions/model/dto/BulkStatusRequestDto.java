@@ -0,0 +1,19 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequestDto {
+
+    private List<String> references;
+
+    private ChannelDto channel;
+}
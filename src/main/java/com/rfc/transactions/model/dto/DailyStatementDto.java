@@ -0,0 +1,30 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatementDto {
+
+    private LocalDate day;
+
+    private BigDecimal credits;
+
+    private BigDecimal debits;
+
+    private BigDecimal fees;
+
+    private BigDecimal net;
+
+    private long transactions;
+
+    private BigDecimal closingBalance;
+}
@@ -0,0 +1,26 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDto {
+
+    private long records;
+
+    private long created;
+
+    private long rejected;
+
+    /**
+     * The first rejected records only, so the result stays small for any file.
+     */
+    private List<BatchItemResultDto> errors;
+}
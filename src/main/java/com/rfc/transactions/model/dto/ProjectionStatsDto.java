@@ -0,0 +1,21 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionStatsDto {
+
+    private boolean ready;
+
+    private int transactions;
+
+    private int accounts;
+
+    private long estimatedBytes;
+}
@@ -0,0 +1,38 @@
+package com.rfc.transactions.model.dto;
+
+import com.rfc.transactions.Exceptions.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+import static com.rfc.transactions.utils.Cons.INVALID_CURSOR_ERROR;
+
+/**
+ * Keyset position of a listing page, written as {@code <ammount>,<id>} of the last row returned.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursorDto {
+
+    private BigDecimal ammount;
+
+    private Integer id;
+
+    public static TransactionCursorDto parse(String cursor) {
+        int separator = cursor.lastIndexOf(',');
+        if (separator < 0) {
+            throw new InvalidCursorException(INVALID_CURSOR_ERROR);
+        }
+        try {
+            return new TransactionCursorDto(new BigDecimal(cursor.substring(0, separator)), Integer.valueOf(cursor.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(INVALID_CURSOR_ERROR);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ammount.toPlainString() + "," + id;
+    }
+}
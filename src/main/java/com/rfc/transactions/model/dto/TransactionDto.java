@@ -1,6 +1,7 @@
 package com.rfc.transactions.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rfc.transactions.utils.ReferenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,9 +10,7 @@ import org.springframework.util.StringUtils;
 
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.Date;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -39,7 +38,7 @@ public class TransactionDto {
     }
 
     private String checkEmptyReference(String reference) {
-        return !StringUtils.isEmpty(reference) ? reference : UUID.nameUUIDFromBytes(LocalDate.now().toString().getBytes()).toString();
+        return !StringUtils.isEmpty(reference) ? reference : ReferenceGenerator.next();
     }
 
 }
\ No newline at end of file
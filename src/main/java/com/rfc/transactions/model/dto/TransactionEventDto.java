@@ -0,0 +1,31 @@
+package com.rfc.transactions.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionEventDto {
+
+    private TransactionEventTypeDto type;
+
+    private String reference;
+
+    private String accountIBAN;
+
+    private StatusDto previousStatus;
+
+    private StatusDto status;
+
+    private BigDecimal ammount;
+
+    private BigDecimal fee;
+}
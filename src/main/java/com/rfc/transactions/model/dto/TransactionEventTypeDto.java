@@ -0,0 +1,7 @@
+package com.rfc.transactions.model.dto;
+
+public enum TransactionEventTypeDto {
+
+    CREATED,
+    STATUS_CHANGED
+}
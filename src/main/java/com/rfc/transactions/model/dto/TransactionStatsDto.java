@@ -0,0 +1,27 @@
+package com.rfc.transactions.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionStatsDto {
+
+    private String accountIBAN;
+
+    private LocalDate day;
+
+    private long count;
+
+    private AmountStatsDto ammount;
+
+    private AmountStatsDto fee;
+}
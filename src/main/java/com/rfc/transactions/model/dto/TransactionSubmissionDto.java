@@ -0,0 +1,17 @@
+package com.rfc.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a transaction submission, {@code replayed} when the reference was already
+ * applied and {@code transaction} is the original one.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionSubmissionDto {
+
+    private final TransactionDto transaction;
+
+    private final boolean replayed;
+}
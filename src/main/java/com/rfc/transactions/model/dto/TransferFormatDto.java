@@ -0,0 +1,27 @@
+package com.rfc.transactions.model.dto;
+
+import static com.rfc.transactions.utils.Cons.CSV_MEDIA_TYPE;
+import static com.rfc.transactions.utils.Cons.NDJSON_MEDIA_TYPE;
+
+public enum TransferFormatDto {
+
+    CSV(CSV_MEDIA_TYPE, "csv"),
+    NDJSON(NDJSON_MEDIA_TYPE, "ndjson");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    TransferFormatDto(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -5,9 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import javax.persistence.Entity;
-import javax.persistence.Id;
-import javax.persistence.Table;
+import javax.persistence.*;
 import java.math.BigDecimal;
 
 @Getter
@@ -19,11 +17,16 @@ import java.math.BigDecimal;
 public class AccountEntity {
 
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Column(unique = true, nullable = false)
+    private String iban;
+
     private BigDecimal balance;
 
-    public AccountEntity(BigDecimal balance) {
+    public AccountEntity(String iban, BigDecimal balance) {
+        this.iban = iban;
         this.balance = balance;
     }
 
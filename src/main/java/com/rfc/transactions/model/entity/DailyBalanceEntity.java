@@ -0,0 +1,50 @@
+package com.rfc.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Movements of one account on one value date. Rows are updated in the same transaction that
+ * stores the transactions, so they always add up to the account balance.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_balance", uniqueConstraints = @UniqueConstraint(name = "uk_daily_balance_iban_day", columnNames = {"accountIBAN", "day"}))
+public class DailyBalanceEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    private String accountIBAN;
+
+    private LocalDate day;
+
+    private BigDecimal credits;
+
+    private BigDecimal debits;
+
+    private BigDecimal fees;
+
+    private BigDecimal net;
+
+    /**
+     * Net of every day of the account up to this one included.
+     */
+    private BigDecimal runningNet;
+
+    private long transactions;
+
+    public DailyBalanceEntity(String accountIBAN, LocalDate day) {
+        this(null, accountIBAN, day, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+}
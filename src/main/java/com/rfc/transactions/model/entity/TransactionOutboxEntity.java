@@ -0,0 +1,59 @@
+package com.rfc.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Transaction committed with its balance movement in the main datasource and not yet known
+ * to be copied to its shard. The id is the one the shard row gets.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_outbox", indexes = {
+        @Index(name = "idx_transaction_outbox_reference", columnList = "reference"),
+        @Index(name = "idx_transaction_outbox_iban", columnList = "accountIBAN")
+})
+public class TransactionOutboxEntity implements Persistable<Integer> {
+
+    @Id
+    private Integer id;
+
+    private String reference;
+
+    private String accountIBAN;
+
+    private Date date;
+
+    private BigDecimal ammount;
+
+    private BigDecimal fee;
+
+    private String description;
+
+    public TransactionOutboxEntity(TransactionsEntity transactionsEntity) {
+        this(transactionsEntity.getId(), transactionsEntity.getReference(), transactionsEntity.getAccountIBAN(), transactionsEntity.getDate(),
+                transactionsEntity.getAmmount(), transactionsEntity.getFee(), transactionsEntity.getDescription());
+    }
+
+    public TransactionsEntity toTransaction() {
+        return new TransactionsEntity(id, reference, accountIBAN, date, ammount, fee, description);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.rfc.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Reference of a transaction stored in the shards, kept in the main datasource so references
+ * are unique across every shard. Rows are only inserted, in the transaction that moves the
+ * balance, so {@link #isNew()} spares the select a merge would run first.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_reference")
+public class TransactionReferenceEntity implements Persistable<String> {
+
+    @Id
+    private String reference;
+
+    @Override
+    public String getId() {
+        return reference;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rfc.transactions.model.entity;
 
+import com.rfc.transactions.event.TransactionDeletionListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,16 +10,23 @@ import javax.persistence.*;
 import java.math.BigDecimal;
 import java.util.Date;
 
+import static com.rfc.transactions.utils.Cons.TRANSACTIONS_ID_ALLOCATION_SIZE;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@EntityListeners(TransactionDeletionListener.class)
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_iban_ammount_id", columnList = "accountIBAN, ammount, id"),
+        @Index(name = "idx_transactions_date", columnList = "date")
+})
 public class TransactionsEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = TRANSACTIONS_ID_ALLOCATION_SIZE)
     private Integer id;
 
     @Column(unique = true)
@@ -0,0 +1,29 @@
+package com.rfc.transactions.model.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable view of a stored transaction, safe to share between threads and keep in memory.
+ * The transaction date is kept as its epoch day in the application clock zone and the
+ * amounts as cents, see {@link com.rfc.transactions.utils.Money}.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionSnapshot {
+
+    /**
+     * Epoch day of a transaction stored without date, evaluated as booked today.
+     */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    private final String reference;
+
+    private final String accountIBAN;
+
+    private final long epochDay;
+
+    private final long ammount;
+
+    private final long fee;
+}
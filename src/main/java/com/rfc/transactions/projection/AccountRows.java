@@ -0,0 +1,178 @@
+package com.rfc.transactions.projection;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Rows of one account, sorted by id and by (ammount, id): immutable arrays plus skip lists
+ * with the rows added since, merged once the skip lists hold a quarter of the arrays. Both
+ * parts are published with one volatile write, so readers never lock.
+ */
+final class AccountRows {
+
+    private static final TransactionRow[] NO_ROWS = new TransactionRow[0];
+
+    /**
+     * Fewest added rows merged into the run, so small accounts are not copied on every write.
+     */
+    private static final int MERGE_ROWS = 1024;
+
+    static final Rows EMPTY = new Rows(NO_ROWS, NO_ROWS, Collections.emptyNavigableSet(), Collections.emptyNavigableSet());
+
+    private final String IBAN;
+
+    private volatile Rows rows = Rows.unmerged(NO_ROWS, NO_ROWS);
+
+    private int added;
+
+    AccountRows(String IBAN) {
+        this.IBAN = IBAN;
+    }
+
+    String getIBAN() {
+        return IBAN;
+    }
+
+    Rows get() {
+        return rows;
+    }
+
+    synchronized void add(Collection<TransactionRow> addedRows) {
+        Rows current = rows;
+        for (TransactionRow transactionRow : addedRows) {
+            current.addedById.add(transactionRow);
+            current.addedByAmmount.add(transactionRow);
+        }
+        added += addedRows.size();
+        if (added > Math.max(MERGE_ROWS, current.byId.length >> 2)) {
+            rows = Rows.unmerged(merge(current.byId, current.addedById.toArray(NO_ROWS), TransactionProjection.BY_ID),
+                    merge(current.byAmmount, current.addedByAmmount.toArray(NO_ROWS), TransactionProjection.BY_AMMOUNT));
+            added = 0;
+        }
+    }
+
+    private static TransactionRow[] merge(TransactionRow[] current, TransactionRow[] added, Comparator<TransactionRow> order) {
+        TransactionRow[] merged = new TransactionRow[current.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < current.length && j < added.length) {
+            merged[k++] = order.compare(current[i], added[j]) <= 0 ? current[i++] : added[j++];
+        }
+        System.arraycopy(current, i, merged, k, current.length - i);
+        System.arraycopy(added, j, merged, k + current.length - i, added.length - j);
+        return merged;
+    }
+
+    static final class Rows {
+
+        private final TransactionRow[] byId;
+
+        private final TransactionRow[] byAmmount;
+
+        private final long[] ammounts;
+
+        private final int[] ids;
+
+        private final NavigableSet<TransactionRow> addedById;
+
+        private final NavigableSet<TransactionRow> addedByAmmount;
+
+        private Rows(TransactionRow[] byId, TransactionRow[] byAmmount, NavigableSet<TransactionRow> addedById, NavigableSet<TransactionRow> addedByAmmount) {
+            this.byId = byId;
+            this.byAmmount = byAmmount;
+            this.addedById = addedById;
+            this.addedByAmmount = addedByAmmount;
+            this.ammounts = new long[byAmmount.length];
+            this.ids = new int[byAmmount.length];
+            for (int i = 0; i < byAmmount.length; i++) {
+                ammounts[i] = byAmmount[i].getAmmount();
+                ids[i] = byAmmount[i].getId();
+            }
+        }
+
+        private static Rows unmerged(TransactionRow[] byId, TransactionRow[] byAmmount) {
+            return new Rows(byId, byAmmount, new ConcurrentSkipListSet<>(TransactionProjection.BY_ID), new ConcurrentSkipListSet<>(TransactionProjection.BY_AMMOUNT));
+        }
+
+        List<TransactionRow> byId() {
+            return walk(byId, 0, false, addedById.iterator(), TransactionProjection.BY_ID, Integer.MAX_VALUE);
+        }
+
+        List<TransactionRow> byAmmount(boolean descending) {
+            if (descending) {
+                return walk(byAmmount, byAmmount.length - 1, true, addedByAmmount.descendingIterator(), TransactionProjection.BY_AMMOUNT, Integer.MAX_VALUE);
+            }
+            return walk(byAmmount, 0, false, addedByAmmount.iterator(), TransactionProjection.BY_AMMOUNT, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Up to {@code limit} rows by (ammount, id) strictly after the cursor, or from the start
+         * when {@code after} is null. Descending pages go the other way.
+         */
+        List<TransactionRow> page(boolean descending, TransactionRow after, int limit) {
+            if (descending) {
+                int end = Objects.isNull(after) ? byAmmount.length : search(after.getAmmount(), after.getId(), true);
+                Iterator<TransactionRow> added = (Objects.isNull(after) ? addedByAmmount : addedByAmmount.headSet(after, false)).descendingIterator();
+                return walk(byAmmount, end - 1, true, added, TransactionProjection.BY_AMMOUNT, limit);
+            }
+            int start = Objects.isNull(after) ? 0 : search(after.getAmmount(), after.getId(), false);
+            Iterator<TransactionRow> added = (Objects.isNull(after) ? addedByAmmount : addedByAmmount.tailSet(after, false)).iterator();
+            return walk(byAmmount, start, false, added, TransactionProjection.BY_AMMOUNT, limit);
+        }
+
+        /**
+         * Every row, the ones of the run first.
+         */
+        void forEach(Consumer<TransactionRow> consumer) {
+            for (TransactionRow transactionRow : byId) {
+                consumer.accept(transactionRow);
+            }
+            addedById.forEach(consumer);
+        }
+
+        /**
+         * Up to {@code limit} rows of the run from {@code from} on, walking backwards when
+         * {@code descending}, merged with the added rows that come in the same direction.
+         */
+        private static List<TransactionRow> walk(TransactionRow[] run, int from, boolean descending, Iterator<TransactionRow> added,
+                                                 Comparator<TransactionRow> order, int limit) {
+            int step = descending ? -1 : 1;
+            int remaining = descending ? from + 1 : run.length - from;
+            List<TransactionRow> transactionRows = new ArrayList<>(Math.min(limit, remaining));
+            TransactionRow next = added.hasNext() ? added.next() : null;
+            int i = from;
+            while (transactionRows.size() < limit && (remaining > 0 || Objects.nonNull(next))) {
+                if (remaining > 0 && (Objects.isNull(next) || (order.compare(run[i], next) < 0) != descending)) {
+                    transactionRows.add(run[i]);
+                    i += step;
+                    remaining--;
+                } else {
+                    transactionRows.add(next);
+                    next = added.hasNext() ? added.next() : null;
+                }
+            }
+            return transactionRows;
+        }
+
+        /**
+         * Index of the first row of the run by (ammount, id) after (ammount, id), or at it when
+         * {@code inclusive}.
+         */
+        private int search(long ammount, int id, boolean inclusive) {
+            int low = 0;
+            int high = ammounts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = ammounts[middle] != ammount ? Long.compare(ammounts[middle], ammount) : Integer.compare(ids[middle], id);
+                if (comparison > 0 || (inclusive && comparison == 0)) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+}
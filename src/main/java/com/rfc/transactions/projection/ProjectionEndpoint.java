@@ -0,0 +1,33 @@
+package com.rfc.transactions.projection;
+
+import com.rfc.transactions.model.dto.ProjectionStatsDto;
+import com.rfc.transactions.service.TransactionProjectionService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/projection} reports the size and estimated memory of the projection,
+ * {@code POST /actuator/projection} rebuilds it from the database.
+ */
+@AllArgsConstructor
+@Component
+@ConditionalOnProperty("transactions.projection.enabled")
+@Endpoint(id = "projection")
+public class ProjectionEndpoint {
+
+    private TransactionProjectionService transactionProjectionService;
+
+    @ReadOperation
+    public ProjectionStatsDto stats() {
+        return transactionProjectionService.getStats();
+    }
+
+    @WriteOperation
+    public ProjectionStatsDto rebuild() {
+        return transactionProjectionService.rebuild();
+    }
+}
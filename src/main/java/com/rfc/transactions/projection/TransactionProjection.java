@@ -0,0 +1,139 @@
+package com.rfc.transactions.projection;
+
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-memory read model of the stored transactions, by id and by (ammount, id). The reference
+ * index drops rows added twice, which lets a rebuild overlap the writes.
+ */
+public class TransactionProjection {
+
+    static final Comparator<TransactionRow> BY_ID = Comparator.comparingInt(TransactionRow::getId);
+
+    static final Comparator<TransactionRow> BY_AMMOUNT = Comparator.comparingLong(TransactionRow::getAmmount).thenComparingInt(TransactionRow::getId);
+
+    /**
+     * Estimated bytes per row with compressed oops: the row, its slots in the account arrays,
+     * the reference index entry and the nodes of both skip lists. Strings are added apart.
+     */
+    private static final int ROW_BYTES = 56 + 20 + 40 + 2 * 32;
+
+    private static final int ACCOUNT_BYTES = 160;
+
+    private final Map<String, TransactionRow> byReference = new ConcurrentHashMap<>();
+
+    private final Map<String, AccountRows> byIban = new ConcurrentHashMap<>();
+
+    private final NavigableSet<TransactionRow> allById = new ConcurrentSkipListSet<>(BY_ID);
+
+    private final NavigableSet<TransactionRow> allByAmmount = new ConcurrentSkipListSet<>(BY_AMMOUNT);
+
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    /**
+     * Adds stored transactions, which must have their id. References already present are skipped.
+     */
+    public void add(Collection<TransactionsEntity> transactionsEntities) {
+        Map<AccountRows, List<TransactionRow>> added = new HashMap<>();
+        for (TransactionsEntity transactionsEntity : transactionsEntities) {
+            AccountRows accountRows = byIban.computeIfAbsent(transactionsEntity.getAccountIBAN(), this::newAccount);
+            TransactionRow transactionRow = toRow(transactionsEntity, accountRows.getIBAN());
+            if (Objects.isNull(byReference.putIfAbsent(transactionRow.getReference(), transactionRow))) {
+                added.computeIfAbsent(accountRows, k -> new ArrayList<>()).add(transactionRow);
+                allById.add(transactionRow);
+                allByAmmount.add(transactionRow);
+                estimatedBytes.add(ROW_BYTES + stringBytes(transactionRow.getReference()) + stringBytes(transactionRow.getDescription()));
+            }
+        }
+        added.forEach(AccountRows::add);
+    }
+
+    public TransactionRow get(String reference) {
+        return byReference.get(reference);
+    }
+
+    /**
+     * Every row of the account, or of all accounts when {@code IBAN} is empty, by id or by ammount.
+     */
+    public List<TransactionRow> list(String IBAN, SortDirectionDto sortAmmount) {
+        if (StringUtils.isEmpty(IBAN)) {
+            if (Objects.isNull(sortAmmount)) {
+                return new ArrayList<>(allById);
+            }
+            return new ArrayList<>(sortAmmount == SortDirectionDto.DESC ? allByAmmount.descendingSet() : allByAmmount);
+        }
+        AccountRows.Rows rows = rowsOf(IBAN);
+        return Objects.isNull(sortAmmount) ? rows.byId() : rows.byAmmount(sortAmmount == SortDirectionDto.DESC);
+    }
+
+    /**
+     * Up to {@code limit} rows by (ammount, id) strictly after the cursor, or from the start
+     * when {@code after} is null. Descending pages go the other way.
+     */
+    public List<TransactionRow> page(String IBAN, boolean descending, TransactionRow after, int limit) {
+        if (StringUtils.isEmpty(IBAN)) {
+            NavigableSet<TransactionRow> rows = descending ? allByAmmount.descendingSet() : allByAmmount;
+            Iterator<TransactionRow> iterator = (Objects.isNull(after) ? rows : rows.tailSet(after, false)).iterator();
+            List<TransactionRow> transactionRows = new ArrayList<>(limit);
+            while (transactionRows.size() < limit && iterator.hasNext()) {
+                transactionRows.add(iterator.next());
+            }
+            return transactionRows;
+        }
+        return rowsOf(IBAN).page(descending, after, limit);
+    }
+
+    /**
+     * Every row of the account, or of all accounts when {@code IBAN} is empty, account after
+     * account.
+     */
+    public void forEach(String IBAN, Consumer<TransactionRow> consumer) {
+        if (!StringUtils.isEmpty(IBAN)) {
+            rowsOf(IBAN).forEach(consumer);
+            return;
+        }
+        for (AccountRows accountRows : byIban.values()) {
+            accountRows.get().forEach(consumer);
+        }
+    }
+
+    public int size() {
+        return byReference.size();
+    }
+
+    public int accounts() {
+        return byIban.size();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.sum();
+    }
+
+    private AccountRows.Rows rowsOf(String IBAN) {
+        AccountRows accountRows = byIban.get(IBAN);
+        return Objects.isNull(accountRows) ? AccountRows.EMPTY : accountRows.get();
+    }
+
+    private AccountRows newAccount(String IBAN) {
+        estimatedBytes.add(ACCOUNT_BYTES + stringBytes(IBAN));
+        return new AccountRows(IBAN);
+    }
+
+    private static TransactionRow toRow(TransactionsEntity transactionsEntity, String IBAN) {
+        return new TransactionRow(transactionsEntity.getId(), transactionsEntity.getReference(), IBAN,
+                Objects.isNull(transactionsEntity.getDate()) ? TransactionRow.UNDATED : transactionsEntity.getDate().getTime(),
+                TransactionRow.toMinor(transactionsEntity.getAmmount()), TransactionRow.toMinor(transactionsEntity.getFee()), transactionsEntity.getDescription());
+    }
+
+    private static long stringBytes(String value) {
+        return Objects.isNull(value) ? 0 : 24 + ((16 + value.length() + 7) & ~7);
+    }
+}
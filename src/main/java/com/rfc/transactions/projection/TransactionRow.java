@@ -0,0 +1,50 @@
+package com.rfc.transactions.projection;
+
+import com.rfc.transactions.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Stored transaction as held by the {@link TransactionProjection}: amounts in cents and the
+ * date as epoch milliseconds, so a row is one object plus its strings.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionRow {
+
+    /**
+     * Date of a transaction stored without one.
+     */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    /**
+     * Ammount or fee of a transaction stored without one. No amount in cents reaches it, and it
+     * sorts first like the nulls of the database.
+     */
+    public static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private final int id;
+
+    private final String reference;
+
+    private final String accountIBAN;
+
+    private final long date;
+
+    private final long ammount;
+
+    private final long fee;
+
+    private final String description;
+
+    public static long toMinor(BigDecimal amount) {
+        return Objects.isNull(amount) ? NO_AMOUNT : Money.toMinor(amount);
+    }
+
+    public static BigDecimal toDecimal(long amount) {
+        return amount == NO_AMOUNT ? null : Money.toDecimal(amount);
+    }
+}
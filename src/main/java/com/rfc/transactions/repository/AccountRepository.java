@@ -4,6 +4,20 @@ import com.rfc.transactions.model.entity.AccountEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AccountRepository extends JpaRepository<AccountEntity, Integer> {
+
+    Optional<AccountEntity> findByIban(String iban);
+
+    List<AccountIdView> findAllProjectedBy();
+
+    interface AccountIdView {
+
+        Integer getId();
+
+        String getIban();
+    }
 }
@@ -0,0 +1,34 @@
+package com.rfc.transactions.repository;
+
+import com.rfc.transactions.model.entity.DailyBalanceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyBalanceRepository extends JpaRepository<DailyBalanceEntity, Integer> {
+
+    List<DailyBalanceEntity> findByAccountIBANAndDayIn(String accountIBAN, Collection<LocalDate> days);
+
+    List<DailyBalanceEntity> findByAccountIBANAndDayBetweenOrderByDayAsc(String accountIBAN, LocalDate from, LocalDate to);
+
+    Optional<DailyBalanceEntity> findFirstByAccountIBANAndDayLessThanEqualOrderByDayDesc(String accountIBAN, LocalDate day);
+
+    Optional<DailyBalanceEntity> findFirstByAccountIBANOrderByDayDesc(String accountIBAN);
+
+    @Modifying
+    @Query("update DailyBalanceEntity d set d.runningNet = d.runningNet + :net where d.accountIBAN = :accountIBAN and d.day > :after and d.day < :before")
+    int addRunningNetBetween(@Param("accountIBAN") String accountIBAN, @Param("after") LocalDate after, @Param("before") LocalDate before, @Param("net") BigDecimal net);
+
+    @Modifying
+    @Query("update DailyBalanceEntity d set d.runningNet = d.runningNet + :net where d.accountIBAN = :accountIBAN and d.day > :after")
+    int addRunningNetAfter(@Param("accountIBAN") String accountIBAN, @Param("after") LocalDate after, @Param("net") BigDecimal net);
+}
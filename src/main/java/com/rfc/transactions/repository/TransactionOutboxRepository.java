@@ -0,0 +1,32 @@
+package com.rfc.transactions.repository;
+
+import com.rfc.transactions.model.entity.TransactionOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionOutboxRepository extends JpaRepository<TransactionOutboxEntity, Integer> {
+
+    Optional<TransactionOutboxEntity> findByReference(String reference);
+
+    List<TransactionOutboxEntity> findByReferenceIn(Collection<String> references);
+
+    List<TransactionOutboxEntity> findByAccountIBAN(String accountIBAN);
+
+    List<TransactionOutboxEntity> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    @Query("select max(o.id) from TransactionOutboxEntity o")
+    Integer findMaxId();
+
+    @Modifying
+    @Query("delete from TransactionOutboxEntity o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+}
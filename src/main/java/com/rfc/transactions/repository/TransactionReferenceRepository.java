@@ -0,0 +1,17 @@
+package com.rfc.transactions.repository;
+
+import com.rfc.transactions.model.entity.TransactionReferenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TransactionReferenceRepository extends JpaRepository<TransactionReferenceEntity, String> {
+
+    @Query("select r.reference from TransactionReferenceEntity r where r.reference in :references")
+    List<String> findReferencesIn(@Param("references") Collection<String> references);
+}
@@ -1,12 +1,25 @@
 package com.rfc.transactions.repository;
 
 import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.rfc.transactions.utils.Cons.STATS_AGGREGATES;
+import static com.rfc.transactions.utils.Cons.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TransactionsRepository extends JpaRepository<TransactionsEntity, Integer> {
@@ -14,4 +27,47 @@ public interface TransactionsRepository extends JpaRepository<TransactionsEntity
     List<TransactionsEntity> findByAccountIBAN(String accountIBAN, Sort sort);
 
     Optional<TransactionsEntity> findByReference(String reference);
+
+    List<TransactionsEntity> findByReferenceIn(Collection<String> references);
+
+    @Query("select t.reference from TransactionsEntity t where t.reference in :references")
+    List<String> findReferencesIn(@Param("references") Collection<String> references);
+
+    List<TransactionsEntity> findByAccountIBAN(String accountIBAN, Pageable pageable);
+
+    List<TransactionsEntity> findAllBy(Pageable pageable);
+
+    @Query("select t from TransactionsEntity t where t.accountIBAN = :accountIBAN and (t.ammount > :ammount or (t.ammount = :ammount and t.id > :id))")
+    List<TransactionsEntity> findByAccountIBANAfter(@Param("accountIBAN") String accountIBAN, @Param("ammount") BigDecimal ammount, @Param("id") Integer id, Pageable pageable);
+
+    @Query("select t from TransactionsEntity t where t.accountIBAN = :accountIBAN and (t.ammount < :ammount or (t.ammount = :ammount and t.id < :id))")
+    List<TransactionsEntity> findByAccountIBANBefore(@Param("accountIBAN") String accountIBAN, @Param("ammount") BigDecimal ammount, @Param("id") Integer id, Pageable pageable);
+
+    @Query("select t from TransactionsEntity t where t.ammount > :ammount or (t.ammount = :ammount and t.id > :id)")
+    List<TransactionsEntity> findAllAfter(@Param("ammount") BigDecimal ammount, @Param("id") Integer id, Pageable pageable);
+
+    @Query("select t from TransactionsEntity t where t.ammount < :ammount or (t.ammount = :ammount and t.id < :id)")
+    List<TransactionsEntity> findAllBefore(@Param("ammount") BigDecimal ammount, @Param("id") Integer id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<TransactionsEntity> streamByAccountIBAN(String accountIBAN, Sort sort);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<TransactionsEntity> streamAllBy(Sort sort);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select t from TransactionsEntity t where t.date >= :from and t.date < :to order by t.date, t.id")
+    Stream<TransactionsEntity> streamDatedBetween(@Param("from") Date from, @Param("to") Date to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select t from TransactionsEntity t where t.accountIBAN = :accountIBAN and t.date >= :from and t.date < :to order by t.date, t.id")
+    Stream<TransactionsEntity> streamByAccountIBANDatedBetween(@Param("accountIBAN") String accountIBAN, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * One row per account: the IBAN and the columns of {@link com.rfc.transactions.utils.Cons#STATS_AGGREGATES}.
+     * An empty IBAN selects every account; the dates only apply when {@code dated}.
+     */
+    @Query(value = "select accountiban, " + STATS_AGGREGATES + " from transactions where (:IBAN = '' or accountiban = :IBAN) "
+            + "and (:dated = false or (date >= :from and date < :to)) group by accountiban order by accountiban", nativeQuery = true)
+    List<Object[]> aggregateByAccount(@Param("IBAN") String IBAN, @Param("dated") boolean dated, @Param("from") Date from, @Param("to") Date to);
 }
@@ -0,0 +1,32 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Optional fields of the hand-written serializers, left out when null like
+ * {@code JsonInclude.Include.NON_NULL} does.
+ */
+final class Fields {
+
+    private Fields() {
+    }
+
+    static void writeString(JsonGenerator jsonGenerator, SerializableString name, String value) throws IOException {
+        if (Objects.nonNull(value)) {
+            jsonGenerator.writeFieldName(name);
+            jsonGenerator.writeString(value);
+        }
+    }
+
+    static void writeNumber(JsonGenerator jsonGenerator, SerializableString name, BigDecimal value) throws IOException {
+        if (Objects.nonNull(value)) {
+            jsonGenerator.writeFieldName(name);
+            jsonGenerator.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Objects;
+import java.util.TimeZone;
+
+/**
+ * Writes dates as the default {@link StdDateFormat} does, {@code 2020-04-10T00:00:00.123+0000}
+ * in UTC, without going through a Calendar; formatting dominated the cost of a listing row.
+ * Mappers with timestamps, another format or another time zone keep the provider path.
+ */
+final class IsoDates {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * 1900-01-01, well after the Gregorian cutover the Calendar of StdDateFormat switches at.
+     */
+    private static final long MIN_MILLIS = -2_208_988_800_000L;
+
+    /**
+     * 10000-01-01, when StdDateFormat starts writing a sign.
+     */
+    private static final long MAX_MILLIS = 253_402_300_800_000L;
+
+    private IsoDates() {
+    }
+
+    static void write(Date date, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        long millis = date.getTime();
+        if (millis < MIN_MILLIS || millis >= MAX_MILLIS || !isDefaultFormat(serializerProvider)) {
+            serializerProvider.defaultSerializeDateValue(date, jsonGenerator);
+            return;
+        }
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(millis, MILLIS_PER_DAY));
+        int millisOfDay = (int) Math.floorMod(millis, MILLIS_PER_DAY);
+        char[] text = {'0', '0', '0', '0', '-', '0', '0', '-', '0', '0', 'T', '0', '0', ':', '0', '0', ':', '0', '0', '.', '0', '0', '0', '+', '0', '0', '0', '0'};
+        digits(text, 0, 4, day.getYear());
+        digits(text, 5, 2, day.getMonthValue());
+        digits(text, 8, 2, day.getDayOfMonth());
+        digits(text, 11, 2, millisOfDay / 3_600_000);
+        digits(text, 14, 2, millisOfDay / 60_000 % 60);
+        digits(text, 17, 2, millisOfDay / 1000 % 60);
+        digits(text, 20, 3, millisOfDay % 1000);
+        jsonGenerator.writeString(text, 0, text.length);
+    }
+
+    private static boolean isDefaultFormat(SerializerProvider serializerProvider) {
+        SerializationConfig serializationConfig = serializerProvider.getConfig();
+        DateFormat dateFormat = serializationConfig.getDateFormat();
+        return !serializationConfig.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                && dateFormat.getClass() == StdDateFormat.class
+                && !((StdDateFormat) dateFormat).isColonIncludedInTimeZone()
+                && isUtc(dateFormat.getTimeZone())
+                && isUtc(serializationConfig.getTimeZone());
+    }
+
+    private static boolean isUtc(TimeZone timeZone) {
+        return Objects.isNull(timeZone) || "UTC".equals(timeZone.getID());
+    }
+
+    private static void digits(char[] text, int offset, int length, int value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
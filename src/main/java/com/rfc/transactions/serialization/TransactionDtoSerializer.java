@@ -0,0 +1,49 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rfc.transactions.model.dto.TransactionDto;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Writes a {@link TransactionDto} field by field with pre-encoded names, in the order and with
+ * the null handling of the bean serializer. Dates follow the date settings of the mapper in
+ * use, see {@link IsoDates}.
+ */
+public class TransactionDtoSerializer extends StdSerializer<TransactionDto> {
+
+    private static final SerializedString REFERENCE = new SerializedString("reference");
+
+    private static final SerializedString ACCOUNT_IBAN = new SerializedString("accountIBAN");
+
+    private static final SerializedString DATE = new SerializedString("date");
+
+    private static final SerializedString AMMOUNT = new SerializedString("ammount");
+
+    private static final SerializedString FEE = new SerializedString("fee");
+
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+
+    public TransactionDtoSerializer() {
+        super(TransactionDto.class);
+    }
+
+    @Override
+    public void serialize(TransactionDto transactionDto, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject(transactionDto);
+        Fields.writeString(jsonGenerator, REFERENCE, transactionDto.getReference());
+        Fields.writeString(jsonGenerator, ACCOUNT_IBAN, transactionDto.getAccountIBAN());
+        if (Objects.nonNull(transactionDto.getDate())) {
+            jsonGenerator.writeFieldName(DATE);
+            IsoDates.write(transactionDto.getDate(), jsonGenerator, serializerProvider);
+        }
+        Fields.writeNumber(jsonGenerator, AMMOUNT, transactionDto.getAmmount());
+        Fields.writeNumber(jsonGenerator, FEE, transactionDto.getFee());
+        Fields.writeString(jsonGenerator, DESCRIPTION, transactionDto.getDescription());
+        jsonGenerator.writeEndObject();
+    }
+}
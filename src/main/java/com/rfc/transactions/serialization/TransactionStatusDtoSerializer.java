@@ -0,0 +1,35 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+
+import java.io.IOException;
+import java.util.Objects;
+
+public class TransactionStatusDtoSerializer extends StdSerializer<TransactionStatusDto> {
+
+    private static final SerializedString REFERENCE = new SerializedString("reference");
+
+    private static final SerializedString STATUS = new SerializedString("status");
+
+    private static final SerializedString AMMOUNT = new SerializedString("ammount");
+
+    private static final SerializedString FEE = new SerializedString("fee");
+
+    public TransactionStatusDtoSerializer() {
+        super(TransactionStatusDto.class);
+    }
+
+    @Override
+    public void serialize(TransactionStatusDto transactionStatusDto, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject(transactionStatusDto);
+        Fields.writeString(jsonGenerator, REFERENCE, transactionStatusDto.getReference());
+        Fields.writeString(jsonGenerator, STATUS, Objects.isNull(transactionStatusDto.getStatus()) ? null : transactionStatusDto.getStatus().name());
+        Fields.writeNumber(jsonGenerator, AMMOUNT, transactionStatusDto.getAmmount());
+        Fields.writeNumber(jsonGenerator, FEE, transactionStatusDto.getFee());
+        jsonGenerator.writeEndObject();
+    }
+}
@@ -0,0 +1,18 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+
+/**
+ * Hand-written serializers of the DTOs returned in bulk: listings and status lookups.
+ * Deserialization keeps the bean deserializers and their validation.
+ */
+public class TransactionsJacksonModule extends SimpleModule {
+
+    public TransactionsJacksonModule() {
+        super("TransactionsJacksonModule");
+        addSerializer(TransactionDto.class, new TransactionDtoSerializer());
+        addSerializer(TransactionStatusDto.class, new TransactionStatusDtoSerializer());
+    }
+}
@@ -0,0 +1,64 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes balance updates per account using a fixed set of striped locks.
+ * The lock is held until the surrounding database transaction has committed, so a
+ * concurrent operation on the same account always reads the committed balance.
+ */
+@Service
+public class AccountLockService {
+
+    private final Lock[] locks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public AccountLockService(TransactionsProperties transactionsProperties, PlatformTransactionManager transactionManager) {
+        this.locks = createLocks(transactionsProperties.getBalance().getLockStripes());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T executeLocked(Object accountKey, Supplier<T> operation) {
+        return executeLocked(accountKey, () -> { }, operation);
+    }
+
+    /**
+     * Runs {@code beforeTransaction} under the account lock before the transaction takes a
+     * connection, for work that needs connections of its own to finish.
+     */
+    public <T> T executeLocked(Object accountKey, Runnable beforeTransaction, Supplier<T> operation) {
+        Lock lock = getLock(accountKey);
+        lock.lock();
+        try {
+            beforeTransaction.run();
+            return transactionTemplate.execute(status -> operation.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Lock getLock(Object accountKey) {
+        int hash = accountKey.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+    }
+
+    private static Lock[] createLocks(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        Lock[] locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -1,26 +1,122 @@
 package com.rfc.transactions.service;
 
 import com.rfc.transactions.Exceptions.AccountNotFoundException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
 import com.rfc.transactions.model.entity.AccountEntity;
 import com.rfc.transactions.repository.AccountRepository;
-import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.rfc.transactions.utils.Cons.ACCOUNT_NOT_FOUND;
 
-@AllArgsConstructor
+/**
+ * Accounts are keyed by IBAN. An in-memory IBAN to id index, warmed at startup and filled
+ * after each commit, turns the lookup into a primary key read; a stale entry (the row was
+ * deleted or the id reused) falls back to the IBAN query. Transactions for an IBAN without
+ * account are refused unless {@code transactions.accounts.create-missing} is set.
+ */
 @Service
 public class AccountService {
 
-    private AccountRepository accountRepository;
+    private final Map<String, Integer> accountIds = new ConcurrentHashMap<>();
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final boolean createMissing;
+
+    public AccountService(TransactionsProperties transactionsProperties, AccountRepository accountRepository, TransactionMetrics transactionMetrics) {
+        this.accountRepository = accountRepository;
+        this.transactionMetrics = transactionMetrics;
+        this.createMissing = transactionsProperties.getAccounts().isCreateMissing();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        accountRepository.findAllProjectedBy().forEach(a -> accountIds.put(a.getIban(), a.getId()));
+    }
+
+    public AccountEntity getAccountByIban(String iban) {
+        Optional<AccountEntity> accountEntity = findAccount(iban);
+        if (!accountEntity.isPresent()) {
+            transactionMetrics.accountNotFound();
+            throw new AccountNotFoundException(ACCOUNT_NOT_FOUND);
+        }
+        return accountEntity.get();
+    }
+
+    /**
+     * Account a new transaction is applied to, created when missing if creation is enabled.
+     * Must run inside the transaction that holds the account lock.
+     */
+    public AccountEntity getAccountForTransaction(String iban) {
+        return createMissing ? getOrCreateAccount(iban) : getAccountByIban(iban);
+    }
+
+    /**
+     * Must run inside the transaction that holds the account lock, so two callers can not
+     * create the same account.
+     */
+    public AccountEntity getOrCreateAccount(String iban) {
+        return findAccount(iban).orElseGet(() -> {
+            AccountEntity accountEntity = accountRepository.save(new AccountEntity(iban, BigDecimal.ZERO));
+            index(iban, accountEntity.getId());
+            return accountEntity;
+        });
+    }
 
-    public AccountEntity getAccountById() {
-        return accountRepository.findById(1).orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND));
+    /**
+     * Stored balance, zero for an account that does not exist yet when creation is enabled.
+     */
+    public BigDecimal getStoredBalance(String iban) {
+        return createMissing ? findAccount(iban).map(AccountEntity::getBalance).orElse(BigDecimal.ZERO) : getAccountByIban(iban).getBalance();
     }
 
+    /**
+     * Flushed right away, so the UPDATE runs here, where the account save is timed, rather
+     * than in the commit.
+     */
     public AccountEntity updateAccount(AccountEntity accountEntity) {
-        return accountRepository.save(accountEntity);
+        AccountEntity savedAccountEntity = accountRepository.save(accountEntity);
+        accountRepository.flush();
+        return savedAccountEntity;
     }
 
+    private Optional<AccountEntity> findAccount(String iban) {
+        Integer id = accountIds.get(iban);
+        if (Objects.nonNull(id)) {
+            Optional<AccountEntity> accountEntity = accountRepository.findById(id).filter(a -> iban.equals(a.getIban()));
+            if (accountEntity.isPresent()) {
+                return accountEntity;
+            }
+            accountIds.remove(iban, id);
+        }
+        Optional<AccountEntity> accountEntity = accountRepository.findByIban(iban);
+        accountEntity.ifPresent(a -> index(iban, a.getId()));
+        return accountEntity;
+    }
 
+    private void index(String iban, Integer id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accountIds.put(iban, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                accountIds.put(iban, id);
+            }
+        });
+    }
 }
@@ -0,0 +1,139 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.DailyStatementDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.model.entity.DailyBalanceEntity;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.repository.DailyBalanceRepository;
+import com.rfc.transactions.utils.Money;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Balance at a date and daily statements from the per-account daily balance rows. Every row
+ * keeps the running net of the account up to its day, so the balance at the end of day D is
+ * the current balance minus the running net of the last row plus the one of the nearest row
+ * on or before D. Transactions without date count on the day they are stored.
+ */
+@AllArgsConstructor
+@Service
+public class AccountStatementService {
+
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    private AccountService accountService;
+
+    private AccountLockService accountLockService;
+
+    private TransactionMapper transactionMapper;
+
+    private DayBoundary dayBoundary;
+
+    private WriteBehindService writeBehindService;
+
+    /**
+     * Runs inside the write transaction, still under the account lock.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTransactionsCreated(TransactionsCreatedEvent transactionsCreatedEvent) {
+        Map<String, Map<LocalDate, List<TransactionsEntity>>> transactionsByIbanAndDay = transactionsCreatedEvent.getTransactions().stream()
+                .collect(Collectors.groupingBy(TransactionsEntity::getAccountIBAN, Collectors.groupingBy(this::valueDay)));
+        transactionsByIbanAndDay.forEach(this::addMovements);
+    }
+
+    public AccountBalanceDto getBalance(String IBAN, LocalDate date) {
+        return accountLockService.executeLocked(IBAN, () -> writeBehindService.drain(IBAN), () -> {
+            AccountEntity accountEntity = accountService.getAccountByIban(IBAN);
+            BigDecimal balance = Objects.isNull(date) ? accountEntity.getBalance()
+                    : initialBalance(accountEntity).add(runningNet(dailyBalanceRepository.findFirstByAccountIBANAndDayLessThanEqualOrderByDayDesc(IBAN, date)));
+            return new AccountBalanceDto(IBAN, date, balance);
+        });
+    }
+
+    public List<DailyStatementDto> getStatement(String IBAN, LocalDate from, LocalDate to) {
+        return accountLockService.executeLocked(IBAN, () -> writeBehindService.drain(IBAN), () -> {
+            BigDecimal initialBalance = initialBalance(accountService.getAccountByIban(IBAN));
+            return dailyBalanceRepository.findByAccountIBANAndDayBetweenOrderByDayAsc(IBAN, from, to).stream()
+                    .map(d -> new DailyStatementDto(d.getDay(), d.getCredits(), d.getDebits(), d.getFees(), d.getNet(), d.getTransactions(), initialBalance.add(d.getRunningNet())))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Balance before the first daily row of the account.
+     */
+    private BigDecimal initialBalance(AccountEntity accountEntity) {
+        return accountEntity.getBalance().subtract(runningNet(dailyBalanceRepository.findFirstByAccountIBANOrderByDayDesc(accountEntity.getIban())));
+    }
+
+    private static BigDecimal runningNet(Optional<DailyBalanceEntity> dailyBalanceEntity) {
+        return dailyBalanceEntity.map(DailyBalanceEntity::getRunningNet).orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Days are added oldest first. Each one adds the net of the batch up to it to its own
+     * running net and to the running net of the stored days before the next day of the batch,
+     * so every row is updated once.
+     */
+    private void addMovements(String IBAN, Map<LocalDate, List<TransactionsEntity>> transactionsByDay) {
+        Map<LocalDate, DailyBalanceEntity> dailyBalances = dailyBalanceRepository.findByAccountIBANAndDayIn(IBAN, transactionsByDay.keySet()).stream()
+                .collect(Collectors.toMap(DailyBalanceEntity::getDay, Function.identity()));
+        TreeMap<LocalDate, List<TransactionsEntity>> days = new TreeMap<>(transactionsByDay);
+        Map<LocalDate, BigDecimal> runningNets = new HashMap<>();
+        for (LocalDate day : days.keySet()) {
+            runningNets.put(day, dailyBalances.containsKey(day) ? dailyBalances.get(day).getRunningNet()
+                    : runningNet(dailyBalanceRepository.findFirstByAccountIBANAndDayLessThanEqualOrderByDayDesc(IBAN, day)));
+        }
+        long batchNet = 0;
+        for (Map.Entry<LocalDate, List<TransactionsEntity>> entry : days.entrySet()) {
+            LocalDate day = entry.getKey();
+            List<TransactionsEntity> transactions = entry.getValue();
+            DailyBalanceEntity dailyBalanceEntity = dailyBalances.computeIfAbsent(day, d -> new DailyBalanceEntity(IBAN, d));
+            long credits = 0;
+            long debits = 0;
+            long fees = 0;
+            for (TransactionsEntity transactionsEntity : transactions) {
+                long ammount = Money.toMinor(transactionsEntity.getAmmount());
+                if (ammount >= 0) {
+                    credits = Money.add(credits, ammount);
+                } else {
+                    debits = Money.add(debits, ammount);
+                }
+                fees = Money.add(fees, Money.toMinor(transactionsEntity.getFee()));
+            }
+            long net = Money.subtract(Money.add(credits, debits), fees);
+            dailyBalanceEntity.setCredits(Money.toDecimal(Money.add(Money.toMinor(dailyBalanceEntity.getCredits()), credits)));
+            dailyBalanceEntity.setDebits(Money.toDecimal(Money.add(Money.toMinor(dailyBalanceEntity.getDebits()), debits)));
+            dailyBalanceEntity.setFees(Money.toDecimal(Money.add(Money.toMinor(dailyBalanceEntity.getFees()), fees)));
+            dailyBalanceEntity.setNet(Money.toDecimal(Money.add(Money.toMinor(dailyBalanceEntity.getNet()), net)));
+            dailyBalanceEntity.setTransactions(dailyBalanceEntity.getTransactions() + transactions.size());
+            batchNet = Money.add(batchNet, net);
+            dailyBalanceEntity.setRunningNet(Money.toDecimal(Money.add(Money.toMinor(runningNets.get(day)), batchNet)));
+            if (batchNet != 0) {
+                LocalDate nextDay = days.higherKey(day);
+                if (Objects.isNull(nextDay)) {
+                    dailyBalanceRepository.addRunningNetAfter(IBAN, day, Money.toDecimal(batchNet));
+                } else {
+                    dailyBalanceRepository.addRunningNetBetween(IBAN, day, nextDay, Money.toDecimal(batchNet));
+                }
+            }
+        }
+        dailyBalanceRepository.saveAll(dailyBalances.values());
+    }
+
+    private LocalDate valueDay(TransactionsEntity transactionsEntity) {
+        return Objects.isNull(transactionsEntity.getDate()) ? LocalDate.ofEpochDay(dayBoundary.today())
+                : LocalDate.ofEpochDay(transactionMapper.toEpochDay(transactionsEntity.getDate()));
+    }
+}
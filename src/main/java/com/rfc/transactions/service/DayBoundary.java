@@ -0,0 +1,46 @@
+package com.rfc.transactions.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Current day as an epoch-day number in the clock zone. It is recomputed by a scheduler
+ * once per midnight; reads in between only compare the clock millis with the next
+ * boundary, which also covers a scheduler that fires late.
+ */
+@Component
+public class DayBoundary {
+
+    private final Clock clock;
+
+    private volatile long today;
+
+    private volatile long nextMidnightMillis;
+
+    public DayBoundary(Clock clock) {
+        this.clock = clock;
+        refresh();
+    }
+
+    public long today() {
+        if (clock.millis() >= nextMidnightMillis) {
+            refresh();
+        }
+        return today;
+    }
+
+    public ZoneId getZone() {
+        return clock.getZone();
+    }
+
+    @Scheduled(cron = "0 0 0 * * *", zone = "#{@clock.zone.id}")
+    public void refresh() {
+        LocalDate localDate = LocalDate.now(clock);
+        nextMidnightMillis = localDate.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        today = localDate.toEpochDay();
+    }
+}
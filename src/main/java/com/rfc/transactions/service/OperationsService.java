@@ -1,90 +1,444 @@
 package com.rfc.transactions.service;
 
+import com.rfc.transactions.Exceptions.AccountNotFoundException;
+import com.rfc.transactions.Exceptions.AmountOutOfRangeException;
+import com.rfc.transactions.Exceptions.MandatoryFieldsException;
+import com.rfc.transactions.Exceptions.TooManyReferencesException;
 import com.rfc.transactions.Exceptions.ZeroBalanceException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.metrics.TransactionMetrics.Operation;
+import com.rfc.transactions.metrics.TransactionMetrics.Stage;
 import com.rfc.transactions.model.dto.*;
 import com.rfc.transactions.model.entity.AccountEntity;
 import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.utils.Money;
 import lombok.AllArgsConstructor;
-import org.dozer.Mapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
-import static com.rfc.transactions.utils.Cons.BALANCE_ZERO_ERROR;
+import static com.rfc.transactions.utils.Cons.*;
 
 @AllArgsConstructor
 @Service
 public class OperationsService {
 
-    private Mapper mapper;
+    private final Map<String, CompletableFuture<TransactionDto>> inFlightSubmissions = new ConcurrentHashMap<>();
+
+    private TransactionMapper transactionMapper;
 
     private TransactionsService transactionsService;
 
     private AccountService accountService;
 
-    public void createTransaction(TransactionDto transactionDto) {
+    private AccountLockService accountLockService;
+
+    private TransactionsProperties transactionsProperties;
+
+    private TransactionStatusCache transactionStatusCache;
+
+    private TransactionStatusEvaluator transactionStatusEvaluator;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private TransactionMetrics transactionMetrics;
+
+    private WriteBehindService writeBehindService;
+
+    private TransactionProjectionService transactionProjectionService;
+
+    /**
+     * Idempotent by reference. A reference that is already stored, or that is being applied by
+     * a concurrent request, returns the original result without touching the balance. The
+     * unique reference column is the last guard when the in-memory checks miss a replay.
+     */
+    public TransactionSubmissionDto createTransaction(TransactionDto transactionDto) {
+        transactionMetrics.enter(Operation.CREATE);
+        try {
+            return submitTransaction(transactionDto);
+        } finally {
+            transactionMetrics.exit(Operation.CREATE);
+        }
+    }
+
+    private TransactionSubmissionDto submitTransaction(TransactionDto transactionDto) {
+        boolean generatedReference = StringUtils.isEmpty(transactionDto.getReference());
         transactionDto.setReference(transactionDto.getReference());
-        AccountEntity accountEntity = accountService.getAccountById();
-        calculateBalance(accountEntity, transactionDto);
+        if (hasMissingFields(transactionDto)) {
+            throw new MandatoryFieldsException(MANDATORY_FIELDS_ERROR);
+        }
+        if (generatedReference) {
+            applyTransaction(transactionDto);
+            return new TransactionSubmissionDto(transactionDto, false);
+        }
+        String reference = transactionDto.getReference();
+        CompletableFuture<TransactionDto> submission = new CompletableFuture<>();
+        CompletableFuture<TransactionDto> inFlightSubmission = inFlightSubmissions.putIfAbsent(reference, submission);
+        if (Objects.nonNull(inFlightSubmission)) {
+            return new TransactionSubmissionDto(awaitSubmission(inFlightSubmission), true);
+        }
+        try {
+            TransactionSubmissionDto transactionSubmissionDto = submit(transactionDto);
+            submission.complete(transactionSubmissionDto.getTransaction());
+            return transactionSubmissionDto;
+        } catch (RuntimeException e) {
+            submission.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightSubmissions.remove(reference, submission);
+        }
+    }
+
+    private TransactionSubmissionDto submit(TransactionDto transactionDto) {
+        String reference = transactionDto.getReference();
+        if (Objects.nonNull(writeBehindService.getPending(reference)) || Objects.nonNull(transactionStatusCache.getTransaction(reference))) {
+            return new TransactionSubmissionDto(getOriginalTransaction(reference), true);
+        }
+        try {
+            applyTransaction(transactionDto);
+            return new TransactionSubmissionDto(transactionDto, false);
+        } catch (DataIntegrityViolationException e) {
+            TransactionDto originalTransaction = getOriginalTransaction(reference);
+            if (Objects.isNull(originalTransaction)) {
+                throw e;
+            }
+            return new TransactionSubmissionDto(originalTransaction, true);
+        }
+    }
+
+    private void applyTransaction(TransactionDto transactionDto) {
+        if (writeBehindService.isEnabled()) {
+            long start = System.nanoTime();
+            writeBehindService.accept(transactionDto, balance -> calculateBalance(balance, transactionDto));
+            transactionMetrics.record(Stage.JOURNAL_COMMIT, start);
+            return;
+        }
+        accountLockService.executeLocked(transactionDto.getAccountIBAN(), () -> {
+            long start = System.nanoTime();
+            AccountEntity accountEntity = accountService.getAccountForTransaction(transactionDto.getAccountIBAN());
+            transactionMetrics.record(Stage.ACCOUNT_LOAD, start);
+            accountEntity.setBalance(Money.toDecimal(calculateBalance(Money.toMinor(accountEntity.getBalance()), transactionDto)));
+            start = System.nanoTime();
+            accountService.updateAccount(accountEntity);
+            transactionMetrics.record(Stage.ACCOUNT_SAVE, start);
+            start = System.nanoTime();
+            TransactionsEntity transactionsEntity = transactionMapper.toEntity(transactionDto);
+            transactionMetrics.record(Stage.MAPPING, start);
+            start = System.nanoTime();
+            transactionsEntity = transactionsService.saveTransaction(transactionsEntity);
+            transactionMetrics.record(Stage.TRANSACTION_INSERT, start);
+            applicationEventPublisher.publishEvent(new TransactionsCreatedEvent(Collections.singletonList(transactionsEntity)));
+            return transactionsEntity;
+        });
+    }
+
+    private TransactionDto getOriginalTransaction(String reference) {
+        TransactionDto pendingTransaction = writeBehindService.getPending(reference);
+        if (Objects.nonNull(pendingTransaction)) {
+            return pendingTransaction;
+        }
+        TransactionsEntity transactionsEntity = transactionsService.getTransactionByReference(reference);
+        return Objects.isNull(transactionsEntity) ? null : transactionMapper.toDto(transactionsEntity);
+    }
+
+    private TransactionDto awaitSubmission(CompletableFuture<TransactionDto> submission) {
+        try {
+            return submission.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Items are grouped by IBAN and every group is applied under its own account lock and
+     * transaction. Results keep the order of the request and cover every item, also when a
+     * group could not be stored.
+     */
+    public List<BatchItemResultDto> createTransactions(List<TransactionDto> transactionDtoList) {
+        transactionMetrics.enter(Operation.BATCH);
+        try {
+            return submitTransactions(transactionDtoList);
+        } finally {
+            transactionMetrics.exit(Operation.BATCH);
+        }
+    }
+
+    private List<BatchItemResultDto> submitTransactions(List<TransactionDto> transactionDtoList) {
+        transactionDtoList.forEach(t -> t.setReference(t.getReference()));
+        BatchItemResultDto[] results = new BatchItemResultDto[transactionDtoList.size()];
+        Map<String, List<Integer>> positionsByIban = new LinkedHashMap<>();
+        for (int i = 0; i < transactionDtoList.size(); i++) {
+            TransactionDto transactionDto = transactionDtoList.get(i);
+            if (hasMissingFields(transactionDto)) {
+                results[i] = new BatchItemResultDto(transactionDto.getReference(), BatchItemStatusDto.REJECTED, MANDATORY_FIELDS_ERROR);
+            } else {
+                positionsByIban.computeIfAbsent(transactionDto.getAccountIBAN(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        Set<String> requestReferences = new HashSet<>();
+        positionsByIban.forEach((IBAN, positions) -> submitBatchGroup(IBAN, positions, transactionDtoList, requestReferences, results));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * A reference stored by a concurrent request between the check and the commit fails the
+     * unique index and rolls the group back. The group is then checked and applied once more;
+     * if that fails too, its items are reported as duplicated, since none of them was stored.
+     * The items of an IBAN without account are all rejected.
+     */
+    private void submitBatchGroup(String IBAN, List<Integer> positions, List<TransactionDto> transactionDtoList, Set<String> requestReferences,
+                                  BatchItemResultDto[] results) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                accountLockService.executeLocked(IBAN, () -> writeBehindService.drain(IBAN), () -> applyBatchGroup(IBAN, positions, transactionDtoList, requestReferences, results));
+                break;
+            } catch (AccountNotFoundException e) {
+                for (int position : positions) {
+                    results[position] = new BatchItemResultDto(transactionDtoList.get(position).getReference(), BatchItemStatusDto.REJECTED, ACCOUNT_NOT_FOUND);
+                }
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == BATCH_GROUP_ATTEMPTS) {
+                    for (int position : positions) {
+                        if (results[position].getStatus() == BatchItemStatusDto.CREATED) {
+                            results[position] = new BatchItemResultDto(results[position].getReference(), BatchItemStatusDto.REJECTED, DUPLICATED_REFERENCE_ERROR);
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+        for (int position : positions) {
+            if (results[position].getStatus() == BatchItemStatusDto.CREATED) {
+                requestReferences.add(results[position].getReference());
+            }
+        }
+    }
+
+    /**
+     * Runs under the account lock once its journaled transactions are stored, so the references
+     * stored or journaled so far are all visible to the check.
+     */
+    private List<TransactionsEntity> applyBatchGroup(String IBAN, List<Integer> positions, List<TransactionDto> transactionDtoList, Set<String> requestReferences,
+                                                     BatchItemResultDto[] results) {
+        List<String> references = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            references.add(transactionDtoList.get(position).getReference());
+        }
+        Set<String> usedReferences = new HashSet<>(requestReferences);
+        usedReferences.addAll(transactionsService.getExistingReferences(references));
+        long start = System.nanoTime();
+        AccountEntity accountEntity = accountService.getAccountForTransaction(IBAN);
+        transactionMetrics.record(Stage.ACCOUNT_LOAD, start);
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>(positions.size());
+        long accountBalance = Money.toMinor(accountEntity.getBalance());
+        for (int position : positions) {
+            accountBalance = applyBatchItem(accountBalance, transactionDtoList.get(position), usedReferences, transactionsEntityList, results, position);
+        }
+        accountEntity.setBalance(Money.toDecimal(accountBalance));
+        start = System.nanoTime();
         accountService.updateAccount(accountEntity);
-        transactionsService.saveTransaction(mapper.map(transactionDto, TransactionsEntity.class));
+        transactionMetrics.record(Stage.ACCOUNT_SAVE, start);
+        start = System.nanoTime();
+        transactionsService.saveTransactions(transactionsEntityList);
+        transactionMetrics.record(Stage.TRANSACTION_INSERT, start);
+        applicationEventPublisher.publishEvent(new TransactionsCreatedEvent(transactionsEntityList));
+        return transactionsEntityList;
+    }
+
+    private boolean hasMissingFields(TransactionDto transactionDto) {
+        return Objects.isNull(transactionDto.getAccountIBAN()) || Objects.isNull(transactionDto.getAmmount()) || Objects.isNull(transactionDto.getFee());
+    }
+
+    /**
+     * Stores the result of the item at {@code position} and returns the account balance after it.
+     */
+    private long applyBatchItem(long accountBalance, TransactionDto transactionDto, Set<String> usedReferences, List<TransactionsEntity> transactionsEntityList,
+                                BatchItemResultDto[] results, int position) {
+        String reference = transactionDto.getReference();
+        if (usedReferences.contains(reference) || Objects.nonNull(writeBehindService.getPending(reference))) {
+            results[position] = new BatchItemResultDto(reference, BatchItemStatusDto.REJECTED, DUPLICATED_REFERENCE_ERROR);
+            return accountBalance;
+        }
+        long newAccountBalance;
+        try {
+            newAccountBalance = calculateBalance(accountBalance, transactionDto);
+        } catch (ZeroBalanceException | AmountOutOfRangeException e) {
+            results[position] = new BatchItemResultDto(reference, BatchItemStatusDto.REJECTED, e.getMessage());
+            return accountBalance;
+        }
+        usedReferences.add(reference);
+        long start = System.nanoTime();
+        transactionsEntityList.add(transactionMapper.toEntity(transactionDto));
+        transactionMetrics.record(Stage.MAPPING, start);
+        results[position] = new BatchItemResultDto(reference, BatchItemStatusDto.CREATED, null);
+        return newAccountBalance;
     }
 
-    private void calculateBalance(AccountEntity accountEntity, TransactionDto transactionDto) {
-        BigDecimal newAccountBalance = accountEntity.getBalance().add(transactionDto.getAmmount().subtract(transactionDto.getFee()));
-        if (newAccountBalance.doubleValue() <= 0) {
+    /**
+     * Balance in cents after the transaction, see {@link Money}.
+     */
+    private long calculateBalance(long accountBalance, TransactionDto transactionDto) {
+        long start = System.nanoTime();
+        long newAccountBalance = Money.add(accountBalance, Money.net(transactionDto.getAmmount(), transactionDto.getFee()));
+        transactionMetrics.record(Stage.BALANCE_CALCULATION, start);
+        if (newAccountBalance <= 0) {
+            transactionMetrics.zeroBalance();
             throw new ZeroBalanceException(BALANCE_ZERO_ERROR);
         }
-        accountEntity.setBalance(newAccountBalance);
+        return newAccountBalance;
     }
 
     public List<TransactionDto> getFilterTransactions(String IBAN, SortDirectionDto sortAmmount) {
-        List<TransactionsEntity> transactionsEntityList = transactionsService.getFilterTransactions(IBAN, sortAmmount);
-        return transactionsEntityList.stream().map(t -> mapper.map(t, TransactionDto.class)).collect(Collectors.toList());
+        transactionMetrics.enter(Operation.LISTING);
+        try {
+            long start = System.nanoTime();
+            if (transactionProjectionService.isReady()) {
+                List<TransactionDto> transactionDtoList = transactionProjectionService.getFilterTransactions(IBAN, sortAmmount);
+                transactionMetrics.record(Stage.PROJECTION_QUERY, start);
+                return transactionDtoList;
+            }
+            List<TransactionsEntity> transactionsEntityList = transactionsService.getFilterTransactions(IBAN, sortAmmount);
+            transactionMetrics.record(Stage.TRANSACTION_QUERY, start);
+            return toDtoList(transactionsEntityList);
+        } finally {
+            transactionMetrics.exit(Operation.LISTING);
+        }
     }
 
-    public TransactionStatusDto getTransactionsStatus(String reference, ChannelDto channel) {
-        TransactionStatusDto transactionStatusDto = new TransactionStatusDto();
-        transactionStatusDto.setReference(reference);
-        TransactionsEntity transactionsEntity = transactionsService.getTransactionByReference(reference);
-        if (Objects.isNull(transactionsEntity)) {
-            transactionStatusDto.setStatus(StatusDto.INVALID);
-        } else {
-            checkDate(transactionsEntity, transactionStatusDto, channel);
+    public TransactionPageDto getTransactionsPage(String IBAN, SortDirectionDto sortAmmount, String after, Integer limit) {
+        transactionMetrics.enter(Operation.LISTING);
+        try {
+            return getPage(IBAN, sortAmmount, after, limit);
+        } finally {
+            transactionMetrics.exit(Operation.LISTING);
+        }
+    }
+
+    private TransactionPageDto getPage(String IBAN, SortDirectionDto sortAmmount, String after, Integer limit) {
+        int maxPageSize = transactionsProperties.getListing().getMaxPageSize();
+        int pageSize = Objects.isNull(limit) ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        TransactionCursorDto cursor = StringUtils.isEmpty(after) ? null : TransactionCursorDto.parse(after);
+        long start = System.nanoTime();
+        if (transactionProjectionService.isReady()) {
+            TransactionPageDto transactionPageDto = transactionProjectionService.getTransactionsPage(IBAN, sortAmmount, cursor, pageSize);
+            transactionMetrics.record(Stage.PROJECTION_QUERY, start);
+            return transactionPageDto;
+        }
+        List<TransactionsEntity> transactionsEntityList = transactionsService.getTransactionsPage(IBAN, sortAmmount, cursor, pageSize);
+        transactionMetrics.record(Stage.TRANSACTION_QUERY, start);
+        List<TransactionDto> transactionDtoList = toDtoList(transactionsEntityList);
+        String nextCursor = null;
+        if (transactionsEntityList.size() == pageSize) {
+            TransactionsEntity last = transactionsEntityList.get(pageSize - 1);
+            nextCursor = new TransactionCursorDto(last.getAmmount(), last.getId()).toString();
+        }
+        return new TransactionPageDto(transactionDtoList, nextCursor);
+    }
+
+    public void streamFilterTransactions(String IBAN, SortDirectionDto sortAmmount, Consumer<TransactionDto> consumer) {
+        transactionMetrics.enter(Operation.LISTING);
+        try {
+            transactionsService.streamFilterTransactions(IBAN, sortAmmount, t -> consumer.accept(transactionMapper.toDto(t)));
+        } finally {
+            transactionMetrics.exit(Operation.LISTING);
         }
-        return transactionStatusDto;
     }
 
-    private void checkDate(TransactionsEntity transactionsEntity, TransactionStatusDto transactionStatusDto, ChannelDto channel) {
-        LocalDate today = LocalDate.now();
-        if (converToLocalDate(transactionsEntity.getDate()).isBefore(today)) {
-            transactionStatusDto.setStatus(StatusDto.SETTLED);
-            checkChannel(transactionsEntity, transactionStatusDto, channel);
-        } else if (converToLocalDate(transactionsEntity.getDate()).equals(today)) {
-            transactionStatusDto.setStatus(StatusDto.PENDING);
-            checkChannel(transactionsEntity, transactionStatusDto, channel);
-        } else if (converToLocalDate(transactionsEntity.getDate()).isAfter(today)) {
-            transactionStatusDto.setStatus(channel.equals(ChannelDto.ATM) ? StatusDto.PENDING : StatusDto.FUTURE);
-            checkChannel(transactionsEntity, transactionStatusDto, channel);
+    public TransactionStatusDto getTransactionsStatus(String reference, ChannelDto channel) {
+        transactionMetrics.enter(Operation.STATUS);
+        try {
+            long start = System.nanoTime();
+            TransactionSnapshot transactionSnapshot = transactionProjectionService.getTransaction(reference);
+            if (Objects.isNull(transactionSnapshot)) {
+                transactionSnapshot = transactionStatusCache.getTransaction(reference);
+            }
+            if (Objects.isNull(transactionSnapshot)) {
+                transactionSnapshot = getPendingSnapshot(reference);
+            }
+            transactionMetrics.record(Stage.STATUS_LOOKUP, start);
+            start = System.nanoTime();
+            TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate(reference, transactionSnapshot, channel);
+            transactionMetrics.record(Stage.STATUS_EVALUATION, start);
+            return transactionStatusDto;
+        } finally {
+            transactionMetrics.exit(Operation.STATUS);
         }
     }
 
-    private void checkChannel(TransactionsEntity transactionsEntity, TransactionStatusDto transactionStatusDto, ChannelDto channel) {
-        if (channel == ChannelDto.CLIENT || channel == ChannelDto.ATM) {
-            transactionStatusDto.setAmmount(transactionsEntity.getAmmount().subtract(transactionsEntity.getFee()));
-        } else {
-            transactionStatusDto.setAmmount(transactionsEntity.getAmmount());
-            transactionStatusDto.setFee(transactionsEntity.getFee());
+    /**
+     * Same lookup and rules as {@link #getTransactionsStatus(String, ChannelDto)} for many
+     * references, with the ones not in the projection fetched from the cache together. The
+     * results follow the order of {@code references}.
+     */
+    public List<TransactionStatusDto> getTransactionsStatuses(List<String> references, ChannelDto channel) {
+        transactionMetrics.enter(Operation.BULK_STATUS);
+        try {
+            if (Objects.isNull(references) || references.isEmpty()) {
+                return Collections.emptyList();
+            }
+            int maxReferences = transactionsProperties.getBulkStatus().getMaxReferences();
+            if (references.size() > maxReferences) {
+                throw new TooManyReferencesException(String.format(TOO_MANY_REFERENCES_ERROR, maxReferences));
+            }
+            long start = System.nanoTime();
+            Map<String, TransactionSnapshot> transactionSnapshots = new HashMap<>();
+            Set<String> notProjected = new LinkedHashSet<>();
+            for (String reference : references) {
+                TransactionSnapshot transactionSnapshot = transactionProjectionService.getTransaction(reference);
+                if (Objects.isNull(transactionSnapshot)) {
+                    notProjected.add(reference);
+                } else {
+                    transactionSnapshots.put(reference, transactionSnapshot);
+                }
+            }
+            if (!notProjected.isEmpty()) {
+                transactionSnapshots.putAll(transactionStatusCache.getTransactions(notProjected));
+            }
+            for (String reference : notProjected) {
+                if (!transactionSnapshots.containsKey(reference)) {
+                    TransactionSnapshot pendingSnapshot = getPendingSnapshot(reference);
+                    if (Objects.nonNull(pendingSnapshot)) {
+                        transactionSnapshots.put(reference, pendingSnapshot);
+                    }
+                }
+            }
+            transactionMetrics.record(Stage.STATUS_LOOKUP, start);
+            start = System.nanoTime();
+            List<TransactionStatusDto> transactionStatusDtoList = new ArrayList<>(references.size());
+            for (String reference : references) {
+                transactionStatusDtoList.add(transactionStatusEvaluator.evaluate(reference, transactionSnapshots.get(reference), channel));
+            }
+            transactionMetrics.record(Stage.STATUS_EVALUATION, start);
+            return transactionStatusDtoList;
+        } finally {
+            transactionMetrics.exit(Operation.BULK_STATUS);
         }
     }
 
-    private LocalDate converToLocalDate(Date date) {
-        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    private TransactionSnapshot getPendingSnapshot(String reference) {
+        TransactionDto pendingTransaction = writeBehindService.getPending(reference);
+        return Objects.isNull(pendingTransaction) ? null : transactionMapper.toSnapshot(transactionMapper.toEntity(pendingTransaction));
+    }
+
+    private List<TransactionDto> toDtoList(List<TransactionsEntity> transactionsEntityList) {
+        long start = System.nanoTime();
+        List<TransactionDto> transactionDtoList = new ArrayList<>(transactionsEntityList.size());
+        for (TransactionsEntity transactionsEntity : transactionsEntityList) {
+            transactionDtoList.add(transactionMapper.toDto(transactionsEntity));
+        }
+        transactionMetrics.record(Stage.MAPPING, start);
+        return transactionDtoList;
     }
 }
@@ -0,0 +1,180 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionEventSubscriber;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.*;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed transactions, and the status changes a new day brings, to Server-Sent
+ * Events subscribers. Statuses are evaluated with the channel of each subscriber.
+ */
+@Slf4j
+@Service
+public class TransactionEventService {
+
+    private final TransactionsProperties.Events properties;
+
+    private final TransactionsService transactionsService;
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionStatusEvaluator transactionStatusEvaluator;
+
+    private final DayBoundary dayBoundary;
+
+    private final Executor sender;
+
+    private final Set<TransactionEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile long lastWalkedDay;
+
+    @Autowired
+    public TransactionEventService(TransactionsProperties transactionsProperties, TransactionsService transactionsService, TransactionMapper transactionMapper,
+                                   TransactionStatusEvaluator transactionStatusEvaluator, DayBoundary dayBoundary) {
+        this(transactionsProperties, transactionsService, transactionMapper, transactionStatusEvaluator, dayBoundary, senderPool(transactionsProperties.getEvents().getSenderPoolSize()));
+    }
+
+    TransactionEventService(TransactionsProperties transactionsProperties, TransactionsService transactionsService, TransactionMapper transactionMapper,
+                            TransactionStatusEvaluator transactionStatusEvaluator, DayBoundary dayBoundary, Executor sender) {
+        this.properties = transactionsProperties.getEvents();
+        this.transactionsService = transactionsService;
+        this.transactionMapper = transactionMapper;
+        this.transactionStatusEvaluator = transactionStatusEvaluator;
+        this.dayBoundary = dayBoundary;
+        this.sender = sender;
+        this.lastWalkedDay = dayBoundary.today();
+    }
+
+    /**
+     * Events of the transactions of {@code IBAN}, or of every account when it is empty, from
+     * now on.
+     */
+    public SseEmitter subscribe(String IBAN, ChannelDto channel) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, StringUtils.isEmpty(IBAN) ? null : IBAN, channel,
+                properties.getQueueCapacity(), sender);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        add(subscriber);
+        return emitter;
+    }
+
+    void add(TransactionEventSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsCreated(TransactionsCreatedEvent transactionsCreatedEvent) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long today = dayBoundary.today();
+        for (TransactionsEntity transactionsEntity : transactionsCreatedEvent.getTransactions()) {
+            publish(TransactionEventTypeDto.CREATED, transactionMapper.toSnapshot(transactionsEntity), null, today);
+        }
+    }
+
+    /**
+     * Runs the walk on a sender thread, so the database cursor does not hold the scheduler
+     * thread shared with the other scheduled tasks.
+     */
+    @Scheduled(cron = "0 0 0 * * *", zone = "#{@clock.zone.id}")
+    public void walkDayBoundary() {
+        sender.execute(this::walk);
+    }
+
+    /**
+     * Publishes the status changes of the days passed since the last walk: transactions dated
+     * on the last walked day and after it settle, and the ones dated today become pending.
+     * A subscriber whose queue is full is disconnected rather than hold the walk back.
+     */
+    synchronized void walk() {
+        long today = dayBoundary.today();
+        long previousDay = lastWalkedDay;
+        if (today <= previousDay) {
+            return;
+        }
+        lastWalkedDay = today;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ZoneId zone = dayBoundary.getZone();
+        Date from = Date.from(LocalDate.ofEpochDay(previousDay).atStartOfDay(zone).toInstant());
+        Date to = Date.from(LocalDate.ofEpochDay(today + 1).atStartOfDay(zone).toInstant());
+        AtomicInteger walked = new AtomicInteger();
+        transactionsService.streamDatedTransactions(null, from, to, transactionsEntity -> {
+            publish(TransactionEventTypeDto.STATUS_CHANGED, transactionMapper.toSnapshot(transactionsEntity), previousDay, today);
+            walked.incrementAndGet();
+        });
+        log.info("Day boundary walk from {} to {}: {} transactions", LocalDate.ofEpochDay(previousDay), LocalDate.ofEpochDay(today), walked.get());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(TransactionEventSubscriber::close);
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdown();
+        }
+    }
+
+    private void publish(TransactionEventTypeDto type, TransactionSnapshot transactionSnapshot, Long previousDay, long today) {
+        String id = Long.toString(sequence.incrementAndGet());
+        boolean closed = false;
+        for (TransactionEventSubscriber subscriber : subscribers) {
+            if (!subscriber.accepts(transactionSnapshot.getAccountIBAN())) {
+                continue;
+            }
+            ChannelDto channel = subscriber.getChannel();
+            StatusDto status = transactionStatusEvaluator.checkDate(transactionSnapshot.getEpochDay(), today, channel);
+            StatusDto previousStatus = Objects.isNull(previousDay) ? null : transactionStatusEvaluator.checkDate(transactionSnapshot.getEpochDay(), previousDay, channel);
+            if (status == previousStatus) {
+                continue;
+            }
+            TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate(transactionSnapshot.getReference(), transactionSnapshot, channel);
+            TransactionEventDto transactionEventDto = new TransactionEventDto(type, transactionSnapshot.getReference(), transactionSnapshot.getAccountIBAN(),
+                    previousStatus, status, transactionStatusDto.getAmmount(), transactionStatusDto.getFee());
+            closed |= !subscriber.offer(SseEmitter.event().id(id).name(type.name()).data(transactionEventDto, MediaType.APPLICATION_JSON));
+        }
+        if (closed) {
+            subscribers.removeIf(TransactionEventSubscriber::isClosed);
+        }
+    }
+
+    private static ExecutorService senderPool(int poolSize) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "events-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,248 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.entity.TransactionOutboxEntity;
+import com.rfc.transactions.model.entity.TransactionReferenceEntity;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.repository.TransactionOutboxRepository;
+import com.rfc.transactions.repository.TransactionReferenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the sharded transactions through the main datasource, in the transaction that moves
+ * the account balance: a reference row, unique across shards, and an outbox row copied to the
+ * shard after commit. Shards merge rows by id, so copying a row twice is harmless.
+ */
+@Slf4j
+@Service
+public class TransactionOutboxService {
+
+    private final TransactionShardService transactionShardService;
+
+    private final TransactionReferenceRepository transactionReferenceRepository;
+
+    private final TransactionOutboxRepository transactionOutboxRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final Set<Integer> copied = ConcurrentHashMap.newKeySet();
+
+    public TransactionOutboxService(TransactionsProperties transactionsProperties, TransactionShardService transactionShardService,
+                                    TransactionReferenceRepository transactionReferenceRepository, TransactionOutboxRepository transactionOutboxRepository,
+                                    EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.transactionShardService = transactionShardService;
+        this.transactionReferenceRepository = transactionReferenceRepository;
+        this.transactionOutboxRepository = transactionOutboxRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = transactionsProperties.getBatch().getChunkSize();
+    }
+
+    /**
+     * Runs before the web server takes requests: backfills the references, reserves the outbox
+     * ids in the shards and copies the outbox.
+     */
+    @PostConstruct
+    public void start() {
+        if (!transactionShardService.isEnabled()) {
+            return;
+        }
+        backfillReferences();
+        Integer maxId = transactionOutboxRepository.findMaxId();
+        if (Objects.nonNull(maxId)) {
+            transactionShardService.reserveIds(maxId);
+        }
+        log.info("{} transactions of the outbox copied to their shards", reconcile());
+    }
+
+    /**
+     * Records the transactions and copies them to their shards once the current transaction
+     * commits. A reference already stored fails the flush.
+     */
+    public List<TransactionsEntity> saveTransactions(List<TransactionsEntity> transactionsEntityList) {
+        transactionShardService.assignIds(transactionsEntityList);
+        for (int from = 0; from < transactionsEntityList.size(); from += chunkSize) {
+            List<TransactionsEntity> chunk = transactionsEntityList.subList(from, Math.min(from + chunkSize, transactionsEntityList.size()));
+            transactionReferenceRepository.saveAll(chunk.stream().map(t -> new TransactionReferenceEntity(t.getReference())).collect(Collectors.toList()));
+            transactionOutboxRepository.saveAll(chunk.stream().map(TransactionOutboxEntity::new).collect(Collectors.toList()));
+            transactionOutboxRepository.flush();
+            entityManager.clear();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                copy(transactionsEntityList);
+            }
+        });
+        return transactionsEntityList;
+    }
+
+    /**
+     * The outbox is read first: a row missing from it was copied before it was deleted.
+     */
+    public TransactionsEntity getTransactionByReference(String reference) {
+        Optional<TransactionOutboxEntity> pending = transactionOutboxRepository.findByReference(reference);
+        return pending.isPresent() ? pending.get().toTransaction() : transactionShardService.getTransactionByReference(reference);
+    }
+
+    public List<TransactionsEntity> getTransactionsByReferences(List<String> references) {
+        Map<String, TransactionsEntity> transactionsByReference = new HashMap<>();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            transactionOutboxRepository.findByReferenceIn(references.subList(from, Math.min(from + chunkSize, references.size())))
+                    .forEach(o -> transactionsByReference.put(o.getReference(), o.toTransaction()));
+        }
+        transactionShardService.getTransactionsByReferences(references).forEach(t -> transactionsByReference.putIfAbsent(t.getReference(), t));
+        return new ArrayList<>(transactionsByReference.values());
+    }
+
+    public Set<String> getExistingReferences(List<String> references) {
+        Set<String> existingReferences = new HashSet<>();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            existingReferences.addAll(transactionReferenceRepository.findReferencesIn(references.subList(from, Math.min(from + chunkSize, references.size()))));
+        }
+        return existingReferences;
+    }
+
+    /**
+     * Copies the outbox rows of {@code IBAN}, or of every account when it is empty, not copied
+     * yet, so the shard read that follows sees them. A failed copy is thrown.
+     */
+    public void copyPending(String IBAN) {
+        if (!StringUtils.isEmpty(IBAN)) {
+            copyNotCopied(transactionOutboxRepository.findByAccountIBAN(IBAN));
+            return;
+        }
+        int after = Integer.MIN_VALUE;
+        List<TransactionOutboxEntity> pending;
+        do {
+            pending = transactionOutboxRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, chunkSize));
+            if (pending.isEmpty()) {
+                return;
+            }
+            copyNotCopied(pending);
+            after = pending.get(pending.size() - 1).getId();
+        } while (pending.size() == chunkSize);
+    }
+
+    /**
+     * Deletes the outbox rows already copied and copies the rest, oldest first. Stops at the
+     * first copy that fails, which is tried again next time.
+     */
+    @Scheduled(fixedDelayString = "#{@transactionsProperties.sharding.reconcileInterval.toMillis()}")
+    public synchronized int reconcile() {
+        if (!transactionShardService.isEnabled()) {
+            return 0;
+        }
+        deleteCopied();
+        int copiedRows = 0;
+        int after = Integer.MIN_VALUE;
+        List<TransactionOutboxEntity> pending;
+        do {
+            pending = transactionOutboxRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, chunkSize));
+            if (pending.isEmpty() || !copy(pending.stream().map(TransactionOutboxEntity::toTransaction).collect(Collectors.toList()))) {
+                break;
+            }
+            copiedRows += pending.size();
+            after = pending.get(pending.size() - 1).getId();
+        } while (pending.size() == chunkSize);
+        deleteCopied();
+        return copiedRows;
+    }
+
+    private boolean copy(List<TransactionsEntity> transactionsEntityList) {
+        try {
+            copyOrThrow(transactionsEntityList);
+        } catch (RuntimeException e) {
+            log.warn("{} transactions left in the outbox, their shards could not be written", transactionsEntityList.size(), e);
+            return false;
+        }
+        return true;
+    }
+
+    private void copyNotCopied(List<TransactionOutboxEntity> pending) {
+        List<TransactionsEntity> notCopied = pending.stream().filter(o -> !copied.contains(o.getId()))
+                .map(TransactionOutboxEntity::toTransaction).collect(Collectors.toList());
+        if (!notCopied.isEmpty()) {
+            copyOrThrow(notCopied);
+        }
+    }
+
+    private void copyOrThrow(List<TransactionsEntity> transactionsEntityList) {
+        transactionShardService.saveTransactions(transactionsEntityList);
+        transactionsEntityList.forEach(t -> copied.add(t.getId()));
+    }
+
+    private void deleteCopied() {
+        List<Integer> ids = new ArrayList<>(chunkSize);
+        for (Iterator<Integer> iterator = copied.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+            if (ids.size() == chunkSize) {
+                delete(ids);
+                ids.clear();
+            }
+        }
+        if (!ids.isEmpty()) {
+            delete(ids);
+        }
+    }
+
+    private void delete(List<Integer> ids) {
+        transactionTemplate.execute(status -> transactionOutboxRepository.deleteByIdIn(ids));
+    }
+
+    private void backfillReferences() {
+        if (transactionReferenceRepository.count() >= transactionShardService.count()) {
+            return;
+        }
+        List<TransactionsEntity> chunk = new ArrayList<>(chunkSize);
+        transactionShardService.streamFilterTransactions(null, null, transactionsEntity -> {
+            chunk.add(transactionsEntity);
+            if (chunk.size() == chunkSize) {
+                saveMissingReferences(chunk);
+                chunk.clear();
+            }
+        });
+        saveMissingReferences(chunk);
+        log.info("References of the shards recorded in the main datasource");
+    }
+
+    private void saveMissingReferences(List<TransactionsEntity> transactionsEntityList) {
+        if (transactionsEntityList.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            Set<String> existingReferences = new HashSet<>(transactionReferenceRepository.findReferencesIn(
+                    transactionsEntityList.stream().map(TransactionsEntity::getReference).collect(Collectors.toList())));
+            transactionReferenceRepository.saveAll(transactionsEntityList.stream().filter(t -> !existingReferences.contains(t.getReference()))
+                    .map(t -> new TransactionReferenceEntity(t.getReference())).collect(Collectors.toList()));
+            transactionReferenceRepository.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.ProjectionStatsDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.projection.TransactionProjection;
+import com.rfc.transactions.projection.TransactionRow;
+import com.rfc.transactions.utils.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Listings and status lookups from a {@link TransactionProjection}, enabled with
+ * {@code transactions.projection.enabled}. Until it is built {@link #isReady()} is false and
+ * callers read the database. Rows removed outside the application stay until {@link #rebuild()}.
+ */
+@Slf4j
+@Service
+public class TransactionProjectionService {
+
+    private final TransactionsProperties.Projection properties;
+
+    private final TransactionsService transactionsService;
+
+    private final TransactionMapper transactionMapper;
+
+    private volatile TransactionProjection projection;
+
+    private volatile TransactionProjection building;
+
+    public TransactionProjectionService(TransactionsProperties transactionsProperties, TransactionsService transactionsService,
+                                        TransactionMapper transactionMapper, MeterRegistry meterRegistry) {
+        this.properties = transactionsProperties.getProjection();
+        this.transactionsService = transactionsService;
+        this.transactionMapper = transactionMapper;
+        gauge(meterRegistry, "transactions.projection.rows", "Transactions held by the projection", null, TransactionProjection::size);
+        gauge(meterRegistry, "transactions.projection.accounts", "Accounts held by the projection", null, TransactionProjection::accounts);
+        gauge(meterRegistry, "transactions.projection.memory", "Estimated heap held by the projection", "bytes", TransactionProjection::estimatedBytes);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isReady() {
+        return Objects.nonNull(projection);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Loads a new projection from the database and swaps it in. Transactions committed while
+     * it loads are added to both projections; the new one skips those the load reads again.
+     */
+    public synchronized ProjectionStatsDto rebuild() {
+        long start = System.nanoTime();
+        TransactionProjection transactionProjection = new TransactionProjection();
+        building = transactionProjection;
+        try {
+            int chunkSize = properties.getLoadChunkSize();
+            List<TransactionsEntity> chunk = new ArrayList<>(chunkSize);
+            transactionsService.streamFilterTransactions(null, null, transactionsEntity -> {
+                chunk.add(transactionsEntity);
+                if (chunk.size() == chunkSize) {
+                    transactionProjection.add(chunk);
+                    chunk.clear();
+                }
+            });
+            transactionProjection.add(chunk);
+            projection = transactionProjection;
+        } finally {
+            building = null;
+        }
+        log.info("Transaction projection built in {} ms: {} transactions, {} accounts, ~{} bytes", (System.nanoTime() - start) / 1_000_000,
+                transactionProjection.size(), transactionProjection.accounts(), transactionProjection.estimatedBytes());
+        return getStats();
+    }
+
+    public ProjectionStatsDto getStats() {
+        TransactionProjection transactionProjection = projection;
+        if (Objects.isNull(transactionProjection)) {
+            return new ProjectionStatsDto(false, 0, 0, 0);
+        }
+        return new ProjectionStatsDto(true, transactionProjection.size(), transactionProjection.accounts(), transactionProjection.estimatedBytes());
+    }
+
+    /**
+     * Reads the building projection before the current one: once it is null the swap is
+     * visible, so a transaction is never added only to a projection being replaced.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsCreated(TransactionsCreatedEvent transactionsCreatedEvent) {
+        TransactionProjection rebuilding = building;
+        TransactionProjection current = projection;
+        if (Objects.nonNull(rebuilding)) {
+            rebuilding.add(transactionsCreatedEvent.getTransactions());
+        }
+        if (Objects.nonNull(current) && current != rebuilding) {
+            current.add(transactionsCreatedEvent.getTransactions());
+        }
+    }
+
+    /**
+     * Snapshot of the stored transaction, or null when unknown or not ready.
+     */
+    public TransactionSnapshot getTransaction(String reference) {
+        TransactionProjection transactionProjection = projection;
+        TransactionRow transactionRow = Objects.isNull(transactionProjection) ? null : transactionProjection.get(reference);
+        return Objects.isNull(transactionRow) ? null : transactionMapper.toSnapshot(transactionRow);
+    }
+
+    /**
+     * Rows of the projection, which must be ready.
+     */
+    public void forEachRow(String IBAN, Consumer<TransactionRow> consumer) {
+        projection.forEach(IBAN, consumer);
+    }
+
+    /**
+     * Rows held by the projection, 0 when not ready.
+     */
+    public int size() {
+        TransactionProjection transactionProjection = projection;
+        return Objects.isNull(transactionProjection) ? 0 : transactionProjection.size();
+    }
+
+    public List<TransactionDto> getFilterTransactions(String IBAN, SortDirectionDto sortAmmount) {
+        return toDtoList(projection.list(IBAN, sortAmmount));
+    }
+
+    public TransactionPageDto getTransactionsPage(String IBAN, SortDirectionDto sortAmmount, TransactionCursorDto after, int limit) {
+        TransactionRow cursor = Objects.isNull(after) ? null : new TransactionRow(after.getId(), null, null, TransactionRow.UNDATED, Money.toMinor(after.getAmmount()), 0, null);
+        List<TransactionRow> transactionRows = projection.page(IBAN, sortAmmount == SortDirectionDto.DESC, cursor, limit);
+        String nextCursor = null;
+        if (transactionRows.size() == limit) {
+            TransactionRow last = transactionRows.get(limit - 1);
+            nextCursor = new TransactionCursorDto(TransactionRow.toDecimal(last.getAmmount()), last.getId()).toString();
+        }
+        return new TransactionPageDto(toDtoList(transactionRows), nextCursor);
+    }
+
+    private List<TransactionDto> toDtoList(List<TransactionRow> transactionRows) {
+        List<TransactionDto> transactionDtoList = new ArrayList<>(transactionRows.size());
+        for (TransactionRow transactionRow : transactionRows) {
+            transactionDtoList.add(transactionMapper.toDto(transactionRow));
+        }
+        return transactionDtoList;
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, String baseUnit, ToDoubleFunction<TransactionProjection> value) {
+        Gauge.builder(name, this, service -> {
+            TransactionProjection transactionProjection = service.projection;
+            return Objects.isNull(transactionProjection) ? 0 : value.applyAsDouble(transactionProjection);
+        }).description(description).baseUnit(baseUnit).register(meterRegistry);
+    }
+}
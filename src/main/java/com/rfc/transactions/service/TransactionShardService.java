@@ -0,0 +1,234 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.sharding.MergingIterator;
+import com.rfc.transactions.sharding.TransactionShard;
+import com.rfc.transactions.stats.GroupStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sharded storage of the transactions by hash of the IBAN, enabled with
+ * {@code transactions.sharding.enabled}. Shards are only written by
+ * {@link TransactionOutboxService}, whose reference table keeps references unique across them.
+ */
+@Slf4j
+@Service
+public class TransactionShardService {
+
+    private final TransactionsProperties.Sharding properties;
+
+    private final int chunkSize;
+
+    private final List<TransactionShard> shards;
+
+    private final ExecutorService executor;
+
+    public TransactionShardService(TransactionsProperties transactionsProperties) {
+        this.properties = transactionsProperties.getSharding();
+        this.chunkSize = transactionsProperties.getBatch().getChunkSize();
+        if (!isEnabled()) {
+            this.shards = Collections.emptyList();
+            this.executor = null;
+            return;
+        }
+        int count = properties.getShards();
+        List<TransactionShard> shardList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shardList.add(new TransactionShard(i, count, String.format(properties.getUrl(), i), properties.getPoolSize()));
+        }
+        this.shards = Collections.unmodifiableList(shardList);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(count * properties.getPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Transactions stored in {} shards", count);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdown();
+        }
+        shards.forEach(TransactionShard::close);
+    }
+
+    /**
+     * Stable across restarts, String.hashCode is part of the language specification.
+     */
+    TransactionShard shardFor(String IBAN) {
+        int hash = IBAN.hashCode();
+        return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+    }
+
+    public TransactionsEntity getTransactionByReference(String reference) {
+        return scatter(shard -> shard.findByReference(reference)).stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    /**
+     * Gives every transaction without an id the next id of its shard, so it can be recorded in
+     * the main datasource before the shard row is written.
+     */
+    public void assignIds(List<TransactionsEntity> transactionsEntityList) {
+        for (TransactionsEntity transactionsEntity : transactionsEntityList) {
+            if (Objects.isNull(transactionsEntity.getId())) {
+                transactionsEntity.setId(shardFor(transactionsEntity.getAccountIBAN()).nextId());
+            }
+        }
+    }
+
+    /**
+     * Keeps every shard from handing out ids up to {@code id} again.
+     */
+    public void reserveIds(int id) {
+        shards.forEach(shard -> shard.reserve(id));
+    }
+
+    /**
+     * Writes the transactions to their shards, in parallel when they belong to several. Rows
+     * are merged by id, so a write that failed in some shards can simply be repeated.
+     */
+    public List<TransactionsEntity> saveTransactions(List<TransactionsEntity> transactionsEntityList) {
+        Map<TransactionShard, List<TransactionsEntity>> byShard = new LinkedHashMap<>();
+        transactionsEntityList.forEach(t -> byShard.computeIfAbsent(shardFor(t.getAccountIBAN()), k -> new ArrayList<>()).add(t));
+        if (byShard.size() == 1) {
+            byShard.forEach((shard, rows) -> shard.insert(rows, chunkSize));
+        } else {
+            List<CompletableFuture<Void>> inserts = new ArrayList<>(byShard.size());
+            byShard.forEach((shard, rows) -> inserts.add(CompletableFuture.runAsync(() -> shard.insert(rows, chunkSize), executor)));
+            gather(inserts);
+        }
+        return transactionsEntityList;
+    }
+
+    public List<TransactionsEntity> getTransactionsByReferences(List<String> references) {
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            List<String> chunk = references.subList(from, Math.min(from + chunkSize, references.size()));
+            scatter(shard -> shard.findByReferenceIn(chunk)).forEach(transactionsEntityList::addAll);
+        }
+        return transactionsEntityList;
+    }
+
+    public Set<String> getExistingReferences(List<String> references) {
+        Set<String> existingReferences = new HashSet<>();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            List<String> chunk = references.subList(from, Math.min(from + chunkSize, references.size()));
+            scatter(shard -> shard.findReferencesIn(chunk)).forEach(existingReferences::addAll);
+        }
+        return existingReferences;
+    }
+
+    public List<TransactionsEntity> getFilterTransactions(String IBAN, SortDirectionDto sortAmmount) {
+        if (!StringUtils.isEmpty(IBAN)) {
+            return shardFor(IBAN).find(IBAN, sortAmmount, null, null);
+        }
+        return merge(scatter(shard -> shard.find(null, sortAmmount, null, null)), sortAmmount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Every shard returns its first {@code limit} rows after the cursor; the page is the first
+     * {@code limit} of their merge.
+     */
+    public List<TransactionsEntity> getTransactionsPage(String IBAN, SortDirectionDto sortAmmount, TransactionCursorDto after, int limit) {
+        SortDirectionDto order = sortAmmount == SortDirectionDto.DESC ? SortDirectionDto.DESC : SortDirectionDto.ASC;
+        if (!StringUtils.isEmpty(IBAN)) {
+            return shardFor(IBAN).find(IBAN, order, after, limit);
+        }
+        return merge(scatter(shard -> shard.find(null, order, after, limit)), order, limit);
+    }
+
+    /**
+     * Holds one cursor per shard open and merges them on the calling thread.
+     */
+    public void streamFilterTransactions(String IBAN, SortDirectionDto sortAmmount, Consumer<TransactionsEntity> consumer) {
+        List<TransactionShard> sources = StringUtils.isEmpty(IBAN) ? shards : Collections.singletonList(shardFor(IBAN));
+        String filter = StringUtils.isEmpty(IBAN) ? null : IBAN;
+        List<TransactionShard.RowCursor> cursors = new ArrayList<>(sources.size());
+        try {
+            for (TransactionShard shard : sources) {
+                cursors.add(shard.open(filter, sortAmmount));
+            }
+            new MergingIterator<>(cursors, TransactionShard.order(sortAmmount)).forEachRemaining(consumer);
+        } finally {
+            cursors.forEach(TransactionShard.RowCursor::close);
+        }
+    }
+
+    public void streamDatedTransactions(String IBAN, Date from, Date to, Consumer<TransactionsEntity> consumer) {
+        List<TransactionShard> sources = StringUtils.isEmpty(IBAN) ? shards : Collections.singletonList(shardFor(IBAN));
+        String filter = StringUtils.isEmpty(IBAN) ? null : IBAN;
+        List<TransactionShard.RowCursor> cursors = new ArrayList<>(sources.size());
+        try {
+            for (TransactionShard shard : sources) {
+                cursors.add(shard.openDated(filter, from, to));
+            }
+            new MergingIterator<>(cursors, Comparator.comparing(TransactionsEntity::getDate).thenComparing(TransactionsEntity::getId)).forEachRemaining(consumer);
+        } finally {
+            cursors.forEach(TransactionShard.RowCursor::close);
+        }
+    }
+
+    /**
+     * Accounts live in one shard each, so the shard answers are complete and only need to be
+     * put in IBAN order.
+     */
+    public List<GroupStats> getAccountStats(String IBAN, Date from, Date to) {
+        if (!StringUtils.isEmpty(IBAN)) {
+            return shardFor(IBAN).aggregateByAccount(IBAN, from, to);
+        }
+        List<GroupStats> groupStatsList = new ArrayList<>();
+        scatter(shard -> shard.aggregateByAccount(null, from, to)).forEach(groupStatsList::addAll);
+        groupStatsList.sort(Comparator.comparing(GroupStats::getAccountIBAN));
+        return groupStatsList;
+    }
+
+    public long count() {
+        return scatter(TransactionShard::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    private <T> List<T> scatter(Function<TransactionShard, T> query) {
+        return gather(shards.stream().map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor)).collect(Collectors.toList()));
+    }
+
+    private static <T> List<T> gather(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private static List<TransactionsEntity> merge(List<List<TransactionsEntity>> sorted, SortDirectionDto sortAmmount, int limit) {
+        int size = Math.min(limit, sorted.stream().mapToInt(List::size).sum());
+        List<TransactionsEntity> merged = new ArrayList<>(size);
+        MergingIterator<TransactionsEntity> mergingIterator = new MergingIterator<>(
+                sorted.stream().map(List::iterator).collect(Collectors.toList()), TransactionShard.order(sortAmmount));
+        while (merged.size() < size) {
+            merged.add(mergingIterator.next());
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,139 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.AmountStatsDto;
+import com.rfc.transactions.model.dto.StatsGroupDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.stats.GroupStats;
+import com.rfc.transactions.stats.StatsAggregator;
+import com.rfc.transactions.stats.Summary;
+import com.rfc.transactions.stats.TransactionColumns;
+import com.rfc.transactions.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Statistics of ammount and fee per account or per day. Without the projection, per account
+ * is a GROUP BY of the database; per day always aggregates in memory, since days follow the
+ * clock zone.
+ */
+@Slf4j
+@Service
+public class TransactionStatsService {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private final TransactionsService transactionsService;
+
+    private final TransactionProjectionService transactionProjectionService;
+
+    private final DayBoundary dayBoundary;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final ForkJoinPool pool;
+
+    private final StatsAggregator statsAggregator;
+
+    public TransactionStatsService(TransactionsProperties transactionsProperties, TransactionsService transactionsService,
+                                   TransactionProjectionService transactionProjectionService, DayBoundary dayBoundary, TransactionMetrics transactionMetrics) {
+        this.transactionsService = transactionsService;
+        this.transactionProjectionService = transactionProjectionService;
+        this.dayBoundary = dayBoundary;
+        this.transactionMetrics = transactionMetrics;
+        int parallelism = transactionsProperties.getStats().getParallelism();
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.statsAggregator = new StatsAggregator(pool);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+    }
+
+    /**
+     * Statistics of the account, or of every account when {@code IBAN} is empty. With a range
+     * only transactions dated in it, both ends included, count.
+     */
+    public List<TransactionStatsDto> getStats(StatsGroupDto groupBy, String IBAN, LocalDate from, LocalDate to) {
+        transactionMetrics.enter(TransactionMetrics.Operation.STATS);
+        try {
+            boolean dated = Objects.nonNull(from) || Objects.nonNull(to);
+            ZoneId zone = dayBoundary.getZone();
+            Date start = dated ? Date.from((Objects.isNull(from) ? FIRST_DAY : from).atStartOfDay(zone).toInstant()) : null;
+            Date end = dated ? Date.from((Objects.isNull(to) ? LAST_DAY : to).plusDays(1).atStartOfDay(zone).toInstant()) : null;
+            if (!transactionProjectionService.isReady() && groupBy != StatsGroupDto.DAY) {
+                return toDtoList(transactionsService.getAccountStats(IBAN, start, end));
+            }
+            TransactionColumns columns = collect(IBAN, start, end);
+            return toDtoList(groupBy == StatsGroupDto.DAY ? statsAggregator.byDay(columns, zone) : statsAggregator.byAccount(columns));
+        } finally {
+            transactionMetrics.exit(TransactionMetrics.Operation.STATS);
+        }
+    }
+
+    private TransactionColumns collect(String IBAN, Date start, Date end) {
+        long startMillis = Objects.isNull(start) ? Long.MIN_VALUE : start.getTime();
+        long endMillis = Objects.isNull(end) ? Long.MAX_VALUE : end.getTime();
+        if (transactionProjectionService.isReady()) {
+            TransactionColumns columns = new TransactionColumns(StringUtils.isEmpty(IBAN) ? transactionProjectionService.size() : 0);
+            transactionProjectionService.forEachRow(IBAN, transactionRow -> {
+                long date = transactionRow.getDate();
+                if (Objects.isNull(start) || (date != TransactionColumns.UNDATED && date >= startMillis && date < endMillis)) {
+                    columns.add(transactionRow.getAccountIBAN(), date, transactionRow.getAmmount(), transactionRow.getFee());
+                }
+            });
+            return columns;
+        }
+        TransactionColumns columns = new TransactionColumns(0);
+        Consumer<TransactionsEntity> add = transactionsEntity -> columns.add(transactionsEntity.getAccountIBAN(),
+                Objects.isNull(transactionsEntity.getDate()) ? TransactionColumns.UNDATED : transactionsEntity.getDate().getTime(),
+                toMinor(transactionsEntity.getAmmount()), toMinor(transactionsEntity.getFee()));
+        if (Objects.isNull(start)) {
+            transactionsService.streamFilterTransactions(IBAN, null, add);
+        } else {
+            transactionsService.streamDatedTransactions(IBAN, start, end, add);
+        }
+        return columns;
+    }
+
+    private static List<TransactionStatsDto> toDtoList(List<GroupStats> groupStatsList) {
+        List<TransactionStatsDto> transactionStatsDtoList = new ArrayList<>(groupStatsList.size());
+        for (GroupStats groupStats : groupStatsList) {
+            transactionStatsDtoList.add(new TransactionStatsDto(groupStats.getAccountIBAN(),
+                    groupStats.getEpochDay() == GroupStats.NO_DAY ? null : LocalDate.ofEpochDay(groupStats.getEpochDay()),
+                    groupStats.getCount(), toDto(groupStats.getAmmount()), toDto(groupStats.getFee())));
+        }
+        return transactionStatsDtoList;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return Objects.isNull(amount) ? TransactionColumns.NO_AMOUNT : Money.toMinor(amount);
+    }
+
+    private static AmountStatsDto toDto(Summary summary) {
+        if (Objects.isNull(summary)) {
+            return null;
+        }
+        BigDecimal total = Money.toDecimal(summary.getTotal());
+        return new AmountStatsDto(total, total.divide(BigDecimal.valueOf(summary.getCount()), Money.SCALE, RoundingMode.HALF_UP), Money.toDecimal(summary.getMin()),
+                Money.toDecimal(summary.getMax()), Money.toDecimal(summary.getP50()), Money.toDecimal(summary.getP90()), Money.toDecimal(summary.getP99()));
+    }
+}
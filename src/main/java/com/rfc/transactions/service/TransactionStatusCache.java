@@ -0,0 +1,133 @@
+package com.rfc.transactions.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionDeletedEvent;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Bounded cache of reference to transaction snapshot in front of the status lookup. Unknown
+ * references are cached as empty entries with a shorter lifetime, so repeated polls for a
+ * reference that does not exist do not reach the database either.
+ */
+@Service
+public class TransactionStatusCache {
+
+    private static final String CACHE_NAME = "transactions.status";
+
+    private final Cache<String, Optional<TransactionSnapshot>> cache;
+
+    private final TransactionsService transactionsService;
+
+    private final TransactionMapper transactionMapper;
+
+    @Autowired
+    public TransactionStatusCache(TransactionsProperties transactionsProperties, TransactionsService transactionsService, TransactionMapper transactionMapper, MeterRegistry meterRegistry) {
+        this(transactionsProperties, transactionsService, transactionMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    TransactionStatusCache(TransactionsProperties transactionsProperties, TransactionsService transactionsService, TransactionMapper transactionMapper, MeterRegistry meterRegistry, Ticker ticker) {
+        TransactionsProperties.StatusCache statusCache = transactionsProperties.getStatusCache();
+        this.cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .maximumSize(statusCache.getMaximumSize())
+                .expireAfter(new SnapshotExpiry(statusCache.getExpireAfterWrite().toNanos(), statusCache.getNegativeExpireAfterWrite().toNanos()))
+                .recordStats()
+                .build();
+        this.transactionsService = transactionsService;
+        this.transactionMapper = transactionMapper;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public TransactionSnapshot getTransaction(String reference) {
+        return cache.get(reference, this::load).orElse(null);
+    }
+
+    /**
+     * Snapshots of the stored transactions among {@code references}. The ones not cached are
+     * loaded together with a single lookup, and those still unknown are cached as empty.
+     */
+    public Map<String, TransactionSnapshot> getTransactions(Collection<String> references) {
+        Map<String, TransactionSnapshot> transactionSnapshots = new HashMap<>();
+        cache.getAll(references, this::loadAll).forEach((reference, snapshot) -> snapshot.ifPresent(value -> transactionSnapshots.put(reference, value)));
+        return transactionSnapshots;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsCreated(TransactionsCreatedEvent transactionsCreatedEvent) {
+        for (TransactionsEntity transactionsEntity : transactionsCreatedEvent.getTransactions()) {
+            cache.put(transactionsEntity.getReference(), Optional.of(transactionMapper.toSnapshot(transactionsEntity)));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionDeleted(TransactionDeletedEvent transactionDeletedEvent) {
+        cache.invalidate(transactionDeletedEvent.getReference());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private Optional<TransactionSnapshot> load(String reference) {
+        TransactionsEntity transactionsEntity = transactionsService.getTransactionByReference(reference);
+        return Objects.isNull(transactionsEntity) ? Optional.empty() : Optional.of(transactionMapper.toSnapshot(transactionsEntity));
+    }
+
+    private Map<String, Optional<TransactionSnapshot>> loadAll(Iterable<? extends String> references) {
+        List<String> missing = new ArrayList<>();
+        references.forEach(missing::add);
+        Map<String, Optional<TransactionSnapshot>> loaded = new HashMap<>();
+        for (TransactionsEntity transactionsEntity : transactionsService.getTransactionsByReferences(missing)) {
+            loaded.put(transactionsEntity.getReference(), Optional.of(transactionMapper.toSnapshot(transactionsEntity)));
+        }
+        missing.forEach(reference -> loaded.putIfAbsent(reference, Optional.empty()));
+        return loaded;
+    }
+
+    private static class SnapshotExpiry implements Expiry<String, Optional<TransactionSnapshot>> {
+
+        private final long expireAfterWriteNanos;
+
+        private final long negativeExpireAfterWriteNanos;
+
+        SnapshotExpiry(long expireAfterWriteNanos, long negativeExpireAfterWriteNanos) {
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+            this.negativeExpireAfterWriteNanos = negativeExpireAfterWriteNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String reference, Optional<TransactionSnapshot> snapshot, long currentTime) {
+            return snapshot.isPresent() ? expireAfterWriteNanos : negativeExpireAfterWriteNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String reference, Optional<TransactionSnapshot> snapshot, long currentTime, long currentDuration) {
+            return expireAfterCreate(reference, snapshot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String reference, Optional<TransactionSnapshot> snapshot, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
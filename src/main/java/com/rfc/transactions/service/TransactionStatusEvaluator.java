@@ -0,0 +1,60 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.utils.Money;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Applies the status business rules to a snapshot. Dates are compared as epoch days, so a
+ * status poll does no date conversion at all.
+ */
+@AllArgsConstructor
+@Component
+public class TransactionStatusEvaluator {
+
+    private DayBoundary dayBoundary;
+
+    public TransactionStatusDto evaluate(String reference, TransactionSnapshot transactionSnapshot, ChannelDto channel) {
+        TransactionStatusDto transactionStatusDto = new TransactionStatusDto();
+        transactionStatusDto.setReference(reference);
+        if (Objects.isNull(transactionSnapshot)) {
+            transactionStatusDto.setStatus(StatusDto.INVALID);
+            return transactionStatusDto;
+        }
+        transactionStatusDto.setStatus(checkDate(transactionSnapshot.getEpochDay(), channel));
+        checkChannel(transactionSnapshot, transactionStatusDto, channel);
+        return transactionStatusDto;
+    }
+
+    StatusDto checkDate(long epochDay, ChannelDto channel) {
+        return checkDate(epochDay, dayBoundary.today(), channel);
+    }
+
+    /**
+     * Status the transaction had, or will have, on the day {@code today}.
+     */
+    StatusDto checkDate(long epochDay, long today, ChannelDto channel) {
+        if (epochDay == TransactionSnapshot.UNDATED || epochDay == today) {
+            return StatusDto.PENDING;
+        }
+        if (epochDay < today) {
+            return StatusDto.SETTLED;
+        }
+        return channel == ChannelDto.ATM ? StatusDto.PENDING : StatusDto.FUTURE;
+    }
+
+    private void checkChannel(TransactionSnapshot transactionSnapshot, TransactionStatusDto transactionStatusDto, ChannelDto channel) {
+        if (channel == ChannelDto.CLIENT || channel == ChannelDto.ATM) {
+            transactionStatusDto.setAmmount(Money.toDecimal(Money.subtract(transactionSnapshot.getAmmount(), transactionSnapshot.getFee())));
+        } else {
+            transactionStatusDto.setAmmount(Money.toDecimal(transactionSnapshot.getAmmount()));
+            transactionStatusDto.setFee(Money.toDecimal(transactionSnapshot.getFee()));
+        }
+    }
+}
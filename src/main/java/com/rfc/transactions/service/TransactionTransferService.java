@@ -0,0 +1,143 @@
+package com.rfc.transactions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.Exceptions.InvalidRecordException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BatchItemStatusDto;
+import com.rfc.transactions.model.dto.ImportResultDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+import com.rfc.transactions.transfer.TransactionRecordReader;
+import com.rfc.transactions.transfer.TransactionRecordWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streaming import and export of transactions as CSV or NDJSON, holding one chunk at most.
+ * Imports go through {@link OperationsService#createTransactions} like any batch.
+ */
+@Slf4j
+@Service
+public class TransactionTransferService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TransactionsProperties.Transfer properties;
+
+    private final OperationsService operationsService;
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionTransferService(TransactionsProperties transactionsProperties, OperationsService operationsService, ObjectMapper objectMapper) {
+        this.properties = transactionsProperties.getTransfer();
+        this.operationsService = operationsService;
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportResultDto importTransactions(ReadableByteChannel channel, TransferFormatDto format) throws IOException {
+        ImportResultDto importResultDto = new ImportResultDto(0, 0, 0, new ArrayList<>());
+        Progress progress = new Progress("Imported");
+        TransactionRecordReader transactionRecordReader = TransactionRecordReader.of(format, channel, objectMapper);
+        List<TransactionDto> chunk = new ArrayList<>(properties.getChunkSize());
+        while (true) {
+            TransactionDto transactionDto;
+            try {
+                transactionDto = transactionRecordReader.next();
+            } catch (InvalidRecordException e) {
+                addResult(importResultDto, new BatchItemResultDto(null, BatchItemStatusDto.REJECTED, e.getMessage()));
+                continue;
+            }
+            if (Objects.isNull(transactionDto)) {
+                break;
+            }
+            chunk.add(transactionDto);
+            if (chunk.size() == properties.getChunkSize()) {
+                apply(chunk, importResultDto, progress);
+            }
+        }
+        apply(chunk, importResultDto, progress);
+        progress.done(importResultDto.getRecords());
+        return importResultDto;
+    }
+
+    /**
+     * Writes the transactions of the account, or of every account when {@code IBAN} is empty,
+     * by id. Returns the number of rows written.
+     */
+    public long exportTransactions(String IBAN, TransferFormatDto format, OutputStream outputStream) throws IOException {
+        Progress progress = new Progress("Exported");
+        long[] rows = {0};
+        try (TransactionRecordWriter transactionRecordWriter = TransactionRecordWriter.of(format, outputStream, objectMapper)) {
+            operationsService.streamFilterTransactions(IBAN, null, transactionDto -> {
+                try {
+                    transactionRecordWriter.write(transactionDto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress.update(++rows[0]);
+            });
+        }
+        progress.done(rows[0]);
+        return rows[0];
+    }
+
+    private void apply(List<TransactionDto> chunk, ImportResultDto importResultDto, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (BatchItemResultDto batchItemResultDto : operationsService.createTransactions(chunk)) {
+            addResult(importResultDto, batchItemResultDto);
+        }
+        chunk.clear();
+        progress.update(importResultDto.getRecords());
+    }
+
+    private void addResult(ImportResultDto importResultDto, BatchItemResultDto batchItemResultDto) {
+        importResultDto.setRecords(importResultDto.getRecords() + 1);
+        if (batchItemResultDto.getStatus() == BatchItemStatusDto.CREATED) {
+            importResultDto.setCreated(importResultDto.getCreated() + 1);
+            return;
+        }
+        importResultDto.setRejected(importResultDto.getRejected() + 1);
+        if (importResultDto.getErrors().size() < MAX_REPORTED_ERRORS) {
+            importResultDto.getErrors().add(batchItemResultDto);
+        }
+    }
+
+    private class Progress {
+
+        private final String action;
+
+        private final long start = System.nanoTime();
+
+        private long nextReport = properties.getProgressInterval();
+
+        Progress(String action) {
+            this.action = action;
+        }
+
+        void update(long records) {
+            if (records >= nextReport) {
+                log.info("{} {} transactions ({} per second)", action, records, rate(records));
+                nextReport = (records / properties.getProgressInterval() + 1) * properties.getProgressInterval();
+            }
+        }
+
+        void done(long records) {
+            log.info("{} {} transactions in {} ms ({} per second)", action, records, (System.nanoTime() - start) / 1_000_000, rate(records));
+        }
+
+        private long rate(long records) {
+            return records * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+        }
+    }
+}
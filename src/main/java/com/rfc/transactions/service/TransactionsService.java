@@ -1,35 +1,113 @@
 package com.rfc.transactions.service;
 
+import com.rfc.transactions.configuration.TransactionsProperties;
 import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
 import com.rfc.transactions.model.entity.TransactionsEntity;
 import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.stats.GroupStats;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.List;
-import java.util.Objects;
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.rfc.transactions.utils.Cons.AMMOUNT_FIELD;
+import static com.rfc.transactions.utils.Cons.ID_FIELD;
 
+/**
+ * Storage of the transactions: the JPA repository on the main datasource, or the shards of
+ * {@link TransactionShardService} when sharding is enabled, written and looked up by reference
+ * through {@link TransactionOutboxService}. Shard reads first copy the outbox rows they cover.
+ */
 @AllArgsConstructor
 @Service
 public class TransactionsService {
 
     private TransactionsRepository transactionsRepository;
 
+    private EntityManager entityManager;
+
+    private TransactionsProperties transactionsProperties;
+
+    private TransactionShardService transactionShardService;
+
+    private TransactionOutboxService transactionOutboxService;
+
     public TransactionsEntity getTransactionByReference(String reference) {
+        if (transactionShardService.isEnabled()) {
+            return transactionOutboxService.getTransactionByReference(reference);
+        }
         return transactionsRepository.findByReference(reference).orElse(null);
     }
 
+    /**
+     * Stored transactions among {@code references}, in no particular order, one IN query per
+     * batch chunk.
+     */
+    public List<TransactionsEntity> getTransactionsByReferences(List<String> references) {
+        if (transactionShardService.isEnabled()) {
+            return transactionOutboxService.getTransactionsByReferences(references);
+        }
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>();
+        int chunkSize = transactionsProperties.getBatch().getChunkSize();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            transactionsEntityList.addAll(transactionsRepository.findByReferenceIn(references.subList(from, Math.min(from + chunkSize, references.size()))));
+        }
+        return transactionsEntityList;
+    }
+
+    /**
+     * Flushed like the batches, so the INSERT runs inside the call instead of in the commit.
+     */
     public TransactionsEntity saveTransaction(TransactionsEntity transactionsEntity) {
-        return transactionsRepository.save(transactionsEntity);
+        if (transactionShardService.isEnabled()) {
+            return transactionOutboxService.saveTransactions(Collections.singletonList(transactionsEntity)).get(0);
+        }
+        TransactionsEntity savedTransactionsEntity = transactionsRepository.save(transactionsEntity);
+        transactionsRepository.flush();
+        return savedTransactionsEntity;
+    }
+
+    public List<TransactionsEntity> saveTransactions(List<TransactionsEntity> transactionsEntityList) {
+        if (transactionShardService.isEnabled()) {
+            return transactionOutboxService.saveTransactions(transactionsEntityList);
+        }
+        int chunkSize = transactionsProperties.getBatch().getChunkSize();
+        for (int from = 0; from < transactionsEntityList.size(); from += chunkSize) {
+            transactionsRepository.saveAll(transactionsEntityList.subList(from, Math.min(from + chunkSize, transactionsEntityList.size())));
+            transactionsRepository.flush();
+            entityManager.clear();
+        }
+        return transactionsEntityList;
+    }
+
+    public Set<String> getExistingReferences(List<String> references) {
+        if (transactionShardService.isEnabled()) {
+            return transactionOutboxService.getExistingReferences(references);
+        }
+        Set<String> existingReferences = new HashSet<>();
+        int chunkSize = transactionsProperties.getBatch().getChunkSize();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            existingReferences.addAll(transactionsRepository.findReferencesIn(references.subList(from, Math.min(from + chunkSize, references.size()))));
+        }
+        return existingReferences;
     }
 
     public List<TransactionsEntity> getFilterTransactions(String IBAN, SortDirectionDto sortAmmount) {
+        if (transactionShardService.isEnabled()) {
+            transactionOutboxService.copyPending(IBAN);
+            return transactionShardService.getFilterTransactions(IBAN, sortAmmount);
+        }
         List<TransactionsEntity> transactionsEntityList;
-        Sort generatedSort = generateSortBy(sortAmmount, AMMOUNT_FIELD);
+        Sort generatedSort = generateSortBy(sortAmmount);
         if(!StringUtils.isEmpty(IBAN)) {
             transactionsEntityList = transactionsRepository.findByAccountIBAN(IBAN, generatedSort);
         }
@@ -39,11 +117,89 @@ public class TransactionsService {
         return transactionsEntityList;
     }
 
-    private Sort generateSortBy(SortDirectionDto sortAmmount, String fieldToSort) {
+    public List<TransactionsEntity> getTransactionsPage(String IBAN, SortDirectionDto sortAmmount, TransactionCursorDto after, int limit) {
+        if (transactionShardService.isEnabled()) {
+            transactionOutboxService.copyPending(IBAN);
+            return transactionShardService.getTransactionsPage(IBAN, sortAmmount, after, limit);
+        }
+        boolean descending = sortAmmount == SortDirectionDto.DESC;
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, AMMOUNT_FIELD, ID_FIELD));
+        boolean filterByIBAN = !StringUtils.isEmpty(IBAN);
+        if (Objects.isNull(after)) {
+            return filterByIBAN ? transactionsRepository.findByAccountIBAN(IBAN, pageable) : transactionsRepository.findAllBy(pageable);
+        }
+        if (descending) {
+            return filterByIBAN ? transactionsRepository.findByAccountIBANBefore(IBAN, after.getAmmount(), after.getId(), pageable)
+                    : transactionsRepository.findAllBefore(after.getAmmount(), after.getId(), pageable);
+        }
+        return filterByIBAN ? transactionsRepository.findByAccountIBANAfter(IBAN, after.getAmmount(), after.getId(), pageable)
+                : transactionsRepository.findAllAfter(after.getAmmount(), after.getId(), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamFilterTransactions(String IBAN, SortDirectionDto sortAmmount, Consumer<TransactionsEntity> consumer) {
+        if (transactionShardService.isEnabled()) {
+            transactionOutboxService.copyPending(IBAN);
+            transactionShardService.streamFilterTransactions(IBAN, sortAmmount, consumer);
+            return;
+        }
+        Sort generatedSort = generateSortBy(sortAmmount);
+        try (Stream<TransactionsEntity> transactionsEntityStream = !StringUtils.isEmpty(IBAN)
+                ? transactionsRepository.streamByAccountIBAN(IBAN, generatedSort)
+                : transactionsRepository.streamAllBy(generatedSort)) {
+            transactionsEntityStream.forEach(transactionsEntity -> {
+                consumer.accept(transactionsEntity);
+                entityManager.detach(transactionsEntity);
+            });
+        }
+    }
+
+    /**
+     * Transactions of {@code IBAN}, or of every account when it is empty, dated from {@code from}
+     * inclusive to {@code to} exclusive, in date order, read while they are consumed.
+     */
+    @Transactional(readOnly = true)
+    public void streamDatedTransactions(String IBAN, Date from, Date to, Consumer<TransactionsEntity> consumer) {
+        if (transactionShardService.isEnabled()) {
+            transactionOutboxService.copyPending(IBAN);
+            transactionShardService.streamDatedTransactions(IBAN, from, to, consumer);
+            return;
+        }
+        try (Stream<TransactionsEntity> transactionsEntityStream = !StringUtils.isEmpty(IBAN)
+                ? transactionsRepository.streamByAccountIBANDatedBetween(IBAN, from, to)
+                : transactionsRepository.streamDatedBetween(from, to)) {
+            transactionsEntityStream.forEach(transactionsEntity -> {
+                consumer.accept(transactionsEntity);
+                entityManager.detach(transactionsEntity);
+            });
+        }
+    }
+
+    /**
+     * Statistics per account computed by the database with GROUP BY, of every account when
+     * {@code IBAN} is empty. With dates only the transactions from {@code from} inclusive to
+     * {@code to} exclusive count.
+     */
+    public List<GroupStats> getAccountStats(String IBAN, Date from, Date to) {
+        if (transactionShardService.isEnabled()) {
+            transactionOutboxService.copyPending(IBAN);
+            return transactionShardService.getAccountStats(IBAN, from, to);
+        }
+        boolean dated = Objects.nonNull(from);
+        List<Object[]> rows = transactionsRepository.aggregateByAccount(StringUtils.isEmpty(IBAN) ? "" : IBAN, dated,
+                dated ? from : new Date(0), dated ? to : new Date(0));
+        List<GroupStats> groupStatsList = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            groupStatsList.add(GroupStats.ofAccountRow(row));
+        }
+        return groupStatsList;
+    }
+
+    private Sort generateSortBy(SortDirectionDto sortAmmount) {
         if(Objects.nonNull(sortAmmount)) {
-            return sortAmmount == SortDirectionDto.ASC ? Sort.by(Sort.Direction.ASC, fieldToSort) : Sort.by(Sort.Direction.DESC, fieldToSort);
+            return sortAmmount == SortDirectionDto.ASC ? Sort.by(Sort.Direction.ASC, AMMOUNT_FIELD, ID_FIELD) : Sort.by(Sort.Direction.DESC, AMMOUNT_FIELD, ID_FIELD);
         }
-        return Sort.unsorted();
+        return Sort.by(Sort.Direction.ASC, ID_FIELD);
     }
 
 }
@@ -0,0 +1,288 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.journal.TransactionJournal;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind mode for single transactions, enabled with {@code transactions.journal.enabled}.
+ * While an account has journaled transactions its in-memory balance is ahead of the stored
+ * one, so code that uses the stored balance calls {@link #drain(String)} under the account
+ * lock, before its transaction takes a connection.
+ */
+@Slf4j
+@Service
+public class WriteBehindService {
+
+    private final Map<String, PendingBalance> balances = new ConcurrentHashMap<>();
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private final TransactionsProperties.Journal properties;
+
+    private final AccountService accountService;
+
+    private final AccountLockService accountLockService;
+
+    private final TransactionsService transactionsService;
+
+    private final TransactionMapper transactionMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile TransactionJournal journal;
+
+    public WriteBehindService(TransactionsProperties transactionsProperties, AccountService accountService, AccountLockService accountLockService,
+                              TransactionsService transactionsService, TransactionMapper transactionMapper,
+                              ApplicationEventPublisher applicationEventPublisher, PlatformTransactionManager transactionManager,
+                              TransactionMetrics transactionMetrics) {
+        this.properties = transactionsProperties.getJournal();
+        this.accountService = accountService;
+        this.accountLockService = accountLockService;
+        this.transactionsService = transactionsService;
+        this.transactionMapper = transactionMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionMetrics = transactionMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path directory = Paths.get(properties.getDirectory());
+        journal = new TransactionJournal(directory, (int) properties.getSize().toBytes(), properties.getGroupCommitRecords(),
+                properties.getGroupCommitInterval(), properties.getApplyBatchSize());
+        int recovered = journal.recover(this::storeRecovered, WriteBehindService::isTransient, this::deadLetter);
+        journal.start(this::store, WriteBehindService::isTransient, this::deadLetter);
+        ready.countDown();
+        log.info("Transaction journal started in {}, {} transactions recovered", directory.toAbsolutePath(), recovered);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (Objects.nonNull(journal)) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Returns once the transaction is durable in the journal. {@code balanceOperation} gets the
+     * current balance of the account in cents and returns the new one, or throws to reject it.
+     */
+    public void accept(TransactionDto transactionDto, LongUnaryOperator balanceOperation) {
+        awaitReady();
+        String IBAN = transactionDto.getAccountIBAN();
+        long sequence;
+        Lock lock = accountLockService.getLock(IBAN);
+        lock.lock();
+        try {
+            PendingBalance pendingBalance = retainBalance(IBAN);
+            try {
+                long newBalance = balanceOperation.applyAsLong(pendingBalance.current());
+                sequence = journal.append(transactionDto);
+                pendingBalance.balance = newBalance;
+                pendingBalance.lastSequence = sequence;
+            } catch (RuntimeException e) {
+                releaseBalance(IBAN, 0);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitDurable(sequence);
+    }
+
+    /**
+     * Accepted transaction that is not stored yet, or null.
+     */
+    public TransactionDto getPending(String reference) {
+        TransactionJournal transactionJournal = journal;
+        return Objects.isNull(transactionJournal) ? null : transactionJournal.getPending(reference);
+    }
+
+    /**
+     * Waits until the journaled transactions of the account are stored. Call it under the
+     * account lock and outside any transaction: the applier needs a connection.
+     */
+    public void drain(String IBAN) {
+        TransactionJournal transactionJournal = journal;
+        PendingBalance pendingBalance = balances.get(IBAN);
+        if (Objects.isNull(transactionJournal) || Objects.isNull(pendingBalance)) {
+            return;
+        }
+        transactionJournal.drain(pendingBalance.lastSequence);
+    }
+
+    /**
+     * Accounts with journaled transactions not stored yet.
+     */
+    public int getPendingAccounts() {
+        return balances.size();
+    }
+
+    /**
+     * Failures that may go away on their own: a lock or query timeout or a lost connection.
+     * Anything else, such as a constraint violation, fails again.
+     */
+    static boolean isTransient(RuntimeException failure) {
+        return failure instanceof TransientDataAccessException || failure instanceof RecoverableDataAccessException;
+    }
+
+    /**
+     * In-memory balance with one more transaction in flight, read from the stored balance when
+     * the account has none. Called under the account lock.
+     */
+    private PendingBalance retainBalance(String IBAN) {
+        while (true) {
+            PendingBalance pendingBalance = balances.get(IBAN);
+            if (Objects.isNull(pendingBalance)) {
+                pendingBalance = new PendingBalance(Money.toMinor(accountService.getStoredBalance(IBAN)));
+                PendingBalance current = balances.putIfAbsent(IBAN, pendingBalance);
+                if (Objects.nonNull(current)) {
+                    pendingBalance = current;
+                }
+            }
+            if (pendingBalance.retain()) {
+                return pendingBalance;
+            }
+        }
+    }
+
+    /**
+     * Counts one journaled transaction of the account as no longer in flight, taking back
+     * {@code revertedMovement} when it was not stored.
+     */
+    private void releaseBalance(String IBAN, long revertedMovement) {
+        PendingBalance pendingBalance = balances.get(IBAN);
+        if (Objects.isNull(pendingBalance)) {
+            return;
+        }
+        pendingBalance.reverted.addAndGet(revertedMovement);
+        if (pendingBalance.release()) {
+            balances.remove(IBAN, pendingBalance);
+        }
+    }
+
+    private void deadLetter(TransactionDto transactionDto) {
+        transactionMetrics.journalDeadLetter();
+        releaseBalance(transactionDto.getAccountIBAN(), Money.net(transactionDto.getAmmount(), transactionDto.getFee()));
+    }
+
+    /**
+     * Stores the recovered transactions whose references were not stored before the crash.
+     */
+    private void storeRecovered(List<TransactionDto> recovered) {
+        Set<String> stored = transactionsService.getExistingReferences(recovered.stream().map(TransactionDto::getReference).collect(Collectors.toList()));
+        store(recovered.stream().filter(t -> !stored.contains(t.getReference())).collect(Collectors.toList()));
+    }
+
+    private void store(List<TransactionDto> transactionDtoList) {
+        if (transactionDtoList.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            Map<String, Long> movements = new LinkedHashMap<>();
+            List<TransactionsEntity> transactionsEntityList = new ArrayList<>(transactionDtoList.size());
+            for (TransactionDto transactionDto : transactionDtoList) {
+                movements.merge(transactionDto.getAccountIBAN(), Money.net(transactionDto.getAmmount(), transactionDto.getFee()), Money::add);
+                transactionsEntityList.add(transactionMapper.toEntity(transactionDto));
+            }
+            movements.forEach((IBAN, movement) -> {
+                AccountEntity accountEntity = accountService.getOrCreateAccount(IBAN);
+                accountEntity.setBalance(Money.toDecimal(Money.add(Money.toMinor(accountEntity.getBalance()), movement)));
+                accountService.updateAccount(accountEntity);
+            });
+            transactionsService.saveTransactions(transactionsEntityList);
+            applicationEventPublisher.publishEvent(new TransactionsCreatedEvent(transactionsEntityList));
+            return transactionsEntityList;
+        });
+        transactionDtoList.forEach(transactionDto -> releaseBalance(transactionDto.getAccountIBAN(), 0));
+    }
+
+    private void awaitReady() {
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the transaction journal was recovering", e);
+        }
+    }
+
+    /**
+     * Balance, last sequence and number of journaled transactions not stored yet. The one that
+     * releases the last closes the entry with -1, so it is never removed while being counted in.
+     */
+    private static final class PendingBalance {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicLong reverted = new AtomicLong();
+
+        private long balance;
+
+        private long lastSequence;
+
+        private PendingBalance(long balance) {
+            this.balance = balance;
+        }
+
+        private long current() {
+            balance -= reverted.getAndSet(0);
+            return balance;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int current = inFlight.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean release() {
+            return inFlight.decrementAndGet() == 0 && inFlight.compareAndSet(0, -1);
+        }
+    }
+}
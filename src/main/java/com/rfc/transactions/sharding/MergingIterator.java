@@ -0,0 +1,64 @@
+package com.rfc.transactions.sharding;
+
+import java.util.*;
+
+/**
+ * K-way merge of sources that are each sorted by the same comparator. A heap holds the head
+ * of every source, so each element costs O(log k) and nothing is read ahead of the consumer.
+ * Equal elements come in source order.
+ */
+public class MergingIterator<T> implements Iterator<T> {
+
+    private final PriorityQueue<Source<T>> heap;
+
+    public MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        Comparator<Source<T>> byHead = (a, b) -> comparator.compare(a.head, b.head);
+        this.heap = new PriorityQueue<>(Math.max(1, sources.size()), byHead.thenComparingInt(s -> s.order));
+        for (int i = 0; i < sources.size(); i++) {
+            Source<T> source = new Source<>(sources.get(i), i);
+            if (source.advance()) {
+                heap.add(source);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heap.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Source<T> source = heap.poll();
+        if (Objects.isNull(source)) {
+            throw new NoSuchElementException();
+        }
+        T head = source.head;
+        if (source.advance()) {
+            heap.add(source);
+        }
+        return head;
+    }
+
+    private static class Source<T> {
+
+        private final Iterator<? extends T> iterator;
+
+        private final int order;
+
+        private T head;
+
+        private Source(Iterator<? extends T> iterator, int order) {
+            this.iterator = iterator;
+            this.order = order;
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.rfc.transactions.sharding;
+
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.stats.GroupStats;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.Closeable;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rfc.transactions.utils.Cons.STATS_AGGREGATES;
+import static com.rfc.transactions.utils.Cons.STREAM_FETCH_SIZE;
+
+/**
+ * One shard of the transactions table, an H2 database used through plain JDBC. Ids are
+ * {@code sequence * shards + index}, so they never collide between shards and no shard has
+ * to ask another for one.
+ */
+public class TransactionShard implements Closeable {
+
+    private static final String[] SCHEMA = {
+            "create table if not exists transactions (id int primary key, reference varchar(255) unique, account_iban varchar(255), "
+                    + "date timestamp, ammount decimal(19, 2), fee decimal(19, 2), description varchar(255))",
+            "create index if not exists idx_transactions_iban_ammount_id on transactions (account_iban, ammount, id)",
+            "create index if not exists idx_transactions_ammount_id on transactions (ammount, id)",
+            "create index if not exists idx_transactions_date on transactions (date)"
+    };
+
+    private static final String COLUMNS = "select id, reference, account_iban, date, ammount, fee, description from transactions";
+
+    private static final String MERGE = "merge into transactions (id, reference, account_iban, date, ammount, fee, description) key (id) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<TransactionsEntity> ROW_MAPPER = (resultSet, rowNum) -> toEntity(resultSet);
+
+    private final int index;
+
+    private final int shards;
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final AtomicInteger sequence;
+
+    public TransactionShard(int index, int shards, String url, int poolSize) {
+        this.index = index;
+        this.shards = shards;
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(url);
+        hikariConfig.setMaximumPoolSize(poolSize);
+        hikariConfig.setPoolName("shard-" + index);
+        this.dataSource = new HikariDataSource(hikariConfig);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+        Integer maxId = jdbcTemplate.queryForObject("select max(id) from transactions", Integer.class);
+        this.sequence = new AtomicInteger(Objects.isNull(maxId) ? 0 : maxId / shards);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Next id of this shard, never handed out before by this instance.
+     */
+    public int nextId() {
+        return sequence.incrementAndGet() * shards + index;
+    }
+
+    /**
+     * Makes {@link #nextId()} return ids above {@code id}, which was handed out before a
+     * restart but may not be stored in the shard yet.
+     */
+    public void reserve(int id) {
+        sequence.accumulateAndGet(id / shards, Math::max);
+    }
+
+    /**
+     * Writes the transactions in one local transaction, committed before returning. Rows are
+     * merged by id, so writing them again changes nothing; those without an id get one from
+     * {@link #nextId()}. A reference stored under another id fails the whole call with a
+     * {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    public void insert(List<TransactionsEntity> transactionsEntityList, int batchSize) {
+        List<TransactionsEntity> assigned = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(MERGE)) {
+                int pending = 0;
+                for (TransactionsEntity transactionsEntity : transactionsEntityList) {
+                    if (Objects.isNull(transactionsEntity.getId())) {
+                        transactionsEntity.setId(nextId());
+                        assigned.add(transactionsEntity);
+                    }
+                    bind(statement, transactionsEntity);
+                    statement.addBatch();
+                    if (++pending == batchSize) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                assigned.forEach(t -> t.setId(null));
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("insert", MERGE, e);
+        }
+    }
+
+    public TransactionsEntity findByReference(String reference) {
+        List<TransactionsEntity> transactionsEntityList = jdbcTemplate.query(COLUMNS + " where reference = ?", ROW_MAPPER, reference);
+        return transactionsEntityList.isEmpty() ? null : transactionsEntityList.get(0);
+    }
+
+    public List<TransactionsEntity> findByReferenceIn(Collection<String> references) {
+        return namedParameterJdbcTemplate.query(COLUMNS + " where reference in (:references)", new MapSqlParameterSource("references", references), ROW_MAPPER);
+    }
+
+    public List<String> findReferencesIn(Collection<String> references) {
+        return namedParameterJdbcTemplate.queryForList("select reference from transactions where reference in (:references)",
+                new MapSqlParameterSource("references", references), String.class);
+    }
+
+    /**
+     * Transactions of {@code IBAN}, or of every account when it is null, in the order of
+     * {@link #order(SortDirectionDto)}. With a cursor only the rows after it are returned,
+     * and with a limit at most that many.
+     */
+    public List<TransactionsEntity> find(String IBAN, SortDirectionDto sortAmmount, TransactionCursorDto after, Integer limit) {
+        List<Object> arguments = new ArrayList<>();
+        String sql = query(IBAN, sortAmmount, after, limit, arguments);
+        return jdbcTemplate.query(sql, ROW_MAPPER, arguments.toArray());
+    }
+
+    /**
+     * Same rows as {@link #find} without a cursor or limit, read while they are iterated. The
+     * cursor holds a connection until it is closed.
+     */
+    public RowCursor open(String IBAN, SortDirectionDto sortAmmount) {
+        List<Object> arguments = new ArrayList<>();
+        String sql = query(IBAN, sortAmmount, null, null, arguments);
+        try {
+            return new RowCursor(dataSource.getConnection(), sql, arguments);
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("open", sql, e);
+        }
+    }
+
+    /**
+     * Transactions of {@code IBAN}, or of every account when it is null, dated from {@code from}
+     * inclusive to {@code to} exclusive, by date, read while they are iterated.
+     */
+    public RowCursor openDated(String IBAN, java.util.Date from, java.util.Date to) {
+        List<Object> arguments = new ArrayList<>(3);
+        if (Objects.nonNull(IBAN)) {
+            arguments.add(IBAN);
+        }
+        arguments.add(new Timestamp(from.getTime()));
+        arguments.add(new Timestamp(to.getTime()));
+        String sql = COLUMNS + (Objects.nonNull(IBAN) ? " where account_iban = ? and" : " where") + " date >= ? and date < ? order by date, id";
+        try {
+            return new RowCursor(dataSource.getConnection(), sql, arguments);
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("openDated", sql, e);
+        }
+    }
+
+    /**
+     * Statistics of every account of the shard, or of {@code IBAN}, by IBAN. With dates only
+     * the transactions from {@code from} inclusive to {@code to} exclusive count.
+     */
+    public List<GroupStats> aggregateByAccount(String IBAN, java.util.Date from, java.util.Date to) {
+        StringBuilder sql = new StringBuilder("select account_iban, ").append(STATS_AGGREGATES).append(" from transactions");
+        List<String> conditions = new ArrayList<>(2);
+        List<Object> arguments = new ArrayList<>(3);
+        if (Objects.nonNull(IBAN)) {
+            conditions.add("account_iban = ?");
+            arguments.add(IBAN);
+        }
+        if (Objects.nonNull(from)) {
+            conditions.add("date >= ? and date < ?");
+            arguments.add(new Timestamp(from.getTime()));
+            arguments.add(new Timestamp(to.getTime()));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+        sql.append(" group by account_iban order by account_iban");
+        return jdbcTemplate.query(sql.toString(), (resultSet, rowNum) -> {
+            Object[] row = new Object[resultSet.getMetaData().getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getObject(i + 1);
+            }
+            return GroupStats.ofAccountRow(row);
+        }, arguments.toArray());
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from transactions", Long.class);
+        return Objects.isNull(count) ? 0 : count;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    /**
+     * Order of the rows returned for {@code sortAmmount}: by id, or by ammount and id.
+     */
+    public static Comparator<TransactionsEntity> order(SortDirectionDto sortAmmount) {
+        if (Objects.isNull(sortAmmount)) {
+            return Comparator.comparing(TransactionsEntity::getId);
+        }
+        Comparator<TransactionsEntity> ascending = Comparator.comparing(TransactionsEntity::getAmmount).thenComparing(TransactionsEntity::getId);
+        return sortAmmount == SortDirectionDto.ASC ? ascending : ascending.reversed();
+    }
+
+    private static String query(String IBAN, SortDirectionDto sortAmmount, TransactionCursorDto after, Integer limit, List<Object> arguments) {
+        StringBuilder sql = new StringBuilder(COLUMNS);
+        List<String> conditions = new ArrayList<>(2);
+        if (Objects.nonNull(IBAN)) {
+            conditions.add("account_iban = ?");
+            arguments.add(IBAN);
+        }
+        if (Objects.nonNull(after)) {
+            conditions.add(sortAmmount == SortDirectionDto.DESC ? "(ammount < ? or (ammount = ? and id < ?))" : "(ammount > ? or (ammount = ? and id > ?))");
+            arguments.add(after.getAmmount());
+            arguments.add(after.getAmmount());
+            arguments.add(after.getId());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+        if (Objects.isNull(sortAmmount)) {
+            sql.append(" order by id");
+        } else {
+            sql.append(sortAmmount == SortDirectionDto.ASC ? " order by ammount, id" : " order by ammount desc, id desc");
+        }
+        if (Objects.nonNull(limit)) {
+            sql.append(" limit ?");
+            arguments.add(limit);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, TransactionsEntity transactionsEntity) throws SQLException {
+        statement.setInt(1, transactionsEntity.getId());
+        statement.setString(2, transactionsEntity.getReference());
+        statement.setString(3, transactionsEntity.getAccountIBAN());
+        statement.setTimestamp(4, Objects.isNull(transactionsEntity.getDate()) ? null : new Timestamp(transactionsEntity.getDate().getTime()));
+        statement.setBigDecimal(5, transactionsEntity.getAmmount());
+        statement.setBigDecimal(6, transactionsEntity.getFee());
+        statement.setString(7, transactionsEntity.getDescription());
+    }
+
+    private static TransactionsEntity toEntity(ResultSet resultSet) throws SQLException {
+        return new TransactionsEntity(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getTimestamp(4),
+                resultSet.getBigDecimal(5), resultSet.getBigDecimal(6), resultSet.getString(7));
+    }
+
+    /**
+     * Open result set of one shard, fetched {@code STREAM_FETCH_SIZE} rows at a time.
+     */
+    public class RowCursor implements Iterator<TransactionsEntity>, Closeable {
+
+        private final Connection connection;
+
+        private final PreparedStatement statement;
+
+        private final ResultSet resultSet;
+
+        private TransactionsEntity next;
+
+        private RowCursor(Connection connection, String sql, List<Object> arguments) throws SQLException {
+            this.connection = connection;
+            try {
+                this.statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.parseInt(STREAM_FETCH_SIZE));
+                for (int i = 0; i < arguments.size(); i++) {
+                    statement.setObject(i + 1, arguments.get(i));
+                }
+                this.resultSet = statement.executeQuery();
+                advance();
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return Objects.nonNull(next);
+        }
+
+        @Override
+        public TransactionsEntity next() {
+            if (Objects.isNull(next)) {
+                throw new NoSuchElementException();
+            }
+            TransactionsEntity current = next;
+            try {
+                advance();
+            } catch (SQLException e) {
+                throw jdbcTemplate.getExceptionTranslator().translate("next", null, e);
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw jdbcTemplate.getExceptionTranslator().translate("close", null, e);
+            }
+        }
+
+        private void advance() throws SQLException {
+            next = resultSet.next() ? toEntity(resultSet) : null;
+        }
+    }
+}
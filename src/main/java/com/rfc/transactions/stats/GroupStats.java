@@ -0,0 +1,48 @@
+package com.rfc.transactions.stats;
+
+import com.rfc.transactions.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Statistics of the transactions of one account, or of one day when {@code accountIBAN}
+ * is null.
+ */
+@Getter
+@AllArgsConstructor
+public class GroupStats {
+
+    /**
+     * Day of the transactions stored without date, and of the groups by account.
+     */
+    public static final long NO_DAY = Long.MIN_VALUE;
+
+    private final String accountIBAN;
+
+    private final long epochDay;
+
+    private final long count;
+
+    private final Summary ammount;
+
+    private final Summary fee;
+
+    /**
+     * Statistics of an account from a row of {@link com.rfc.transactions.utils.Cons#STATS_AGGREGATES}
+     * preceded by the IBAN.
+     */
+    public static GroupStats ofAccountRow(Object[] row) {
+        return new GroupStats((String) row[0], NO_DAY, ((Number) row[1]).longValue(), summary(row, 2), summary(row, 9));
+    }
+
+    private static Summary summary(Object[] row, int from) {
+        long count = ((Number) row[from]).longValue();
+        if (count == 0) {
+            return null;
+        }
+        return new Summary(count, Money.toMinor((BigDecimal) row[from + 1]), Money.toMinor((BigDecimal) row[from + 2]), Money.toMinor((BigDecimal) row[from + 3]),
+                Money.toMinor((BigDecimal) row[from + 4]), Money.toMinor((BigDecimal) row[from + 5]), Money.toMinor((BigDecimal) row[from + 6]));
+    }
+}
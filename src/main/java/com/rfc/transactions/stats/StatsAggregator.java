@@ -0,0 +1,171 @@
+package com.rfc.transactions.stats;
+
+import com.rfc.transactions.utils.Money;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Statistics of {@link TransactionColumns} by account or by day on a {@link ForkJoinPool}.
+ * Large groups are sorted in parallel on their own, so one big group keeps every worker busy.
+ */
+public final class StatsAggregator {
+
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final ForkJoinPool pool;
+
+    public StatsAggregator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * One entry per account, by IBAN.
+     */
+    public List<GroupStats> byAccount(TransactionColumns columns) {
+        return run(() -> {
+            List<String> IBANs = columns.getIBANs();
+            Groups groups = summarize(columns, columns.getAccounts(), IBANs.size());
+            Integer[] order = new Integer[IBANs.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparing(IBANs::get));
+            List<GroupStats> groupStatsList = new ArrayList<>(order.length);
+            for (int account : order) {
+                groupStatsList.add(groups.stats(account, IBANs.get(account), GroupStats.NO_DAY));
+            }
+            return groupStatsList;
+        });
+    }
+
+    /**
+     * One entry per day with transactions, in {@code zone}, by day; the transactions stored
+     * without date come last.
+     */
+    public List<GroupStats> byDay(TransactionColumns columns, ZoneId zone) {
+        return run(() -> {
+            int size = columns.size();
+            long[] dates = columns.getDates();
+            long[] days = new long[size];
+            ZoneRules rules = zone.getRules();
+            IntStream.range(0, size).parallel().forEach(i -> days[i] = epochDay(dates[i], rules));
+            long[] dated = Arrays.stream(days).parallel().filter(day -> day != GroupStats.NO_DAY).distinct().sorted().toArray();
+            int undated = dated.length;
+            int[] groupOf = new int[size];
+            IntStream.range(0, size).parallel().forEach(i -> groupOf[i] = days[i] == GroupStats.NO_DAY ? undated : Arrays.binarySearch(dated, days[i]));
+            Groups groups = summarize(columns, groupOf, undated + 1);
+            List<GroupStats> groupStatsList = new ArrayList<>(undated + 1);
+            for (int group = 0; group < undated; group++) {
+                groupStatsList.add(groups.stats(group, null, dated[group]));
+            }
+            if (groups.count(undated) > 0) {
+                groupStatsList.add(groups.stats(undated, null, GroupStats.NO_DAY));
+            }
+            return groupStatsList;
+        });
+    }
+
+    private <T> T run(Supplier<T> aggregation) {
+        return pool.submit(aggregation::get).join();
+    }
+
+    private static Groups summarize(TransactionColumns columns, int[] groupOf, int groupCount) {
+        int size = columns.size();
+        int[] offsets = new int[groupCount + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[groupOf[i] + 1]++;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            offsets[group + 1] += offsets[group];
+        }
+        int[] next = Arrays.copyOf(offsets, groupCount);
+        long[] sourceAmmounts = columns.getAmmounts();
+        long[] sourceFees = columns.getFees();
+        long[] ammounts = new long[size];
+        long[] fees = new long[size];
+        for (int i = 0; i < size; i++) {
+            int position = next[groupOf[i]]++;
+            ammounts[position] = sourceAmmounts[i];
+            fees[position] = sourceFees[i];
+        }
+        Summary[] ammountSummaries = new Summary[groupCount];
+        Summary[] feeSummaries = new Summary[groupCount];
+        IntStream.range(0, groupCount).parallel().forEach(group -> {
+            ammountSummaries[group] = summary(ammounts, offsets[group], offsets[group + 1]);
+            feeSummaries[group] = summary(fees, offsets[group], offsets[group + 1]);
+        });
+        return new Groups(offsets, ammountSummaries, feeSummaries);
+    }
+
+    /**
+     * The values without amount sort first and are left out.
+     */
+    private static Summary summary(long[] values, int from, int to) {
+        if (to - from >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(values, from, to);
+        } else {
+            Arrays.sort(values, from, to);
+        }
+        while (from < to && values[from] == TransactionColumns.NO_AMOUNT) {
+            from++;
+        }
+        int count = to - from;
+        if (count == 0) {
+            return null;
+        }
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total = Money.add(total, values[i]);
+        }
+        return new Summary(count, total, values[from], values[to - 1],
+                values[from + rank(count, 500)], values[from + rank(count, 900)], values[from + rank(count, 990)]);
+    }
+
+    /**
+     * Zero-based nearest rank of the {@code permille} percentile of {@code count} values.
+     */
+    static int rank(int count, int permille) {
+        return (int) ((count * (long) permille + 999) / 1000) - 1;
+    }
+
+    private static long epochDay(long date, ZoneRules rules) {
+        if (date == TransactionColumns.UNDATED) {
+            return GroupStats.NO_DAY;
+        }
+        long offsetMillis = rules.getOffset(Instant.ofEpochMilli(date)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(date + offsetMillis, MILLIS_PER_DAY);
+    }
+
+    private static final class Groups {
+
+        private final int[] offsets;
+
+        private final Summary[] ammounts;
+
+        private final Summary[] fees;
+
+        private Groups(int[] offsets, Summary[] ammounts, Summary[] fees) {
+            this.offsets = offsets;
+            this.ammounts = ammounts;
+            this.fees = fees;
+        }
+
+        int count(int group) {
+            return offsets[group + 1] - offsets[group];
+        }
+
+        GroupStats stats(int group, String IBAN, long epochDay) {
+            return new GroupStats(IBAN, epochDay, count(group), ammounts[group], fees[group]);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.rfc.transactions.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Total, extremes and percentiles of one amount column of a group, in cents. Percentiles
+ * are nearest-rank: the smallest value with at least that share of the group at or below
+ * it, as PERCENTILE_DISC computes them. Like the SQL aggregates, it leaves out the
+ * transactions without a value, and a group with none has no summary.
+ */
+@Getter
+@AllArgsConstructor
+public class Summary {
+
+    private final long count;
+
+    private final long total;
+
+    private final long min;
+
+    private final long max;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+}
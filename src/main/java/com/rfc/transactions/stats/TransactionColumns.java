@@ -0,0 +1,101 @@
+package com.rfc.transactions.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Transactions as primitive columns for the aggregations: account index, date in epoch
+ * milliseconds and amounts in cents. Accounts are numbered in the order they first appear;
+ * rows usually come account after account, so the index is only looked up when it changes.
+ */
+public final class TransactionColumns {
+
+    /**
+     * Date of a transaction stored without one.
+     */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    /**
+     * Ammount or fee of a transaction stored without one.
+     */
+    public static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private final List<String> IBANs = new ArrayList<>();
+
+    private final Map<String, Integer> accountIndex = new HashMap<>();
+
+    private String lastIBAN;
+
+    private int lastAccount;
+
+    private int size;
+
+    private int[] accounts;
+
+    private long[] dates;
+
+    private long[] ammounts;
+
+    private long[] fees;
+
+    public TransactionColumns(int capacity) {
+        int initial = Math.max(16, capacity);
+        accounts = new int[initial];
+        dates = new long[initial];
+        ammounts = new long[initial];
+        fees = new long[initial];
+    }
+
+    public void add(String IBAN, long date, long ammount, long fee) {
+        if (size == accounts.length) {
+            int capacity = size + (size >> 1);
+            accounts = Arrays.copyOf(accounts, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            ammounts = Arrays.copyOf(ammounts, capacity);
+            fees = Arrays.copyOf(fees, capacity);
+        }
+        if (!IBAN.equals(lastIBAN)) {
+            Integer account = accountIndex.get(IBAN);
+            if (Objects.isNull(account)) {
+                account = IBANs.size();
+                accountIndex.put(IBAN, account);
+                IBANs.add(IBAN);
+            }
+            lastIBAN = IBAN;
+            lastAccount = account;
+        }
+        accounts[size] = lastAccount;
+        dates[size] = date;
+        ammounts[size] = ammount;
+        fees[size] = fee;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    List<String> getIBANs() {
+        return IBANs;
+    }
+
+    int[] getAccounts() {
+        return accounts;
+    }
+
+    long[] getDates() {
+        return dates;
+    }
+
+    long[] getAmmounts() {
+        return ammounts;
+    }
+
+    long[] getFees() {
+        return fees;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rfc.transactions.transfer;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.dto.ImportResultDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+import com.rfc.transactions.service.TransactionTransferService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Imports {@code transactions.transfer.import-file} on startup, for migrations:
+ * {@code --transactions.transfer.import-file=history.csv}. Files ending in .csv are read as
+ * CSV, any other as NDJSON.
+ */
+@Slf4j
+@AllArgsConstructor
+@Component
+@ConditionalOnProperty("transactions.transfer.import-file")
+public class ImportFileRunner implements ApplicationRunner {
+
+    private TransactionsProperties transactionsProperties;
+
+    private TransactionTransferService transactionTransferService;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path file = Paths.get(transactionsProperties.getTransfer().getImportFile());
+        TransferFormatDto format = file.getFileName().toString().endsWith("." + TransferFormatDto.CSV.getExtension()) ? TransferFormatDto.CSV : TransferFormatDto.NDJSON;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ImportResultDto importResultDto = transactionTransferService.importTransactions(fileChannel, format);
+            log.info("Imported {}: {} records, {} created, {} rejected", file, importResultDto.getRecords(), importResultDto.getCreated(), importResultDto.getRejected());
+            importResultDto.getErrors().forEach(error -> log.warn("Rejected {}: {}", error.getReference(), error.getError()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.rfc.transactions.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lines of a UTF-8 channel through one byte buffer and one char buffer of fixed size, so
+ * reading holds the current line at most. Characters past {@code maxLength} are dropped and
+ * the line is marked truncated instead of growing without limit.
+ */
+final class LineReader {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+
+    private final ByteBuffer bytes;
+
+    private final CharBuffer chars;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final StringBuilder line = new StringBuilder();
+
+    private final int maxLength;
+
+    private boolean endOfInput;
+
+    private boolean truncated;
+
+    private long lineNumber;
+
+    LineReader(ReadableByteChannel channel, int maxLength) {
+        this(channel, maxLength, BUFFER_SIZE);
+    }
+
+    LineReader(ReadableByteChannel channel, int maxLength, int bufferSize) {
+        this.channel = channel;
+        this.maxLength = maxLength;
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        this.chars = CharBuffer.allocate(bufferSize);
+        this.chars.flip();
+    }
+
+    /**
+     * Next line without its terminator, or null at the end of the input.
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        while (true) {
+            char[] array = chars.array();
+            int start = chars.position();
+            int limit = chars.limit();
+            int end = start;
+            while (end < limit && array[end] != '\n') {
+                end++;
+            }
+            append(array, start, end - start);
+            if (end < limit) {
+                chars.position(end + 1);
+                return endLine();
+            }
+            chars.position(limit);
+            if (!fill()) {
+                return line.length() == 0 && !truncated ? null : endLine();
+            }
+        }
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    private void append(char[] array, int offset, int length) {
+        int room = maxLength - line.length();
+        if (length > room) {
+            truncated = true;
+            length = Math.max(room, 0);
+        }
+        line.append(array, offset, length);
+    }
+
+    private String endLine() {
+        lineNumber++;
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        return line.toString();
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        chars.clear();
+        while (chars.position() == 0 && !endOfInput) {
+            boolean endOfChannel = channel.read(bytes) < 0;
+            bytes.flip();
+            decoder.decode(bytes, chars, endOfChannel);
+            bytes.compact();
+            if (endOfChannel) {
+                decoder.flush(chars);
+                endOfInput = true;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
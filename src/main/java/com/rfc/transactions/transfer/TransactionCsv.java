@@ -0,0 +1,136 @@
+package com.rfc.transactions.transfer;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * CSV layout of a transaction, RFC 4180 quoting, dates as ISO-8601 instants. An empty
+ * field is null and a quoted empty field is the empty string, so both survive a round trip.
+ */
+final class TransactionCsv {
+
+    static final String HEADER = "reference,accountIBAN,date,ammount,fee,description";
+
+    private static final int FIELDS = 6;
+
+    private TransactionCsv() {
+    }
+
+    static void write(Writer writer, TransactionDto transactionDto) throws IOException {
+        writeField(writer, transactionDto.getReference());
+        writer.write(',');
+        writeField(writer, transactionDto.getAccountIBAN());
+        writer.write(',');
+        if (Objects.nonNull(transactionDto.getDate())) {
+            writer.write(Instant.ofEpochMilli(transactionDto.getDate().getTime()).toString());
+        }
+        writer.write(',');
+        writeDecimal(writer, transactionDto.getAmmount());
+        writer.write(',');
+        writeDecimal(writer, transactionDto.getFee());
+        writer.write(',');
+        writeField(writer, transactionDto.getDescription());
+        writer.write('\n');
+    }
+
+    /**
+     * True while the record has an open quoted field, which goes on in the next line.
+     */
+    static boolean isOpen(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    static TransactionDto parse(String record) {
+        List<String> fields = split(record);
+        if (fields.size() != FIELDS) {
+            throw new IllegalArgumentException("expected " + FIELDS + " fields but found " + fields.size());
+        }
+        return new TransactionDto(fields.get(0), fields.get(1), parseDate(fields.get(2)), parseDecimal("ammount", fields.get(3)),
+                parseDecimal("fee", fields.get(4)), fields.get(5));
+    }
+
+    private static List<String> split(String record) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(toField(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(toField(field, wasQuoted));
+        return fields;
+    }
+
+    private static String toField(StringBuilder field, boolean wasQuoted) {
+        return field.length() == 0 && !wasQuoted ? null : field.toString();
+    }
+
+    private static Date parseDate(String date) {
+        try {
+            return Objects.isNull(date) ? null : Date.from(Instant.parse(date));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date must be an ISO-8601 instant like 2020-04-10T10:00:00Z");
+        }
+    }
+
+    private static BigDecimal parseDecimal(String name, String value) {
+        try {
+            return Objects.isNull(value) ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number");
+        }
+    }
+
+    private static void writeDecimal(Writer writer, BigDecimal value) throws IOException {
+        if (Objects.nonNull(value)) {
+            writer.write(value.toPlainString());
+        }
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            return;
+        }
+        if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
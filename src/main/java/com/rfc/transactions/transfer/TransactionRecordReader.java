@@ -0,0 +1,114 @@
+package com.rfc.transactions.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rfc.transactions.Exceptions.InvalidRecordException;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+import static com.rfc.transactions.utils.Cons.INVALID_RECORD_ERROR;
+import static com.rfc.transactions.utils.Cons.MAX_RECORD_LENGTH;
+
+/**
+ * Reads transactions one record at a time from a CSV or NDJSON channel. A record that
+ * cannot be read throws {@link InvalidRecordException} naming its line, and reading goes on
+ * with the next one. Blank lines are skipped, and so is the CSV header line.
+ */
+public abstract class TransactionRecordReader {
+
+    final LineReader lineReader;
+
+    private TransactionRecordReader(LineReader lineReader) {
+        this.lineReader = lineReader;
+    }
+
+    public static TransactionRecordReader of(TransferFormatDto format, ReadableByteChannel channel, ObjectMapper objectMapper) {
+        return of(format, new LineReader(channel, MAX_RECORD_LENGTH), objectMapper);
+    }
+
+    static TransactionRecordReader of(TransferFormatDto format, LineReader lineReader, ObjectMapper objectMapper) {
+        return format == TransferFormatDto.CSV ? new Csv(lineReader) : new Ndjson(lineReader, objectMapper.readerFor(TransactionDto.class));
+    }
+
+    /**
+     * Next transaction, or null at the end of the input.
+     */
+    public TransactionDto next() throws IOException {
+        String line;
+        do {
+            line = lineReader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        long lineNumber = lineReader.getLineNumber();
+        if (lineReader.isTruncated()) {
+            throw invalid(lineNumber, "record longer than " + MAX_RECORD_LENGTH + " characters");
+        }
+        return parse(line, lineNumber);
+    }
+
+    abstract TransactionDto parse(String line, long lineNumber) throws IOException;
+
+    static InvalidRecordException invalid(long lineNumber, String message) {
+        return new InvalidRecordException(String.format(INVALID_RECORD_ERROR, lineNumber, message));
+    }
+
+    private static final class Csv extends TransactionRecordReader {
+
+        private Csv(LineReader lineReader) {
+            super(lineReader);
+        }
+
+        @Override
+        TransactionDto parse(String line, long lineNumber) throws IOException {
+            if (lineNumber == 1 && line.equals(TransactionCsv.HEADER)) {
+                return next();
+            }
+            StringBuilder record = new StringBuilder(line);
+            while (TransactionCsv.isOpen(record)) {
+                String nextLine = lineReader.readLine();
+                if (nextLine == null) {
+                    throw invalid(lineNumber, "quoted field is not closed");
+                }
+                if (lineReader.isTruncated() || record.length() + nextLine.length() >= MAX_RECORD_LENGTH) {
+                    throw invalid(lineNumber, "record longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+                record.append('\n').append(nextLine);
+            }
+            try {
+                return TransactionCsv.parse(record.toString());
+            } catch (IllegalArgumentException e) {
+                throw invalid(lineNumber, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Ndjson extends TransactionRecordReader {
+
+        private final ObjectReader objectReader;
+
+        private Ndjson(LineReader lineReader, ObjectReader objectReader) {
+            super(lineReader);
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        TransactionDto parse(String line, long lineNumber) {
+            TransactionDto transactionDto;
+            try {
+                transactionDto = objectReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw invalid(lineNumber, e.getOriginalMessage());
+            }
+            if (transactionDto == null) {
+                throw invalid(lineNumber, "record is not a transaction object");
+            }
+            return transactionDto;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rfc.transactions.transfer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes transactions one record at a time as CSV, with a header line, or NDJSON. Output is
+ * buffered and only flushed on close.
+ */
+public abstract class TransactionRecordWriter implements Closeable {
+
+    public static TransactionRecordWriter of(TransferFormatDto format, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        return format == TransferFormatDto.CSV ? new Csv(outputStream) : new Ndjson(outputStream, objectMapper);
+    }
+
+    public abstract void write(TransactionDto transactionDto) throws IOException;
+
+    private static final class Csv extends TransactionRecordWriter {
+
+        private final Writer writer;
+
+        private Csv(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), LineReader.BUFFER_SIZE);
+            writer.write(TransactionCsv.HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(TransactionDto transactionDto) throws IOException {
+            TransactionCsv.write(writer, transactionDto);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class Ndjson extends TransactionRecordWriter {
+
+        private final JsonGenerator jsonGenerator;
+
+        private final ObjectWriter rowWriter;
+
+        private Ndjson(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+            this.jsonGenerator = objectMapper.getFactory().createGenerator(outputStream);
+            this.rowWriter = objectMapper.writerFor(TransactionDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(TransactionDto transactionDto) throws IOException {
+            rowWriter.writeValue(jsonGenerator, transactionDto);
+            jsonGenerator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            jsonGenerator.close();
+        }
+    }
+}
@@ -2,9 +2,47 @@ package com.rfc.transactions.utils;
 
 public class Cons {
 
+    public final static int TRANSACTIONS_ID_ALLOCATION_SIZE = 500;
+
+    public final static String STREAM_FETCH_SIZE = "500";
+
     public final static String AMMOUNT_FIELD = "ammount";
 
+    public final static String ID_FIELD = "id";
+
+    public final static String STATS_AGGREGATES = "count(*), count(ammount), sum(ammount), min(ammount), max(ammount), percentile_disc(0.5) within group (order by ammount), "
+            + "percentile_disc(0.9) within group (order by ammount), percentile_disc(0.99) within group (order by ammount), count(fee), sum(fee), min(fee), max(fee), "
+            + "percentile_disc(0.5) within group (order by fee), percentile_disc(0.9) within group (order by fee), percentile_disc(0.99) within group (order by fee)";
+
+    public final static String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public final static String CSV_MEDIA_TYPE = "text/csv";
+
+    public final static String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public final static int MAX_RECORD_LENGTH = 64 * 1024;
+
+    public final static int BATCH_GROUP_ATTEMPTS = 2;
+
     public final static String BALANCE_ZERO_ERROR = "Account updated balance must not be Zero or Less!";
 
     public final static String ACCOUNT_NOT_FOUND = "Account not found!";
+
+    public final static String MANDATORY_FIELDS_ERROR = "Transaction accountIBAN, ammount and fee are mandatory!";
+
+    public final static String DUPLICATED_REFERENCE_ERROR = "Transaction reference already exists!";
+
+    public final static String AMOUNT_OUT_OF_RANGE_ERROR = "Amounts must fit in 18 digits with 2 decimals!";
+
+    public final static String REQUEST_QUEUE_FULL_ERROR = "Too many requests in progress, retry later!";
+
+    public final static String RATE_LIMITED_ERROR = "Too many transactions for this account, retry later!";
+
+    public final static String OVERLOADED_ERROR = "Too many transactions in progress, retry later!";
+
+    public final static String INVALID_RECORD_ERROR = "Line %d: %s";
+
+    public final static String TOO_MANY_REFERENCES_ERROR = "At most %d references per status request!";
+
+    public final static String INVALID_CURSOR_ERROR = "Cursor must have the format <ammount>,<id>!";
 }
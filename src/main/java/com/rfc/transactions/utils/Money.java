@@ -0,0 +1,59 @@
+package com.rfc.transactions.utils;
+
+import com.rfc.transactions.Exceptions.AmountOutOfRangeException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.rfc.transactions.utils.Cons.AMOUNT_OUT_OF_RANGE_ERROR;
+
+/**
+ * Money as a long count of cents, the scale the amounts are stored with. {@link BigDecimal}
+ * values are converted when they come in and go out; in between, balances and sums are plain
+ * long arithmetic that fails instead of overflowing.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Rounds half up to cents, as the database does when it stores the amount.
+     */
+    public static long toMinor(BigDecimal amount) {
+        BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.HALF_UP);
+        if (scaled.precision() > 18) {
+            throw new AmountOutOfRangeException(AMOUNT_OUT_OF_RANGE_ERROR);
+        }
+        return scaled.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long add(long augend, long addend) {
+        long sum = augend + addend;
+        if (((augend ^ sum) & (addend ^ sum)) < 0) {
+            throw new AmountOutOfRangeException(AMOUNT_OUT_OF_RANGE_ERROR);
+        }
+        return sum;
+    }
+
+    public static long subtract(long minuend, long subtrahend) {
+        long difference = minuend - subtrahend;
+        if (((minuend ^ subtrahend) & (minuend ^ difference)) < 0) {
+            throw new AmountOutOfRangeException(AMOUNT_OUT_OF_RANGE_ERROR);
+        }
+        return difference;
+    }
+
+    /**
+     * Amount minus fee, what a transaction moves on the account balance.
+     */
+    public static long net(BigDecimal ammount, BigDecimal fee) {
+        return subtract(toMinor(ammount), toMinor(fee));
+    }
+}
@@ -0,0 +1,25 @@
+package com.rfc.transactions.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered references with the UUID version 7 layout: 48 bits of epoch millis, a 12 bit
+ * sequence that keeps references strictly increasing inside the same millisecond and 62
+ * random bits. No hashing and no shared lock, only one CAS per reference.
+ */
+public final class ReferenceGenerator {
+
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    private ReferenceGenerator() {
+    }
+
+    public static String next() {
+        long timestampAndSequence = LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() << 12));
+        long mostSigBits = ((timestampAndSequence >>> 12) << 16) | 0x7000L | (timestampAndSequence & 0xFFFL);
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
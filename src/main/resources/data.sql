@@ -1 +1 @@
-INSERT INTO account VALUES (1, 100);
\ No newline at end of file
+INSERT INTO account (iban, balance) VALUES ('ES10123456789098765432', 100);
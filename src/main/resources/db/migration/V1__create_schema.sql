@@ -0,0 +1,40 @@
+-- Schema of the entities in com.rfc.transactions.model.entity, as Hibernate maps them.
+
+create sequence transactions_seq start with 1 increment by 500;
+
+create table account (
+    id integer generated by default as identity,
+    balance decimal(19, 2),
+    iban varchar(255) not null,
+    primary key (id),
+    constraint uk_account_iban unique (iban)
+);
+
+create table transactions (
+    id integer not null,
+    accountiban varchar(255),
+    ammount decimal(19, 2),
+    date timestamp,
+    description varchar(255),
+    fee decimal(19, 2),
+    reference varchar(255),
+    primary key (id),
+    constraint uk_transactions_reference unique (reference)
+);
+
+create index idx_transactions_iban_ammount_id on transactions (accountiban, ammount, id);
+
+create index idx_transactions_date on transactions (date);
+
+create table daily_balance (
+    id integer generated by default as identity,
+    accountiban varchar(255),
+    credits decimal(19, 2),
+    day date,
+    debits decimal(19, 2),
+    fees decimal(19, 2),
+    net decimal(19, 2),
+    transactions bigint not null,
+    primary key (id),
+    constraint uk_daily_balance_iban_day unique (accountiban, day)
+);
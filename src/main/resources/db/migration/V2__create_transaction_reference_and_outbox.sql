@@ -0,0 +1,19 @@
+-- References and pending rows of the sharded transactions, kept in the main datasource.
+
+create table transaction_reference (
+    reference varchar(255) not null,
+    primary key (reference)
+);
+
+create table transaction_outbox (
+    id integer not null,
+    accountiban varchar(255),
+    ammount decimal(19, 2),
+    date timestamp,
+    description varchar(255),
+    fee decimal(19, 2),
+    reference varchar(255),
+    primary key (id)
+);
+
+create index idx_transaction_outbox_reference on transaction_outbox (reference);
@@ -0,0 +1,3 @@
+-- Shard reads of an account copy its outbox rows first.
+
+create index idx_transaction_outbox_iban on transaction_outbox (accountiban);
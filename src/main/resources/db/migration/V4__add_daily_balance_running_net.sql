@@ -0,0 +1,5 @@
+-- Balances at a date read the running net of the nearest day instead of summing the days after it.
+
+alter table daily_balance add column running_net decimal(19, 2);
+
+update daily_balance d set running_net = (select sum(p.net) from daily_balance p where p.accountiban = d.accountiban and p.day <= d.day);
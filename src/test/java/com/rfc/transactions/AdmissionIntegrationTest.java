@@ -0,0 +1,74 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * With admission control enabled a client over the rate of its account is answered 429
+ * before the submission reaches the database, while other accounts keep being served.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdmissionIntegrationTest {
+
+    private static final String IBAN = "ES20123456789098765432";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @DynamicPropertySource
+    static void admissionProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.accounts.create-missing", () -> "true");
+        registry.add("transactions.admission.enabled", () -> "true");
+        registry.add("transactions.admission.rate.permits-per-second", () -> "0.1");
+        registry.add("transactions.admission.rate.burst", () -> "2");
+    }
+
+    @Test
+    void shouldRejectTheSubmissionsOverTheRate_beforeStoringThem() throws Exception {
+        accountRepository.save(new AccountEntity(IBAN, BigDecimal.valueOf(100)));
+        String body = "{\"accountIBAN\": \"" + IBAN + "\", \"ammount\": \"1.00\", \"fee\":\"0\"}";
+        long stored = transactionsRepository.count();
+
+        post(body).andExpect(status().isCreated());
+        post(body).andExpect(status().isCreated());
+        MvcResult rejected = mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests()).andReturn();
+        post("{\"accountIBAN\": \"ES20123456789098765433\", \"ammount\": \"1.00\", \"fee\":\"0\"}").andExpect(status().isCreated());
+
+        assertEquals("10", rejected.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(stored + 3, transactionsRepository.count());
+        String metrics = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/transactions.admission?tag=outcome:rate.limited"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(metrics.contains("\"value\":1.0"));
+    }
+
+    private ResultActions post(String body) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON));
+    }
+}
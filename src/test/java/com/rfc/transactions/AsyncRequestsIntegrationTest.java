@@ -0,0 +1,57 @@
+package com.rfc.transactions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With {@code transactions.async.enabled} the transaction endpoints release the servlet thread
+ * and answer once the request pool has run them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AsyncRequestsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void asyncProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:async-requests;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.async.enabled", () -> "true");
+    }
+
+    @Test
+    void shouldAnswerTheTransactionEndpointsAsynchronously() throws Exception {
+        String body = "{\"reference\": \"TxAsync\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\"}";
+        MvcResult created = mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(created)).andExpect(status().isCreated());
+
+        MvcResult asyncStatus = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/status?reference=TxAsync&channel=CLIENT"))
+                .andExpect(request().asyncStarted()).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncStatus)).andExpect(status().isOk()).andReturn();
+
+        TransactionStatusDto transactionStatusDto = objectMapper.readValue(result.getResponse().getContentAsString(), TransactionStatusDto.class);
+        assertEquals("TxAsync", transactionStatusDto.getReference());
+        assertNotEquals(StatusDto.INVALID, transactionStatusDto.getStatus());
+    }
+}
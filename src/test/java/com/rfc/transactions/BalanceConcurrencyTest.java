@@ -0,0 +1,109 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.service.OperationsService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@SpringBootTest(properties = "transactions.accounts.create-missing=true")
+public class BalanceConcurrencyTest {
+
+    private static final int TRANSACTIONS_PER_THREAD = 200;
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(100);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @BeforeEach
+    void setUp() {
+        transactionsRepository.deleteAll();
+        accountRepository.deleteAll();
+        accountRepository.save(new AccountEntity("ES10123456789098765432", INITIAL_BALANCE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void shouldNotLoseBalanceUpdates_whenTransactionsAreCreatedConcurrently(int threads) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    operationsService.createTransaction(new TransactionDto("Tx-" + thread + "-" + i, "ES10123456789098765432", null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        executorService.shutdown();
+
+        int total = threads * TRANSACTIONS_PER_THREAD;
+        log.info("{} threads: {} transactions in {} ms ({} tx/s)", threads, total, TimeUnit.NANOSECONDS.toMillis(elapsed), total * 1_000_000_000L / elapsed);
+        AccountEntity accountEntity = accountRepository.findByIban("ES10123456789098765432").get();
+        assertEquals(INITIAL_BALANCE.add(BigDecimal.valueOf(total)).doubleValue(), accountEntity.getBalance().doubleValue());
+        assertEquals(total, transactionsRepository.count());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void shouldKeepEveryAccountBalance_whenEachThreadUsesItsOwnAccount(int threads) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    operationsService.createTransaction(new TransactionDto("Acc-" + thread + "-" + i, "ES2000000000000000000" + thread, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        executorService.shutdown();
+
+        int total = threads * TRANSACTIONS_PER_THREAD;
+        log.info("{} accounts: {} transactions in {} ms ({} tx/s)", threads, total, TimeUnit.NANOSECONDS.toMillis(elapsed), total * 1_000_000_000L / elapsed);
+        for (int t = 0; t < threads; t++) {
+            AccountEntity accountEntity = accountRepository.findByIban("ES2000000000000000000" + t).get();
+            assertEquals(TRANSACTIONS_PER_THREAD, accountEntity.getBalance().doubleValue());
+        }
+        assertEquals(total, transactionsRepository.count());
+    }
+}
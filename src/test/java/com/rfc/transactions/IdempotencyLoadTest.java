@@ -0,0 +1,82 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.service.OperationsService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@SpringBootTest(properties = "transactions.accounts.create-missing=true")
+public class IdempotencyLoadTest {
+
+    private static final String IBAN = "ES30123456789098765432";
+
+    private static final int REFERENCES = 200;
+
+    private static final int RETRIES = 8;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @BeforeEach
+    void setUp() {
+        transactionsRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void shouldApplyEveryReferenceOnce_whenRetriesAreSubmittedConcurrently() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(RETRIES);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger replayed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < RETRIES; t++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int i = 0; i < REFERENCES; i++) {
+                    TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(new TransactionDto("Retry-" + i, IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+                    assertEquals("Retry-" + i, transactionSubmissionDto.getTransaction().getReference());
+                    if (transactionSubmissionDto.isReplayed()) {
+                        replayed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        executorService.shutdown();
+
+        int total = RETRIES * REFERENCES;
+        log.info("{} submissions of {} references in {} ms ({} submissions/s)", total, REFERENCES, TimeUnit.NANOSECONDS.toMillis(elapsed), total * 1_000_000_000L / elapsed);
+        AccountEntity accountEntity = accountRepository.findByIban(IBAN).get();
+        assertEquals(REFERENCES, transactionsRepository.count());
+        assertEquals(REFERENCES, accountEntity.getBalance().doubleValue());
+        assertEquals(total - REFERENCES, replayed.get());
+    }
+}
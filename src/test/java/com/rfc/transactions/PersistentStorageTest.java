@@ -0,0 +1,73 @@
+package com.rfc.transactions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Persistent profile on a file database: the migrations build a schema Hibernate validates,
+ * the data survives a restart, and the time to the first answered request is logged.
+ */
+@Slf4j
+public class PersistentStorageTest {
+
+    private static final String IBAN = "ES30123456789098765432";
+
+    @TempDir
+    Path directory;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void shouldKeepTheTransactionsBetweenRuns() throws Exception {
+        try (ConfigurableApplicationContext context = start("empty database")) {
+            String body = "{\"reference\": \"Persistent-1\", \"accountIBAN\": \"" + IBAN + "\", \"ammount\": \"30.00\", \"fee\": \"1.00\"}";
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(url(context, "/transactions")).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, response.statusCode());
+            assertEquals(0, context.getBean(JdbcTemplate.class).queryForObject("select count(*) from account where iban = 'ES10123456789098765432'", Integer.class));
+        }
+
+        try (ConfigurableApplicationContext context = start("restarted database")) {
+            assertEquals(200, get(context, "/accounts/" + IBAN + "/balance").statusCode());
+            assertTrue(get(context, "/accounts/" + IBAN + "/balance").body().contains("29"));
+            assertTrue(get(context, "/transactions/status?reference=Persistent-1&channel=CLIENT").body().contains("PENDING"));
+            assertEquals("1", context.getBean(JdbcTemplate.class).queryForObject("select max(\"version\") from \"flyway_schema_history\" where \"success\"", String.class));
+        }
+    }
+
+    /**
+     * Starts the application with Hibernate validating the migrated schema, and returns once
+     * the first request was answered.
+     */
+    private ConfigurableApplicationContext start(String description) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionsApplication.class).profiles("persistent")
+                .run("--server.port=0", "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("transactions").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.hibernate.ddl-auto=validate");
+        assertEquals(200, get(context, "/transactions/status?reference=Unknown&channel=CLIENT").statusCode());
+        log.info("{}: first request answered {} ms after start", description, (System.nanoTime() - start) / 1_000_000);
+        return context;
+    }
+
+    private HttpResponse<String> get(ConfigurableApplicationContext context, String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(url(context, path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI url(ConfigurableApplicationContext context, String path) {
+        return URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + path);
+    }
+}
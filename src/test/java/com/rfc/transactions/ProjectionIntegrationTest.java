@@ -0,0 +1,125 @@
+package com.rfc.transactions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.*;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionProjectionService;
+import com.rfc.transactions.service.TransactionsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Projection enabled on its own database: every read served from memory must match the
+ * same read from the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ProjectionIntegrationTest {
+
+    private static final String IBAN = "ES60123456789098765432";
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @Autowired
+    private TransactionsService transactionsService;
+
+    @Autowired
+    private TransactionProjectionService transactionProjectionService;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void projectionProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.accounts.create-missing", () -> "true");
+        registry.add("transactions.projection.enabled", () -> "true");
+    }
+
+    @Test
+    void shouldListAndPageLikeTheDatabase() {
+        Random random = new Random(7);
+        List<TransactionDto> transactionDtoList = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            transactionDtoList.add(new TransactionDto("Projection-" + i, i % 3 == 0 ? "ES70123456789098765432" : IBAN,
+                    i % 2 == 0 ? null : new Date(1586476800000L + i * 3_600_000L), BigDecimal.valueOf(100 + random.nextInt(5000), 2), BigDecimal.ONE, "Projection"));
+        }
+        operationsService.createTransactions(transactionDtoList);
+        operationsService.createTransaction(new TransactionDto("Projection-Single", IBAN, null, new BigDecimal("12.5"), BigDecimal.ZERO, null));
+
+        assertTrue(transactionProjectionService.isReady());
+        for (SortDirectionDto sortAmmount : new SortDirectionDto[]{null, SortDirectionDto.ASC, SortDirectionDto.DESC}) {
+            for (String accountIBAN : new String[]{IBAN, null}) {
+                assertSameTransactions(toDtoList(transactionsService.getFilterTransactions(accountIBAN, sortAmmount)), operationsService.getFilterTransactions(accountIBAN, sortAmmount));
+            }
+            String after = null;
+            List<TransactionDto> paged = new ArrayList<>();
+            do {
+                TransactionPageDto transactionPageDto = operationsService.getTransactionsPage(IBAN, sortAmmount, after, 37);
+                paged.addAll(transactionPageDto.getTransactions());
+                after = transactionPageDto.getNextCursor();
+            } while (after != null);
+            assertSameTransactions(toDtoList(transactionsService.getFilterTransactions(IBAN, sortAmmount == null ? SortDirectionDto.ASC : sortAmmount)), paged);
+        }
+        assertEquals(StatusDto.PENDING, operationsService.getTransactionsStatus("Projection-Single", ChannelDto.INTERNAL).getStatus());
+    }
+
+    @Test
+    void shouldReportAndRebuildThroughTheActuator() throws Exception {
+        operationsService.createTransaction(new TransactionDto("Projection-Removed", "ES80123456789098765432", null, BigDecimal.TEN, BigDecimal.ZERO, null));
+        transactionsRepository.delete(transactionsRepository.findByReference("Projection-Removed").get());
+        assertNotNull(transactionProjectionService.getTransaction("Projection-Removed"));
+
+        String rebuilt = mockMvc.perform(MockMvcRequestBuilders.post("/actuator/projection")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String stats = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/projection")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        assertNull(transactionProjectionService.getTransaction("Projection-Removed"));
+        ProjectionStatsDto projectionStatsDto = objectMapper.readValue(stats, ProjectionStatsDto.class);
+        assertTrue(projectionStatsDto.isReady());
+        assertEquals(transactionsRepository.count(), projectionStatsDto.getTransactions());
+        assertEquals(projectionStatsDto.getTransactions(), objectMapper.readValue(rebuilt, ProjectionStatsDto.class).getTransactions());
+        assertEquals(projectionStatsDto.getTransactions() == 0, projectionStatsDto.getEstimatedBytes() == 0);
+    }
+
+    private List<TransactionDto> toDtoList(List<TransactionsEntity> transactionsEntityList) {
+        return transactionsEntityList.stream().map(t -> new TransactionDto(t.getReference(), t.getAccountIBAN(), t.getDate(), t.getAmmount(), t.getFee(), t.getDescription()))
+                .collect(Collectors.toList());
+    }
+
+    private void assertSameTransactions(List<TransactionDto> expected, List<TransactionDto> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getReference(), actual.get(i).getReference());
+            assertEquals(expected.get(i).getAccountIBAN(), actual.get(i).getAccountIBAN());
+            assertEquals(0, expected.get(i).getAmmount().compareTo(actual.get(i).getAmmount()));
+            assertEquals(0, expected.get(i).getFee().compareTo(actual.get(i).getFee()));
+            assertEquals(expected.get(i).getDate() == null ? null : expected.get(i).getDate().getTime(), actual.get(i).getDate() == null ? null : actual.get(i).getDate().getTime());
+            assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+        }
+    }
+}
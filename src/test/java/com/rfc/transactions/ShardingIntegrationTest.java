@@ -0,0 +1,155 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.model.dto.*;
+import com.rfc.transactions.model.entity.TransactionOutboxEntity;
+import com.rfc.transactions.model.entity.TransactionReferenceEntity;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.repository.TransactionOutboxRepository;
+import com.rfc.transactions.repository.TransactionReferenceRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionOutboxService;
+import com.rfc.transactions.service.TransactionShardService;
+import com.rfc.transactions.service.TransactionStatusCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Sharding enabled on its own databases: writes, idempotency, listings and status lookups
+ * behave as with a single table, and the main datasource only holds the references and the
+ * rows not yet copied to the shards. The scheduled reconcile is pushed out of the way, so the
+ * tests decide when the outbox is copied.
+ */
+@SpringBootTest
+public class ShardingIntegrationTest {
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @SpyBean
+    private TransactionShardService transactionShardService;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private TransactionStatusCache transactionStatusCache;
+
+    @Autowired
+    private TransactionOutboxService transactionOutboxService;
+
+    @Autowired
+    private TransactionReferenceRepository transactionReferenceRepository;
+
+    @Autowired
+    private TransactionOutboxRepository transactionOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void shardingProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:sharding;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.accounts.create-missing", () -> "true");
+        registry.add("transactions.sharding.enabled", () -> "true");
+        registry.add("transactions.sharding.shards", () -> "3");
+        registry.add("transactions.sharding.url", () -> "jdbc:h2:mem:sharding-%d;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.sharding.reconcile-interval", () -> "1h");
+    }
+
+    @Test
+    void shouldStoreListAndFindTransactionsInTheShards() {
+        long stored = transactionShardService.count();
+        Random random = new Random(11);
+        List<TransactionDto> transactionDtoList = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            transactionDtoList.add(new TransactionDto("Sharding-" + i, "ES" + (i % 8) + "0123456789098765432", null,
+                    BigDecimal.valueOf(100 + random.nextInt(5000), 2), BigDecimal.ZERO, null));
+        }
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+        TransactionSubmissionDto single = operationsService.createTransaction(new TransactionDto("Sharding-Single", "ES00123456789098765432", null, BigDecimal.TEN, BigDecimal.ONE, null));
+        TransactionSubmissionDto replay = operationsService.createTransaction(new TransactionDto("Sharding-Single", "ES00123456789098765432", null, BigDecimal.TEN, BigDecimal.ONE, null));
+        List<BatchItemResultDto> duplicated = operationsService.createTransactions(Collections.singletonList(
+                new TransactionDto("Sharding-5", "ES70123456789098765432", null, BigDecimal.ONE, BigDecimal.ZERO, null)));
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == BatchItemStatusDto.CREATED));
+        assertFalse(single.isReplayed());
+        assertTrue(replay.isReplayed());
+        assertEquals(BatchItemStatusDto.REJECTED, duplicated.get(0).getStatus());
+        assertEquals(stored + 121, transactionShardService.count());
+        assertEquals(0, transactionsRepository.count());
+
+        List<BigDecimal> ammounts = operationsService.getFilterTransactions(null, SortDirectionDto.ASC).stream().map(TransactionDto::getAmmount).collect(Collectors.toList());
+        List<BigDecimal> sortedAmmounts = new ArrayList<>(ammounts);
+        sortedAmmounts.sort(Comparator.naturalOrder());
+        assertEquals(stored + 121, ammounts.size());
+        assertEquals(sortedAmmounts, ammounts);
+        assertEquals(16, operationsService.getFilterTransactions("ES00123456789098765432", null).size());
+        transactionStatusCache.invalidateAll();
+        assertEquals(StatusDto.PENDING, operationsService.getTransactionsStatus("Sharding-3", ChannelDto.INTERNAL).getStatus());
+        assertEquals(StatusDto.INVALID, operationsService.getTransactionsStatus("Sharding-Unknown", ChannelDto.INTERNAL).getStatus());
+    }
+
+    @Test
+    void shouldRejectAStoredReference_withoutTheCheckBeforeTheWrite() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> transactionOutboxService.saveTransactions(Collections.singletonList(
+                new TransactionsEntity("Outbox-Unique", "ES80123456789098765432", new Date(), BigDecimal.ONE, BigDecimal.ZERO, null))));
+
+        assertThrows(DataIntegrityViolationException.class, () -> transactionTemplate.execute(status -> transactionOutboxService.saveTransactions(
+                Collections.singletonList(new TransactionsEntity("Outbox-Unique", "ES81123456789098765432", new Date(), BigDecimal.ONE, BigDecimal.ZERO, null)))));
+        assertEquals("ES80123456789098765432", transactionShardService.getTransactionByReference("Outbox-Unique").getAccountIBAN());
+    }
+
+    @Test
+    void shouldCopyTheOutboxRowsOfAKilledProcess_whenReconciling() {
+        TransactionsEntity transactionsEntity = new TransactionsEntity("Outbox-Killed", "ES90123456789098765432", new Date(), BigDecimal.TEN, BigDecimal.ZERO, null);
+        transactionShardService.assignIds(Collections.singletonList(transactionsEntity));
+        new TransactionTemplate(transactionManager).execute(status -> {
+            transactionReferenceRepository.save(new TransactionReferenceEntity(transactionsEntity.getReference()));
+            return transactionOutboxRepository.save(new TransactionOutboxEntity(transactionsEntity));
+        });
+
+        assertNull(transactionShardService.getTransactionByReference("Outbox-Killed"));
+        assertEquals(transactionsEntity.getId(), transactionOutboxService.getTransactionByReference("Outbox-Killed").getId());
+        assertEquals(Collections.singleton("Outbox-Killed"), transactionOutboxService.getExistingReferences(Arrays.asList("Outbox-Killed", "Outbox-Missing")));
+
+        transactionOutboxService.reconcile();
+
+        assertEquals(transactionsEntity.getId(), transactionShardService.getTransactionByReference("Outbox-Killed").getId());
+        assertEquals(0, transactionOutboxRepository.count());
+    }
+
+    @Test
+    void shouldListACommittedTransaction_whenItsCopyToTheShardFailed() {
+        String IBAN = "ES92123456789098765432";
+        doThrow(new DataAccessResourceFailureException("Shard unavailable")).doThrow(new DataAccessResourceFailureException("Shard unavailable"))
+                .doCallRealMethod().when(transactionShardService).saveTransactions(any());
+
+        operationsService.createTransaction(new TransactionDto("Outbox-CopyFailed", IBAN, null, BigDecimal.TEN, BigDecimal.ONE, null));
+
+        assertNull(transactionShardService.getTransactionByReference("Outbox-CopyFailed"));
+        assertThrows(DataAccessResourceFailureException.class, () -> operationsService.getFilterTransactions(IBAN, null));
+        assertEquals(Collections.singletonList("Outbox-CopyFailed"),
+                operationsService.getFilterTransactions(IBAN, null).stream().map(TransactionDto::getReference).collect(Collectors.toList()));
+        assertTrue(operationsService.getFilterTransactions(null, null).stream().anyMatch(t -> t.getReference().equals("Outbox-CopyFailed")));
+        assertEquals(IBAN, transactionShardService.getTransactionByReference("Outbox-CopyFailed").getAccountIBAN());
+    }
+}
@@ -0,0 +1,202 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.Exceptions.ZeroBalanceException;
+import com.rfc.transactions.journal.TransactionJournal;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.service.AccountStatementService;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.WriteBehindService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Write-behind mode on its own database. The journal of a crashed run is prepared before the
+ * context starts, so startup has to recover it. It holds a record that cannot be stored and one
+ * the crashed run had already moved to the dead letters.
+ */
+@SpringBootTest
+public class WriteBehindIntegrationTest {
+
+    private static final String JOURNAL_FILE = "transactions.journal";
+
+    private static final String DEAD_LETTER_FILE = "transactions.dead";
+
+    private static Path directory;
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @Autowired
+    private AccountStatementService accountStatementService;
+
+    @Autowired
+    private WriteBehindService writeBehindService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.accounts.create-missing", () -> "true");
+        registry.add("transactions.journal.enabled", () -> "true");
+        registry.add("transactions.journal.directory", () -> directory.toString());
+    }
+
+    @BeforeAll
+    static void crashWithJournaledTransactions() throws Exception {
+        directory = Files.createTempDirectory("journal");
+        Path crashed = Files.createTempDirectory("journal-crashed");
+        CountDownLatch stored = new CountDownLatch(1);
+        CountDownLatch deadLettered = new CountDownLatch(1);
+        TransactionJournal transactionJournal = new TransactionJournal(crashed, 8192, 1, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> {
+            if (batch.stream().anyMatch(transactionDto -> transactionDto.getReference().equals("Recovered-Dead"))) {
+                throw new DataIntegrityViolationException("Value too long");
+            }
+            try {
+                stored.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, failure -> false, transactionDto -> deadLettered.countDown());
+        transactionJournal.append(new TransactionDto("Recovered-Dead", "ES80123456789098765432", null, BigDecimal.valueOf(7), BigDecimal.ZERO, ""));
+        deadLettered.await(1, TimeUnit.MINUTES);
+        transactionJournal.append(new TransactionDto("Recovered-1", "ES10123456789098765432", null, BigDecimal.TEN, BigDecimal.ONE, ""));
+        transactionJournal.append(new TransactionDto("Recovered-TooLong", "ES90123456789098765432", null, BigDecimal.valueOf(3), BigDecimal.ZERO, tooLong()));
+        transactionJournal.awaitDurable(transactionJournal.append(new TransactionDto("Recovered-2", "ES20123456789098765432", null, BigDecimal.valueOf(5), BigDecimal.ZERO, "")));
+        Files.copy(crashed.resolve(JOURNAL_FILE), directory.resolve(JOURNAL_FILE), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(crashed.resolve(DEAD_LETTER_FILE), directory.resolve(DEAD_LETTER_FILE), StandardCopyOption.REPLACE_EXISTING);
+        stored.countDown();
+        transactionJournal.close();
+    }
+
+    @Test
+    void shouldStoreTheJournaledTransactions_whenTheApplicationStarts() {
+        assertTrue(transactionsRepository.findByReference("Recovered-1").isPresent());
+        assertTrue(transactionsRepository.findByReference("Recovered-2").isPresent());
+        assertEquals(109.0, accountRepository.findByIban("ES10123456789098765432").map(AccountEntity::getBalance).get().doubleValue());
+        assertEquals(5.0, accountRepository.findByIban("ES20123456789098765432").map(AccountEntity::getBalance).get().doubleValue());
+    }
+
+    @Test
+    void shouldDeadLetterTheJournaledTransaction_whenItCannotBeStoredOnStartup() throws Exception {
+        List<String> deadLetters = new ArrayList<>();
+        TransactionJournal.readDeadLetters(directory).forEach(transactionDto -> deadLetters.add(transactionDto.getReference()));
+
+        assertFalse(transactionsRepository.findByReference("Recovered-TooLong").isPresent());
+        assertFalse(accountRepository.findByIban("ES90123456789098765432").isPresent());
+        assertFalse(transactionsRepository.findByReference("Recovered-Dead").isPresent());
+        assertFalse(accountRepository.findByIban("ES80123456789098765432").isPresent());
+        assertEquals(1, deadLetters.stream().filter("Recovered-TooLong"::equals).count());
+        assertEquals(1, deadLetters.stream().filter("Recovered-Dead"::equals).count());
+    }
+
+    @Test
+    void shouldStoreEveryAcceptedTransaction_whenTheyAreCreatedConcurrently() throws Exception {
+        String IBAN = "ES30123456789098765432";
+        int threads = 4;
+        int transactionsPerThread = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < transactionsPerThread; i++) {
+                    operationsService.createTransaction(new TransactionDto("WriteBehind-" + thread + "-" + i, IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executorService.shutdown();
+
+        assertEquals(StatusDto.PENDING, operationsService.getTransactionsStatus("WriteBehind-3-99", ChannelDto.CLIENT).getStatus());
+        assertEquals(400.0, accountStatementService.getBalance(IBAN, null).getBalance().doubleValue());
+        assertEquals(threads * transactionsPerThread, transactionsRepository.findByAccountIBAN(IBAN, Sort.unsorted()).size());
+    }
+
+    @Test
+    void shouldReplayTheOriginal_whenTheReferenceIsJournaled() {
+        TransactionDto transactionDto = new TransactionDto("WriteBehind-Replay", "ES40123456789098765432", null, BigDecimal.TEN, BigDecimal.ZERO, "Original");
+
+        TransactionSubmissionDto created = operationsService.createTransaction(transactionDto);
+        TransactionSubmissionDto replayed = operationsService.createTransaction(new TransactionDto("WriteBehind-Replay", "ES40123456789098765432", null, BigDecimal.TEN, BigDecimal.ZERO, "Retry"));
+
+        assertFalse(created.isReplayed());
+        assertTrue(replayed.isReplayed());
+        assertEquals("Original", replayed.getTransaction().getDescription());
+        assertEquals(10.0, accountStatementService.getBalance("ES40123456789098765432", null).getBalance().doubleValue());
+    }
+
+    @Test
+    void shouldRejectTheTransaction_whenTheAcceptedBalanceWouldBeZeroOrLess() {
+        operationsService.createTransaction(new TransactionDto("WriteBehind-Deposit", "ES50123456789098765432", null, BigDecimal.TEN, BigDecimal.ZERO, ""));
+
+        assertThrows(ZeroBalanceException.class, () -> operationsService.createTransaction(new TransactionDto("WriteBehind-Overdraft", "ES50123456789098765432", null, BigDecimal.valueOf(-10), BigDecimal.ZERO, "")));
+        assertEquals(10.0, accountStatementService.getBalance("ES50123456789098765432", null).getBalance().doubleValue());
+        assertFalse(transactionsRepository.findByReference("WriteBehind-Overdraft").isPresent());
+    }
+
+    @Test
+    void shouldKeepStoring_whenATransactionCannotBeStored() throws Exception {
+        String IBAN = "ES60123456789098765432";
+        operationsService.createTransaction(new TransactionDto("WriteBehind-Before", IBAN, null, BigDecimal.TEN, BigDecimal.ZERO, ""));
+        operationsService.createTransaction(new TransactionDto("WriteBehind-TooLong", IBAN, null, BigDecimal.valueOf(5), BigDecimal.ZERO, tooLong()));
+        operationsService.createTransaction(new TransactionDto("WriteBehind-After", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+
+        assertEquals(11.0, accountStatementService.getBalance(IBAN, null).getBalance().doubleValue());
+        assertTrue(transactionsRepository.findByReference("WriteBehind-After").isPresent());
+        assertFalse(transactionsRepository.findByReference("WriteBehind-TooLong").isPresent());
+        assertTrue(TransactionJournal.readDeadLetters(directory).stream().anyMatch(transactionDto -> transactionDto.getReference().equals("WriteBehind-TooLong")));
+        operationsService.createTransaction(new TransactionDto("WriteBehind-Later", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+        assertEquals(12.0, accountStatementService.getBalance(IBAN, null).getBalance().doubleValue());
+    }
+
+    @Test
+    void shouldDropTheInMemoryBalances_whenTheirTransactionsAreStored() {
+        for (int i = 0; i < 10; i++) {
+            operationsService.createTransaction(new TransactionDto("WriteBehind-Account-" + i, String.format("ES7%019d", i), null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+        }
+
+        accountStatementService.getBalance("ES70000000000000000009", null);
+
+        assertEquals(0, writeBehindService.getPendingAccounts());
+    }
+
+    private static String tooLong() {
+        StringBuilder tooLong = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            tooLong.append('x');
+        }
+        return tooLong.toString();
+    }
+}
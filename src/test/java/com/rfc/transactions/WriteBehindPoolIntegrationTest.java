@@ -0,0 +1,77 @@
+package com.rfc.transactions;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.AccountStatementService;
+import com.rfc.transactions.service.OperationsService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Write-behind mode with as many concurrent balance reads as pooled connections. The reads
+ * drain the journal before taking a connection, so the applier always gets one.
+ */
+@SpringBootTest
+public class WriteBehindPoolIntegrationTest {
+
+    private static final int POOL_SIZE = 2;
+
+    private static Path directory;
+
+    @Autowired
+    private OperationsService operationsService;
+
+    @Autowired
+    private AccountStatementService accountStatementService;
+
+    @DynamicPropertySource
+    static void poolProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:write-behind-pool;DB_CLOSE_DELAY=-1");
+        registry.add("transactions.accounts.create-missing", () -> "true");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> String.valueOf(POOL_SIZE));
+        registry.add("spring.datasource.hikari.connection-timeout", () -> "1000");
+        registry.add("transactions.journal.enabled", () -> "true");
+        registry.add("transactions.journal.directory", () -> directory.toString());
+    }
+
+    @BeforeAll
+    static void createJournalDirectory() throws IOException {
+        directory = Files.createTempDirectory("journal-pool");
+    }
+
+    @Test
+    void shouldReadTheBalances_whenEveryConnectionIsTakenByAReader() throws Exception {
+        int rounds = 50;
+        ExecutorService executorService = Executors.newFixedThreadPool(POOL_SIZE);
+        for (int round = 1; round <= rounds; round++) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BigDecimal>> balances = new ArrayList<>();
+            for (int account = 0; account < POOL_SIZE; account++) {
+                String IBAN = String.format("ES9%019d", account);
+                operationsService.createTransaction(new TransactionDto("Pool-" + round + "-" + account, IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+                balances.add(executorService.submit(() -> {
+                    start.await();
+                    return accountStatementService.getBalance(IBAN, null).getBalance();
+                }));
+            }
+            start.countDown();
+            for (Future<BigDecimal> balance : balances) {
+                assertEquals(round, balance.get(30, TimeUnit.SECONDS).doubleValue());
+            }
+        }
+        executorService.shutdown();
+    }
+}
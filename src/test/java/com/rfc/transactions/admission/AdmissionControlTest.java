@@ -0,0 +1,225 @@
+package com.rfc.transactions.admission;
+
+import com.rfc.transactions.Exceptions.TooManyRequestsException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.ChannelDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.rfc.transactions.utils.Cons.OVERLOADED_ERROR;
+import static com.rfc.transactions.utils.Cons.RATE_LIMITED_ERROR;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransactionsProperties transactionsProperties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getAdmission().setEnabled(true);
+        transactionsProperties.getAdmission().getRate().setPermitsPerSecond(1);
+        transactionsProperties.getAdmission().getRate().setBurst(2);
+    }
+
+    @Test
+    void shouldRunEverySubmission_whenDisabled() {
+        transactionsProperties.getAdmission().setEnabled(false);
+        AdmissionControl admissionControl = admissionControl();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Done", admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done").join());
+        }
+        assertEquals(0, counter("admitted"));
+    }
+
+    @Test
+    void shouldRejectTheSubmissionsOverTheRateOfTheAccount() {
+        AdmissionControl admissionControl = admissionControl();
+        admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done");
+        admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done");
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done"));
+
+        assertEquals(RATE_LIMITED_ERROR, exception.getMessage());
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals("Done", admissionControl.admit("OTHER", null, AdmissionControlTest::run, () -> "Done").join());
+        assertEquals(3, counter("admitted"));
+        assertEquals(1, counter("rate.limited"));
+    }
+
+    @Test
+    void shouldApplyTheRateOfTheChannel_onTopOfTheRateOfTheAccount() {
+        transactionsProperties.getAdmission().getRate().setBurst(4);
+        TransactionsProperties.Rate client = new TransactionsProperties.Rate();
+        client.setPermitsPerSecond(1);
+        client.setBurst(1);
+        transactionsProperties.getAdmission().getChannels().put(ChannelDto.CLIENT, client);
+        AdmissionControl admissionControl = admissionControl();
+
+        admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done");
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done"));
+        for (int i = 0; i < 3; i++) {
+            admissionControl.admit("IBAN", ChannelDto.INTERNAL, AdmissionControlTest::run, () -> "Done");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", ChannelDto.INTERNAL, AdmissionControlTest::run, () -> "Done"));
+        assertEquals("Done", admissionControl.admit("OTHER", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done").join());
+    }
+
+    @Test
+    void shouldKeepTheRateOfTheAccount_whenTheChannelChanges() {
+        AdmissionControl admissionControl = admissionControl();
+        admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done");
+        admissionControl.admit("IBAN", ChannelDto.INTERNAL, AdmissionControlTest::run, () -> "Done");
+
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done"));
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done"));
+        assertEquals(2, counter("rate.limited"));
+    }
+
+    @Test
+    void shouldShedSubmissions_whenTooManyAreInProgress() {
+        transactionsProperties.getAdmission().setMinConcurrency(1);
+        transactionsProperties.getAdmission().setMaxConcurrency(1);
+        AdmissionControl admissionControl = admissionControl();
+        CompletableFuture<String> inProgress = new CompletableFuture<>();
+        admissionControl.admit("IBAN", null, submission -> inProgress, () -> "Done");
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> admissionControl.admit("OTHER", null, AdmissionControlTest::run, () -> "Done"));
+        inProgress.complete("Done");
+
+        assertEquals(OVERLOADED_ERROR, exception.getMessage());
+        assertEquals("Done", admissionControl.admit("OTHER", null, AdmissionControlTest::run, () -> "Done").join());
+        assertEquals(1, counter("shed"));
+    }
+
+    @Test
+    void shouldLetFewerSubmissionsIn_whenTheyWaitLongerThanTheTargetToStart() {
+        transactionsProperties.getAdmission().setMaxConcurrency(10);
+        AdmissionControl admissionControl = admissionControl();
+        List<Supplier<String>> queued = new ArrayList<>();
+        CompletableFuture<String> queuedFuture = new CompletableFuture<>();
+        admissionControl.admit("IBAN", null, submission -> {
+            queued.add(submission);
+            return queuedFuture;
+        }, () -> "Done");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        queuedFuture.complete(queued.get(0).get());
+
+        assertEquals(9, admissionControl.getConcurrencyLimit());
+        assertEquals(9.0, meterRegistry.get("transactions.admission.limit").gauge().value());
+    }
+
+    @Test
+    void shouldKeepTheLimit_whenTheWorkItselfIsSlow() {
+        transactionsProperties.getAdmission().setMaxConcurrency(10);
+        AdmissionControl admissionControl = admissionControl();
+
+        admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            return "Done";
+        });
+        admissionControl.admitBlocking("OTHER", null, () -> {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            return "Done";
+        });
+
+        assertEquals(10, admissionControl.getConcurrencyLimit());
+    }
+
+    @Test
+    void shouldGiveThePlaceBack_whenTheSubmissionFails() {
+        transactionsProperties.getAdmission().setMinConcurrency(1);
+        transactionsProperties.getAdmission().setMaxConcurrency(1);
+        AdmissionControl admissionControl = admissionControl();
+
+        assertThrows(IllegalStateException.class, () -> admissionControl.admit("IBAN", null, submission -> {
+            throw new IllegalStateException("Rejected");
+        }, () -> "Done"));
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        admissionControl.admit("IBAN", null, submission -> failed, () -> "Done");
+        failed.completeExceptionally(new IllegalStateException("Failed"));
+
+        assertEquals("Done", admissionControl.admit("OTHER", null, AdmissionControlTest::run, () -> "Done").join());
+    }
+
+    @Test
+    void shouldGiveTheChannelPermitBack_whenTheRateOfTheAccountRejects() {
+        TransactionsProperties.Rate client = new TransactionsProperties.Rate();
+        client.setPermitsPerSecond(0.1);
+        client.setBurst(1);
+        transactionsProperties.getAdmission().getChannels().put(ChannelDto.CLIENT, client);
+        AdmissionControl admissionControl = admissionControl();
+        admissionControl.admit("IBAN", ChannelDto.INTERNAL, AdmissionControlTest::run, () -> "Done");
+        admissionControl.admit("IBAN", ChannelDto.INTERNAL, AdmissionControlTest::run, () -> "Done");
+
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals("Done", admissionControl.admit("IBAN", ChannelDto.CLIENT, AdmissionControlTest::run, () -> "Done").join());
+    }
+
+    @Test
+    void shouldGiveThePermitsBack_whenTheSubmissionIsShed() {
+        transactionsProperties.getAdmission().setMinConcurrency(1);
+        transactionsProperties.getAdmission().setMaxConcurrency(1);
+        AdmissionControl admissionControl = admissionControl();
+        CompletableFuture<String> inProgress = new CompletableFuture<>();
+        admissionControl.admit("OTHER", null, submission -> inProgress, () -> "Done");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done"));
+        }
+        inProgress.complete("Done");
+
+        assertEquals("Done", admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done").join());
+        assertEquals("Done", admissionControl.admit("IBAN", null, AdmissionControlTest::run, () -> "Done").join());
+        assertEquals(3, counter("shed"));
+        assertEquals(0, counter("rate.limited"));
+    }
+
+    @Test
+    void shouldOnlyApplyTheRates_toBlockingSubmissions() {
+        transactionsProperties.getAdmission().setMinConcurrency(1);
+        transactionsProperties.getAdmission().setMaxConcurrency(1);
+        AdmissionControl admissionControl = admissionControl();
+
+        String result = admissionControl.admitBlocking("IBAN", null, () -> admissionControl.admitBlocking("OTHER", null, () -> "Done"));
+        admissionControl.admitBlocking("IBAN", null, () -> "Done");
+
+        assertEquals("Done", result);
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admitBlocking("IBAN", null, () -> "Done"));
+        assertEquals(3, counter("admitted"));
+        assertEquals(0, counter("shed"));
+    }
+
+    private AdmissionControl admissionControl() {
+        return new AdmissionControl(transactionsProperties, new TransactionMetrics(meterRegistry), meterRegistry, nanos::get);
+    }
+
+    private static <T> CompletableFuture<T> run(Supplier<T> submission) {
+        return CompletableFuture.completedFuture(submission.get());
+    }
+
+    private double counter(String outcome) {
+        return meterRegistry.get("transactions.admission").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,83 @@
+package com.rfc.transactions.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void shouldRejectRequests_whenTheLimitIsInProgress() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 2, TARGET);
+
+        assertTrue(concurrencyLimiter.tryAcquire());
+        assertTrue(concurrencyLimiter.tryAcquire());
+        assertFalse(concurrencyLimiter.tryAcquire());
+        concurrencyLimiter.release();
+
+        assertTrue(concurrencyLimiter.tryAcquire());
+        assertEquals(2, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void shouldShrinkTheLimitOncePerTarget_whenRequestsQueueTooLong() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(4, 20, TARGET);
+        for (int i = 0; i < 3; i++) {
+            concurrencyLimiter.tryAcquire();
+        }
+
+        concurrencyLimiter.started(0, 2 * TARGET);
+        concurrencyLimiter.release();
+        concurrencyLimiter.started(0, 2 * TARGET + 1);
+        concurrencyLimiter.release();
+        assertEquals(18, concurrencyLimiter.getLimit());
+
+        concurrencyLimiter.started(0, 3 * TARGET);
+        concurrencyLimiter.release();
+        assertEquals(17, concurrencyLimiter.getLimit());
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void shouldKeepTheMinimum_whileOverloaded() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(4, 20, TARGET);
+
+        for (int i = 1; i <= 100; i++) {
+            concurrencyLimiter.tryAcquire();
+            concurrencyLimiter.started(0, i * 2 * TARGET);
+            concurrencyLimiter.release();
+        }
+
+        assertEquals(4, concurrencyLimiter.getLimit());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire());
+        }
+        assertFalse(concurrencyLimiter.tryAcquire());
+    }
+
+    @Test
+    void shouldGrowTheLimitBack_whenRequestsStartInTimeAgain() {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(4, 20, TARGET);
+        concurrencyLimiter.tryAcquire();
+        concurrencyLimiter.started(0, 2 * TARGET);
+        concurrencyLimiter.release();
+
+        for (int i = 0; i < 18; i++) {
+            concurrencyLimiter.tryAcquire();
+            concurrencyLimiter.started(0, TARGET);
+            concurrencyLimiter.release();
+        }
+        assertEquals(19, concurrencyLimiter.getLimit());
+
+        for (int i = 0; i < 1000; i++) {
+            concurrencyLimiter.tryAcquire();
+            concurrencyLimiter.started(0, TARGET);
+            concurrencyLimiter.release();
+        }
+        assertEquals(20, concurrencyLimiter.getLimit());
+    }
+}
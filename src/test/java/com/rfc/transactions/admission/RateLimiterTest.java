@@ -0,0 +1,96 @@
+package com.rfc.transactions.admission;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        TransactionsProperties.Rate rate = new TransactionsProperties.Rate();
+        rate.setPermitsPerSecond(10);
+        rate.setBurst(3);
+        rateLimiter = new RateLimiter(rate, 100, nanos::get);
+    }
+
+    @Test
+    void shouldAcceptTheBurstAndRejectTheNext_untilAPermitIsBack() {
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire("IBAN"));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(40), rateLimiter.tryAcquire("IBAN"));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertTrue(rateLimiter.tryAcquire("IBAN") > 0);
+    }
+
+    @Test
+    void shouldHandThePermitOutAgain_whenItIsGivenBack() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("IBAN");
+        }
+
+        rateLimiter.release("IBAN");
+
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertTrue(rateLimiter.tryAcquire("IBAN") > 0);
+    }
+
+    @Test
+    void shouldKeepARatePerKey() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("IBAN");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("IBAN") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("OTHER"));
+    }
+
+    @Test
+    void shouldRefillTheWholeBurst_afterAQuietPeriod() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("IBAN");
+        }
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertEquals(0, rateLimiter.tryAcquire("IBAN"));
+        assertTrue(rateLimiter.tryAcquire("IBAN") > 0);
+    }
+
+    @Test
+    void shouldNotHandOutMorePermitsThanTheBurst_whenCalledConcurrently() throws Exception {
+        AtomicLong accepted = new AtomicLong();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (rateLimiter.tryAcquire("IBAN") == 0) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(3, accepted.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.rfc.transactions.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestExecutorTest {
+
+    private RequestExecutor requestExecutor;
+
+    @AfterEach
+    void tearDown() {
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    void shouldCompleteExceptionally_whenTheWorkFails() {
+        requestExecutor = new RequestExecutor(asyncProperties(1, 10), new SimpleMeterRegistry());
+
+        CompletableFuture<String> future = requestExecutor.supply(() -> {
+            throw new IllegalStateException("Failed");
+        });
+
+        CompletionException completionException = assertThrows(CompletionException.class, future::join);
+        assertTrue(completionException.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void shouldRunOnTheRequestPool() throws Exception {
+        requestExecutor = new RequestExecutor(asyncProperties(2, 10), new SimpleMeterRegistry());
+
+        String thread = requestExecutor.supply(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.startsWith("request-"));
+    }
+
+    @Test
+    void shouldRejectTheWork_whenTheQueueIsFull() throws Exception {
+        requestExecutor = new RequestExecutor(asyncProperties(1, 1), new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        requestExecutor.supply(() -> {
+            running.countDown();
+            return awaitQuietly(release);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        requestExecutor.supply(() -> true);
+
+        assertThrows(RejectedExecutionException.class, () -> requestExecutor.supply(() -> true));
+        release.countDown();
+    }
+
+    private static TransactionsProperties asyncProperties(int poolSize, int queueCapacity) {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getAsync().setEnabled(true);
+        transactionsProperties.getAsync().setPoolSize(poolSize);
+        transactionsProperties.getAsync().setQueueCapacity(queueCapacity);
+        return transactionsProperties;
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.rfc.transactions.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.DailyStatementDto;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.DailyBalanceRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "transactions.accounts.create-missing=true")
+@AutoConfigureMockMvc
+@EnableWebMvc
+@ExtendWith(SpringExtension.class)
+public class AccountsControllerIntegrationTest {
+
+    private static final String IBAN = "ES50123456789098765432";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactionsRepository.deleteAll();
+        accountRepository.deleteAll();
+        dailyBalanceRepository.deleteAll();
+        today = LocalDate.now();
+        post(today.minusDays(3), "100.00", "0");
+        post(today.minusDays(3), "-20.00", "1.00");
+        post(today.minusDays(1), "-30.00", "0");
+        String batch = "[{\"reference\": \"TxBatch1\", \"accountIBAN\": \"" + IBAN + "\", \"date\": \"" + today + "T10:00:00.000+0000\", \"ammount\": \"5.00\", \"fee\":\"0\"},"
+                + "{\"reference\": \"TxBatch2\", \"accountIBAN\": \"" + IBAN + "\", \"ammount\": \"7.00\", \"fee\":\"0\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions/batch").content(batch).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturnTheBalanceAtTheEndOfEveryDay() throws Exception {
+        assertEquals(61.0, balance("?date=" + today), 0.001);
+        assertEquals(49.0, balance("?date=" + today.minusDays(1)), 0.001);
+        assertEquals(79.0, balance("?date=" + today.minusDays(2)), 0.001);
+        assertEquals(79.0, balance("?date=" + today.minusDays(3)), 0.001);
+        assertEquals(0.0, balance("?date=" + today.minusDays(4)), 0.001);
+        assertEquals(61.0, balance(""), 0.001);
+    }
+
+    @Test
+    void shouldReturnTheDailyStatement() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/accounts/" + IBAN + "/statement?from=" + today.minusDays(10) + "&to=" + today))
+                .andExpect(status().isOk()).andReturn();
+
+        List<DailyStatementDto> statement = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<DailyStatementDto>>() {});
+        assertEquals(3, statement.size());
+        assertEquals(today.minusDays(3), statement.get(0).getDay());
+        assertEquals(2, statement.get(0).getTransactions());
+        assertEquals(100.0, statement.get(0).getCredits().doubleValue(), 0.001);
+        assertEquals(-20.0, statement.get(0).getDebits().doubleValue(), 0.001);
+        assertEquals(79.0, statement.get(0).getClosingBalance().doubleValue(), 0.001);
+        assertEquals(49.0, statement.get(1).getClosingBalance().doubleValue(), 0.001);
+        assertEquals(2, statement.get(2).getTransactions());
+        assertEquals(61.0, statement.get(2).getClosingBalance().doubleValue(), 0.001);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenTheAccountNotExists() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/accounts/UNKNOWN/balance")).andExpect(status().isNotFound());
+    }
+
+    private double balance(String query) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/accounts/" + IBAN + "/balance" + query)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AccountBalanceDto.class).getBalance().doubleValue();
+    }
+
+    private void post(LocalDate day, String ammount, String fee) throws Exception {
+        String body = "{\"accountIBAN\": \"" + IBAN + "\", \"date\": \"" + day + "T10:00:00.000+0000\", \"ammount\": \"" + ammount + "\", \"fee\":\"" + fee + "\"}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isCreated());
+    }
+}
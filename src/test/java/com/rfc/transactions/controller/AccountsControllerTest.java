@@ -0,0 +1,59 @@
+package com.rfc.transactions.controller;
+
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.DailyStatementDto;
+import com.rfc.transactions.service.AccountStatementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountsControllerTest {
+
+    @Mock
+    private AccountStatementService accountStatementService;
+
+    @InjectMocks
+    private AccountsController accountsController;
+
+    @Test
+    void shouldCallAccountStatementServiceToGetTheBalanceAtADate() {
+        LocalDate date = LocalDate.of(2020, 4, 1);
+        AccountBalanceDto accountBalanceDto = new AccountBalanceDto("IBAN", date, BigDecimal.TEN);
+        when(accountStatementService.getBalance(eq("IBAN"), eq(date))).thenReturn(accountBalanceDto);
+
+        ResponseEntity<AccountBalanceDto> response = accountsController.getBalance("IBAN", date);
+
+        verify(accountStatementService).getBalance(eq("IBAN"), eq(date));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(accountBalanceDto, response.getBody());
+    }
+
+    @Test
+    void shouldCallAccountStatementServiceToGetTheStatement() {
+        LocalDate from = LocalDate.of(2020, 4, 1);
+        LocalDate to = LocalDate.of(2020, 4, 30);
+        List<DailyStatementDto> statement = Collections.singletonList(new DailyStatementDto(from, BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.TEN, 1, BigDecimal.TEN));
+        when(accountStatementService.getStatement(eq("IBAN"), eq(from), eq(to))).thenReturn(statement);
+
+        ResponseEntity<List<DailyStatementDto>> response = accountsController.getStatement("IBAN", from, to);
+
+        verify(accountStatementService).getStatement(eq("IBAN"), eq(from), eq(to));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statement, response.getBody());
+    }
+}
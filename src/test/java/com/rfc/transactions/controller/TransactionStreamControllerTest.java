@@ -0,0 +1,71 @@
+package com.rfc.transactions.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionEventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionStreamControllerTest {
+
+    @Mock
+    private OperationsService operationsService;
+
+    @Spy
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private TransactionEventService transactionEventService;
+
+    @InjectMocks
+    private TransactionStreamController transactionStreamController;
+
+    @Test
+    void shouldStreamTheTransactionsAsAJsonArray() throws Exception {
+        String IBAN = "IBAN";
+        doAnswer(invocation -> {
+            Consumer<TransactionDto> consumer = invocation.getArgument(2);
+            consumer.accept(new TransactionDto("TxReference1", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, null));
+            consumer.accept(new TransactionDto("TxReference2", IBAN, null, BigDecimal.TEN, BigDecimal.ZERO, null));
+            return null;
+        }).when(operationsService).streamFilterTransactions(eq(IBAN), eq(null), any());
+
+        ResponseEntity<StreamingResponseBody> response = transactionStreamController.streamTransactions(IBAN, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionDto[] transactionDtos = objectMapper.readValue(outputStream.toByteArray(), TransactionDto[].class);
+        assertEquals(2, transactionDtos.length);
+        assertEquals("TxReference1", transactionDtos[0].getReference());
+        assertEquals("TxReference2", transactionDtos[1].getReference());
+    }
+
+    @Test
+    void shouldSubscribeToTheTransactionEvents() {
+        SseEmitter emitter = new SseEmitter();
+        when(transactionEventService.subscribe(eq("IBAN"), eq(ChannelDto.INTERNAL))).thenReturn(emitter);
+
+        assertSame(emitter, transactionStreamController.streamEvents("IBAN", ChannelDto.INTERNAL));
+    }
+}
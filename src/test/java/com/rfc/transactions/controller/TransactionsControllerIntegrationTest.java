@@ -2,11 +2,20 @@ package com.rfc.transactions.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BatchItemStatusDto;
+import com.rfc.transactions.model.dto.StatusDto;
 import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
 import com.rfc.transactions.model.entity.AccountEntity;
 import com.rfc.transactions.model.entity.TransactionsEntity;
 import com.rfc.transactions.repository.AccountRepository;
 import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.serialization.TransactionsJacksonModule;
+import com.rfc.transactions.service.TransactionStatusCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,9 +32,13 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -40,6 +53,9 @@ public class TransactionsControllerIntegrationTest {
     @Autowired
     private TransactionsRepository transactionsRepository;
 
+    @Autowired
+    private TransactionStatusCache transactionStatusCache;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -62,7 +78,7 @@ public class TransactionsControllerIntegrationTest {
         transactionsRepository.save(transactionsEntityList.get(1));
         transactionsRepository.save(transactionsEntityList.get(2));
         transactionsRepository.save(transactionsEntityList.get(3));
-        accountEntity = accountRepository.save(new AccountEntity(1, BigDecimal.valueOf(100)));
+        accountEntity = accountRepository.save(new AccountEntity("ES10123456789098765432", BigDecimal.valueOf(100)));
     }
 
     @Test
@@ -96,9 +112,39 @@ public class TransactionsControllerIntegrationTest {
         assertEquals(accountEntity.getBalance().add(transactionDto.getAmmount().subtract(transactionDto.getFee())), accountEntityUpdated.getBalance());
     }
 
+    @Test
+    void shouldReturnTheOriginalTransactionAndKeepTheBalance_whenTheSameReferenceIsPostedAgain() throws Exception {
+        String body = "{\"reference\": \"TxRetry\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\", \"description\": \"First\"}";
+        String retry = "{\"reference\": \"TxRetry\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\", \"description\": \"Retry\"}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(retry).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+
+        TransactionDto transactionDto = objectMapper.readValue(result.getResponse().getContentAsString(), TransactionDto.class);
+        AccountEntity accountEntityUpdated = accountRepository.findById(accountEntity.getId()).get();
+        assertEquals("First", transactionDto.getDescription());
+        assertEquals(accountEntity.getBalance().add(BigDecimal.valueOf(1.5)).doubleValue(), accountEntityUpdated.getBalance().doubleValue());
+    }
+
+    @Test
+    void shouldReturnTheOriginalTransaction_whenTheReferenceIsStoredBehindTheCache() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/transactions/status?reference=TxBehind&channel=CLIENT")).andExpect(status().isOk());
+        transactionsRepository.save(new TransactionsEntity("TxBehind", "ES10123456789098765432", new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Stored"));
+        String body = "{\"reference\": \"TxBehind\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\"}";
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+
+        TransactionDto transactionDto = objectMapper.readValue(result.getResponse().getContentAsString(), TransactionDto.class);
+        AccountEntity accountEntityUpdated = accountRepository.findById(accountEntity.getId()).get();
+        assertEquals("Stored", transactionDto.getDescription());
+        assertEquals(accountEntity.getBalance().doubleValue(), accountEntityUpdated.getBalance().doubleValue());
+    }
+
     @Test
     void shouldNotSaveNewTransactionIfUpdatedBalanceIsZero_whenPostTransactionsEndpointIsCalled() throws Exception {
-        String IBAN = "IBANTEST";
+        String IBAN = "ES10123456789098765432";
         String body = "{\"accountIBAN\": \"" + IBAN + "\", \"ammount\": \"-100\", \"fee\":\"0\"}";
         MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions")
                 .content(body)
@@ -107,10 +153,47 @@ public class TransactionsControllerIntegrationTest {
 
         AccountEntity accountEntityUpdated = accountRepository.findById(accountEntity.getId()).get();
         assertTrue(result.getResponse().getContentAsString().contains("Account updated balance must not be Zero or Less!"));
-        assertEquals(0, transactionsRepository.findByAccountIBAN(IBAN, Sort.unsorted()).size());
+        assertEquals(3, transactionsRepository.findByAccountIBAN(IBAN, Sort.unsorted()).size());
         assertEquals(accountEntity.getBalance().doubleValue(), accountEntityUpdated.getBalance().doubleValue());
     }
 
+    @Test
+    void shouldReturnNotFoundAndCreateNoAccount_whenPostTransactionsEndpointIsCalledForAnUnknownIban() throws Exception {
+        String body = "{\"reference\": \"TxUnknown\", \"accountIBAN\": \"ES99123456789098765432\", \"ammount\": \"10.00\", \"fee\":\"0\"}";
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isNotFound()).andReturn();
+
+        assertTrue(result.getResponse().getContentAsString().contains("Account not found!"));
+        assertFalse(accountRepository.findByIban("ES99123456789098765432").isPresent());
+        assertEquals(0, transactionsRepository.findByAccountIBAN("ES99123456789098765432", Sort.unsorted()).size());
+    }
+
+    @Test
+    void shouldSaveTheValidTransactionsOfABatchAndUpdateBalance_whenPostTransactionsBatchEndpointIsCalled() throws Exception {
+        String body = "[{\"reference\": \"TxBatch1\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"20.00\", \"fee\":\"1.00\"},"
+                + "{\"reference\": \"TxBatch2\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"-500.00\", \"fee\":\"0\"},"
+                + "{\"reference\": \"TxReference1\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"5.00\", \"fee\":\"0\"},"
+                + "{\"reference\": \"TxBatch3\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"-9.00\", \"fee\":\"1.00\"}]";
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk()).andReturn();
+
+        List<BatchItemResultDto> results = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BatchItemResultDto>>() {});
+        AccountEntity accountEntityUpdated = accountRepository.findById(accountEntity.getId()).get();
+        assertEquals(4, results.size());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(2).getStatus());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(3).getStatus());
+        assertTrue(transactionsRepository.findByReference("TxBatch1").isPresent());
+        assertTrue(transactionsRepository.findByReference("TxBatch3").isPresent());
+        assertFalse(transactionsRepository.findByReference("TxBatch2").isPresent());
+        assertEquals(accountEntity.getBalance().add(BigDecimal.valueOf(9)).doubleValue(), accountEntityUpdated.getBalance().doubleValue());
+    }
+
     @Test
     void shouldReturnAListOfTransactionsWithoutFilters_whenGetTransactionsEndpointIsCalled() throws Exception {
         MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/transactions")
@@ -171,4 +254,177 @@ public class TransactionsControllerIntegrationTest {
         assertEquals(transactionsEntityList.get(1).getAmmount().doubleValue(), transactionDtoList.get(2).getAmmount().doubleValue());
     }
 
+    @Test
+    void shouldReturnTransactionPagesUsingTheNextCursor_whenGetTransactionsEndpointIsCalledWithLimit() throws Exception {
+        MvcResult firstPage = mockMvc.perform(MockMvcRequestBuilders.get("/transactions?sortAmmount=DESC&limit=3")
+        ).andExpect(status().isOk()).andReturn();
+
+        List<TransactionDto> firstPageList = objectMapper.readValue(firstPage.getResponse().getContentAsString(), new TypeReference<List<TransactionDto>>() {});
+        String nextCursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+        assertEquals(3, firstPageList.size());
+        assertEquals(transactionsEntityList.get(1).getAmmount().doubleValue(), firstPageList.get(0).getAmmount().doubleValue());
+        assertEquals(transactionsEntityList.get(3).getAmmount().doubleValue(), firstPageList.get(2).getAmmount().doubleValue());
+        assertNotNull(nextCursor);
+
+        MvcResult secondPage = mockMvc.perform(MockMvcRequestBuilders.get("/transactions?sortAmmount=DESC&limit=3&after=" + nextCursor)
+        ).andExpect(status().isOk()).andReturn();
+
+        List<TransactionDto> secondPageList = objectMapper.readValue(secondPage.getResponse().getContentAsString(), new TypeReference<List<TransactionDto>>() {});
+        assertEquals(1, secondPageList.size());
+        assertEquals(transactionsEntityList.get(0).getAmmount().doubleValue(), secondPageList.get(0).getAmmount().doubleValue());
+        assertNull(secondPage.getResponse().getHeader("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenGetTransactionsEndpointIsCalledWithAMalformedCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/transactions?limit=3&after=malformed")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamTheTransactionsFilterByIbanAndSorted_whenStreamTransactionsEndpointIsCalled() throws Exception {
+        String IBAN = "ES10123456789098765432";
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/stream?IBAN=" + IBAN + "&sortAmmount=ASC")
+        ).andExpect(request().asyncStarted()).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk()).andReturn();
+
+        List<TransactionDto> transactionDtoList = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<TransactionDto>>() {});
+        assertEquals(transactionsEntityList.size()-1, transactionDtoList.size());
+        assertEquals(transactionsEntityList.get(0).getAmmount().doubleValue(), transactionDtoList.get(0).getAmmount().doubleValue());
+        assertEquals(transactionsEntityList.get(2).getAmmount().doubleValue(), transactionDtoList.get(1).getAmmount().doubleValue());
+        assertEquals(transactionsEntityList.get(1).getAmmount().doubleValue(), transactionDtoList.get(2).getAmmount().doubleValue());
+    }
+
+    @Test
+    void shouldServeRepeatedStatusPollsFromCacheAndExposeTheCacheCounters() throws Exception {
+        transactionsRepository.save(new TransactionsEntity("TxCached", "ES10123456789098765432", new Date(), BigDecimal.ONE, BigDecimal.ZERO, "Cached"));
+        long hitsBefore = transactionStatusCache.getStats().hitCount();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/transactions/status?reference=TxCached&channel=INTERNAL")).andExpect(status().isOk());
+            mockMvc.perform(MockMvcRequestBuilders.get("/transactions/status?reference=Unknown&channel=INTERNAL")).andExpect(status().isOk());
+        }
+
+        assertEquals(hitsBefore + 4, transactionStatusCache.getStats().hitCount());
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/cache.gets?tag=cache:transactions.status&tag=result:hit")
+        ).andExpect(status().isOk()).andReturn();
+        assertTrue(result.getResponse().getContentAsString().contains("\"statistic\":\"COUNT\""));
+    }
+
+    @Test
+    void shouldReturnTheStatusOfEveryReferenceInRequestOrder_whenPostStatusBulkEndpointIsCalled() throws Exception {
+        String body = "{\"references\": [\"TxReference3\", \"Unknown\", \"TxReference1\"], \"channel\": \"CLIENT\"}";
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions/status/bulk")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk()).andReturn();
+
+        List<TransactionStatusDto> statuses = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<TransactionStatusDto>>() {});
+        assertEquals(3, statuses.size());
+        assertEquals("TxReference3", statuses.get(0).getReference());
+        assertEquals(StatusDto.PENDING, statuses.get(0).getStatus());
+        assertEquals(5.0, statuses.get(0).getAmmount().doubleValue());
+        assertEquals(StatusDto.INVALID, statuses.get(1).getStatus());
+        assertEquals("TxReference1", statuses.get(2).getReference());
+        assertEquals(StatusDto.PENDING, statuses.get(2).getStatus());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenPostStatusBulkEndpointIsCalledWithTooManyReferences() throws Exception {
+        StringBuilder body = new StringBuilder("{\"channel\": \"CLIENT\", \"references\": [");
+        for (int i = 0; i <= 1000; i++) {
+            body.append(i == 0 ? "" : ",").append("\"Tx").append(i).append('"');
+        }
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions/status/bulk")
+                .content(body.append("]}").toString())
+                .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isBadRequest()).andReturn();
+
+        assertTrue(result.getResponse().getContentAsString().contains("At most 1000 references"));
+    }
+
+    @Test
+    void shouldPushTheCommittedTransactionsToTheSubscribers_whenGetEventsEndpointIsCalled() throws Exception {
+        MvcResult events = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/events?IBAN=ES10123456789098765432&channel=CLIENT")
+        ).andExpect(request().asyncStarted()).andReturn();
+        String body = "{\"reference\": \"TxEvent\", \"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\"}";
+        accountRepository.save(new AccountEntity("ES10123456789098765433", BigDecimal.ZERO));
+        String other = "{\"reference\": \"TxOtherAccount\", \"accountIBAN\": \"ES10123456789098765433\", \"ammount\": \"2.50\", \"fee\":\"1.00\"}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(other).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isCreated());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!events.getResponse().getContentAsString().contains("TxEvent") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        events.getRequest().getAsyncContext().complete();
+
+        String stream = events.getResponse().getContentAsString();
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, events.getResponse().getContentType());
+        assertTrue(stream.contains("event:CREATED"));
+        assertTrue(stream.contains("\"reference\":\"TxEvent\""));
+        assertTrue(stream.contains("\"status\":\"PENDING\""));
+        assertFalse(stream.contains("TxOtherAccount"));
+    }
+
+    @Test
+    void shouldReturnTheStatisticsPerAccountAndPerDay_whenTheStatsEndpointIsCalled() throws Exception {
+        String byIban = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/stats")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String byDay = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/stats?groupBy=DAY")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String dated = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/stats?IBAN=ES10123456789098765432&from=2020-01-01")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        List<TransactionStatsDto> accounts = objectMapper.readValue(byIban, new TypeReference<List<TransactionStatsDto>>() {});
+        assertEquals(2, accounts.size());
+        assertEquals("ES10123456789098765432", accounts.get(0).getAccountIBAN());
+        assertEquals(3, accounts.get(0).getCount());
+        assertEquals(new BigDecimal("16.00"), accounts.get(0).getAmmount().getTotal());
+        assertEquals(new BigDecimal("5.33"), accounts.get(0).getAmmount().getAverage());
+        assertEquals(new BigDecimal("1.00"), accounts.get(0).getAmmount().getMin());
+        assertEquals(new BigDecimal("5.00"), accounts.get(0).getAmmount().getP50());
+        assertEquals(new BigDecimal("10.00"), accounts.get(0).getAmmount().getP90());
+        assertEquals(new BigDecimal("0.00"), accounts.get(0).getFee().getTotal());
+        assertEquals("ES10123456789098765433", accounts.get(1).getAccountIBAN());
+        List<TransactionStatsDto> days = objectMapper.readValue(byDay, new TypeReference<List<TransactionStatsDto>>() {});
+        assertEquals(1, days.size());
+        assertNull(days.get(0).getDay());
+        assertEquals(4, days.get(0).getCount());
+        assertEquals(new BigDecimal("19.00"), days.get(0).getAmmount().getTotal());
+        assertEquals("[]", dated);
+    }
+
+    @Test
+    void shouldReturnTheListingInSmileOrCbor_whenTheClientAsksForIt() throws Exception {
+        String json = mockMvc.perform(MockMvcRequestBuilders.get("/transactions?sortAmmount=ASC")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<TransactionDto> expected = objectMapper.readValue(json, new TypeReference<List<TransactionDto>>() {});
+        assertTrue(objectMapper.getRegisteredModuleIds().contains(new TransactionsJacksonModule().getTypeId()));
+
+        for (ObjectMapper binaryMapper : Arrays.asList(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            String mediaType = binaryMapper.getFactory() instanceof SmileFactory ? "application/x-jackson-smile" : "application/cbor";
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/transactions?sortAmmount=ASC").accept(mediaType)).andExpect(status().isOk()).andReturn();
+
+            List<TransactionDto> transactionDtoList = binaryMapper.readValue(result.getResponse().getContentAsByteArray(), new TypeReference<List<TransactionDto>>() {});
+            assertEquals(mediaType, result.getResponse().getContentType());
+            assertTrue(result.getResponse().getContentAsByteArray().length < json.length());
+            assertEquals(expected.size(), transactionDtoList.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getReference(), transactionDtoList.get(i).getReference());
+                assertEquals(expected.get(i).getAmmount(), transactionDtoList.get(i).getAmmount());
+            }
+        }
+    }
+
+    @Test
+    void shouldExposeStageTimersAndErrorCounters_whenTransactionsArePosted() throws Exception {
+        String body = "{\"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"2.50\", \"fee\":\"1.00\"}";
+        String rejected = "{\"accountIBAN\": \"ES10123456789098765432\", \"ammount\": \"-1000\", \"fee\":\"0\"}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(body).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions").content(rejected).contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+
+        String insert = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/transactions.stage?tag=stage:transaction.insert"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String errors = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/transactions.errors?tag=exception:ZeroBalanceException"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/transactions.inflight?tag=operation:create")).andExpect(status().isOk());
+        assertTrue(insert.contains("\"statistic\":\"COUNT\""));
+        assertFalse(errors.contains("\"value\":0.0"));
+    }
 }
@@ -1,14 +1,27 @@
 package com.rfc.transactions.controller;
 
+import com.rfc.transactions.admission.AdmissionControl;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BatchItemStatusDto;
+import com.rfc.transactions.model.dto.BulkStatusRequestDto;
 import com.rfc.transactions.model.dto.ChannelDto;
 import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.StatsGroupDto;
 import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
 import com.rfc.transactions.model.dto.TransactionStatusDto;
 import com.rfc.transactions.service.OperationsService;
+import com.rfc.transactions.service.TransactionStatsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,14 +29,16 @@ import org.springframework.http.ResponseEntity;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TransactionsControllerTest {
@@ -31,14 +46,21 @@ public class TransactionsControllerTest {
     @Mock
     private OperationsService operationsService;
 
+    @Mock
+    private TransactionStatsService transactionStatsService;
+
+    @Spy
+    private AdmissionControl admissionControl = new AdmissionControl(new TransactionsProperties(), new TransactionMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
     @InjectMocks
     private TransactionsController transactionsController;
 
     @Test
     void shouldCallOperationServiceToSaveNewTransaction() {
         TransactionDto transactionDto = new TransactionDto(null, "ES101234567890987654", Date.from(Instant.now()), BigDecimal.ONE, BigDecimal.ZERO, "TxDescription");
+        when(operationsService.createTransaction(eq(transactionDto))).thenReturn(new TransactionSubmissionDto(transactionDto, false));
 
-        ResponseEntity<TransactionDto> response = transactionsController.postTransaction(transactionDto);
+        ResponseEntity<TransactionDto> response = transactionsController.postTransaction(transactionDto, null);
 
         verify(operationsService).createTransaction(transactionDto);
         assertNotNull(response);
@@ -46,13 +68,38 @@ public class TransactionsControllerTest {
         assertEquals(transactionDto, response.getBody());
     }
 
+    @Test
+    void shouldReturnTheOriginalTransactionWithOk_whenTheSubmissionIsReplayed() {
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES101234567890987654", Date.from(Instant.now()), BigDecimal.ONE, BigDecimal.ZERO, "TxDescription");
+        TransactionDto originalTransactionDto = new TransactionDto("TxReference", "ES101234567890987654", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, "Original");
+        when(operationsService.createTransaction(eq(transactionDto))).thenReturn(new TransactionSubmissionDto(originalTransactionDto, true));
+
+        ResponseEntity<TransactionDto> response = transactionsController.postTransaction(transactionDto, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(originalTransactionDto, response.getBody());
+    }
+
+    @Test
+    void shouldCallOperationServiceToSaveABatchOfTransactions() {
+        List<TransactionDto> transactionDtoList = Collections.singletonList(new TransactionDto("TxReference", "ES101234567890987654", Date.from(Instant.now()), BigDecimal.ONE, BigDecimal.ZERO, "TxDescription"));
+        when(operationsService.createTransactions(eq(transactionDtoList))).thenReturn(Collections.singletonList(new BatchItemResultDto("TxReference", BatchItemStatusDto.CREATED, null)));
+
+        ResponseEntity<List<BatchItemResultDto>> response = transactionsController.postTransactions(transactionDtoList);
+
+        verify(operationsService).createTransactions(eq(transactionDtoList));
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+    }
+
     @Test
     void shouldCallOperationServiceToGetAFilterTransactionList() {
         String IBAN = "IBAN";
         SortDirectionDto sortDirectionDto = SortDirectionDto.ASC;
         when(operationsService.getFilterTransactions(eq(IBAN), eq(sortDirectionDto))).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<TransactionDto>> response = transactionsController.getTransactions(IBAN, sortDirectionDto);
+        ResponseEntity<List<TransactionDto>> response = transactionsController.getTransactions(IBAN, sortDirectionDto, null, null);
 
         verify(operationsService).getFilterTransactions(eq(IBAN), eq(sortDirectionDto));
         assertNotNull(response);
@@ -60,6 +107,21 @@ public class TransactionsControllerTest {
         assertNotNull(response.getBody());
     }
 
+    @Test
+    void shouldCallOperationServiceToGetATransactionPageAndReturnTheNextCursor() {
+        String IBAN = "IBAN";
+        SortDirectionDto sortDirectionDto = SortDirectionDto.ASC;
+        when(operationsService.getTransactionsPage(eq(IBAN), eq(sortDirectionDto), eq("1.00,1"), eq(10))).thenReturn(new TransactionPageDto(new ArrayList<>(), "5.00,7"));
+
+        ResponseEntity<List<TransactionDto>> response = transactionsController.getTransactions(IBAN, sortDirectionDto, 10, "1.00,1");
+
+        verify(operationsService).getTransactionsPage(eq(IBAN), eq(sortDirectionDto), eq("1.00,1"), eq(10));
+        verify(operationsService, never()).getFilterTransactions(any(), any());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("5.00,7", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertNotNull(response.getBody());
+    }
+
     @Test
     void shouldCallOperationServiceToGetATransactionStatus() {
         String reference = "TxReference";
@@ -73,4 +135,27 @@ public class TransactionsControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
+
+    @Test
+    void shouldCallOperationServiceToGetTheStatusOfManyTransactions() {
+        List<String> references = Arrays.asList("TxReference1", "TxReference2");
+        when(operationsService.getTransactionsStatuses(eq(references), eq(ChannelDto.CLIENT))).thenReturn(Arrays.asList(new TransactionStatusDto(), new TransactionStatusDto()));
+
+        ResponseEntity<List<TransactionStatusDto>> response = transactionsController.getTransactionStatuses(new BulkStatusRequestDto(references, ChannelDto.CLIENT));
+
+        verify(operationsService).getTransactionsStatuses(eq(references), eq(ChannelDto.CLIENT));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+    }
+
+    @Test
+    void shouldGroupTheStatsByIban_whenNoGroupIsGiven() {
+        List<TransactionStatsDto> transactionStatsDtoList = Collections.singletonList(new TransactionStatsDto());
+        when(transactionStatsService.getStats(StatsGroupDto.IBAN, "ES101234567890987654", LocalDate.of(2020, 4, 1), null)).thenReturn(transactionStatsDtoList);
+
+        ResponseEntity<List<TransactionStatsDto>> response = transactionsController.getTransactionStats(null, "ES101234567890987654", LocalDate.of(2020, 4, 1), null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(transactionStatsDtoList, response.getBody());
+    }
 }
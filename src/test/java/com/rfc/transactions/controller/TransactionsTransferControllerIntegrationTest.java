@@ -0,0 +1,117 @@
+package com.rfc.transactions.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.ImportResultDto;
+import com.rfc.transactions.repository.AccountRepository;
+import com.rfc.transactions.repository.DailyBalanceRepository;
+import com.rfc.transactions.repository.TransactionsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "transactions.accounts.create-missing=true")
+@AutoConfigureMockMvc
+@EnableWebMvc
+@ExtendWith(SpringExtension.class)
+public class TransactionsTransferControllerIntegrationTest {
+
+    private static final String IBAN = "ES60123456789098765432";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        transactionsRepository.deleteAll();
+        accountRepository.deleteAll();
+        dailyBalanceRepository.deleteAll();
+    }
+
+    @Test
+    void shouldImportCsv_andExportItBack() throws Exception {
+        String csv = "reference,accountIBAN,date,ammount,fee,description\n"
+                + "TxImport1," + IBAN + ",2020-04-10T10:00:00Z,100.00,1.00,\"Salary, April\"\n"
+                + "TxImport2," + IBAN + ",2020-04-11T10:00:00Z,-20.00,0,\n"
+                + "TxImport3," + IBAN + ",yesterday,5.00,0,\n"
+                + "TxImport4," + IBAN + ",2020-04-12T10:00:00Z,-500.00,0,\n";
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions/import").content(csv).contentType("text/csv"))
+                .andExpect(status().isOk()).andReturn();
+
+        ImportResultDto importResultDto = objectMapper.readValue(result.getResponse().getContentAsString(), ImportResultDto.class);
+        assertEquals(4, importResultDto.getRecords());
+        assertEquals(2, importResultDto.getCreated());
+        assertEquals(2, importResultDto.getRejected());
+        assertTrue(importResultDto.getErrors().get(0).getError().startsWith("Line 4: date must be"));
+        assertEquals("TxImport4", importResultDto.getErrors().get(1).getReference());
+        assertEquals(79.0, balance(), 0.001);
+
+        String exported = export("CSV");
+        assertEquals("reference,accountIBAN,date,ammount,fee,description\n"
+                + "TxImport1," + IBAN + ",2020-04-10T10:00:00Z,100.00,1.00,\"Salary, April\"\n"
+                + "TxImport2," + IBAN + ",2020-04-11T10:00:00Z,-20.00,0.00,\n", exported);
+    }
+
+    @Test
+    void shouldImportNdjson_andExportNdjson() throws Exception {
+        String ndjson = "{\"reference\":\"TxNd1\",\"accountIBAN\":\"" + IBAN + "\",\"ammount\":10.50,\"fee\":0.50}\n"
+                + "{\"reference\":\"TxNd2\",\"accountIBAN\":\"" + IBAN + "\",\"ammount\":2,\"fee\":0}\n";
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/transactions/import").content(ndjson).contentType("application/x-ndjson"))
+                .andExpect(status().isOk()).andReturn();
+
+        assertEquals(2, objectMapper.readValue(result.getResponse().getContentAsString(), ImportResultDto.class).getCreated());
+        String[] lines = export("NDJSON").split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"reference\":\"TxNd1\""));
+    }
+
+    @Test
+    void shouldReturnUnsupportedMediaType_whenTheFormatIsUnknown() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/transactions/import").content("<xml/>").contentType("application/xml"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/transactions/export?IBAN=" + IBAN + "&format=" + format))
+                .andExpect(request().asyncStarted()).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + format.toLowerCase() + "\""))
+                .andReturn();
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private double balance() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/accounts/" + IBAN + "/balance")).andExpect(status().isOk()).andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AccountBalanceDto.class).getBalance().doubleValue();
+    }
+}
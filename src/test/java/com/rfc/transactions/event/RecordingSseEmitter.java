@@ -0,0 +1,49 @@
+package com.rfc.transactions.event;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the data of the events sent, without the SSE framing, instead of writing them to a
+ * response.
+ */
+public class RecordingSseEmitter extends SseEmitter {
+
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+
+    private volatile boolean completed;
+
+    private volatile boolean failing;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+        if (failing) {
+            throw new IOException("Broken pipe");
+        }
+        sent.addAll(builder.build().stream().filter(data -> !MediaType.TEXT_PLAIN.isCompatibleWith(data.getMediaType()))
+                .map(ResponseBodyEmitter.DataWithMediaType::getData).collect(Collectors.toList()));
+    }
+
+    @Override
+    public synchronized void complete() {
+        completed = true;
+    }
+
+    public List<Object> getSent() {
+        return sent;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void fail() {
+        failing = true;
+    }
+}
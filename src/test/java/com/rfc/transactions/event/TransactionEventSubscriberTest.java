@@ -0,0 +1,67 @@
+package com.rfc.transactions.event;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionEventSubscriberTest {
+
+    private final RecordingSseEmitter emitter = new RecordingSseEmitter();
+
+    @Test
+    void shouldSendTheEventsInTheOrderTheyWereOffered() {
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, null, ChannelDto.CLIENT, 10, Runnable::run);
+
+        assertTrue(subscriber.offer(event("First")));
+        assertTrue(subscriber.offer(event("Second")));
+
+        assertEquals(Arrays.asList("First", "Second"), emitter.getSent());
+    }
+
+    @Test
+    void shouldOnlyAcceptTheTransactionsOfItsAccount() {
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, "IBAN", ChannelDto.CLIENT, 10, Runnable::run);
+
+        assertTrue(subscriber.accepts("IBAN"));
+        assertFalse(subscriber.accepts("OTHER"));
+        assertTrue(new TransactionEventSubscriber(emitter, null, ChannelDto.CLIENT, 10, Runnable::run).accepts("OTHER"));
+    }
+
+    @Test
+    void shouldDisconnectAndDropTheQueue_whenTheSubscriberDoesNotKeepUp() {
+        List<Runnable> drains = new ArrayList<>();
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, null, ChannelDto.CLIENT, 2, drains::add);
+
+        assertTrue(subscriber.offer(event("First")));
+        assertTrue(subscriber.offer(event("Second")));
+        assertFalse(subscriber.offer(event("Third")));
+        drains.forEach(Runnable::run);
+
+        assertEquals(1, drains.size());
+        assertTrue(emitter.isCompleted());
+        assertTrue(subscriber.isClosed());
+        assertFalse(subscriber.accepts("IBAN"));
+        assertTrue(emitter.getSent().isEmpty());
+    }
+
+    @Test
+    void shouldClose_whenTheClientIsGone() {
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, null, ChannelDto.CLIENT, 10, Runnable::run);
+        emitter.fail();
+
+        subscriber.offer(event("First"));
+
+        assertTrue(subscriber.isClosed());
+        assertFalse(subscriber.offer(event("Second")));
+    }
+
+    private static SseEmitter.SseEventBuilder event(Object data) {
+        return SseEmitter.event().data(data, null);
+    }
+}
@@ -0,0 +1,257 @@
+package com.rfc.transactions.journal;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal transactionJournal;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (transactionJournal != null) {
+            transactionJournal.close();
+        }
+    }
+
+    @Test
+    void shouldReadBackTheAppendedTransactions() throws IOException {
+        CountDownLatch storing = new CountDownLatch(1);
+        transactionJournal = new TransactionJournal(directory, 4096, 10, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> awaitQuietly(storing), TransactionJournalTest::isTransient, transactionDto -> { });
+
+        transactionJournal.append(new TransactionDto("Tx-1", "ES10123456789098765432", new Date(1586476800000L), new BigDecimal("10.50"), BigDecimal.ONE, "Description"));
+        transactionJournal.awaitDurable(transactionJournal.append(new TransactionDto("Tx-2", "ES10123456789098765432", null, BigDecimal.valueOf(-5), BigDecimal.ZERO, null)));
+        List<TransactionDto> transactionDtoList = TransactionJournal.read(directory);
+        storing.countDown();
+
+        assertEquals(2, transactionDtoList.size());
+        TransactionDto first = transactionDtoList.get(0);
+        assertEquals("Tx-1", first.getReference());
+        assertEquals("ES10123456789098765432", first.getAccountIBAN());
+        assertEquals(new Date(1586476800000L), first.getDate());
+        assertEquals(new BigDecimal("10.50"), first.getAmmount());
+        assertEquals(BigDecimal.ONE, first.getFee());
+        assertEquals("Description", first.getDescription());
+        TransactionDto second = transactionDtoList.get(1);
+        assertEquals("Tx-2", second.getReference());
+        assertNull(second.getDate());
+        assertNull(second.getDescription());
+    }
+
+    @Test
+    void shouldMakeAGroupDurable_whenEnoughRecordsAreWaiting() throws Exception {
+        transactionJournal = new TransactionJournal(directory, 4096, 3, Duration.ofMinutes(1), 100);
+        transactionJournal.start(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> { });
+
+        transactionJournal.append(transaction("Tx-1"));
+        long second = transactionJournal.append(transaction("Tx-2"));
+        CompletableFuture<Void> durable = CompletableFuture.runAsync(() -> transactionJournal.awaitDurable(second));
+
+        assertThrows(TimeoutException.class, () -> durable.get(200, TimeUnit.MILLISECONDS));
+        transactionJournal.append(transaction("Tx-3"));
+        durable.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldStoreDurableTransactionsInBatches() throws IOException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch storing = new CountDownLatch(1);
+        transactionJournal = new TransactionJournal(directory, 4096, 100, Duration.ofMillis(1), 4);
+        transactionJournal.start(batch -> {
+            awaitQuietly(storing);
+            batchSizes.add(batch.size());
+        }, TransactionJournalTest::isTransient, transactionDto -> { });
+
+        for (int i = 0; i < 10; i++) {
+            transactionJournal.append(transaction("Tx-" + i));
+        }
+        assertNotNull(transactionJournal.getPending("Tx-9"));
+        storing.countDown();
+        transactionJournal.drain();
+
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        assertNull(transactionJournal.getPending("Tx-0"));
+        assertNull(transactionJournal.getPending("Tx-9"));
+    }
+
+    @Test
+    void shouldStartOver_whenTheJournalIsFull() throws IOException {
+        transactionJournal = new TransactionJournal(directory, 512, 1, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> { });
+
+        long sequence = 0;
+        for (int i = 0; i < 50; i++) {
+            sequence = transactionJournal.append(transaction("Tx-" + i));
+        }
+        transactionJournal.awaitDurable(sequence);
+        List<TransactionDto> transactionDtoList = TransactionJournal.read(directory);
+
+        assertFalse(transactionDtoList.isEmpty());
+        assertTrue(transactionDtoList.size() < 50);
+        assertEquals("Tx-49", transactionDtoList.get(transactionDtoList.size() - 1).getReference());
+    }
+
+    @Test
+    void shouldStopReading_whenARecordIsTorn() throws IOException {
+        transactionJournal = new TransactionJournal(directory, 4096, 1, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> { });
+        transactionJournal.append(transaction("Tx-1"));
+        transactionJournal.awaitDurable(transactionJournal.append(transaction("Tx-2")));
+        transactionJournal.close();
+        int secondRecordPayload = 2 * Integer.BYTES + TransactionJournal.encode(transaction("Tx-1")).length + 2 * Integer.BYTES;
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(TransactionJournal.FILE_NAME).toFile(), "rw")) {
+            file.seek(secondRecordPayload + 3);
+            file.write('X');
+        }
+
+        List<TransactionDto> transactionDtoList = TransactionJournal.read(directory);
+
+        assertEquals(1, transactionDtoList.size());
+        assertEquals("Tx-1", transactionDtoList.get(0).getReference());
+        transactionJournal = null;
+    }
+
+    @Test
+    void shouldMoveARecordToTheDeadLetters_whenItCannotBeStored() throws IOException {
+        List<String> stored = Collections.synchronizedList(new ArrayList<>());
+        List<String> deadLetters = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch storing = new CountDownLatch(1);
+        transactionJournal = new TransactionJournal(directory, 4096, 100, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> {
+            awaitQuietly(storing);
+            if (batch.stream().anyMatch(transactionDto -> transactionDto.getReference().equals("Tx-2"))) {
+                throw new DataIntegrityViolationException("Unique index or primary key violation");
+            }
+            batch.forEach(transactionDto -> stored.add(transactionDto.getReference()));
+        }, TransactionJournalTest::isTransient, transactionDto -> deadLetters.add(transactionDto.getReference()));
+
+        for (int i = 0; i < 5; i++) {
+            transactionJournal.append(transaction("Tx-" + i));
+        }
+        storing.countDown();
+        transactionJournal.drain();
+        transactionJournal.append(transaction("Tx-5"));
+        transactionJournal.drain();
+
+        assertEquals(Arrays.asList("Tx-0", "Tx-1", "Tx-3", "Tx-4", "Tx-5"), stored);
+        assertEquals(Collections.singletonList("Tx-2"), deadLetters);
+        assertNull(transactionJournal.getPending("Tx-2"));
+        List<TransactionDto> deadLetterList = TransactionJournal.readDeadLetters(directory);
+        assertEquals(1, deadLetterList.size());
+        assertEquals("Tx-2", deadLetterList.get(0).getReference());
+    }
+
+    @Test
+    void shouldRetryTheBatch_whenTheFailureIsTransient() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> deadLetters = Collections.synchronizedList(new ArrayList<>());
+        transactionJournal = new TransactionJournal(directory, 4096, 100, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new QueryTimeoutException("Timeout trying to lock table");
+            }
+        }, TransactionJournalTest::isTransient, transactionDto -> deadLetters.add(transactionDto.getReference()));
+
+        transactionJournal.append(transaction("Tx-1"));
+        transactionJournal.drain();
+
+        assertEquals(2, attempts.get());
+        assertTrue(deadLetters.isEmpty());
+        assertTrue(TransactionJournal.readDeadLetters(directory).isEmpty());
+    }
+
+    @Test
+    void shouldDeadLetterTheRecordThatCannotBeStored_whenRecovering() throws IOException {
+        Path crashed = directory.resolve("crashed");
+        Path restarted = directory.resolve("restarted");
+        CountDownLatch storing = new CountDownLatch(1);
+        TransactionJournal crashedJournal = new TransactionJournal(crashed, 4096, 1, Duration.ofMillis(1), 100);
+        crashedJournal.start(batch -> awaitQuietly(storing), TransactionJournalTest::isTransient, transactionDto -> { });
+        for (int i = 0; i < 4; i++) {
+            crashedJournal.awaitDurable(crashedJournal.append(transaction("Tx-" + i)));
+        }
+        Files.createDirectories(restarted);
+        Files.copy(crashed.resolve(TransactionJournal.FILE_NAME), restarted.resolve(TransactionJournal.FILE_NAME));
+        storing.countDown();
+        crashedJournal.close();
+        List<String> stored = new ArrayList<>();
+        List<String> deadLetters = new ArrayList<>();
+        Consumer<List<TransactionDto>> store = batch -> {
+            if (batch.stream().anyMatch(transactionDto -> transactionDto.getReference().equals("Tx-1"))) {
+                throw new DataIntegrityViolationException("Value too long for column");
+            }
+            batch.forEach(transactionDto -> stored.add(transactionDto.getReference()));
+        };
+
+        transactionJournal = new TransactionJournal(restarted, 4096, 1, Duration.ofMillis(1), 2);
+        int recovered = transactionJournal.recover(store, TransactionJournalTest::isTransient, transactionDto -> deadLetters.add(transactionDto.getReference()));
+        transactionJournal.close();
+        transactionJournal = new TransactionJournal(restarted, 4096, 1, Duration.ofMillis(1), 2);
+        int recoveredAgain = transactionJournal.recover(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> deadLetters.add(transactionDto.getReference()));
+
+        assertEquals(4, recovered);
+        assertEquals(Arrays.asList("Tx-0", "Tx-2", "Tx-3"), stored);
+        assertEquals(Collections.singletonList("Tx-1"), deadLetters);
+        assertEquals(3, recoveredAgain);
+        assertEquals(1, TransactionJournal.readDeadLetters(restarted).size());
+    }
+
+    @Test
+    void shouldDiscardTheRecoveredRecords_whenTheJournalStarts() throws IOException {
+        transactionJournal = new TransactionJournal(directory, 4096, 1, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> { });
+        transactionJournal.awaitDurable(transactionJournal.append(transaction("Tx-1")));
+        transactionJournal.close();
+
+        transactionJournal = new TransactionJournal(directory, 4096, 1, Duration.ofMillis(1), 100);
+        transactionJournal.start(batch -> { }, TransactionJournalTest::isTransient, transactionDto -> { });
+
+        assertTrue(TransactionJournal.read(directory).isEmpty());
+    }
+
+    private static boolean isTransient(RuntimeException failure) {
+        return failure instanceof TransientDataAccessException;
+    }
+
+    private static TransactionDto transaction(String reference) {
+        return new TransactionDto(reference, "ES10123456789098765432", null, BigDecimal.TEN, BigDecimal.ONE, "");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.rfc.transactions.mapper;
+
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import com.rfc.transactions.projection.TransactionRow;
+import org.dozer.DozerBeanMapper;
+import org.dozer.loader.api.BeanMappingBuilder;
+import org.dozer.loader.api.TypeMappingOptions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionMapperTest {
+
+    private final TransactionMapper transactionMapper = new TransactionMapper(Clock.systemDefaultZone());
+
+    @Test
+    void shouldMapEveryFieldFromDtoToEntity() {
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES10123456789098765432", new Date(), BigDecimal.TEN, BigDecimal.ONE, "TxDescription");
+
+        TransactionsEntity transactionsEntity = transactionMapper.toEntity(transactionDto);
+
+        assertNull(transactionsEntity.getId());
+        assertEquals(transactionDto.getReference(), transactionsEntity.getReference());
+        assertEquals(transactionDto.getAccountIBAN(), transactionsEntity.getAccountIBAN());
+        assertEquals(transactionDto.getDate(), transactionsEntity.getDate());
+        assertNotSame(transactionDto.getDate(), transactionsEntity.getDate());
+        assertEquals(transactionDto.getAmmount(), transactionsEntity.getAmmount());
+        assertEquals(transactionDto.getFee(), transactionsEntity.getFee());
+        assertEquals(transactionDto.getDescription(), transactionsEntity.getDescription());
+    }
+
+    @Test
+    void shouldMapEveryFieldFromEntityToDto() {
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", "ES10123456789098765432", new Timestamp(System.currentTimeMillis()), BigDecimal.TEN, BigDecimal.ONE, "TxDescription");
+
+        TransactionDto transactionDto = transactionMapper.toDto(transactionsEntity);
+
+        assertEquals(transactionsEntity.getReference(), transactionDto.getReference());
+        assertEquals(transactionsEntity.getAccountIBAN(), transactionDto.getAccountIBAN());
+        assertEquals(Date.class, transactionDto.getDate().getClass());
+        assertEquals(transactionsEntity.getDate().getTime(), transactionDto.getDate().getTime());
+        assertEquals(transactionsEntity.getAmmount(), transactionDto.getAmmount());
+        assertEquals(transactionsEntity.getFee(), transactionDto.getFee());
+        assertEquals(transactionsEntity.getDescription(), transactionDto.getDescription());
+    }
+
+    @Test
+    void shouldMapAnEntityToAnImmutableSnapshot() {
+        Timestamp date = new Timestamp(System.currentTimeMillis());
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", "ES10123456789098765432", date, BigDecimal.TEN, BigDecimal.ONE, "TxDescription");
+
+        TransactionSnapshot transactionSnapshot = transactionMapper.toSnapshot(transactionsEntity);
+        date.setTime(0);
+
+        assertEquals(transactionsEntity.getReference(), transactionSnapshot.getReference());
+        assertEquals(transactionsEntity.getAccountIBAN(), transactionSnapshot.getAccountIBAN());
+        assertEquals(LocalDate.now().toEpochDay(), transactionSnapshot.getEpochDay());
+        assertEquals(1000, transactionSnapshot.getAmmount());
+        assertEquals(100, transactionSnapshot.getFee());
+    }
+
+    @Test
+    void shouldMapAProjectionRowToDtoAndSnapshot() {
+        long date = System.currentTimeMillis();
+        TransactionRow transactionRow = new TransactionRow(1, "TxReference", "ES10123456789098765432", date, 1050, -25, "TxDescription");
+
+        TransactionDto transactionDto = transactionMapper.toDto(transactionRow);
+        TransactionSnapshot transactionSnapshot = transactionMapper.toSnapshot(transactionRow);
+
+        assertEquals("TxReference", transactionDto.getReference());
+        assertEquals("ES10123456789098765432", transactionDto.getAccountIBAN());
+        assertEquals(new Date(date), transactionDto.getDate());
+        assertEquals(new BigDecimal("10.50"), transactionDto.getAmmount());
+        assertEquals(new BigDecimal("-0.25"), transactionDto.getFee());
+        assertEquals("TxDescription", transactionDto.getDescription());
+        assertEquals(LocalDate.now().toEpochDay(), transactionSnapshot.getEpochDay());
+        assertEquals(1050, transactionSnapshot.getAmmount());
+        assertNull(transactionMapper.toDto(new TransactionRow(1, "TxReference", "ES10123456789098765432", TransactionRow.UNDATED, 0, 0, null)).getDate());
+    }
+
+    @Test
+    void shouldMapNullFields() {
+        TransactionDto transactionDto = transactionMapper.toDto(new TransactionsEntity());
+
+        assertNull(transactionDto.getDate());
+        assertNull(transactionDto.getAmmount());
+        assertNull(transactionMapper.toEntity(transactionDto).getDate());
+        assertEquals(TransactionSnapshot.UNDATED, transactionMapper.toSnapshot(new TransactionsEntity()).getEpochDay());
+    }
+
+    @Test
+    void shouldProduceTheSameResultAsDozer_whenEntitiesAreRandom() {
+        DozerBeanMapper dozerBeanMapper = dozerMapper();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            TransactionsEntity transactionsEntity = randomEntity(random, i);
+
+            TransactionDto expectedDto = dozerBeanMapper.map(transactionsEntity, TransactionDto.class);
+            TransactionDto transactionDto = transactionMapper.toDto(transactionsEntity);
+            assertSameDto(expectedDto, transactionDto);
+
+            TransactionsEntity expectedEntity = dozerBeanMapper.map(transactionDto, TransactionsEntity.class);
+            TransactionsEntity mappedEntity = transactionMapper.toEntity(transactionDto);
+            assertSameEntity(expectedEntity, mappedEntity);
+        }
+    }
+
+    private TransactionsEntity randomEntity(Random random, int i) {
+        Date date = random.nextBoolean() ? new Timestamp(random.nextLong() % 4_000_000_000_000L) : null;
+        BigDecimal fee = random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(10_000), 2) : null;
+        String description = random.nextBoolean() ? "Description " + random.nextInt() : null;
+        return new TransactionsEntity(i, "TxReference" + i, "ES" + random.nextInt(1000), date,
+                BigDecimal.valueOf(random.nextLong() % 100_000_000L, 2), fee, description);
+    }
+
+    private void assertSameDto(TransactionDto expected, TransactionDto actual) {
+        assertEquals(expected.getReference(), actual.getReference());
+        assertEquals(expected.getAccountIBAN(), actual.getAccountIBAN());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getAmmount(), actual.getAmmount());
+        assertEquals(expected.getFee(), actual.getFee());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    private void assertSameEntity(TransactionsEntity expected, TransactionsEntity actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getReference(), actual.getReference());
+        assertEquals(expected.getAccountIBAN(), actual.getAccountIBAN());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getAmmount(), actual.getAmmount());
+        assertEquals(expected.getFee(), actual.getFee());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    private DozerBeanMapper dozerMapper() {
+        DozerBeanMapper dozerBeanMapper = new DozerBeanMapper();
+        dozerBeanMapper.addMapping(new BeanMappingBuilder() {
+            @Override
+            protected void configure() {
+                mapping(TransactionDto.class, TransactionsEntity.class, TypeMappingOptions.dateFormat("yyyy-MM-dd"));
+            }
+        });
+        return dozerBeanMapper;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rfc.transactions.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransactionMetrics transactionMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionMetrics = new TransactionMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldRegisterEveryMeterUpFront() {
+        assertEquals(TransactionMetrics.Stage.values().length, meterRegistry.find("transactions.stage").timers().size());
+        assertEquals(TransactionMetrics.Operation.values().length, meterRegistry.find("transactions.inflight").gauges().size());
+        assertEquals(2, meterRegistry.find("transactions.errors").counters().size());
+    }
+
+    @Test
+    void shouldRecordTheStageDuration() {
+        transactionMetrics.record(TransactionMetrics.Stage.ACCOUNT_LOAD, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(1, meterRegistry.get("transactions.stage").tag("stage", "account.load").timer().count());
+        assertTrue(meterRegistry.get("transactions.stage").tag("stage", "account.load").timer().totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(0, meterRegistry.get("transactions.stage").tag("stage", "mapping").timer().count());
+    }
+
+    @Test
+    void shouldTrackOperationsInFlight() {
+        transactionMetrics.enter(TransactionMetrics.Operation.BATCH);
+        transactionMetrics.enter(TransactionMetrics.Operation.BATCH);
+        transactionMetrics.exit(TransactionMetrics.Operation.BATCH);
+
+        assertEquals(1, meterRegistry.get("transactions.inflight").tag("operation", "batch").gauge().value());
+        assertEquals(0, meterRegistry.get("transactions.inflight").tag("operation", "status").gauge().value());
+    }
+
+    @Test
+    void shouldCountErrorsByException() {
+        transactionMetrics.zeroBalance();
+        transactionMetrics.zeroBalance();
+        transactionMetrics.accountNotFound();
+
+        assertEquals(2, meterRegistry.get("transactions.errors").tag("exception", "ZeroBalanceException").counter().count());
+        assertEquals(1, meterRegistry.get("transactions.errors").tag("exception", "AccountNotFoundException").counter().count());
+    }
+
+    @Test
+    void shouldCountAdmissionOutcomes() {
+        transactionMetrics.admitted();
+        transactionMetrics.admitted();
+        transactionMetrics.rateLimited();
+        transactionMetrics.shed();
+
+        assertEquals(2, meterRegistry.get("transactions.admission").tag("outcome", "admitted").counter().count());
+        assertEquals(1, meterRegistry.get("transactions.admission").tag("outcome", "rate.limited").counter().count());
+        assertEquals(1, meterRegistry.get("transactions.admission").tag("outcome", "shed").counter().count());
+    }
+}
@@ -0,0 +1,140 @@
+package com.rfc.transactions.projection;
+
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionProjectionTest {
+
+    private static final String IBAN = "ES10123456789098765432";
+
+    private static final String OTHER_IBAN = "ES20123456789098765432";
+
+    private TransactionProjection transactionProjection;
+
+    @BeforeEach
+    void setUp() {
+        transactionProjection = new TransactionProjection();
+        transactionProjection.add(Arrays.asList(entity(1, IBAN, "30.00"), entity(2, OTHER_IBAN, "5.00"), entity(3, IBAN, "-10.00")));
+        transactionProjection.add(Arrays.asList(entity(5, IBAN, "30.00"), entity(4, IBAN, "20.00")));
+    }
+
+    @Test
+    void shouldListTheTransactionsOfAnAccount_inEveryOrder() {
+        assertEquals(Arrays.asList(1, 3, 4, 5), ids(transactionProjection.list(IBAN, null)));
+        assertEquals(Arrays.asList(3, 4, 1, 5), ids(transactionProjection.list(IBAN, SortDirectionDto.ASC)));
+        assertEquals(Arrays.asList(5, 1, 4, 3), ids(transactionProjection.list(IBAN, SortDirectionDto.DESC)));
+        assertTrue(transactionProjection.list("ES99123456789098765432", null).isEmpty());
+    }
+
+    @Test
+    void shouldListTheTransactionsOfEveryAccount_whenThereIsNoIban() {
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids(transactionProjection.list(null, null)));
+        assertEquals(Arrays.asList(3, 2, 4, 1, 5), ids(transactionProjection.list("", SortDirectionDto.ASC)));
+        assertEquals(Arrays.asList(5, 1, 4, 2, 3), ids(transactionProjection.list(null, SortDirectionDto.DESC)));
+    }
+
+    @Test
+    void shouldPageAfterTheCursor_inBothDirections() {
+        assertEquals(Arrays.asList(3, 4), ids(transactionProjection.page(IBAN, false, null, 2)));
+        assertEquals(Arrays.asList(1, 5), ids(transactionProjection.page(IBAN, false, cursor(2000, 4), 2)));
+        assertEquals(Arrays.asList(5), ids(transactionProjection.page(IBAN, false, cursor(3000, 1), 2)));
+        assertEquals(Arrays.asList(1, 4), ids(transactionProjection.page(IBAN, true, cursor(3000, 5), 2)));
+        assertEquals(Arrays.asList(3), ids(transactionProjection.page(IBAN, true, cursor(2000, 4), 2)));
+        assertEquals(Arrays.asList(2, 4), ids(transactionProjection.page(null, false, cursor(-1000, 3), 2)));
+        assertEquals(Arrays.asList(4, 2), ids(transactionProjection.page(null, true, cursor(3000, 1), 2)));
+    }
+
+    @Test
+    void shouldKeepTheFirstRow_whenAReferenceIsAddedTwice() {
+        long estimatedBytes = transactionProjection.estimatedBytes();
+
+        transactionProjection.add(Collections.singletonList(entity(1, IBAN, "30.00")));
+
+        assertEquals(5, transactionProjection.size());
+        assertEquals(2, transactionProjection.accounts());
+        assertEquals(estimatedBytes, transactionProjection.estimatedBytes());
+        assertEquals(3000, transactionProjection.get("Tx-1").getAmmount());
+        assertNull(transactionProjection.get("Tx-6"));
+    }
+
+    @Test
+    void shouldMatchASortedCopy_whenRowsArriveInAnyOrder() {
+        TransactionProjection randomProjection = new TransactionProjection();
+        Random random = new Random(42);
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            transactionsEntityList.add(entity(id, IBAN, BigDecimal.valueOf(random.nextInt(200) - 100, 2).toPlainString()));
+        }
+        Collections.shuffle(transactionsEntityList, random);
+        for (int from = 0; from < transactionsEntityList.size(); from += 150) {
+            randomProjection.add(transactionsEntityList.subList(from, Math.min(from + 150, transactionsEntityList.size())));
+        }
+        List<TransactionRow> expected = transactionsEntityList.stream().map(t -> randomProjection.get(t.getReference()))
+                .sorted(TransactionProjection.BY_AMMOUNT).collect(Collectors.toList());
+
+        assertEquals(expected, randomProjection.list(IBAN, SortDirectionDto.ASC));
+        List<TransactionRow> paged = new ArrayList<>();
+        TransactionRow after = null;
+        List<TransactionRow> page;
+        while (!(page = randomProjection.page(IBAN, false, after, 64)).isEmpty()) {
+            paged.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(expected, paged);
+        assertTrue(randomProjection.estimatedBytes() > 2000L * 200);
+    }
+
+    @Test
+    void shouldListAndPageTheMergedAndTheAddedRows_inEveryOrder() {
+        TransactionProjection growingProjection = new TransactionProjection();
+        Random random = new Random(7);
+        List<TransactionRow> added = new ArrayList<>();
+        int id = 0;
+        for (int step = 0; step < 30; step++) {
+            List<TransactionsEntity> transactionsEntityList = new ArrayList<>();
+            for (int i = random.nextInt(200); i >= 0; i--) {
+                id++;
+                transactionsEntityList.add(entity(id, IBAN, BigDecimal.valueOf(random.nextInt(100) - 50, 2).toPlainString()));
+            }
+            growingProjection.add(transactionsEntityList);
+            transactionsEntityList.forEach(t -> added.add(growingProjection.get(t.getReference())));
+            List<TransactionRow> byId = added.stream().sorted(TransactionProjection.BY_ID).collect(Collectors.toList());
+            List<TransactionRow> descending = added.stream().sorted(TransactionProjection.BY_AMMOUNT.reversed()).collect(Collectors.toList());
+
+            assertEquals(byId, growingProjection.list(IBAN, null));
+            assertEquals(descending, growingProjection.list(IBAN, SortDirectionDto.DESC));
+            List<TransactionRow> paged = new ArrayList<>();
+            TransactionRow after = null;
+            List<TransactionRow> page;
+            while (!(page = growingProjection.page(IBAN, true, after, 50)).isEmpty()) {
+                paged.addAll(page);
+                after = cursor(page.get(page.size() - 1).getAmmount(), page.get(page.size() - 1).getId());
+            }
+            assertEquals(descending, paged);
+        }
+        List<TransactionRow> visited = new ArrayList<>();
+        growingProjection.forEach(IBAN, visited::add);
+        assertEquals(new HashSet<>(added), new HashSet<>(visited));
+        assertEquals(added.size(), visited.size());
+    }
+
+    private static TransactionsEntity entity(int id, String IBAN, String ammount) {
+        return new TransactionsEntity(id, "Tx-" + id, IBAN, null, new BigDecimal(ammount), BigDecimal.ZERO, "Description");
+    }
+
+    private static TransactionRow cursor(long ammount, int id) {
+        return new TransactionRow(id, null, null, TransactionRow.UNDATED, ammount, 0, null);
+    }
+
+    private static List<Integer> ids(List<TransactionRow> transactionRows) {
+        return transactionRows.stream().map(TransactionRow::getId).collect(Collectors.toList());
+    }
+}
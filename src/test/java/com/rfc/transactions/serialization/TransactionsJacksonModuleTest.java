@@ -0,0 +1,80 @@
+package com.rfc.transactions.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionsJacksonModuleTest {
+
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    private final ObjectMapper moduleMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new TransactionsJacksonModule()).build();
+
+    @Test
+    void shouldWriteTransactionsLikeTheBeanSerializer() throws Exception {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference", "ES10123456789098765432", new Date(1586476800123L), new BigDecimal("-10.50"), new BigDecimal("1.00"), "Description \"quoted\""),
+                new TransactionDto("TxReference2", "ES10123456789098765432", null, BigDecimal.TEN, null, null));
+
+        assertEquals(beanMapper.writeValueAsString(transactionDtoList), moduleMapper.writeValueAsString(transactionDtoList));
+    }
+
+    @Test
+    void shouldWriteDatesLikeTheDefaultDateFormat() throws Exception {
+        List<TransactionDto> transactionDtoList = new ArrayList<>();
+        for (long millis : new long[]{0L, -1L, 951782400000L, 951868799999L, -2208988800000L, -2208988800001L, -62167219200000L, 253402300799999L, 253402300800000L}) {
+            transactionDtoList.add(new TransactionDto("TxReference", "IBAN", new Date(millis), BigDecimal.ONE, null, null));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            transactionDtoList.add(new TransactionDto("TxReference", "IBAN", new Date(random.nextLong() % 253402300800000L), BigDecimal.ONE, null, null));
+        }
+
+        assertEquals(beanMapper.writeValueAsString(transactionDtoList), moduleMapper.writeValueAsString(transactionDtoList));
+    }
+
+    @Test
+    void shouldKeepTheDateSettingsOfTheMapper() throws Exception {
+        List<TransactionDto> transactionDtoList = Collections.singletonList(new TransactionDto("TxReference", "IBAN", new Date(1586476800123L), BigDecimal.ONE, null, null));
+
+        assertEquals(beanMapper.writer(new SimpleDateFormat("yyyy-MM-dd")).writeValueAsString(transactionDtoList),
+                moduleMapper.writer(new SimpleDateFormat("yyyy-MM-dd")).writeValueAsString(transactionDtoList));
+        assertEquals(beanMapper.writer().with(TimeZone.getTimeZone("Europe/Madrid")).writeValueAsString(transactionDtoList),
+                moduleMapper.writer().with(TimeZone.getTimeZone("Europe/Madrid")).writeValueAsString(transactionDtoList));
+        assertTrue(moduleMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(transactionDtoList).contains("\"date\":1586476800123"));
+    }
+
+    @Test
+    void shouldWriteStatusesLikeTheBeanSerializer() throws Exception {
+        List<TransactionStatusDto> transactionStatusDtoList = Arrays.asList(
+                new TransactionStatusDto("TxReference", StatusDto.SETTLED, new BigDecimal("9.00"), new BigDecimal("1.00")),
+                new TransactionStatusDto("Unknown", StatusDto.INVALID, null, null));
+
+        assertEquals(beanMapper.writeValueAsString(transactionStatusDtoList), moduleMapper.writeValueAsString(transactionStatusDtoList));
+    }
+
+    @Test
+    void shouldWriteDatesAsTimestamps_whenTheMapperDoes() throws Exception {
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new TransactionsJacksonModule()).build();
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES10123456789098765432", new Date(1586476800123L), BigDecimal.ONE, BigDecimal.ZERO, null);
+
+        TransactionDto read = smileMapper.readValue(smileMapper.writeValueAsBytes(transactionDto), TransactionDto.class);
+
+        assertEquals(1586476800123L, smileMapper.readTree(smileMapper.writeValueAsBytes(transactionDto)).get("date").asLong());
+        assertEquals(transactionDto.getDate(), read.getDate());
+        assertEquals(transactionDto.getAmmount(), read.getAmmount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountLockServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private AccountLockService accountLockService;
+
+    @BeforeEach
+    void setUp() {
+        accountLockService = new AccountLockService(new TransactionsProperties(), transactionManager);
+    }
+
+    @Test
+    void shouldRunTheOperationInsideATransactionAndCommit() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+
+        String result = accountLockService.executeLocked(1, () -> "done");
+
+        assertEquals("done", result);
+        verify(transactionManager).commit(transactionStatus);
+        verify(transactionManager, times(0)).rollback(any());
+    }
+
+    @Test
+    void shouldRunTheStepBeforeTheTransaction_underTheLock() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+
+        String result = accountLockService.executeLocked(1, () -> {
+            assertTrue(((ReentrantLock) accountLockService.getLock(1)).isHeldByCurrentThread());
+            verify(transactionManager, times(0)).getTransaction(any());
+        }, () -> "done");
+
+        assertEquals("done", result);
+        verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    void shouldRollbackAndReleaseTheLock_whenTheOperationFails() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+
+        assertThrows(IllegalStateException.class, () -> accountLockService.executeLocked(1, () -> {
+            throw new IllegalStateException();
+        }));
+
+        verify(transactionManager).rollback(transactionStatus);
+        assertTrue(accountLockService.getLock(1).tryLock());
+    }
+
+    @Test
+    void shouldReturnTheSameLockForTheSameAccount() {
+        assertSame(accountLockService.getLock("ES10123456789098765432"), accountLockService.getLock("ES10123456789098765432"));
+    }
+}
@@ -1,58 +1,145 @@
 package com.rfc.transactions.service;
 
 import com.rfc.transactions.Exceptions.AccountNotFoundException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
 import com.rfc.transactions.model.entity.AccountEntity;
 import com.rfc.transactions.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class AccountServiceTest {
 
+    private static final String IBAN = "ES10123456789098765432";
+
     @Mock
     private AccountRepository accountRepository;
 
-    @InjectMocks
+    @Spy
+    private TransactionMetrics transactionMetrics = new TransactionMetrics(new SimpleMeterRegistry());
+
     private AccountService accountService;
 
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService(new TransactionsProperties(), accountRepository, transactionMetrics);
+    }
+
     @Test
-    void shouldFindAnAccountEntity_whenIdExists() {
-        when(accountRepository.findById(eq(1))).thenReturn(Optional.of(new AccountEntity(1, BigDecimal.ONE)));
+    void shouldFindAnAccountEntity_whenIbanExists() {
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.of(new AccountEntity(1, IBAN, BigDecimal.ONE)));
 
-        AccountEntity accountEntity = accountService.getAccountById();
+        AccountEntity accountEntity = accountService.getAccountByIban(IBAN);
 
         assertNotNull(accountEntity);
     }
 
     @Test
-    void shouldThrowAnAccountNotFoundException_whenIdNotExists() {
-        when(accountRepository.findById(eq(1))).thenReturn(Optional.empty());
+    void shouldThrowAnAccountNotFoundException_whenIbanNotExists() {
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountByIban(IBAN));
+        verify(transactionMetrics).accountNotFound();
+    }
+
+    @Test
+    void shouldReadTheAccountById_whenTheIndexIsWarm() {
+        AccountRepository.AccountIdView accountIdView = mock(AccountRepository.AccountIdView.class);
+        when(accountIdView.getId()).thenReturn(7);
+        when(accountIdView.getIban()).thenReturn(IBAN);
+        when(accountRepository.findAllProjectedBy()).thenReturn(Collections.singletonList(accountIdView));
+        when(accountRepository.findById(eq(7))).thenReturn(Optional.of(new AccountEntity(7, IBAN, BigDecimal.ONE)));
+        accountService.warmUp();
+
+        AccountEntity accountEntity = accountService.getOrCreateAccount(IBAN);
+
+        assertEquals(7, accountEntity.getId());
+        verify(accountRepository, times(0)).findByIban(anyString());
+        verify(accountRepository, times(0)).save(any());
+    }
+
+    @Test
+    void shouldFallBackToTheIban_whenTheIndexIsStale() {
+        AccountRepository.AccountIdView accountIdView = mock(AccountRepository.AccountIdView.class);
+        when(accountIdView.getId()).thenReturn(7);
+        when(accountIdView.getIban()).thenReturn(IBAN);
+        when(accountRepository.findAllProjectedBy()).thenReturn(Collections.singletonList(accountIdView));
+        when(accountRepository.findById(eq(7))).thenReturn(Optional.empty());
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.of(new AccountEntity(8, IBAN, BigDecimal.ONE)));
+        accountService.warmUp();
+
+        assertEquals(8, accountService.getOrCreateAccount(IBAN).getId());
+        when(accountRepository.findById(eq(8))).thenReturn(Optional.of(new AccountEntity(8, IBAN, BigDecimal.ONE)));
+        assertEquals(8, accountService.getOrCreateAccount(IBAN).getId());
+        verify(accountRepository).findByIban(eq(IBAN));
+    }
+
+    @Test
+    void shouldCreateAnAccountWithZeroBalance_whenIbanNotExists() {
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.empty());
+        when(accountRepository.save(any(AccountEntity.class))).thenAnswer(invocation -> {
+            AccountEntity accountEntity = invocation.getArgument(0);
+            accountEntity.setId(3);
+            return accountEntity;
+        });
+
+        AccountEntity accountEntity = accountService.getOrCreateAccount(IBAN);
+
+        assertEquals(IBAN, accountEntity.getIban());
+        assertEquals(BigDecimal.ZERO, accountEntity.getBalance());
+        when(accountRepository.findById(eq(3))).thenReturn(Optional.of(accountEntity));
+        assertSame(accountEntity, accountService.getOrCreateAccount(IBAN));
+        verify(accountRepository).save(any());
+    }
+
+    @Test
+    void shouldRefuseATransactionForAnUnknownIban_whenCreationIsDisabled() {
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountForTransaction(IBAN));
+        assertThrows(AccountNotFoundException.class, () -> accountService.getStoredBalance(IBAN));
+        verify(accountRepository, times(0)).save(any());
+    }
 
-        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountById());
+    @Test
+    void shouldCreateTheAccountOfATransaction_whenCreationIsEnabled() {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getAccounts().setCreateMissing(true);
+        accountService = new AccountService(transactionsProperties, accountRepository, transactionMetrics);
+        when(accountRepository.findByIban(eq(IBAN))).thenReturn(Optional.empty());
+        when(accountRepository.save(any(AccountEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(BigDecimal.ZERO, accountService.getStoredBalance(IBAN));
+        assertEquals(IBAN, accountService.getAccountForTransaction(IBAN).getIban());
+        verify(accountRepository).save(any());
     }
 
     @Test
     void shouldSaveAnAccountEntity() {
-        AccountEntity accountEntityToSave = new AccountEntity(BigDecimal.TEN);
-        AccountEntity accountEntitySaved = new AccountEntity(1, accountEntityToSave.getBalance());
+        AccountEntity accountEntityToSave = new AccountEntity(IBAN, BigDecimal.TEN);
+        AccountEntity accountEntitySaved = new AccountEntity(1, IBAN, accountEntityToSave.getBalance());
         when(accountRepository.save(eq(accountEntityToSave))).thenReturn(accountEntitySaved);
 
         accountEntitySaved = accountService.updateAccount(accountEntityToSave);
 
         verify(accountRepository).save(any());
+        verify(accountRepository).flush();
         assertNotNull(accountEntitySaved);
     }
 }
@@ -0,0 +1,163 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.AccountBalanceDto;
+import com.rfc.transactions.model.dto.DailyStatementDto;
+import com.rfc.transactions.model.entity.AccountEntity;
+import com.rfc.transactions.model.entity.DailyBalanceEntity;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.repository.DailyBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountStatementServiceTest {
+
+    private static final String IBAN = "ES10123456789098765432";
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private static final LocalDate TODAY = LocalDate.of(2020, 4, 10);
+
+    @Mock
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountLockService accountLockService;
+
+    @Mock
+    private WriteBehindService writeBehindService;
+
+    @Captor
+    private ArgumentCaptor<Collection<DailyBalanceEntity>> dailyBalancesCaptor;
+
+    private AccountStatementService accountStatementService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(TODAY.atTime(12, 0).atZone(ZONE).toInstant(), ZONE);
+        accountStatementService = new AccountStatementService(dailyBalanceRepository, accountService, accountLockService, new TransactionMapper(clock), new DayBoundary(clock), writeBehindService);
+    }
+
+    @Test
+    void shouldAddTheMovementsToTheDailyBalanceOfEachDay() {
+        DailyBalanceEntity yesterday = new DailyBalanceEntity(1, IBAN, TODAY.minusDays(1), BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.TEN, BigDecimal.valueOf(40), 1);
+        when(dailyBalanceRepository.findByAccountIBANAndDayIn(eq(IBAN), any())).thenReturn(Collections.singletonList(yesterday));
+        when(dailyBalanceRepository.findFirstByAccountIBANAndDayLessThanEqualOrderByDayDesc(IBAN, TODAY)).thenReturn(Optional.of(yesterday));
+
+        accountStatementService.onTransactionsCreated(new TransactionsCreatedEvent(Arrays.asList(
+                transaction(TODAY.minusDays(1), "5", "1"),
+                transaction(TODAY.minusDays(1), "-3", "0"),
+                transaction(null, "20", "2"))));
+
+        verify(dailyBalanceRepository).saveAll(dailyBalancesCaptor.capture());
+        Map<LocalDate, DailyBalanceEntity> saved = new HashMap<>();
+        dailyBalancesCaptor.getValue().forEach(d -> saved.put(d.getDay(), d));
+        assertEquals(2, saved.size());
+        assertSame(yesterday, saved.get(TODAY.minusDays(1)));
+        assertEquals(new BigDecimal("15.00"), yesterday.getCredits());
+        assertEquals(new BigDecimal("-3.00"), yesterday.getDebits());
+        assertEquals(new BigDecimal("1.00"), yesterday.getFees());
+        assertEquals(new BigDecimal("11.00"), yesterday.getNet());
+        assertEquals(3, yesterday.getTransactions());
+        assertEquals(new BigDecimal("18.00"), saved.get(TODAY).getNet());
+        assertEquals(1, saved.get(TODAY).getTransactions());
+        assertEquals(new BigDecimal("41.00"), yesterday.getRunningNet());
+        assertEquals(new BigDecimal("59.00"), saved.get(TODAY).getRunningNet());
+        verify(dailyBalanceRepository).addRunningNetBetween(IBAN, TODAY.minusDays(1), TODAY, new BigDecimal("1.00"));
+        verify(dailyBalanceRepository).addRunningNetAfter(IBAN, TODAY, new BigDecimal("19.00"));
+    }
+
+    @Test
+    void shouldStartTheRunningNetAtZero_whenItIsTheFirstDayOfTheAccount() {
+        accountStatementService.onTransactionsCreated(new TransactionsCreatedEvent(Collections.singletonList(transaction(TODAY, "5", "1"))));
+
+        verify(dailyBalanceRepository).saveAll(dailyBalancesCaptor.capture());
+        assertEquals(new BigDecimal("4.00"), dailyBalancesCaptor.getValue().iterator().next().getRunningNet());
+        verify(dailyBalanceRepository).addRunningNetAfter(IBAN, TODAY, new BigDecimal("4.00"));
+    }
+
+    @Test
+    void shouldAnchorOnTheNearestDayBeforeTheDate_whenTheBalanceAtADateIsRequested() {
+        when(accountLockService.executeLocked(eq(IBAN), any(), any())).thenAnswer(AccountStatementServiceTest::runLocked);
+        when(accountService.getAccountByIban(eq(IBAN))).thenReturn(new AccountEntity(1, IBAN, BigDecimal.valueOf(100)));
+        when(dailyBalanceRepository.findFirstByAccountIBANOrderByDayDesc(IBAN)).thenReturn(Optional.of(dailyBalance(TODAY, 10, 50)));
+        when(dailyBalanceRepository.findFirstByAccountIBANAndDayLessThanEqualOrderByDayDesc(IBAN, TODAY.minusDays(2))).thenReturn(Optional.of(dailyBalance(TODAY.minusDays(4), 20, 20)));
+
+        AccountBalanceDto accountBalanceDto = accountStatementService.getBalance(IBAN, TODAY.minusDays(2));
+
+        assertEquals(IBAN, accountBalanceDto.getAccountIBAN());
+        assertEquals(BigDecimal.valueOf(70), accountBalanceDto.getBalance());
+    }
+
+    @Test
+    void shouldReturnTheInitialBalance_whenNoDayIsOnOrBeforeTheDate() {
+        when(accountLockService.executeLocked(eq(IBAN), any(), any())).thenAnswer(AccountStatementServiceTest::runLocked);
+        when(accountService.getAccountByIban(eq(IBAN))).thenReturn(new AccountEntity(1, IBAN, BigDecimal.valueOf(100)));
+        when(dailyBalanceRepository.findFirstByAccountIBANOrderByDayDesc(IBAN)).thenReturn(Optional.of(dailyBalance(TODAY, 10, 50)));
+
+        assertEquals(BigDecimal.valueOf(50), accountStatementService.getBalance(IBAN, TODAY.minusDays(30)).getBalance());
+    }
+
+    @Test
+    void shouldReturnTheCurrentBalance_whenThereIsNoDate() {
+        when(accountLockService.executeLocked(eq(IBAN), any(), any())).thenAnswer(AccountStatementServiceTest::runLocked);
+        when(accountService.getAccountByIban(eq(IBAN))).thenReturn(new AccountEntity(1, IBAN, BigDecimal.valueOf(100)));
+
+        AccountBalanceDto accountBalanceDto = accountStatementService.getBalance(IBAN, null);
+
+        assertEquals(BigDecimal.valueOf(100), accountBalanceDto.getBalance());
+        verifyNoInteractions(dailyBalanceRepository);
+    }
+
+    @Test
+    void shouldComputeTheClosingBalanceOfEveryDay() {
+        when(accountLockService.executeLocked(eq(IBAN), any(), any())).thenAnswer(AccountStatementServiceTest::runLocked);
+        when(accountService.getAccountByIban(eq(IBAN))).thenReturn(new AccountEntity(1, IBAN, BigDecimal.valueOf(100)));
+        when(dailyBalanceRepository.findFirstByAccountIBANOrderByDayDesc(IBAN)).thenReturn(Optional.of(dailyBalance(TODAY.plusDays(1), 5, 14)));
+        when(dailyBalanceRepository.findByAccountIBANAndDayBetweenOrderByDayAsc(eq(IBAN), eq(TODAY.minusDays(5)), eq(TODAY))).thenReturn(Arrays.asList(
+                new DailyBalanceEntity(1, IBAN, TODAY.minusDays(3), BigDecimal.valueOf(20), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(20), BigDecimal.valueOf(20), 1),
+                new DailyBalanceEntity(2, IBAN, TODAY, BigDecimal.ZERO, BigDecimal.valueOf(-10), BigDecimal.ONE, BigDecimal.valueOf(-11), BigDecimal.valueOf(9), 1)));
+
+        List<DailyStatementDto> statement = accountStatementService.getStatement(IBAN, TODAY.minusDays(5), TODAY);
+
+        assertEquals(2, statement.size());
+        assertEquals(TODAY.minusDays(3), statement.get(0).getDay());
+        assertEquals(BigDecimal.valueOf(106), statement.get(0).getClosingBalance());
+        assertEquals(BigDecimal.valueOf(95), statement.get(1).getClosingBalance());
+    }
+
+    private static DailyBalanceEntity dailyBalance(LocalDate day, long net, long runningNet) {
+        return new DailyBalanceEntity(null, IBAN, day, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(net), BigDecimal.valueOf(runningNet), 1);
+    }
+
+    private TransactionsEntity transaction(LocalDate day, String ammount, String fee) {
+        Date date = Objects.isNull(day) ? null : Date.from(day.atTime(9, 0).atZone(ZONE).toInstant());
+        return new TransactionsEntity("Tx" + ammount, IBAN, date, new BigDecimal(ammount), new BigDecimal(fee), "");
+    }
+
+    private static Object runLocked(InvocationOnMock invocation) {
+        ((Runnable) invocation.getArgument(1)).run();
+        return ((Supplier<?>) invocation.getArgument(2)).get();
+    }
+}
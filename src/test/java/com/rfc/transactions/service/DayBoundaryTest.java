@@ -0,0 +1,58 @@
+package com.rfc.transactions.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DayBoundaryTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private static final LocalDate DAY = LocalDate.of(2020, 3, 28);
+
+    private MutableClock clock;
+
+    private DayBoundary dayBoundary;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(LocalDateTime.of(DAY, LocalTime.of(23, 59, 59)).atZone(ZONE).toInstant(), ZONE);
+        dayBoundary = new DayBoundary(clock);
+    }
+
+    @Test
+    void shouldReturnTheCurrentDay() {
+        assertEquals(DAY.toEpochDay(), dayBoundary.today());
+    }
+
+    @Test
+    void shouldMoveToTheNextDay_whenTheClockCrossesMidnightBeforeTheScheduler() {
+        clock.advance(Duration.ofSeconds(1));
+
+        assertEquals(DAY.plusDays(1).toEpochDay(), dayBoundary.today());
+    }
+
+    @Test
+    void shouldMoveToTheNextDay_whenTheSchedulerRefreshes() {
+        clock.advance(Duration.ofSeconds(1));
+        dayBoundary.refresh();
+
+        assertEquals(DAY.plusDays(1).toEpochDay(), dayBoundary.today());
+    }
+
+    @Test
+    void shouldKeepTheDay_whenTheNextDayIsShorter() {
+        clock.advance(Duration.ofHours(23));
+
+        assertEquals(DAY.plusDays(1).toEpochDay(), dayBoundary.today());
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(DAY.plusDays(2).toEpochDay(), dayBoundary.today());
+    }
+}
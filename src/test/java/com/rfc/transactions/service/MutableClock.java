@@ -0,0 +1,37 @@
+package com.rfc.transactions.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+class MutableClock extends Clock {
+
+    private final ZoneId zoneId;
+
+    private volatile Instant instant;
+
+    MutableClock(Instant instant, ZoneId zoneId) {
+        this.instant = instant;
+        this.zoneId = zoneId;
+    }
+
+    void advance(Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zoneId;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
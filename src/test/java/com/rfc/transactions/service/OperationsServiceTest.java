@@ -1,27 +1,58 @@
 package com.rfc.transactions.service;
 
+import com.rfc.transactions.Exceptions.AccountNotFoundException;
+import com.rfc.transactions.Exceptions.InvalidCursorException;
+import com.rfc.transactions.Exceptions.MandatoryFieldsException;
+import com.rfc.transactions.Exceptions.TooManyReferencesException;
 import com.rfc.transactions.Exceptions.ZeroBalanceException;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.BatchItemResultDto;
+import com.rfc.transactions.model.dto.BatchItemStatusDto;
 import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
 import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
 import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
 import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.model.dto.TransactionSubmissionDto;
 import com.rfc.transactions.model.entity.AccountEntity;
 import com.rfc.transactions.model.entity.TransactionsEntity;
-import org.dozer.Mapper;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+
+import static com.rfc.transactions.utils.Cons.ACCOUNT_NOT_FOUND;
+import static com.rfc.transactions.utils.Cons.BALANCE_ZERO_ERROR;
+import static com.rfc.transactions.utils.Cons.DUPLICATED_REFERENCE_ERROR;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -37,7 +68,31 @@ public class OperationsServiceTest {
     private TransactionsService transactionsService;
 
     @Mock
-    private Mapper mapper;
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private AccountLockService accountLockService;
+
+    @Spy
+    private TransactionsProperties transactionsProperties;
+
+    @Mock
+    private TransactionStatusCache transactionStatusCache;
+
+    @Spy
+    private TransactionStatusEvaluator transactionStatusEvaluator = new TransactionStatusEvaluator(new DayBoundary(Clock.systemDefaultZone()));
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private TransactionMetrics transactionMetrics = new TransactionMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private WriteBehindService writeBehindService;
+
+    @Mock
+    private TransactionProjectionService transactionProjectionService;
 
     @InjectMocks
     private OperationsService operationsService;
@@ -49,55 +104,266 @@ public class OperationsServiceTest {
     void shouldSaveANewTransactionWithPositiveAmmount() {
         TransactionDto transactionDto = new TransactionDto(null, "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Transaction Description");
         BigDecimal accountBalance = BigDecimal.valueOf(100);
-        AccountEntity accountEntity = new AccountEntity(1, accountBalance);
-        when(accountService.getAccountById()).thenReturn(accountEntity);
-        when(mapper.map(eq(transactionDto), eq(TransactionsEntity.class))).thenReturn(new TransactionsEntity());
-
-        operationsService.createTransaction(transactionDto);
-
-        verify(accountService).getAccountById();
+        AccountEntity accountEntity = new AccountEntity(1, "ES10123456789098765", accountBalance);
+        when(accountLockService.executeLocked(eq("ES10123456789098765"), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(accountService.getAccountForTransaction(eq("ES10123456789098765"))).thenReturn(accountEntity);
+        when(transactionMapper.toEntity(eq(transactionDto))).thenReturn(new TransactionsEntity());
+
+        TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(transactionDto);
+
+        assertFalse(transactionSubmissionDto.isReplayed());
+        assertNotNull(transactionDto.getReference());
+        verify(transactionStatusCache, times(0)).getTransaction(any());
+        verify(accountLockService).executeLocked(eq("ES10123456789098765"), any());
+        verify(accountService).getAccountForTransaction(eq("ES10123456789098765"));
         verify(accountService).updateAccount(accountEntityCaptor.capture());
         verify(transactionsService).saveTransaction(any(TransactionsEntity.class));
-        verify(mapper).map(eq(transactionDto), eq(TransactionsEntity.class));
+        verify(transactionMapper).toEntity(eq(transactionDto));
+        verify(applicationEventPublisher).publishEvent(any(TransactionsCreatedEvent.class));
         AccountEntity updatedAccountEntity = accountEntityCaptor.getValue();
         assertNotNull(updatedAccountEntity);
         assertEquals(accountEntity.getId(), updatedAccountEntity.getId());
-        assertEquals(accountBalance.add(transactionDto.getAmmount()).subtract(transactionDto.getFee()), updatedAccountEntity.getBalance());
+        assertEquals(0, accountBalance.add(transactionDto.getAmmount()).subtract(transactionDto.getFee()).compareTo(updatedAccountEntity.getBalance()));
     }
 
     @Test
     void shouldSaveANewTransactionWithNegativeAmmount() {
         TransactionDto transactionDto = new TransactionDto(null, "ES10123456789098765", Date.from(Instant.now()), BigDecimal.valueOf(-10), BigDecimal.ONE, "Transaction Description");
         BigDecimal accountBalance = BigDecimal.valueOf(100);
-        AccountEntity accountEntity = new AccountEntity(1, accountBalance);
-        when(accountService.getAccountById()).thenReturn(accountEntity);
-        when(mapper.map(eq(transactionDto), eq(TransactionsEntity.class))).thenReturn(new TransactionsEntity());
+        AccountEntity accountEntity = new AccountEntity(1, "ES10123456789098765", accountBalance);
+        when(accountLockService.executeLocked(eq("ES10123456789098765"), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(accountService.getAccountForTransaction(eq("ES10123456789098765"))).thenReturn(accountEntity);
+        when(transactionMapper.toEntity(eq(transactionDto))).thenReturn(new TransactionsEntity());
 
         operationsService.createTransaction(transactionDto);
 
-        verify(accountService).getAccountById();
+        verify(accountLockService).executeLocked(eq("ES10123456789098765"), any());
+        verify(accountService).getAccountForTransaction(eq("ES10123456789098765"));
         verify(accountService).updateAccount(accountEntityCaptor.capture());
         verify(transactionsService).saveTransaction(any(TransactionsEntity.class));
-        verify(mapper).map(eq(transactionDto), eq(TransactionsEntity.class));
+        verify(transactionMapper).toEntity(eq(transactionDto));
+        verify(applicationEventPublisher).publishEvent(any(TransactionsCreatedEvent.class));
         AccountEntity updatedAccountEntity = accountEntityCaptor.getValue();
         assertNotNull(updatedAccountEntity);
         assertEquals(accountEntity.getId(), updatedAccountEntity.getId());
-        assertEquals(accountBalance.add(transactionDto.getAmmount()).subtract(transactionDto.getFee()), updatedAccountEntity.getBalance());
+        assertEquals(0, accountBalance.add(transactionDto.getAmmount()).subtract(transactionDto.getFee()).compareTo(updatedAccountEntity.getBalance()));
     }
 
     @Test
     void shouldNotSaveANewTransaction_whenResultAccountBalanceIsZeroOrless() {
         TransactionDto transactionDto = new TransactionDto(null, "ES10123456789098765", Date.from(Instant.now()), BigDecimal.valueOf(-10), BigDecimal.ONE, "Transaction Description");
         BigDecimal accountBalance = BigDecimal.TEN;
-        AccountEntity accountEntity = new AccountEntity(1, accountBalance);
-        when(accountService.getAccountById()).thenReturn(accountEntity);
+        AccountEntity accountEntity = new AccountEntity(1, "ES10123456789098765", accountBalance);
+        when(accountLockService.executeLocked(eq("ES10123456789098765"), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(accountService.getAccountForTransaction(eq("ES10123456789098765"))).thenReturn(accountEntity);
 
         assertThrows(ZeroBalanceException.class, () -> operationsService.createTransaction(transactionDto));
+        verify(transactionMetrics).zeroBalance();
 
-        verify(accountService).getAccountById();
+        verify(accountService).getAccountForTransaction(eq("ES10123456789098765"));
         verify(accountService, times(0)).updateAccount(any(AccountEntity.class));
         verify(transactionsService, times(0)).saveTransaction(any(TransactionsEntity.class));
-        verify(mapper, times(0)).map(eq(transactionDto), eq(TransactionsEntity.class));
+        verify(transactionMapper, times(0)).toEntity(eq(transactionDto));
+        verify(applicationEventPublisher, times(0)).publishEvent(any());
+    }
+
+    @Test
+    void shouldReturnTheOriginalTransaction_whenTheReferenceIsAlreadyStored() {
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Retry");
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", "ES10123456789098765", null, BigDecimal.TEN, BigDecimal.ONE, "Original");
+        TransactionDto originalTransactionDto = new TransactionDto("TxReference", "ES10123456789098765", null, BigDecimal.TEN, BigDecimal.ONE, "Original");
+        when(transactionStatusCache.getTransaction(eq("TxReference"))).thenReturn(new TransactionSnapshot("TxReference", "ES10123456789098765", 0, 1000, 100));
+        when(transactionsService.getTransactionByReference(eq("TxReference"))).thenReturn(transactionsEntity);
+        when(transactionMapper.toDto(eq(transactionsEntity))).thenReturn(originalTransactionDto);
+
+        TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(transactionDto);
+
+        assertTrue(transactionSubmissionDto.isReplayed());
+        assertSame(originalTransactionDto, transactionSubmissionDto.getTransaction());
+        verify(accountLockService, times(0)).executeLocked(any(), any());
+    }
+
+    @Test
+    void shouldReturnTheOriginalTransaction_whenTheUniqueReferenceIsViolated() {
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Retry");
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", "ES10123456789098765", null, BigDecimal.TEN, BigDecimal.ONE, "Original");
+        TransactionDto originalTransactionDto = new TransactionDto("TxReference", "ES10123456789098765", null, BigDecimal.TEN, BigDecimal.ONE, "Original");
+        when(accountLockService.executeLocked(eq("ES10123456789098765"), any())).thenThrow(new DataIntegrityViolationException("reference"));
+        when(transactionsService.getTransactionByReference(eq("TxReference"))).thenReturn(transactionsEntity);
+        when(transactionMapper.toDto(eq(transactionsEntity))).thenReturn(originalTransactionDto);
+
+        TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(transactionDto);
+
+        assertTrue(transactionSubmissionDto.isReplayed());
+        assertSame(originalTransactionDto, transactionSubmissionDto.getTransaction());
+    }
+
+    @Test
+    void shouldAcceptTheTransactionIntoTheJournal_whenWriteBehindIsEnabled() {
+        TransactionDto transactionDto = new TransactionDto(null, "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Transaction Description");
+        when(writeBehindService.isEnabled()).thenReturn(true);
+
+        TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(transactionDto);
+
+        ArgumentCaptor<LongUnaryOperator> balanceOperationCaptor = ArgumentCaptor.forClass(LongUnaryOperator.class);
+        verify(writeBehindService).accept(eq(transactionDto), balanceOperationCaptor.capture());
+        assertFalse(transactionSubmissionDto.isReplayed());
+        assertEquals(10_900, balanceOperationCaptor.getValue().applyAsLong(10_000));
+        assertThrows(ZeroBalanceException.class, () -> balanceOperationCaptor.getValue().applyAsLong(-900));
+        verify(accountLockService, times(0)).executeLocked(any(), any());
+        verify(transactionsService, times(0)).saveTransaction(any(TransactionsEntity.class));
+    }
+
+    @Test
+    void shouldReturnTheJournaledTransaction_whenTheReferenceIsNotStoredYet() {
+        TransactionDto transactionDto = new TransactionDto("TxReference", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Retry");
+        TransactionDto pendingTransactionDto = new TransactionDto("TxReference", "ES10123456789098765", null, BigDecimal.TEN, BigDecimal.ONE, "Original");
+        when(writeBehindService.getPending(eq("TxReference"))).thenReturn(pendingTransactionDto);
+
+        TransactionSubmissionDto transactionSubmissionDto = operationsService.createTransaction(transactionDto);
+
+        assertTrue(transactionSubmissionDto.isReplayed());
+        assertSame(pendingTransactionDto, transactionSubmissionDto.getTransaction());
+        verify(writeBehindService, times(0)).accept(any(), any());
+        verify(transactionsService, times(0)).getTransactionByReference(any());
+    }
+
+    @Test
+    void shouldSaveABatchOfTransactionsAndRejectTheInvalidOnes() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference1", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, ""),
+                new TransactionDto("TxReference2", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.valueOf(-200), BigDecimal.ONE, ""),
+                new TransactionDto("TxReference1", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, ""),
+                new TransactionDto("TxReference3", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.TEN, null, ""),
+                new TransactionDto("TxReference4", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.valueOf(-50), BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference5", "ES10123456789098765", Date.from(Instant.now()), BigDecimal.ONE, BigDecimal.ZERO, ""));
+        AccountEntity accountEntity = new AccountEntity(1, "ES10123456789098765", BigDecimal.valueOf(100));
+        when(accountLockService.executeLocked(eq("ES10123456789098765"), any(), any())).thenAnswer(OperationsServiceTest::runLocked);
+        when(transactionsService.getExistingReferences(any())).thenReturn(new HashSet<>(Arrays.asList("TxReference5")));
+        when(accountService.getAccountForTransaction(eq("ES10123456789098765"))).thenReturn(accountEntity);
+        when(transactionMapper.toEntity(any(TransactionDto.class))).thenReturn(new TransactionsEntity());
+
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+
+        verify(accountService).getAccountForTransaction(eq("ES10123456789098765"));
+        verify(accountService).updateAccount(accountEntityCaptor.capture());
+        verify(transactionsService).saveTransactions(argThat(list -> list.size() == 2));
+        verify(applicationEventPublisher).publishEvent(argThat((TransactionsCreatedEvent event) -> event.getTransactions().size() == 2));
+        assertEquals(transactionDtoList.size(), results.size());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(2).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(3).getStatus());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(4).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(5).getStatus());
+        assertEquals(new BigDecimal("59.00"), accountEntityCaptor.getValue().getBalance());
+    }
+
+    @Test
+    void shouldApplyEveryIbanOfABatchUnderItsOwnAccount() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference1", "IBAN1", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, ""),
+                new TransactionDto("TxReference2", "IBAN2", Date.from(Instant.now()), BigDecimal.valueOf(-5), BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference3", "IBAN1", Date.from(Instant.now()), BigDecimal.valueOf(-5), BigDecimal.ZERO, ""));
+        AccountEntity firstAccount = new AccountEntity(1, "IBAN1", BigDecimal.ZERO);
+        AccountEntity secondAccount = new AccountEntity(2, "IBAN2", BigDecimal.ZERO);
+        when(accountLockService.executeLocked(any(), any(), any())).thenAnswer(OperationsServiceTest::runLocked);
+        when(transactionsService.getExistingReferences(any())).thenReturn(new HashSet<>());
+        when(accountService.getAccountForTransaction(eq("IBAN1"))).thenReturn(firstAccount);
+        when(accountService.getAccountForTransaction(eq("IBAN2"))).thenReturn(secondAccount);
+        when(transactionMapper.toEntity(any(TransactionDto.class))).thenReturn(new TransactionsEntity());
+
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+
+        verify(accountLockService).executeLocked(eq("IBAN1"), any(), any());
+        verify(accountLockService).executeLocked(eq("IBAN2"), any(), any());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(2).getStatus());
+        assertEquals(new BigDecimal("4.00"), firstAccount.getBalance());
+        assertEquals(new BigDecimal("0.00"), secondAccount.getBalance());
+    }
+
+    @Test
+    void shouldRejectTheItemsOfAnIbanWithoutAccount_whenABatchIsSubmitted() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference1", "IBAN1", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, ""),
+                new TransactionDto("TxReference2", "UNKNOWN", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference3", "UNKNOWN", Date.from(Instant.now()), BigDecimal.ONE, BigDecimal.ZERO, ""));
+        when(accountLockService.executeLocked(any(), any(), any())).thenAnswer(OperationsServiceTest::runLocked);
+        when(transactionsService.getExistingReferences(any())).thenReturn(new HashSet<>());
+        when(accountService.getAccountForTransaction(eq("IBAN1"))).thenReturn(new AccountEntity(1, "IBAN1", BigDecimal.ZERO));
+        when(accountService.getAccountForTransaction(eq("UNKNOWN"))).thenThrow(new AccountNotFoundException(ACCOUNT_NOT_FOUND));
+        when(transactionMapper.toEntity(any(TransactionDto.class))).thenReturn(new TransactionsEntity());
+
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(ACCOUNT_NOT_FOUND, results.get(1).getError());
+        assertEquals("TxReference3", results.get(2).getReference());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(2).getStatus());
+    }
+
+    @Test
+    void shouldCheckTheReferencesAgain_whenABatchGroupViolatesTheUniqueReference() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference1", "IBAN1", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference2", "IBAN2", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference3", "IBAN2", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""));
+        when(accountLockService.executeLocked(eq("IBAN1"), any(), any())).thenAnswer(OperationsServiceTest::runLocked);
+        when(accountLockService.executeLocked(eq("IBAN2"), any(), any()))
+                .thenAnswer(invocation -> {
+                    runLocked(invocation);
+                    throw new DataIntegrityViolationException("reference");
+                })
+                .thenAnswer(OperationsServiceTest::runLocked);
+        when(transactionsService.getExistingReferences(any())).thenReturn(new HashSet<>(), new HashSet<>(), new HashSet<>(Arrays.asList("TxReference2")));
+        when(accountService.getAccountForTransaction(any())).thenAnswer(invocation -> new AccountEntity(1, invocation.getArgument(0), BigDecimal.ZERO));
+        when(transactionMapper.toEntity(any(TransactionDto.class))).thenReturn(new TransactionsEntity());
+
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+
+        verify(writeBehindService, times(2)).drain(eq("IBAN2"));
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(DUPLICATED_REFERENCE_ERROR, results.get(1).getError());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(2).getStatus());
+    }
+
+    @Test
+    void shouldRejectTheItemsOfABatchGroup_whenItKeepsViolatingTheUniqueReference() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("TxReference1", "IBAN1", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference2", "IBAN2", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ZERO, ""),
+                new TransactionDto("TxReference3", "IBAN2", Date.from(Instant.now()), BigDecimal.valueOf(-10), BigDecimal.ZERO, ""));
+        when(accountLockService.executeLocked(eq("IBAN1"), any(), any())).thenAnswer(OperationsServiceTest::runLocked);
+        when(accountLockService.executeLocked(eq("IBAN2"), any(), any())).thenAnswer(invocation -> {
+            runLocked(invocation);
+            throw new DataIntegrityViolationException("reference");
+        });
+        when(transactionsService.getExistingReferences(any())).thenReturn(new HashSet<>());
+        when(accountService.getAccountForTransaction(any())).thenAnswer(invocation -> new AccountEntity(1, invocation.getArgument(0), BigDecimal.ZERO));
+        when(transactionMapper.toEntity(any(TransactionDto.class))).thenReturn(new TransactionsEntity());
+
+        List<BatchItemResultDto> results = operationsService.createTransactions(transactionDtoList);
+
+        verify(accountLockService, times(2)).executeLocked(eq("IBAN2"), any(), any());
+        assertEquals(3, results.size());
+        assertEquals(BatchItemStatusDto.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(1).getStatus());
+        assertEquals(DUPLICATED_REFERENCE_ERROR, results.get(1).getError());
+        assertEquals(BatchItemStatusDto.REJECTED, results.get(2).getStatus());
+        assertEquals(BALANCE_ZERO_ERROR, results.get(2).getError());
+    }
+
+    @Test
+    void shouldNotSaveANewTransaction_whenMandatoryFieldsAreMissing() {
+        TransactionDto transactionDto = new TransactionDto(null, null, Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "Transaction Description");
+
+        assertThrows(MandatoryFieldsException.class, () -> operationsService.createTransaction(transactionDto));
+
+        verify(accountLockService, times(0)).executeLocked(any(), any());
     }
 
     @Test
@@ -106,12 +372,12 @@ public class OperationsServiceTest {
         TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, "");
         TransactionDto transactionDto = new TransactionDto(transactionsEntity.getReference(), transactionsEntity.getAccountIBAN(), null, transactionsEntity.getAmmount(), transactionsEntity.getFee(), "");
         when(transactionsService.getFilterTransactions(eq(IBAN), eq(null))).thenReturn(Arrays.asList(transactionsEntity));
-        when(mapper.map(any(TransactionsEntity.class), eq(TransactionDto.class))).thenReturn(transactionDto);
+        when(transactionMapper.toDto(any(TransactionsEntity.class))).thenReturn(transactionDto);
 
         List<TransactionDto> transactionDtoList = operationsService.getFilterTransactions(IBAN, null);
 
         verify(transactionsService).getFilterTransactions(eq(IBAN), eq(null));
-        verify(mapper).map(any(TransactionsEntity.class), eq(TransactionDto.class));
+        verify(transactionMapper).toDto(any(TransactionsEntity.class));
         assertNotNull(transactionDtoList);
         TransactionDto transactionDtoMapped = transactionDtoList.get(0);
         assertEquals(transactionsEntity.getReference(), transactionDtoMapped.getReference());
@@ -120,15 +386,76 @@ public class OperationsServiceTest {
         assertEquals(transactionsEntity.getFee(), transactionDtoMapped.getFee());
     }
 
+    @Test
+    void shouldGetFilterTransactionsFromTheProjection_whenItIsReady() {
+        List<TransactionDto> transactionDtoList = Arrays.asList(new TransactionDto("TxReference", "IBAN", null, BigDecimal.ONE, BigDecimal.ZERO, ""));
+        when(transactionProjectionService.isReady()).thenReturn(true);
+        when(transactionProjectionService.getFilterTransactions(eq("IBAN"), eq(SortDirectionDto.DESC))).thenReturn(transactionDtoList);
+
+        assertSame(transactionDtoList, operationsService.getFilterTransactions("IBAN", SortDirectionDto.DESC));
+        verifyNoInteractions(transactionsService);
+    }
+
+    @Test
+    void shouldGetATransactionPageWithTheNextCursor_whenThePageIsFull() {
+        String IBAN = "IBAN";
+        List<TransactionsEntity> transactionsEntityList = Arrays.asList(
+                new TransactionsEntity(3, "TxReference3", IBAN, null, BigDecimal.valueOf(2), BigDecimal.ZERO, ""),
+                new TransactionsEntity(7, "TxReference7", IBAN, null, BigDecimal.valueOf(5), BigDecimal.ZERO, ""));
+        when(transactionsService.getTransactionsPage(eq(IBAN), eq(SortDirectionDto.ASC), argThat(c -> c.getId() == 1 && c.getAmmount().equals(new BigDecimal("1.00"))), eq(2))).thenReturn(transactionsEntityList);
+        when(transactionMapper.toDto(any(TransactionsEntity.class))).thenReturn(new TransactionDto());
+
+        TransactionPageDto transactionPageDto = operationsService.getTransactionsPage(IBAN, SortDirectionDto.ASC, "1.00,1", 2);
+
+        assertEquals(2, transactionPageDto.getTransactions().size());
+        assertEquals("5,7", transactionPageDto.getNextCursor());
+    }
+
+    @Test
+    void shouldGetTheLastTransactionPageWithoutNextCursor_whenThePageIsNotFull() {
+        transactionsProperties.getListing().setMaxPageSize(5);
+        when(transactionsService.getTransactionsPage(eq(null), eq(null), eq(null), eq(5))).thenReturn(new ArrayList<>());
+
+        TransactionPageDto transactionPageDto = operationsService.getTransactionsPage(null, null, null, 50);
+
+        verify(transactionsService).getTransactionsPage(eq(null), eq(null), eq(null), eq(5));
+        assertTrue(transactionPageDto.getTransactions().isEmpty());
+        assertNull(transactionPageDto.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectAMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> operationsService.getTransactionsPage(null, null, "not-a-cursor", 10));
+        assertThrows(InvalidCursorException.class, () -> operationsService.getTransactionsPage(null, null, "abc,1", 10));
+    }
+
+    @Test
+    void shouldStreamFilterTransactionsMappedToDto() {
+        String IBAN = "IBAN";
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, "");
+        TransactionDto transactionDto = new TransactionDto();
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionsEntity>>getArgument(2).accept(transactionsEntity);
+            return null;
+        }).when(transactionsService).streamFilterTransactions(eq(IBAN), eq(SortDirectionDto.DESC), any());
+        when(transactionMapper.toDto(eq(transactionsEntity))).thenReturn(transactionDto);
+        List<TransactionDto> streamed = new ArrayList<>();
+
+        operationsService.streamFilterTransactions(IBAN, SortDirectionDto.DESC, streamed::add);
+
+        assertEquals(1, streamed.size());
+        assertSame(transactionDto, streamed.get(0));
+    }
+
     @Test
     void shouldGetTransactionStatusInvalid_whenTransactionsNotExists() {
         String reference = "TxReference";
         ChannelDto channelDto = ChannelDto.ATM;
-        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(null);
+        when(transactionStatusCache.getTransaction(eq(reference))).thenReturn(null);
 
         TransactionStatusDto transactionStatusDto = operationsService.getTransactionsStatus(reference, channelDto);
 
-        verify(transactionsService).getTransactionByReference(eq(reference));
+        verify(transactionStatusCache).getTransaction(eq(reference));
         assertNotNull(transactionStatusDto);
         assertEquals(reference, transactionStatusDto.getReference());
         assertEquals(StatusDto.INVALID, transactionStatusDto.getStatus());
@@ -138,49 +465,99 @@ public class OperationsServiceTest {
     void shouldGetTransactionStatusSettled_whenTransactionsExistsAndDateIsBeforeToday() {
         String reference = "TxReference";
         ChannelDto channelDto = ChannelDto.ATM;
-        TransactionsEntity transactionsEntity = new TransactionsEntity(1, reference, "IBAN", Date.from(Instant.now().minusSeconds(86400)), BigDecimal.TEN, BigDecimal.ONE, "");
-        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(transactionsEntity);
+        TransactionSnapshot transactionSnapshot = new TransactionSnapshot(reference, "IBAN", LocalDate.now().minusDays(1).toEpochDay(), 1000, 100);
+        when(transactionStatusCache.getTransaction(eq(reference))).thenReturn(transactionSnapshot);
 
         TransactionStatusDto transactionStatusDto = operationsService.getTransactionsStatus(reference, channelDto);
 
-        verify(transactionsService).getTransactionByReference(eq(reference));
+        verify(transactionStatusCache).getTransaction(eq(reference));
         assertNotNull(transactionStatusDto);
         assertEquals(reference, transactionStatusDto.getReference());
         assertEquals(StatusDto.SETTLED, transactionStatusDto.getStatus());
-        assertEquals(transactionsEntity.getAmmount().subtract(transactionsEntity.getFee()).doubleValue(), transactionStatusDto.getAmmount().doubleValue());
+        assertEquals(9.0, transactionStatusDto.getAmmount().doubleValue());
     }
 
     @Test
     void shouldGetTransactionStatusPENDING_whenTransactionsExistsAndDateIsToday() {
         String reference = "TxReference";
         ChannelDto channelDto = ChannelDto.INTERNAL;
-        TransactionsEntity transactionsEntity = new TransactionsEntity(1, reference, "IBAN", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "");
-        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(transactionsEntity);
+        TransactionSnapshot transactionSnapshot = new TransactionSnapshot(reference, "IBAN", LocalDate.now().toEpochDay(), 1000, 100);
+        when(transactionStatusCache.getTransaction(eq(reference))).thenReturn(transactionSnapshot);
 
         TransactionStatusDto transactionStatusDto = operationsService.getTransactionsStatus(reference, channelDto);
 
-        verify(transactionsService).getTransactionByReference(eq(reference));
+        verify(transactionStatusCache).getTransaction(eq(reference));
         assertNotNull(transactionStatusDto);
         assertEquals(reference, transactionStatusDto.getReference());
         assertEquals(StatusDto.PENDING, transactionStatusDto.getStatus());
-        assertEquals(transactionsEntity.getAmmount().doubleValue(), transactionStatusDto.getAmmount().doubleValue());
-        assertEquals(transactionsEntity.getFee().doubleValue(), transactionStatusDto.getFee().doubleValue());
+        assertEquals(10.0, transactionStatusDto.getAmmount().doubleValue());
+        assertEquals(1.0, transactionStatusDto.getFee().doubleValue());
     }
 
     @Test
     void shouldGetTransactionStatusFUTURE_whenTransactionsExistsAndDateAfterToday() {
         String reference = "TxReference";
         ChannelDto channelDto = ChannelDto.CLIENT;
-        TransactionsEntity transactionsEntity = new TransactionsEntity(1, reference, "IBAN", Date.from(Instant.now().plusSeconds(86400)), BigDecimal.TEN, BigDecimal.ONE, "");
-        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(transactionsEntity);
+        TransactionSnapshot transactionSnapshot = new TransactionSnapshot(reference, "IBAN", LocalDate.now().plusDays(1).toEpochDay(), 1000, 100);
+        when(transactionStatusCache.getTransaction(eq(reference))).thenReturn(transactionSnapshot);
 
         TransactionStatusDto transactionStatusDto = operationsService.getTransactionsStatus(reference, channelDto);
 
-        verify(transactionsService).getTransactionByReference(eq(reference));
+        verify(transactionStatusCache).getTransaction(eq(reference));
         assertNotNull(transactionStatusDto);
         assertEquals(reference, transactionStatusDto.getReference());
         assertEquals(StatusDto.FUTURE, transactionStatusDto.getStatus());
-        assertEquals(transactionsEntity.getAmmount().subtract(transactionsEntity.getFee()).doubleValue(), transactionStatusDto.getAmmount().doubleValue());
+        assertEquals(9.0, transactionStatusDto.getAmmount().doubleValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetTransactionStatusFromTheProjection_whenTheReferenceIsThere() {
+        String reference = "TxReference";
+        TransactionSnapshot transactionSnapshot = new TransactionSnapshot(reference, "IBAN", LocalDate.now().minusDays(1).toEpochDay(), 1000, 100);
+        when(transactionProjectionService.getTransaction(eq(reference))).thenReturn(transactionSnapshot);
+
+        TransactionStatusDto transactionStatusDto = operationsService.getTransactionsStatus(reference, ChannelDto.CLIENT);
+
+        verifyNoInteractions(transactionStatusCache);
+        assertEquals(StatusDto.SETTLED, transactionStatusDto.getStatus());
+        assertEquals(9.0, transactionStatusDto.getAmmount().doubleValue());
+    }
+
+    @Test
+    void shouldGetTransactionStatusesInRequestOrder_withTheCacheAskedOnceForTheReferencesNotProjected() {
+        long yesterday = LocalDate.now().minusDays(1).toEpochDay();
+        TransactionSnapshot projected = new TransactionSnapshot("Projected", "IBAN", yesterday, 1000, 100);
+        when(transactionProjectionService.getTransaction(any())).thenAnswer(invocation -> "Projected".equals(invocation.getArgument(0)) ? projected : null);
+        when(transactionStatusCache.getTransactions(eq(new HashSet<>(Arrays.asList("Cached", "Pending", "Unknown")))))
+                .thenReturn(Collections.singletonMap("Cached", new TransactionSnapshot("Cached", "IBAN", LocalDate.now().plusDays(1).toEpochDay(), 2000, 0)));
+        TransactionDto pendingTransaction = new TransactionDto("Pending", "IBAN", null, BigDecimal.ONE, BigDecimal.ZERO, null);
+        when(writeBehindService.getPending(any())).thenAnswer(invocation -> "Pending".equals(invocation.getArgument(0)) ? pendingTransaction : null);
+        TransactionsEntity pendingEntity = new TransactionsEntity(null, "Pending", "IBAN", null, BigDecimal.ONE, BigDecimal.ZERO, null);
+        when(transactionMapper.toEntity(eq(pendingTransaction))).thenReturn(pendingEntity);
+        when(transactionMapper.toSnapshot(eq(pendingEntity))).thenReturn(new TransactionSnapshot("Pending", "IBAN", TransactionSnapshot.UNDATED, 100, 0));
+
+        List<TransactionStatusDto> transactionStatusDtoList = operationsService.getTransactionsStatuses(
+                Arrays.asList("Unknown", "Cached", "Projected", "Pending", "Cached"), ChannelDto.CLIENT);
+
+        verify(transactionStatusCache, never()).getTransaction(any());
+        assertEquals(5, transactionStatusDtoList.size());
+        assertEquals(Arrays.asList("Unknown", "Cached", "Projected", "Pending", "Cached"),
+                transactionStatusDtoList.stream().map(TransactionStatusDto::getReference).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(StatusDto.INVALID, StatusDto.FUTURE, StatusDto.SETTLED, StatusDto.PENDING, StatusDto.FUTURE),
+                transactionStatusDtoList.stream().map(TransactionStatusDto::getStatus).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldRejectABulkStatusRequest_whenItHasTooManyReferences() {
+        transactionsProperties.getBulkStatus().setMaxReferences(2);
+
+        assertThrows(TooManyReferencesException.class,
+                () -> operationsService.getTransactionsStatuses(Arrays.asList("A", "B", "C"), ChannelDto.CLIENT));
+        verifyNoInteractions(transactionStatusCache);
+    }
+
+    private static Object runLocked(InvocationOnMock invocation) {
+        ((Runnable) invocation.getArgument(1)).run();
+        return ((Supplier<?>) invocation.getArgument(2)).get();
+    }
+}
@@ -0,0 +1,170 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.RecordingSseEmitter;
+import com.rfc.transactions.event.TransactionEventSubscriber;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionEventDto;
+import com.rfc.transactions.model.dto.TransactionEventTypeDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionEventServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private static final LocalDate DAY = LocalDate.of(2020, 4, 1);
+
+    @Mock
+    private TransactionsService transactionsService;
+
+    private MutableClock clock;
+
+    private TransactionEventService transactionEventService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(DAY.atTime(LocalTime.of(23, 59)).atZone(ZONE).toInstant(), ZONE);
+        DayBoundary dayBoundary = new DayBoundary(clock);
+        transactionEventService = new TransactionEventService(new TransactionsProperties(), transactionsService, new TransactionMapper(clock),
+                new TransactionStatusEvaluator(dayBoundary), dayBoundary, Runnable::run);
+    }
+
+    @Test
+    void shouldPushTheCommittedTransactionsOfTheSubscribedAccount() {
+        RecordingSseEmitter emitter = subscribe("IBAN", ChannelDto.CLIENT);
+
+        transactionEventService.onTransactionsCreated(new TransactionsCreatedEvent(Arrays.asList(
+                entity("TxReference", "IBAN", DAY.plusDays(2)), entity("Other", "OTHER", DAY))));
+
+        List<TransactionEventDto> events = events(emitter);
+        assertEquals(1, events.size());
+        assertEquals(TransactionEventTypeDto.CREATED, events.get(0).getType());
+        assertEquals("TxReference", events.get(0).getReference());
+        assertEquals(StatusDto.FUTURE, events.get(0).getStatus());
+        assertNull(events.get(0).getPreviousStatus());
+        assertEquals(9.0, events.get(0).getAmmount().doubleValue());
+    }
+
+    @Test
+    void shouldPushTheStatusChangesOfTheNewDay_asEachChannelSeesThem() {
+        RecordingSseEmitter client = subscribe(null, ChannelDto.CLIENT);
+        RecordingSseEmitter atm = subscribe(null, ChannelDto.ATM);
+        List<TransactionsEntity> dated = Arrays.asList(entity("Today", "IBAN", DAY), entity("Tomorrow", "IBAN", DAY.plusDays(1)), entity("Later", "IBAN", DAY.plusDays(5)));
+        doAnswer(invocation -> {
+            dated.forEach(invocation.<Consumer<TransactionsEntity>>getArgument(3));
+            return null;
+        }).when(transactionsService).streamDatedTransactions(any(), any(), any(), any());
+
+        clock.advance(Duration.ofMinutes(1));
+        transactionEventService.walkDayBoundary();
+
+        verify(transactionsService).streamDatedTransactions(isNull(), eq(start(DAY)), eq(start(DAY.plusDays(2))), any());
+        List<TransactionEventDto> clientEvents = events(client);
+        assertEquals(Arrays.asList("Today", "Tomorrow"), clientEvents.stream().map(TransactionEventDto::getReference).collect(Collectors.toList()));
+        assertEquals(StatusDto.PENDING, clientEvents.get(0).getPreviousStatus());
+        assertEquals(StatusDto.SETTLED, clientEvents.get(0).getStatus());
+        assertEquals(StatusDto.FUTURE, clientEvents.get(1).getPreviousStatus());
+        assertEquals(StatusDto.PENDING, clientEvents.get(1).getStatus());
+        assertEquals(Arrays.asList("Today"), events(atm).stream().map(TransactionEventDto::getReference).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldWalkEveryDayOnce() {
+        subscribe(null, ChannelDto.CLIENT);
+
+        transactionEventService.walkDayBoundary();
+        clock.advance(Duration.ofMinutes(1));
+        transactionEventService.walkDayBoundary();
+        transactionEventService.walkDayBoundary();
+
+        verify(transactionsService, times(1)).streamDatedTransactions(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldWalkOnASenderThread() {
+        List<Runnable> tasks = new ArrayList<>();
+        DayBoundary dayBoundary = new DayBoundary(clock);
+        TransactionEventService eventService = new TransactionEventService(new TransactionsProperties(), transactionsService, new TransactionMapper(clock),
+                new TransactionStatusEvaluator(dayBoundary), dayBoundary, tasks::add);
+        eventService.add(new TransactionEventSubscriber(new RecordingSseEmitter(), null, ChannelDto.CLIENT, 10, Runnable::run));
+        clock.advance(Duration.ofMinutes(1));
+
+        eventService.walkDayBoundary();
+
+        verifyNoInteractions(transactionsService);
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        verify(transactionsService).streamDatedTransactions(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldDisconnectAFullSubscriber_insteadOfWaitingForIt() {
+        RecordingSseEmitter emitter = new RecordingSseEmitter();
+        TransactionEventSubscriber subscriber = new TransactionEventSubscriber(emitter, null, ChannelDto.CLIENT, 1, drain -> { });
+        transactionEventService.add(subscriber);
+        doAnswer(invocation -> {
+            Arrays.asList(entity("Today", "IBAN", DAY), entity("Tomorrow", "IBAN", DAY.plusDays(1))).forEach(invocation.<Consumer<TransactionsEntity>>getArgument(3));
+            return null;
+        }).when(transactionsService).streamDatedTransactions(any(), any(), any(), any());
+        clock.advance(Duration.ofMinutes(1));
+
+        transactionEventService.walkDayBoundary();
+
+        assertTrue(subscriber.isClosed());
+        assertTrue(emitter.isCompleted());
+        assertEquals(0, transactionEventService.getSubscriberCount());
+    }
+
+    @Test
+    void shouldNotReadTheTransactions_whenNobodyIsSubscribed() {
+        transactionEventService.onTransactionsCreated(new TransactionsCreatedEvent(Arrays.asList(entity("TxReference", "IBAN", DAY))));
+        clock.advance(Duration.ofMinutes(1));
+        transactionEventService.walkDayBoundary();
+
+        verifyNoInteractions(transactionsService);
+    }
+
+    private RecordingSseEmitter subscribe(String IBAN, ChannelDto channel) {
+        RecordingSseEmitter emitter = new RecordingSseEmitter();
+        transactionEventService.add(new TransactionEventSubscriber(emitter, IBAN, channel, 10, Runnable::run));
+        return emitter;
+    }
+
+    private static List<TransactionEventDto> events(RecordingSseEmitter emitter) {
+        return emitter.getSent().stream().map(TransactionEventDto.class::cast).collect(Collectors.toList());
+    }
+
+    private static Date start(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZONE).toInstant());
+    }
+
+    private static TransactionsEntity entity(String reference, String IBAN, LocalDate day) {
+        return new TransactionsEntity(1, reference, IBAN, Date.from(day.atTime(LocalTime.NOON).atZone(ZONE).toInstant()), BigDecimal.TEN, BigDecimal.ONE, "");
+    }
+}
@@ -0,0 +1,131 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.dto.ProjectionStatsDto;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransactionPageDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionProjectionServiceTest {
+
+    private static final String IBAN = "ES10123456789098765432";
+
+    @Mock
+    private TransactionsService transactionsService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionProjectionService transactionProjectionService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getProjection().setEnabled(true);
+        transactionsProperties.getProjection().setLoadChunkSize(2);
+        transactionProjectionService = new TransactionProjectionService(transactionsProperties, transactionsService, new TransactionMapper(Clock.systemDefaultZone()), meterRegistry);
+    }
+
+    @Test
+    void shouldServeTheStoredTransactions_onceItIsBuilt() {
+        stream(entity(1, "10.00"), entity(2, "5.00"), entity(3, "7.50"));
+
+        assertFalse(transactionProjectionService.isReady());
+        assertNull(transactionProjectionService.getTransaction("Tx-1"));
+        transactionProjectionService.start();
+
+        assertTrue(transactionProjectionService.isReady());
+        assertEquals(Arrays.asList("Tx-2", "Tx-3", "Tx-1"), references(transactionProjectionService.getFilterTransactions(IBAN, SortDirectionDto.ASC)));
+        assertEquals(1000, transactionProjectionService.getTransaction("Tx-1").getAmmount());
+        assertEquals(3.0, meterRegistry.get("transactions.projection.rows").gauge().value());
+        assertTrue(meterRegistry.get("transactions.projection.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void shouldKeepTheTransactionsCommittedDuringARebuild() {
+        doAnswer(invocation -> {
+            Consumer<TransactionsEntity> consumer = invocation.getArgument(2);
+            consumer.accept(entity(1, "10.00"));
+            transactionProjectionService.onTransactionsCreated(new TransactionsCreatedEvent(Collections.singletonList(entity(2, "5.00"))));
+            consumer.accept(entity(2, "5.00"));
+            return null;
+        }).when(transactionsService).streamFilterTransactions(isNull(), isNull(), any());
+
+        ProjectionStatsDto projectionStatsDto = transactionProjectionService.rebuild();
+        transactionProjectionService.onTransactionsCreated(new TransactionsCreatedEvent(Collections.singletonList(entity(3, "1.00"))));
+
+        assertTrue(projectionStatsDto.isReady());
+        assertEquals(2, projectionStatsDto.getTransactions());
+        assertEquals(1, projectionStatsDto.getAccounts());
+        assertEquals(Arrays.asList("Tx-1", "Tx-2", "Tx-3"), references(transactionProjectionService.getFilterTransactions(IBAN, null)));
+    }
+
+    @Test
+    void shouldReturnTheNextCursor_whenThePageIsFull() {
+        stream(entity(1, "10.00"), entity(2, "5.00"), entity(3, "7.50"));
+        transactionProjectionService.rebuild();
+
+        TransactionPageDto firstPage = transactionProjectionService.getTransactionsPage(IBAN, SortDirectionDto.DESC, null, 2);
+        TransactionPageDto lastPage = transactionProjectionService.getTransactionsPage(IBAN, SortDirectionDto.DESC, TransactionCursorDto.parse(firstPage.getNextCursor()), 2);
+
+        assertEquals(Arrays.asList("Tx-1", "Tx-3"), references(firstPage.getTransactions()));
+        assertEquals("7.50,3", firstPage.getNextCursor());
+        assertEquals(Collections.singletonList("Tx-2"), references(lastPage.getTransactions()));
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void shouldListAMissingFeeAsTheDatabaseDoes_whenTheRowIsRebuilt() {
+        stream(entity(1, "10.00"), new TransactionsEntity(2, "Tx-2", IBAN, null, new BigDecimal("5.00"), null, ""));
+
+        transactionProjectionService.rebuild();
+        List<TransactionDto> transactionDtoList = transactionProjectionService.getFilterTransactions(IBAN, null);
+
+        assertTrue(transactionProjectionService.isReady());
+        assertEquals(new BigDecimal("0.00"), transactionDtoList.get(0).getFee());
+        assertEquals(new BigDecimal("5.00"), transactionDtoList.get(1).getAmmount());
+        assertNull(transactionDtoList.get(1).getFee());
+        assertEquals(0, transactionProjectionService.getTransaction("Tx-2").getFee());
+    }
+
+    private void stream(TransactionsEntity... transactionsEntities) {
+        doAnswer(invocation -> {
+            Consumer<TransactionsEntity> consumer = invocation.getArgument(2);
+            for (TransactionsEntity transactionsEntity : transactionsEntities) {
+                consumer.accept(transactionsEntity);
+            }
+            return null;
+        }).when(transactionsService).streamFilterTransactions(isNull(), isNull(), any());
+    }
+
+    private static TransactionsEntity entity(int id, String ammount) {
+        return new TransactionsEntity(id, "Tx-" + id, IBAN, null, new BigDecimal(ammount), BigDecimal.ZERO, "");
+    }
+
+    private static List<String> references(List<TransactionDto> transactionDtoList) {
+        return transactionDtoList.stream().map(TransactionDto::getReference).collect(Collectors.toList());
+    }
+}
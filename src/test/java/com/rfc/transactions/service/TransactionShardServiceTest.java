@@ -0,0 +1,129 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionShardServiceTest {
+
+    private static int databases;
+
+    private TransactionShardService transactionShardService;
+
+    private List<TransactionsEntity> stored;
+
+    @BeforeEach
+    void setUp() {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getSharding().setEnabled(true);
+        transactionsProperties.getSharding().setShards(3);
+        transactionsProperties.getSharding().setUrl("jdbc:h2:mem:shard-test-" + databases++ + "-%d;DB_CLOSE_DELAY=-1");
+        transactionsProperties.getBatch().setChunkSize(4);
+        transactionShardService = new TransactionShardService(transactionsProperties);
+        Random random = new Random(3);
+        stored = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            stored.add(new TransactionsEntity("Tx-" + i, iban(i % 6), null, BigDecimal.valueOf(random.nextInt(2000), 2), BigDecimal.ZERO, null));
+        }
+        transactionShardService.saveTransactions(stored);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionShardService.stop();
+    }
+
+    @Test
+    void shouldStoreEveryAccountInOneShard_andUseThemAll() {
+        Map<Integer, Set<Integer>> shardsByAccount = stored.stream().collect(Collectors.groupingBy(t -> t.getAccountIBAN().hashCode(),
+                Collectors.mapping(t -> t.getId() % 3, Collectors.toSet())));
+
+        shardsByAccount.values().forEach(shards -> assertEquals(1, shards.size()));
+        assertEquals(3, shardsByAccount.values().stream().flatMap(Set::stream).distinct().count());
+        assertEquals(60, transactionShardService.count());
+        assertEquals(60, stored.stream().map(TransactionsEntity::getId).distinct().count());
+    }
+
+    @Test
+    void shouldFindReferencesInEveryShard() {
+        assertEquals("Tx-7", transactionShardService.getTransactionByReference("Tx-7").getReference());
+        assertNull(transactionShardService.getTransactionByReference("Tx-70"));
+        assertEquals(new HashSet<>(Arrays.asList("Tx-1", "Tx-2", "Tx-3", "Tx-59")),
+                transactionShardService.getExistingReferences(Arrays.asList("Tx-1", "Tx-2", "Tx-3", "Tx-60", "Tx-59", "Tx-61")));
+        assertEquals(new HashSet<>(Arrays.asList("Tx-4", "Tx-58")), transactionShardService.getTransactionsByReferences(Arrays.asList("Tx-4", "Tx-58", "Tx-62"))
+                .stream().map(TransactionsEntity::getReference).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldMergeTheShards_inTheRequestedOrder() {
+        for (SortDirectionDto sortAmmount : new SortDirectionDto[]{null, SortDirectionDto.ASC, SortDirectionDto.DESC}) {
+            List<String> expected = sorted(stored, sortAmmount);
+
+            assertEquals(expected, references(transactionShardService.getFilterTransactions(null, sortAmmount)));
+            List<TransactionsEntity> streamed = new ArrayList<>();
+            transactionShardService.streamFilterTransactions(null, sortAmmount, streamed::add);
+            assertEquals(expected, references(streamed));
+        }
+        List<TransactionsEntity> account = stored.stream().filter(t -> t.getAccountIBAN().equals(iban(2))).collect(Collectors.toList());
+        assertEquals(sorted(account, SortDirectionDto.DESC), references(transactionShardService.getFilterTransactions(iban(2), SortDirectionDto.DESC)));
+    }
+
+    @Test
+    void shouldPageAcrossTheShards() {
+        List<TransactionsEntity> paged = new ArrayList<>();
+        List<TransactionsEntity> page = transactionShardService.getTransactionsPage(null, SortDirectionDto.DESC, null, 7);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 7);
+            paged.addAll(page);
+            TransactionsEntity last = page.get(page.size() - 1);
+            page = transactionShardService.getTransactionsPage(null, SortDirectionDto.DESC, new TransactionCursorDto(last.getAmmount(), last.getId()), 7);
+        }
+
+        assertEquals(sorted(stored, SortDirectionDto.DESC), references(paged));
+    }
+
+    @Test
+    void shouldAssignIdsOfTheAccountShard_andStoreARepeatedCopyOnce() {
+        List<TransactionsEntity> transactionsEntityList = Arrays.asList(new TransactionsEntity("Tx-A", iban(0), null, BigDecimal.ONE, BigDecimal.ZERO, null),
+                new TransactionsEntity("Tx-B", iban(1), null, BigDecimal.ONE, BigDecimal.ZERO, null));
+        transactionShardService.assignIds(transactionsEntityList);
+        List<Integer> ids = transactionsEntityList.stream().map(TransactionsEntity::getId).collect(Collectors.toList());
+
+        transactionShardService.saveTransactions(transactionsEntityList);
+        transactionShardService.saveTransactions(transactionsEntityList);
+
+        assertEquals(ids, transactionsEntityList.stream().map(TransactionsEntity::getId).collect(Collectors.toList()));
+        assertEquals(ids.get(0) % 3, idOf(iban(0)) % 3);
+        assertEquals(62, transactionShardService.count());
+        assertEquals(ids.get(1), transactionShardService.getTransactionByReference("Tx-B").getId());
+    }
+
+    private int idOf(String IBAN) {
+        return stored.stream().filter(t -> t.getAccountIBAN().equals(IBAN)).findFirst().get().getId();
+    }
+
+    private static String iban(int account) {
+        return "ES" + account + "0123456789098765432";
+    }
+
+    private static List<String> sorted(List<TransactionsEntity> transactionsEntityList, SortDirectionDto sortAmmount) {
+        Comparator<TransactionsEntity> ascending = Comparator.comparing(TransactionsEntity::getAmmount).thenComparing(TransactionsEntity::getId);
+        Comparator<TransactionsEntity> comparator = sortAmmount == null ? Comparator.comparing(TransactionsEntity::getId)
+                : sortAmmount == SortDirectionDto.ASC ? ascending : ascending.reversed();
+        return references(transactionsEntityList.stream().sorted(comparator).collect(Collectors.toList()));
+    }
+
+    private static List<String> references(List<TransactionsEntity> transactionsEntityList) {
+        return transactionsEntityList.stream().map(TransactionsEntity::getReference).collect(Collectors.toList());
+    }
+}
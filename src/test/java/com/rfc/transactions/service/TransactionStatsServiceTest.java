@@ -0,0 +1,173 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.metrics.TransactionMetrics;
+import com.rfc.transactions.model.dto.StatsGroupDto;
+import com.rfc.transactions.model.dto.TransactionStatsDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.projection.TransactionRow;
+import com.rfc.transactions.stats.GroupStats;
+import com.rfc.transactions.stats.Summary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionStatsServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private static final LocalDate DAY = LocalDate.of(2020, 4, 1);
+
+    @Mock
+    private TransactionsService transactionsService;
+
+    @Mock
+    private TransactionProjectionService transactionProjectionService;
+
+    private TransactionStatsService transactionStatsService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(DAY.atStartOfDay(ZONE).toInstant(), ZONE);
+        transactionStatsService = new TransactionStatsService(new TransactionsProperties(), transactionsService, transactionProjectionService,
+                new DayBoundary(clock), new TransactionMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionStatsService.stop();
+    }
+
+    @Test
+    void shouldAskTheDatabasePerAccount_whenTheProjectionIsNotReady() {
+        Summary summary = new Summary(3, 1000, 100, 700, 200, 700, 700);
+        when(transactionsService.getAccountStats(eq("IBAN"), any(), any())).thenReturn(Collections.singletonList(new GroupStats("IBAN", GroupStats.NO_DAY, 3, summary, summary)));
+
+        List<TransactionStatsDto> transactionStatsDtoList = transactionStatsService.getStats(StatsGroupDto.IBAN, "IBAN", DAY, DAY.plusDays(1));
+
+        verify(transactionsService).getAccountStats("IBAN", start(DAY), start(DAY.plusDays(2)));
+        assertEquals(1, transactionStatsDtoList.size());
+        assertEquals("IBAN", transactionStatsDtoList.get(0).getAccountIBAN());
+        assertNull(transactionStatsDtoList.get(0).getDay());
+        assertEquals(new BigDecimal("10.00"), transactionStatsDtoList.get(0).getAmmount().getTotal());
+        assertEquals(new BigDecimal("3.33"), transactionStatsDtoList.get(0).getAmmount().getAverage());
+        assertEquals(new BigDecimal("2.00"), transactionStatsDtoList.get(0).getAmmount().getP50());
+    }
+
+    @Test
+    void shouldAggregateTheProjectionRowsInTheRange_whenItIsReady() {
+        List<TransactionRow> rows = Arrays.asList(row("IBAN", DAY, 100), row("IBAN", DAY.plusDays(1), 300), row("OTHER", DAY, 50),
+                row("IBAN", DAY.minusDays(1), 1000), row("IBAN", null, 2000));
+        when(transactionProjectionService.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<TransactionRow>>getArgument(1));
+            return null;
+        }).when(transactionProjectionService).forEachRow(isNull(), any());
+
+        List<TransactionStatsDto> byIban = transactionStatsService.getStats(StatsGroupDto.IBAN, null, DAY, null);
+        List<TransactionStatsDto> byDay = transactionStatsService.getStats(StatsGroupDto.DAY, null, null, null);
+
+        assertEquals(2, byIban.size());
+        assertEquals(2, byIban.get(0).getCount());
+        assertEquals(new BigDecimal("4.00"), byIban.get(0).getAmmount().getTotal());
+        assertEquals(new BigDecimal("0.50"), byIban.get(1).getAmmount().getMax());
+        assertEquals(Arrays.asList(DAY.minusDays(1), DAY, DAY.plusDays(1), null), Arrays.asList(byDay.get(0).getDay(), byDay.get(1).getDay(), byDay.get(2).getDay(), byDay.get(3).getDay()));
+        assertEquals(new BigDecimal("1.50"), byDay.get(1).getAmmount().getTotal());
+        assertEquals(new BigDecimal("0.75"), byDay.get(1).getAmmount().getAverage());
+        verifyNoMoreInteractions(transactionsService);
+    }
+
+    @Test
+    void shouldStreamTheRowsOfTheAccountInTheRange_whenGroupingByDayWithoutTheProjection() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionsEntity>>getArgument(3).accept(entity("IBAN", DAY, "1.00"));
+            return null;
+        }).when(transactionsService).streamDatedTransactions(any(), any(), any(), any());
+
+        List<TransactionStatsDto> transactionStatsDtoList = transactionStatsService.getStats(StatsGroupDto.DAY, "IBAN", DAY, DAY);
+
+        verify(transactionsService).streamDatedTransactions(eq("IBAN"), eq(start(DAY)), eq(start(DAY.plusDays(1))), any());
+        assertEquals(1, transactionStatsDtoList.size());
+        assertEquals(DAY, transactionStatsDtoList.get(0).getDay());
+        assertNull(transactionStatsDtoList.get(0).getAccountIBAN());
+        assertEquals(new BigDecimal("1.00"), transactionStatsDtoList.get(0).getAmmount().getTotal());
+    }
+
+    @Test
+    void shouldStreamEveryRowOfTheAccount_whenGroupingByDayWithoutRange() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionsEntity>>getArgument(2).accept(entity("IBAN", null, "1.00"));
+            return null;
+        }).when(transactionsService).streamFilterTransactions(eq("IBAN"), isNull(), any());
+
+        List<TransactionStatsDto> transactionStatsDtoList = transactionStatsService.getStats(StatsGroupDto.DAY, "IBAN", null, null);
+
+        assertEquals(1, transactionStatsDtoList.size());
+        assertNull(transactionStatsDtoList.get(0).getDay());
+        assertEquals(1, transactionStatsDtoList.get(0).getCount());
+    }
+
+    @Test
+    void shouldLeaveOutTheMissingAmmounts_whenStreamingTheRowsWithoutTheProjection() {
+        doAnswer(invocation -> {
+            Consumer<TransactionsEntity> consumer = invocation.getArgument(2);
+            consumer.accept(entity("IBAN", DAY, "1.00"));
+            consumer.accept(new TransactionsEntity(2, "Other", "IBAN", start(DAY), null, null, ""));
+            return null;
+        }).when(transactionsService).streamFilterTransactions(eq("IBAN"), isNull(), any());
+
+        List<TransactionStatsDto> transactionStatsDtoList = transactionStatsService.getStats(StatsGroupDto.DAY, "IBAN", null, null);
+
+        assertEquals(1, transactionStatsDtoList.size());
+        assertEquals(2, transactionStatsDtoList.get(0).getCount());
+        assertEquals(new BigDecimal("1.00"), transactionStatsDtoList.get(0).getAmmount().getAverage());
+        assertEquals(new BigDecimal("0.00"), transactionStatsDtoList.get(0).getFee().getMax());
+    }
+
+    @Test
+    void shouldHaveNoFeeSummary_whenTheDatabaseFindsNoFee() {
+        Summary ammount = new Summary(1, 100, 100, 100, 100, 100, 100);
+        when(transactionsService.getAccountStats(eq("IBAN"), any(), any())).thenReturn(Collections.singletonList(new GroupStats("IBAN", GroupStats.NO_DAY, 1, ammount, null)));
+
+        List<TransactionStatsDto> transactionStatsDtoList = transactionStatsService.getStats(StatsGroupDto.IBAN, "IBAN", null, null);
+
+        assertEquals(new BigDecimal("1.00"), transactionStatsDtoList.get(0).getAmmount().getTotal());
+        assertNull(transactionStatsDtoList.get(0).getFee());
+    }
+
+    private static Date start(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZONE).toInstant());
+    }
+
+    private static TransactionRow row(String IBAN, LocalDate day, long ammount) {
+        return new TransactionRow(1, "TxReference", IBAN, Objects.isNull(day) ? TransactionRow.UNDATED : start(day).getTime() + 1, ammount, 0, null);
+    }
+
+    private static TransactionsEntity entity(String IBAN, LocalDate day, String ammount) {
+        return new TransactionsEntity(1, "TxReference", IBAN, Objects.isNull(day) ? null : Date.from(day.atTime(LocalTime.NOON).atZone(ZONE).toInstant()),
+                new BigDecimal(ammount), BigDecimal.ZERO, "");
+    }
+}
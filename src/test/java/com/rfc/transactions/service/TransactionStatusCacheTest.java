@@ -0,0 +1,131 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.event.TransactionDeletedEvent;
+import com.rfc.transactions.event.TransactionsCreatedEvent;
+import com.rfc.transactions.mapper.TransactionMapper;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionStatusCacheTest {
+
+    @Mock
+    private TransactionsService transactionsService;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private TransactionStatusCache transactionStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getStatusCache().setMaximumSize(2);
+        transactionsProperties.getStatusCache().setExpireAfterWrite(Duration.ofMinutes(10));
+        transactionsProperties.getStatusCache().setNegativeExpireAfterWrite(Duration.ofSeconds(30));
+        transactionStatusCache = new TransactionStatusCache(transactionsProperties, transactionsService, new TransactionMapper(Clock.systemDefaultZone()), new SimpleMeterRegistry(), nanos::get);
+    }
+
+    @Test
+    void shouldLoadATransactionOnceAndServeTheNextLookupsFromCache() {
+        String reference = "TxReference";
+        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(entity(reference));
+
+        TransactionSnapshot first = transactionStatusCache.getTransaction(reference);
+        TransactionSnapshot second = transactionStatusCache.getTransaction(reference);
+
+        verify(transactionsService, times(1)).getTransactionByReference(eq(reference));
+        assertEquals(reference, first.getReference());
+        assertSame(first, second);
+        assertEquals(1, transactionStatusCache.getStats().hitCount());
+        assertEquals(1, transactionStatusCache.getStats().missCount());
+    }
+
+    @Test
+    void shouldRememberUnknownReferencesUntilTheNegativeEntryExpires() {
+        String reference = "Unknown";
+        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(null);
+
+        assertNull(transactionStatusCache.getTransaction(reference));
+        assertNull(transactionStatusCache.getTransaction(reference));
+        verify(transactionsService, times(1)).getTransactionByReference(eq(reference));
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertNull(transactionStatusCache.getTransaction(reference));
+        verify(transactionsService, times(2)).getTransactionByReference(eq(reference));
+    }
+
+    @Test
+    void shouldReplaceAnUnknownReference_whenTheTransactionIsCreated() {
+        String reference = "TxReference";
+        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(null);
+        assertNull(transactionStatusCache.getTransaction(reference));
+
+        transactionStatusCache.onTransactionsCreated(new TransactionsCreatedEvent(Collections.singletonList(entity(reference))));
+
+        TransactionSnapshot transactionSnapshot = transactionStatusCache.getTransaction(reference);
+        assertNotNull(transactionSnapshot);
+        assertEquals(1000, transactionSnapshot.getAmmount());
+        verify(transactionsService, times(1)).getTransactionByReference(eq(reference));
+    }
+
+    @Test
+    void shouldLoadTheReferenceAgain_whenTheTransactionIsDeleted() {
+        String reference = "TxReference";
+        when(transactionsService.getTransactionByReference(eq(reference))).thenReturn(entity(reference), (TransactionsEntity) null);
+        assertNotNull(transactionStatusCache.getTransaction(reference));
+
+        transactionStatusCache.onTransactionDeleted(new TransactionDeletedEvent(reference));
+
+        assertNull(transactionStatusCache.getTransaction(reference));
+        verify(transactionsService, times(2)).getTransactionByReference(eq(reference));
+    }
+
+    @Test
+    void shouldLoadOnlyTheMissingReferencesTogether_whenManyAreRequested() {
+        when(transactionsService.getTransactionByReference(eq("Cached"))).thenReturn(entity("Cached"));
+        when(transactionsService.getTransactionsByReferences(eq(Collections.singletonList("Unknown")))).thenReturn(Collections.emptyList());
+        transactionStatusCache.getTransaction("Cached");
+
+        Map<String, TransactionSnapshot> first = transactionStatusCache.getTransactions(Arrays.asList("Cached", "Unknown"));
+        Map<String, TransactionSnapshot> second = transactionStatusCache.getTransactions(Arrays.asList("Cached", "Unknown"));
+
+        verify(transactionsService, times(1)).getTransactionsByReferences(anyList());
+        assertEquals(Collections.singleton("Cached"), first.keySet());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void shouldEvictEntries_whenTheMaximumSizeIsReached() {
+        for (int i = 0; i < 10; i++) {
+            transactionStatusCache.onTransactionsCreated(new TransactionsCreatedEvent(Collections.singletonList(entity("TxReference" + i))));
+        }
+
+        assertTrue(transactionStatusCache.getStats().evictionCount() >= 8);
+    }
+
+    private TransactionsEntity entity(String reference) {
+        return new TransactionsEntity(1, reference, "IBAN", Date.from(Instant.now()), BigDecimal.TEN, BigDecimal.ONE, "");
+    }
+}
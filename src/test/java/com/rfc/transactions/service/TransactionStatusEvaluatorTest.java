@@ -0,0 +1,84 @@
+package com.rfc.transactions.service;
+
+import com.rfc.transactions.model.dto.ChannelDto;
+import com.rfc.transactions.model.dto.StatusDto;
+import com.rfc.transactions.model.dto.TransactionStatusDto;
+import com.rfc.transactions.model.snapshot.TransactionSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionStatusEvaluatorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private static final LocalDate DAY = LocalDate.of(2020, 4, 1);
+
+    private MutableClock clock;
+
+    private TransactionStatusEvaluator transactionStatusEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(DAY.plusDays(1).atStartOfDay(ZONE).toInstant().minusMillis(1), ZONE);
+        transactionStatusEvaluator = new TransactionStatusEvaluator(new DayBoundary(clock));
+    }
+
+    @Test
+    void shouldReturnInvalid_whenThereIsNoTransaction() {
+        TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate("TxReference", null, ChannelDto.CLIENT);
+
+        assertEquals("TxReference", transactionStatusDto.getReference());
+        assertEquals(StatusDto.INVALID, transactionStatusDto.getStatus());
+        assertNull(transactionStatusDto.getAmmount());
+    }
+
+    @Test
+    void shouldChangeStatus_whenTheClockCrossesMidnight() {
+        TransactionSnapshot today = snapshot(DAY.toEpochDay());
+        TransactionSnapshot tomorrow = snapshot(DAY.plusDays(1).toEpochDay());
+
+        assertEquals(StatusDto.PENDING, transactionStatusEvaluator.evaluate("Today", today, ChannelDto.CLIENT).getStatus());
+        assertEquals(StatusDto.FUTURE, transactionStatusEvaluator.evaluate("Tomorrow", tomorrow, ChannelDto.CLIENT).getStatus());
+
+        clock.advance(Duration.ofMillis(1));
+
+        assertEquals(StatusDto.SETTLED, transactionStatusEvaluator.evaluate("Today", today, ChannelDto.CLIENT).getStatus());
+        assertEquals(StatusDto.PENDING, transactionStatusEvaluator.evaluate("Tomorrow", tomorrow, ChannelDto.CLIENT).getStatus());
+    }
+
+    @Test
+    void shouldReturnPending_whenFutureTransactionIsAskedByAtm() {
+        TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate("TxReference", snapshot(DAY.plusDays(3).toEpochDay()), ChannelDto.ATM);
+
+        assertEquals(StatusDto.PENDING, transactionStatusDto.getStatus());
+        assertEquals(new BigDecimal("9.00"), transactionStatusDto.getAmmount());
+        assertNull(transactionStatusDto.getFee());
+    }
+
+    @Test
+    void shouldReturnAmmountAndFee_whenChannelIsInternal() {
+        TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate("TxReference", snapshot(DAY.minusDays(3).toEpochDay()), ChannelDto.INTERNAL);
+
+        assertEquals(StatusDto.SETTLED, transactionStatusDto.getStatus());
+        assertEquals(new BigDecimal("10.00"), transactionStatusDto.getAmmount());
+        assertEquals(new BigDecimal("1.00"), transactionStatusDto.getFee());
+    }
+
+    @Test
+    void shouldReturnPending_whenTransactionHasNoDate() {
+        TransactionStatusDto transactionStatusDto = transactionStatusEvaluator.evaluate("TxReference", snapshot(TransactionSnapshot.UNDATED), ChannelDto.CLIENT);
+
+        assertEquals(StatusDto.PENDING, transactionStatusDto.getStatus());
+    }
+
+    private TransactionSnapshot snapshot(long epochDay) {
+        return new TransactionSnapshot("TxReference", "ES10123456789098765432", epochDay, 1000, 100);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rfc.transactions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.configuration.TransactionsProperties;
+import com.rfc.transactions.model.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionTransferServiceTest {
+
+    @Mock
+    private OperationsService operationsService;
+
+    private TransactionTransferService transactionTransferService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionsProperties transactionsProperties = new TransactionsProperties();
+        transactionsProperties.getTransfer().setChunkSize(4);
+        transactionsProperties.getTransfer().setProgressInterval(5);
+        transactionTransferService = new TransactionTransferService(transactionsProperties, operationsService, new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldApplyTheImportInChunks_andCountEveryRecord() throws IOException {
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(operationsService.createTransactions(any())).thenAnswer(invocation -> {
+            List<TransactionDto> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return chunk.stream().map(t -> new BatchItemResultDto(t.getReference(), t.getAmmount().signum() < 0 ? BatchItemStatusDto.REJECTED : BatchItemStatusDto.CREATED, null))
+                    .collect(Collectors.toList());
+        });
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            csv.append("Tx-").append(i).append(",ES10123456789098765432,,").append(i == 7 ? "-1" : "1").append(",0,\n");
+        }
+        csv.append("Tx-broken\n");
+
+        ImportResultDto importResultDto = transactionTransferService.importTransactions(channel(csv.toString()), TransferFormatDto.CSV);
+
+        assertEquals(List.of(4, 4, 2), chunkSizes);
+        assertEquals(11, importResultDto.getRecords());
+        assertEquals(9, importResultDto.getCreated());
+        assertEquals(2, importResultDto.getRejected());
+        assertEquals("Tx-7", importResultDto.getErrors().get(0).getReference());
+        assertEquals("Line 11: expected 6 fields but found 1", importResultDto.getErrors().get(1).getError());
+    }
+
+    @Test
+    void shouldReportTheFirstErrorsOnly() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            csv.append("broken\n");
+        }
+
+        ImportResultDto importResultDto = transactionTransferService.importTransactions(channel(csv.toString()), TransferFormatDto.CSV);
+
+        assertEquals(150, importResultDto.getRejected());
+        assertEquals(100, importResultDto.getErrors().size());
+        verify(operationsService, never()).createTransactions(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteEveryStreamedTransaction() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<TransactionDto> consumer = invocation.getArgument(2);
+            for (int i = 0; i < 3; i++) {
+                consumer.accept(new TransactionDto("Tx-" + i, "ES10123456789098765432", null, BigDecimal.ONE, BigDecimal.ZERO, null));
+            }
+            return null;
+        }).when(operationsService).streamFilterTransactions(eq("ES10123456789098765432"), isNull(), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long rows = transactionTransferService.exportTransactions("ES10123456789098765432", TransferFormatDto.NDJSON, outputStream);
+
+        assertEquals(3, rows);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"reference\":\"Tx-0\",\"accountIBAN\":\"ES10123456789098765432\",\"ammount\":1,\"fee\":0}", lines[0]);
+    }
+
+    private static ReadableByteChannel channel(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
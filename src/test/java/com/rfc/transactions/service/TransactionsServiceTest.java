@@ -1,27 +1,34 @@
 package com.rfc.transactions.service;
 
+import com.rfc.transactions.configuration.TransactionsProperties;
 import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
 import com.rfc.transactions.model.entity.TransactionsEntity;
 import com.rfc.transactions.repository.TransactionsRepository;
+import com.rfc.transactions.stats.GroupStats;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.time.Instant;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TransactionsServiceTest {
@@ -29,6 +36,18 @@ public class TransactionsServiceTest {
     @Mock
     private TransactionsRepository transactionsRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TransactionsProperties transactionsProperties;
+
+    @Mock
+    private TransactionShardService transactionShardService;
+
+    @Mock
+    private TransactionOutboxService transactionOutboxService;
+
     @InjectMocks
     private TransactionsService transactionsService;
 
@@ -65,6 +84,7 @@ public class TransactionsServiceTest {
         transactionEntitySaved = transactionsService.saveTransaction(transactionsEntityToSave);
 
         verify(transactionsRepository).save(any());
+        verify(transactionsRepository).flush();
         assertNotNull(transactionEntitySaved);
     }
 
@@ -90,4 +110,146 @@ public class TransactionsServiceTest {
         verify(transactionsRepository).findByAccountIBAN(eq(IBAN), any(Sort.class));
         assertNotNull(transactionsEntityList);
     }
+
+    @Test
+    void shouldSaveTransactionsInChunksAndClearThePersistenceContext() {
+        transactionsProperties.getBatch().setChunkSize(2);
+        List<TransactionsEntity> transactionsEntityList = Arrays.asList(new TransactionsEntity(), new TransactionsEntity(), new TransactionsEntity());
+
+        transactionsService.saveTransactions(transactionsEntityList);
+
+        verify(transactionsRepository, times(2)).saveAll(anyList());
+        verify(transactionsRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void shouldGetExistingReferencesInChunks() {
+        transactionsProperties.getBatch().setChunkSize(2);
+        List<String> references = IntStream.range(0, 5).mapToObj(i -> "TxReference" + i).collect(Collectors.toList());
+        when(transactionsRepository.findReferencesIn(anyCollection())).thenReturn(Collections.singletonList("TxReference1"), Collections.emptyList(), Collections.singletonList("TxReference4"));
+
+        Set<String> existingReferences = transactionsService.getExistingReferences(references);
+
+        verify(transactionsRepository, times(3)).findReferencesIn(anyCollection());
+        assertEquals(new HashSet<>(Arrays.asList("TxReference1", "TxReference4")), existingReferences);
+    }
+
+    @Test
+    void shouldGetTransactionsByReferencesInChunks() {
+        transactionsProperties.getBatch().setChunkSize(2);
+        List<String> references = IntStream.range(0, 3).mapToObj(i -> "TxReference" + i).collect(Collectors.toList());
+        TransactionsEntity transactionsEntity = new TransactionsEntity(1, "TxReference2", "IBAN", null, null, null, "");
+        when(transactionsRepository.findByReferenceIn(anyCollection())).thenReturn(Collections.emptyList(), Collections.singletonList(transactionsEntity));
+
+        List<TransactionsEntity> transactionsEntityList = transactionsService.getTransactionsByReferences(references);
+
+        verify(transactionsRepository, times(2)).findByReferenceIn(anyCollection());
+        assertEquals(Collections.singletonList(transactionsEntity), transactionsEntityList);
+    }
+
+    @Test
+    void shouldGetTheFirstTransactionPageSortedByAmmountAndId() {
+        String IBAN = "ES101234567890987654";
+        when(transactionsRepository.findByAccountIBAN(eq(IBAN), any(Pageable.class))).thenReturn(Arrays.asList(new TransactionsEntity()));
+
+        List<TransactionsEntity> transactionsEntityList = transactionsService.getTransactionsPage(IBAN, null, null, 10);
+
+        verify(transactionsRepository).findByAccountIBAN(eq(IBAN), argThat((Pageable pageable) -> pageable.getPageSize() == 10
+                && pageable.getSort().equals(Sort.by(Sort.Direction.ASC, "ammount", "id"))));
+        assertEquals(1, transactionsEntityList.size());
+    }
+
+    @Test
+    void shouldGetTheNextTransactionPageAfterTheCursor() {
+        TransactionCursorDto cursor = new TransactionCursorDto(BigDecimal.TEN, 4);
+        when(transactionsRepository.findAllAfter(eq(BigDecimal.TEN), eq(4), any(Pageable.class))).thenReturn(new ArrayList<>());
+
+        transactionsService.getTransactionsPage(null, SortDirectionDto.ASC, cursor, 10);
+
+        verify(transactionsRepository).findAllAfter(eq(BigDecimal.TEN), eq(4), any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetTheNextTransactionPageBeforeTheCursor_whenSortIsDescending() {
+        String IBAN = "ES101234567890987654";
+        TransactionCursorDto cursor = new TransactionCursorDto(BigDecimal.TEN, 4);
+        when(transactionsRepository.findByAccountIBANBefore(eq(IBAN), eq(BigDecimal.TEN), eq(4), any(Pageable.class))).thenReturn(new ArrayList<>());
+
+        transactionsService.getTransactionsPage(IBAN, SortDirectionDto.DESC, cursor, 10);
+
+        verify(transactionsRepository).findByAccountIBANBefore(eq(IBAN), eq(BigDecimal.TEN), eq(4), argThat((Pageable pageable) -> pageable.getSort().equals(Sort.by(Sort.Direction.DESC, "ammount", "id"))));
+    }
+
+    @Test
+    void shouldStreamFilterTransactionsAndDetachEveryRow() {
+        TransactionsEntity transactionsEntity1 = new TransactionsEntity();
+        TransactionsEntity transactionsEntity2 = new TransactionsEntity();
+        when(transactionsRepository.streamAllBy(any(Sort.class))).thenReturn(Stream.of(transactionsEntity1, transactionsEntity2));
+        List<TransactionsEntity> streamed = new ArrayList<>();
+
+        transactionsService.streamFilterTransactions(null, SortDirectionDto.ASC, streamed::add);
+
+        assertEquals(Arrays.asList(transactionsEntity1, transactionsEntity2), streamed);
+        verify(entityManager).detach(transactionsEntity1);
+        verify(entityManager).detach(transactionsEntity2);
+    }
+
+    @Test
+    void shouldStreamTheDatedTransactionsOfTheAccount_whenAnIbanIsGiven() {
+        Date from = new Date(1586476800000L);
+        Date to = new Date(1586563200000L);
+        TransactionsEntity transactionsEntity = new TransactionsEntity();
+        when(transactionsRepository.streamByAccountIBANDatedBetween(eq("ES101234567890987654"), eq(from), eq(to))).thenReturn(Stream.of(transactionsEntity));
+        List<TransactionsEntity> streamed = new ArrayList<>();
+
+        transactionsService.streamDatedTransactions("ES101234567890987654", from, to, streamed::add);
+
+        assertEquals(Collections.singletonList(transactionsEntity), streamed);
+        verify(transactionsRepository, never()).streamDatedBetween(any(), any());
+        verify(entityManager).detach(transactionsEntity);
+    }
+
+    @Test
+    void shouldUseTheShards_whenShardingIsEnabled() {
+        TransactionsEntity transactionsEntity = new TransactionsEntity("TxReference", "ES101234567890987654", null, BigDecimal.ONE, BigDecimal.ZERO, null);
+        when(transactionShardService.isEnabled()).thenReturn(true);
+        when(transactionOutboxService.saveTransactions(eq(Collections.singletonList(transactionsEntity)))).thenReturn(Collections.singletonList(transactionsEntity));
+        when(transactionShardService.getFilterTransactions(eq("ES101234567890987654"), eq(SortDirectionDto.DESC))).thenReturn(Collections.singletonList(transactionsEntity));
+
+        assertSame(transactionsEntity, transactionsService.saveTransaction(transactionsEntity));
+        assertEquals(Collections.singletonList(transactionsEntity), transactionsService.getFilterTransactions("ES101234567890987654", SortDirectionDto.DESC));
+        verify(transactionOutboxService).copyPending("ES101234567890987654");
+        verifyNoInteractions(transactionsRepository);
+    }
+
+    @Test
+    void shouldAggregateTheAccountsWithTheDatabase() {
+        Object[] row = {"ES101234567890987654", 2L, 2L, new BigDecimal("3.00"), BigDecimal.ONE, new BigDecimal("2.00"), BigDecimal.ONE, new BigDecimal("2.00"), new BigDecimal("2.00"),
+                0L, null, null, null, null, null, null};
+        when(transactionsRepository.aggregateByAccount(eq(""), eq(false), any(), any())).thenReturn(Collections.singletonList(row));
+
+        List<GroupStats> groupStatsList = transactionsService.getAccountStats(null, null, null);
+
+        assertEquals(1, groupStatsList.size());
+        assertEquals("ES101234567890987654", groupStatsList.get(0).getAccountIBAN());
+        assertEquals(2, groupStatsList.get(0).getCount());
+        assertEquals(300, groupStatsList.get(0).getAmmount().getTotal());
+        assertEquals(200, groupStatsList.get(0).getAmmount().getP99());
+        assertNull(groupStatsList.get(0).getFee());
+    }
+
+    @Test
+    void shouldAggregateTheAccountsInTheShards_whenShardingIsEnabled() {
+        Date from = new Date(0);
+        Date to = new Date(1000);
+        when(transactionShardService.isEnabled()).thenReturn(true);
+
+        transactionsService.getAccountStats("ES101234567890987654", from, to);
+
+        InOrder inOrder = inOrder(transactionOutboxService, transactionShardService);
+        inOrder.verify(transactionOutboxService).copyPending("ES101234567890987654");
+        inOrder.verify(transactionShardService).getAccountStats("ES101234567890987654", from, to);
+        verifyNoInteractions(transactionsRepository);
+    }
 }
@@ -0,0 +1,44 @@
+package com.rfc.transactions.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MergingIteratorTest {
+
+    @Test
+    void shouldMergeSortedSources_inOrder() {
+        List<Iterator<Integer>> sources = Arrays.asList(
+                Arrays.asList(1, 4, 7, 10).iterator(),
+                Collections.<Integer>emptyIterator(),
+                Arrays.asList(2, 3, 11).iterator(),
+                Arrays.asList(5, 6, 8, 9).iterator());
+        List<Integer> merged = new ArrayList<>();
+
+        new MergingIterator<>(sources, Comparator.<Integer>naturalOrder()).forEachRemaining(merged::add);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), merged);
+    }
+
+    @Test
+    void shouldKeepTheSourceOrder_whenElementsAreEqual() {
+        List<Iterator<String>> sources = Arrays.asList(
+                Arrays.asList("a1", "b1").iterator(),
+                Arrays.asList("a2", "b2").iterator());
+        List<String> merged = new ArrayList<>();
+
+        new MergingIterator<>(sources, Comparator.comparing((String s) -> s.charAt(0))).forEachRemaining(merged::add);
+
+        assertEquals(Arrays.asList("a1", "a2", "b1", "b2"), merged);
+    }
+
+    @Test
+    void shouldBeEmpty_whenThereAreNoSources() {
+        MergingIterator<Integer> mergingIterator = new MergingIterator<>(Collections.<Iterator<Integer>>emptyList(), Comparator.naturalOrder());
+
+        assertFalse(mergingIterator.hasNext());
+        assertThrows(NoSuchElementException.class, mergingIterator::next);
+    }
+}
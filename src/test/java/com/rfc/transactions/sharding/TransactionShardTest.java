@@ -0,0 +1,185 @@
+package com.rfc.transactions.sharding;
+
+import com.rfc.transactions.model.dto.SortDirectionDto;
+import com.rfc.transactions.model.dto.TransactionCursorDto;
+import com.rfc.transactions.model.entity.TransactionsEntity;
+import com.rfc.transactions.stats.GroupStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionShardTest {
+
+    private static final String IBAN = "ES10123456789098765432";
+
+    @TempDir
+    Path directory;
+
+    private TransactionShard transactionShard;
+
+    @AfterEach
+    void tearDown() {
+        if (transactionShard != null) {
+            transactionShard.close();
+        }
+    }
+
+    @Test
+    void shouldGiveIdsOfItsOwnResidueClass_andGoOnAfterAReopen() {
+        transactionShard = open();
+        List<TransactionsEntity> first = Arrays.asList(entity("Tx-1", IBAN, "10.00"), entity("Tx-2", IBAN, "5.00"));
+        transactionShard.insert(first, 1);
+        transactionShard.close();
+
+        transactionShard = open();
+        TransactionsEntity second = entity("Tx-3", IBAN, "1.00");
+        transactionShard.insert(Collections.singletonList(second), 10);
+
+        assertEquals(Arrays.asList(6, 10), first.stream().map(TransactionsEntity::getId).collect(Collectors.toList()));
+        assertEquals(14, second.getId());
+        assertEquals(3, transactionShard.count());
+        TransactionsEntity stored = transactionShard.findByReference("Tx-1");
+        assertEquals(IBAN, stored.getAccountIBAN());
+        assertEquals(new Date(1586476800000L).getTime(), stored.getDate().getTime());
+        assertEquals(new BigDecimal("10.00"), stored.getAmmount());
+        assertNull(transactionShard.findByReference("Tx-4"));
+    }
+
+    @Test
+    void shouldInsertNothing_whenAReferenceIsDuplicated() {
+        transactionShard = open();
+        transactionShard.insert(Collections.singletonList(entity("Tx-1", IBAN, "10.00")), 10);
+
+        List<TransactionsEntity> transactionsEntityList = Arrays.asList(entity("Tx-2", IBAN, "1.00"), entity("Tx-1", IBAN, "2.00"));
+
+        assertThrows(DuplicateKeyException.class, () -> transactionShard.insert(transactionsEntityList, 10));
+        assertEquals(1, transactionShard.count());
+        assertNull(transactionsEntityList.get(0).getId());
+        assertEquals(Collections.singletonList("Tx-1"), transactionShard.findReferencesIn(Arrays.asList("Tx-1", "Tx-2")));
+    }
+
+    @Test
+    void shouldFindInOrder_afterTheCursor() {
+        transactionShard = open();
+        transactionShard.insert(Arrays.asList(entity("Tx-1", IBAN, "10.00"), entity("Tx-2", IBAN, "5.00"), entity("Tx-3", IBAN, "5.00"),
+                entity("Tx-4", "ES20123456789098765432", "7.00")), 10);
+
+        assertEquals(Arrays.asList("Tx-1", "Tx-2", "Tx-3", "Tx-4"), references(transactionShard.find(null, null, null, null)));
+        assertEquals(Arrays.asList("Tx-2", "Tx-3", "Tx-1"), references(transactionShard.find(IBAN, SortDirectionDto.ASC, null, null)));
+        assertEquals(Arrays.asList("Tx-1", "Tx-4"), references(transactionShard.find(null, SortDirectionDto.DESC, null, 2)));
+        TransactionsEntity second = transactionShard.findByReference("Tx-2");
+        assertEquals(Arrays.asList("Tx-3", "Tx-4"), references(transactionShard.find(null, SortDirectionDto.ASC, new TransactionCursorDto(second.getAmmount(), second.getId()), 2)));
+        assertEquals(Collections.emptyList(), references(transactionShard.find(IBAN, SortDirectionDto.DESC, new TransactionCursorDto(second.getAmmount(), second.getId()), 2)));
+    }
+
+    @Test
+    void shouldIterateTheCursor() {
+        transactionShard = open();
+        transactionShard.insert(Arrays.asList(entity("Tx-1", IBAN, "10.00"), entity("Tx-2", IBAN, "5.00")), 10);
+
+        List<String> streamed = new ArrayList<>();
+        try (TransactionShard.RowCursor rowCursor = transactionShard.open(IBAN, SortDirectionDto.DESC)) {
+            rowCursor.forEachRemaining(t -> streamed.add(t.getReference()));
+        }
+
+        assertEquals(Arrays.asList("Tx-1", "Tx-2"), streamed);
+    }
+
+    @Test
+    void shouldWriteRowsWithAnIdOnce_andNotHandOutReservedIds() {
+        transactionShard = open();
+        TransactionsEntity copied = entity("Tx-1", IBAN, "10.00");
+        copied.setId(transactionShard.nextId());
+        transactionShard.insert(Collections.singletonList(copied), 10);
+        transactionShard.insert(Arrays.asList(copied, entity("Tx-2", IBAN, "5.00")), 10);
+        transactionShard.reserve(42);
+        TransactionsEntity next = entity("Tx-3", IBAN, "1.00");
+        transactionShard.insert(Collections.singletonList(next), 10);
+
+        assertEquals(6, copied.getId());
+        assertEquals(3, transactionShard.count());
+        assertEquals(Arrays.asList("Tx-1", "Tx-2", "Tx-3"), references(transactionShard.find(null, null, null, null)));
+        assertEquals(46, next.getId());
+    }
+
+    @Test
+    void shouldReadTheTransactionsOfADateRangeByDate() {
+        transactionShard = open();
+        long day = 86_400_000L;
+        TransactionsEntity later = entity("Tx-1", IBAN, "1.00");
+        later.setDate(new Date(1586476800000L + day));
+        TransactionsEntity outside = entity("Tx-3", IBAN, "3.00");
+        outside.setDate(new Date(1586476800000L + 2 * day));
+        transactionShard.insert(Arrays.asList(later, entity("Tx-2", IBAN, "2.00"), outside, new TransactionsEntity("Tx-4", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, null)), 10);
+        transactionShard.insert(Collections.singletonList(entity("Tx-5", "ES101234567890987655", "5.00")), 10);
+
+        List<TransactionsEntity> dated = new ArrayList<>();
+        try (TransactionShard.RowCursor cursor = transactionShard.openDated(null, new Date(1586476800000L), new Date(1586476800000L + 2 * day))) {
+            cursor.forEachRemaining(dated::add);
+        }
+        List<TransactionsEntity> accountDated = new ArrayList<>();
+        try (TransactionShard.RowCursor cursor = transactionShard.openDated(IBAN, new Date(1586476800000L), new Date(1586476800000L + 2 * day))) {
+            cursor.forEachRemaining(accountDated::add);
+        }
+
+        assertEquals(Arrays.asList("Tx-2", "Tx-5", "Tx-1"), references(dated));
+        assertEquals(Arrays.asList("Tx-2", "Tx-1"), references(accountDated));
+    }
+
+    @Test
+    void shouldOrderLikeTheDatabase() {
+        TransactionsEntity small = new TransactionsEntity(9, "Tx-1", IBAN, null, BigDecimal.ONE, BigDecimal.ZERO, null);
+        TransactionsEntity large = new TransactionsEntity(3, "Tx-2", IBAN, null, BigDecimal.TEN, BigDecimal.ZERO, null);
+        TransactionsEntity largeLater = new TransactionsEntity(4, "Tx-3", IBAN, null, BigDecimal.TEN, BigDecimal.ZERO, null);
+        List<TransactionsEntity> transactionsEntityList = new ArrayList<>(Arrays.asList(small, large, largeLater));
+
+        transactionsEntityList.sort(TransactionShard.order(null));
+        assertEquals(Arrays.asList(large, largeLater, small), transactionsEntityList);
+        transactionsEntityList.sort(TransactionShard.order(SortDirectionDto.ASC));
+        assertEquals(Arrays.asList(small, large, largeLater), transactionsEntityList);
+        transactionsEntityList.sort(TransactionShard.order(SortDirectionDto.DESC));
+        assertEquals(Arrays.asList(largeLater, large, small), transactionsEntityList);
+    }
+
+    @Test
+    void shouldAggregateEveryAccountOfTheShard_withTheDatabase() {
+        transactionShard = open();
+        transactionShard.insert(Arrays.asList(entity("Tx-1", IBAN, "10.00"), entity("Tx-2", IBAN, "5.00"), entity("Tx-3", IBAN, "-1.00"),
+                entity("Tx-4", "OTHER", "2.50")), 10);
+
+        List<GroupStats> groupStatsList = transactionShard.aggregateByAccount(null, null, null);
+        List<GroupStats> dated = transactionShard.aggregateByAccount(IBAN, new Date(1586476800000L), new Date(1586476800001L));
+        List<GroupStats> undated = transactionShard.aggregateByAccount(IBAN, new Date(0), new Date(1586476800000L));
+
+        assertEquals(Arrays.asList(IBAN, "OTHER"), groupStatsList.stream().map(GroupStats::getAccountIBAN).collect(Collectors.toList()));
+        assertEquals(3, groupStatsList.get(0).getCount());
+        assertEquals(1400, groupStatsList.get(0).getAmmount().getTotal());
+        assertEquals(-100, groupStatsList.get(0).getAmmount().getMin());
+        assertEquals(500, groupStatsList.get(0).getAmmount().getP50());
+        assertEquals(1000, groupStatsList.get(0).getAmmount().getP90());
+        assertEquals(0, groupStatsList.get(0).getFee().getTotal());
+        assertEquals(250, groupStatsList.get(1).getAmmount().getMax());
+        assertEquals(3, dated.get(0).getCount());
+        assertTrue(undated.isEmpty());
+    }
+
+    private TransactionShard open() {
+        return new TransactionShard(2, 4, "jdbc:h2:file:" + directory.resolve("shard").toAbsolutePath(), 2);
+    }
+
+    private static TransactionsEntity entity(String reference, String IBAN, String ammount) {
+        return new TransactionsEntity(reference, IBAN, new Date(1586476800000L), new BigDecimal(ammount), BigDecimal.ZERO, "Description");
+    }
+
+    private static List<String> references(List<TransactionsEntity> transactionsEntityList) {
+        return transactionsEntityList.stream().map(TransactionsEntity::getReference).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,164 @@
+package com.rfc.transactions.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsAggregatorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    private final StatsAggregator statsAggregator = new StatsAggregator(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldSummarizeEveryAccount_byIban() {
+        TransactionColumns columns = new TransactionColumns(0);
+        for (int i = 1; i <= 10; i++) {
+            columns.add("IBAN-B", TransactionColumns.UNDATED, i * 100, i);
+        }
+        columns.add("IBAN-A", TransactionColumns.UNDATED, -500, 0);
+        columns.add("IBAN-B", TransactionColumns.UNDATED, 10_000, 50);
+
+        List<GroupStats> groupStatsList = statsAggregator.byAccount(columns);
+
+        assertEquals(2, groupStatsList.size());
+        assertEquals("IBAN-A", groupStatsList.get(0).getAccountIBAN());
+        assertEquals(1, groupStatsList.get(0).getCount());
+        assertEquals(-500, groupStatsList.get(0).getAmmount().getP99());
+        GroupStats b = groupStatsList.get(1);
+        assertEquals(11, b.getCount());
+        assertEquals(GroupStats.NO_DAY, b.getEpochDay());
+        assertEquals(15_500, b.getAmmount().getTotal());
+        assertEquals(100, b.getAmmount().getMin());
+        assertEquals(10_000, b.getAmmount().getMax());
+        assertEquals(600, b.getAmmount().getP50());
+        assertEquals(1000, b.getAmmount().getP90());
+        assertEquals(10_000, b.getAmmount().getP99());
+        assertEquals(105, b.getFee().getTotal());
+        assertEquals(50, b.getFee().getMax());
+    }
+
+    @Test
+    void shouldSummarizeEveryDayOfTheZone_withTheUndatedLast() {
+        TransactionColumns columns = new TransactionColumns(0);
+        LocalDate day = LocalDate.of(2020, 3, 29);
+        columns.add("IBAN", millis(day, LocalTime.of(0, 30)), 100, 0);
+        columns.add("OTHER", millis(day, LocalTime.of(23, 30)), 300, 1);
+        columns.add("IBAN", millis(day.plusDays(3), LocalTime.NOON), 500, 2);
+        columns.add("IBAN", TransactionColumns.UNDATED, 700, 3);
+
+        List<GroupStats> groupStatsList = statsAggregator.byDay(columns, ZONE);
+
+        assertEquals(3, groupStatsList.size());
+        assertEquals(day.toEpochDay(), groupStatsList.get(0).getEpochDay());
+        assertNull(groupStatsList.get(0).getAccountIBAN());
+        assertEquals(2, groupStatsList.get(0).getCount());
+        assertEquals(400, groupStatsList.get(0).getAmmount().getTotal());
+        assertEquals(day.plusDays(3).toEpochDay(), groupStatsList.get(1).getEpochDay());
+        assertEquals(GroupStats.NO_DAY, groupStatsList.get(2).getEpochDay());
+        assertEquals(700, groupStatsList.get(2).getAmmount().getTotal());
+    }
+
+    @Test
+    void shouldGroupOnlyTheDaysWithTransactions_whenTheyAreFarApart() {
+        TransactionColumns columns = new TransactionColumns(0);
+        LocalDate first = LocalDate.of(1, 1, 1);
+        LocalDate last = LocalDate.of(9999, 12, 31);
+        columns.add("IBAN", millis(last, LocalTime.NOON), 300, 0);
+        columns.add("IBAN", millis(first, LocalTime.NOON), 100, 0);
+
+        List<GroupStats> groupStatsList = statsAggregator.byDay(columns, ZONE);
+
+        assertEquals(2, groupStatsList.size());
+        assertEquals(first.toEpochDay(), groupStatsList.get(0).getEpochDay());
+        assertEquals(100, groupStatsList.get(0).getAmmount().getTotal());
+        assertEquals(last.toEpochDay(), groupStatsList.get(1).getEpochDay());
+        assertEquals(300, groupStatsList.get(1).getAmmount().getTotal());
+    }
+
+    @Test
+    void shouldLeaveOutTheMissingValues_likeTheDatabase() {
+        TransactionColumns columns = new TransactionColumns(0);
+        columns.add("IBAN-A", TransactionColumns.UNDATED, 100, TransactionColumns.NO_AMOUNT);
+        columns.add("IBAN-A", TransactionColumns.UNDATED, TransactionColumns.NO_AMOUNT, 30);
+        columns.add("IBAN-A", TransactionColumns.UNDATED, 300, 10);
+        columns.add("IBAN-B", TransactionColumns.UNDATED, TransactionColumns.NO_AMOUNT, TransactionColumns.NO_AMOUNT);
+
+        List<GroupStats> groupStatsList = statsAggregator.byAccount(columns);
+
+        GroupStats a = groupStatsList.get(0);
+        assertEquals(3, a.getCount());
+        assertEquals(2, a.getAmmount().getCount());
+        assertEquals(400, a.getAmmount().getTotal());
+        assertEquals(100, a.getAmmount().getMin());
+        assertEquals(100, a.getAmmount().getP50());
+        assertEquals(2, a.getFee().getCount());
+        assertEquals(10, a.getFee().getMin());
+        assertEquals(30, a.getFee().getMax());
+        GroupStats b = groupStatsList.get(1);
+        assertEquals(1, b.getCount());
+        assertNull(b.getAmmount());
+        assertNull(b.getFee());
+    }
+
+    @Test
+    void shouldReturnNothing_whenThereAreNoTransactions() {
+        assertTrue(statsAggregator.byAccount(new TransactionColumns(0)).isEmpty());
+        assertTrue(statsAggregator.byDay(new TransactionColumns(0), ZONE).isEmpty());
+    }
+
+    @Test
+    void shouldMatchASequentialComputation_forLargeAndSmallGroups() {
+        Random random = new Random(7);
+        TransactionColumns columns = new TransactionColumns(0);
+        long[] big = new long[200_000];
+        for (int i = 0; i < big.length; i++) {
+            big[i] = random.nextInt(2_000_000) - 1_000_000;
+            columns.add("BIG", TransactionColumns.UNDATED, big[i], 0);
+            if (i % 100 == 0) {
+                columns.add("SMALL-" + (i % 7), TransactionColumns.UNDATED, i, 0);
+            }
+        }
+        Arrays.sort(big);
+
+        GroupStats groupStats = statsAggregator.byAccount(columns).get(0);
+
+        assertEquals("BIG", groupStats.getAccountIBAN());
+        assertEquals(Arrays.stream(big).sum(), groupStats.getAmmount().getTotal());
+        assertEquals(big[0], groupStats.getAmmount().getMin());
+        assertEquals(big[big.length - 1], groupStats.getAmmount().getMax());
+        assertEquals(big[99_999], groupStats.getAmmount().getP50());
+        assertEquals(big[179_999], groupStats.getAmmount().getP90());
+        assertEquals(big[197_999], groupStats.getAmmount().getP99());
+    }
+
+    @Test
+    void shouldComputeNearestRanks() {
+        assertEquals(0, StatsAggregator.rank(1, 500));
+        assertEquals(0, StatsAggregator.rank(1, 990));
+        assertEquals(1, StatsAggregator.rank(4, 500));
+        assertEquals(8, StatsAggregator.rank(10, 900));
+        assertEquals(9, StatsAggregator.rank(10, 990));
+        assertEquals(98, StatsAggregator.rank(100, 990));
+    }
+
+    private static long millis(LocalDate day, LocalTime time) {
+        return day.atTime(time).atZone(ZONE).toInstant().toEpochMilli();
+    }
+}
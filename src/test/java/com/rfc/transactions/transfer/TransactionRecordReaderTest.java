@@ -0,0 +1,120 @@
+package com.rfc.transactions.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.Exceptions.InvalidRecordException;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRecordReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldSplitLines_whenTheyCrossTheBufferBoundaries() throws IOException {
+        String content = "first line\r\n\nsecond line with ñ and €\nlast line without terminator";
+        LineReader lineReader = lineReader(content, 1024, 7);
+
+        assertEquals("first line", lineReader.readLine());
+        assertEquals("", lineReader.readLine());
+        assertEquals("second line with ñ and €", lineReader.readLine());
+        assertEquals("last line without terminator", lineReader.readLine());
+        assertEquals(4, lineReader.getLineNumber());
+        assertNull(lineReader.readLine());
+    }
+
+    @Test
+    void shouldMarkTheLineTruncated_whenItIsLongerThanTheLimit() throws IOException {
+        LineReader lineReader = lineReader("0123456789\nfits\n", 4, 3);
+
+        assertEquals("0123", lineReader.readLine());
+        assertTrue(lineReader.isTruncated());
+        assertEquals("fits", lineReader.readLine());
+        assertFalse(lineReader.isTruncated());
+    }
+
+    @Test
+    void shouldReadCsvRecords_withQuotedFieldsAndTheHeader() throws IOException {
+        String content = TransactionCsv.HEADER + "\n"
+                + "Tx-1,ES10123456789098765432,2020-04-10T10:00:00Z,10.50,0.50,\"Rent, April\"\n"
+                + ",ES10123456789098765432,,-3,0,\"Two\nlines and \"\"quotes\"\"\"\n"
+                + "Tx-3,ES10123456789098765432,,1,0,\"\"\n";
+        TransactionRecordReader transactionRecordReader = TransactionRecordReader.of(TransferFormatDto.CSV, lineReader(content, 1024, 16), objectMapper);
+
+        TransactionDto first = transactionRecordReader.next();
+        TransactionDto second = transactionRecordReader.next();
+        TransactionDto third = transactionRecordReader.next();
+
+        assertEquals("Tx-1", first.getReference());
+        assertEquals("ES10123456789098765432", first.getAccountIBAN());
+        assertEquals(Date.from(Instant.parse("2020-04-10T10:00:00Z")), first.getDate());
+        assertEquals(new BigDecimal("10.50"), first.getAmmount());
+        assertEquals(new BigDecimal("0.50"), first.getFee());
+        assertEquals("Rent, April", first.getDescription());
+        assertNull(second.getDate());
+        assertEquals("Two\nlines and \"quotes\"", second.getDescription());
+        assertEquals("", third.getDescription());
+        assertNull(transactionRecordReader.next());
+    }
+
+    @Test
+    void shouldRejectTheInvalidRecordAndGoOn() throws IOException {
+        String content = "Tx-1,ES10123456789098765432,,ten,0,\n"
+                + "Tx-2,ES10123456789098765432,10/04/2020,1,0,\n"
+                + "Tx-3,ES10123456789098765432\n"
+                + "Tx-4,ES10123456789098765432,,1,0,\n";
+        TransactionRecordReader transactionRecordReader = TransactionRecordReader.of(TransferFormatDto.CSV, lineReader(content, 1024, 16), objectMapper);
+
+        List<String> errors = new ArrayList<>();
+        TransactionDto transactionDto = null;
+        while (transactionDto == null) {
+            try {
+                transactionDto = transactionRecordReader.next();
+            } catch (InvalidRecordException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        assertEquals("Tx-4", transactionDto.getReference());
+        assertEquals(3, errors.size());
+        assertEquals("Line 1: ammount is not a number", errors.get(0));
+        assertTrue(errors.get(1).startsWith("Line 2: date must be an ISO-8601 instant"));
+        assertEquals("Line 3: expected 6 fields but found 2", errors.get(2));
+    }
+
+    @Test
+    void shouldReadNdjsonRecords_andRejectTheMalformedOnes() throws IOException {
+        String content = "{\"reference\":\"Tx-1\",\"accountIBAN\":\"ES10123456789098765432\",\"ammount\":10.5,\"fee\":0}\n"
+                + "\n"
+                + "{\"reference\":\"Tx-2\",\n"
+                + "null\n"
+                + "{\"reference\":\"Tx-3\",\"accountIBAN\":\"ES10123456789098765432\",\"ammount\":-1,\"fee\":0}";
+        TransactionRecordReader transactionRecordReader = TransactionRecordReader.of(TransferFormatDto.NDJSON, lineReader(content, 1024, 16), objectMapper);
+
+        assertEquals("Tx-1", transactionRecordReader.next().getReference());
+        InvalidRecordException truncated = assertThrows(InvalidRecordException.class, transactionRecordReader::next);
+        InvalidRecordException notAnObject = assertThrows(InvalidRecordException.class, transactionRecordReader::next);
+        TransactionDto last = transactionRecordReader.next();
+
+        assertTrue(truncated.getMessage().startsWith("Line 3: "));
+        assertEquals("Line 4: record is not a transaction object", notAnObject.getMessage());
+        assertEquals(new BigDecimal("-1"), last.getAmmount());
+        assertNull(transactionRecordReader.next());
+    }
+
+    private static LineReader lineReader(String content, int maxLength, int bufferSize) {
+        return new LineReader(Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))), maxLength, bufferSize);
+    }
+}
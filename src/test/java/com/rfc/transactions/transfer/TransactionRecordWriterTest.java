@@ -0,0 +1,70 @@
+package com.rfc.transactions.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rfc.transactions.model.dto.TransactionDto;
+import com.rfc.transactions.model.dto.TransferFormatDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRecordWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteCsvWithAHeaderAndQuoting() throws IOException {
+        String csv = write(TransferFormatDto.CSV, Arrays.asList(
+                new TransactionDto("Tx-1", "ES10123456789098765432", new Date(1586512800000L), new BigDecimal("10.50"), BigDecimal.ZERO, "Rent, \"April\""),
+                new TransactionDto("Tx-2", "ES10123456789098765432", null, new BigDecimal("-3"), BigDecimal.ONE, null)));
+
+        assertEquals(TransactionCsv.HEADER + "\n"
+                + "Tx-1,ES10123456789098765432,2020-04-10T10:00:00Z,10.50,0,\"Rent, \"\"April\"\"\"\n"
+                + "Tx-2,ES10123456789098765432,,-3,1,\n", csv);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormatDto.class)
+    void shouldReadBackWhatItWrites(TransferFormatDto format) throws IOException {
+        List<TransactionDto> transactionDtoList = Arrays.asList(
+                new TransactionDto("Tx-1", "ES10123456789098765432", new Date(1586512800123L), new BigDecimal("10.50"), new BigDecimal("0.25"), "Two\nlines, one \"quote\""),
+                new TransactionDto("Tx-2", "ES20123456789098765432", null, new BigDecimal("-3.00"), BigDecimal.ZERO, ""),
+                new TransactionDto("Tx-3", "ES20123456789098765432", null, BigDecimal.ONE, BigDecimal.ZERO, null));
+
+        String content = write(format, transactionDtoList);
+        TransactionRecordReader transactionRecordReader = TransactionRecordReader.of(format,
+                Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))), objectMapper);
+
+        for (TransactionDto expected : transactionDtoList) {
+            TransactionDto actual = transactionRecordReader.next();
+            assertEquals(expected.getReference(), actual.getReference());
+            assertEquals(expected.getAccountIBAN(), actual.getAccountIBAN());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(0, expected.getAmmount().compareTo(actual.getAmmount()));
+            assertEquals(0, expected.getFee().compareTo(actual.getFee()));
+            assertEquals(expected.getDescription(), actual.getDescription());
+        }
+        assertNull(transactionRecordReader.next());
+    }
+
+    private String write(TransferFormatDto format, List<TransactionDto> transactionDtoList) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (TransactionRecordWriter transactionRecordWriter = TransactionRecordWriter.of(format, outputStream, objectMapper)) {
+            for (TransactionDto transactionDto : transactionDtoList) {
+                transactionRecordWriter.write(transactionDto);
+            }
+        }
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rfc.transactions.utils;
+
+import com.rfc.transactions.Exceptions.AmountOutOfRangeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private static final int CASES = 100_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.01", "-0.01", "10", "10.5", "10.50", "-123456.78", "1E+3", "999999999999999.99", "-999999999999999.99"})
+    void shouldConvertToCentsAndBackWithoutLoss(String amount) {
+        BigDecimal decimal = new BigDecimal(amount);
+
+        assertEquals(0, decimal.compareTo(Money.toDecimal(Money.toMinor(decimal))));
+        assertEquals(Money.SCALE, Money.toDecimal(Money.toMinor(decimal)).scale());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.005", "0.004", "-0.005", "1.235", "1.2349999"})
+    void shouldRoundHalfUpToCents(String amount) {
+        BigDecimal decimal = new BigDecimal(amount);
+
+        assertEquals(decimal.setScale(Money.SCALE, RoundingMode.HALF_UP), Money.toDecimal(Money.toMinor(decimal)));
+    }
+
+    @Test
+    void shouldMatchBigDecimalArithmetic_forRandomAmounts() {
+        Random random = new Random(42);
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal balance = randomAmount(random);
+            BigDecimal ammount = randomAmount(random);
+            BigDecimal fee = randomAmount(random).abs();
+
+            BigDecimal expected = cents(balance).add(cents(ammount).subtract(cents(fee)));
+            long actual = Money.add(Money.toMinor(balance), Money.net(ammount, fee));
+
+            assertEquals(expected, Money.toDecimal(actual), () -> balance + " + " + ammount + " - " + fee);
+            assertEquals(expected.signum() <= 0, actual <= 0);
+        }
+    }
+
+    @Test
+    void shouldKeepTheSignOfTinyBalances_whereDoublesAreNotExact() {
+        BigDecimal balance = new BigDecimal("0.10");
+        BigDecimal ammount = new BigDecimal("0.20");
+        BigDecimal fee = new BigDecimal("0.30");
+
+        assertEquals(0, Money.add(Money.toMinor(balance), Money.net(ammount, fee)));
+    }
+
+    @Test
+    void shouldFail_whenTheSumOverflows() {
+        assertThrows(AmountOutOfRangeException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(AmountOutOfRangeException.class, () -> Money.add(Long.MIN_VALUE, -1));
+        assertThrows(AmountOutOfRangeException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        assertThrows(AmountOutOfRangeException.class, () -> Money.subtract(Long.MAX_VALUE, -1));
+        assertEquals(Long.MAX_VALUE, Money.add(Long.MAX_VALUE - 1, 1));
+        assertEquals(Long.MIN_VALUE, Money.subtract(Long.MIN_VALUE + 1, 1));
+    }
+
+    @Test
+    void shouldFail_whenTheAmountHasMoreThanEighteenDigits() {
+        assertThrows(AmountOutOfRangeException.class, () -> Money.toMinor(new BigDecimal("10000000000000000.00")));
+        assertEquals(999_999_999_999_999_999L, Money.toMinor(new BigDecimal("9999999999999999.99")));
+    }
+
+    private static BigDecimal cents(BigDecimal amount) {
+        return amount.setScale(Money.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal randomAmount(Random random) {
+        long unscaled = random.nextInt(4) == 0 ? random.nextLong() % 1_000_000_000_000_000L : random.nextInt(2_000_000) - 1_000_000;
+        return BigDecimal.valueOf(unscaled, random.nextInt(5));
+    }
+}
@@ -0,0 +1,56 @@
+package com.rfc.transactions.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceGeneratorTest {
+
+    @Test
+    void shouldGenerateVersion7Uuids() {
+        UUID uuid = UUID.fromString(ReferenceGenerator.next());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(Math.abs((uuid.getMostSignificantBits() >>> 16) - System.currentTimeMillis()) < 60_000);
+    }
+
+    @Test
+    void shouldGenerateIncreasingReferences() {
+        String previous = ReferenceGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            String next = ReferenceGenerator.next();
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void shouldNotRepeatReferences_whenGeneratedConcurrently() throws Exception {
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    references.add(ReferenceGenerator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        assertEquals(8 * 50_000, references.size());
+    }
+}